@@ -0,0 +1,305 @@
+package com.esotericsoftware.kryo.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Reports the bytes allocated per write and per read for each of Kryo's default serializers and the Kryo entry points, and
+ * compares them to a baseline. Allocations are counted with the thread's allocated bytes from
+ * {@link com.sun.management.ThreadMXBean}, after warming up so the JIT has compiled the code. The lowest of several rounds is
+ * reported, as a round during which the JIT is still compiling counts allocations that escape analysis later removes. Results
+ * depend on the JVM and its settings, eg compressed oops and escape analysis, so a baseline is only comparable on the JVM it was
+ * recorded with. The checked in baseline was recorded on Java 8, which Kryo is built with.
+ * <p>
+ * Usage: AllocationReport [-update] baselineFile<br>
+ * Without -update, the results are compared to the baseline and the exit code is 1 if any increased by more than
+ * {@link #tolerance} percent (and at least {@link #minimumIncrease} bytes). With -update, the baseline file is rewritten.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class AllocationReport {
+	static public final int warmupIterations = 20000, iterations = 100000, rounds = 5;
+	static public final int tolerance = 10, minimumIncrease = 8;
+
+	private final com.sun.management.ThreadMXBean threads;
+	private final long threadId = Thread.currentThread().getId();
+	private final Kryo kryo;
+	private final Output output = new Output(4096, -1);
+	private final Input input = new Input();
+
+	public AllocationReport () {
+		threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported())
+			throw new UnsupportedOperationException("The JVM doesn't support counting allocated bytes.");
+		threads.setThreadAllocatedMemoryEnabled(true);
+		kryo = new Kryo();
+		kryo.register(Data.class);
+		kryo.register(Serializable.class);
+	}
+
+	/** Returns the bytes allocated per write and read for each case, in the order of {@link #cases()}. */
+	public Map<String, long[]> run () {
+		Map<String, long[]> results = new LinkedHashMap();
+		for (final Case c : cases()) {
+			kryo.register(c.type);
+			long write = measure(new Runnable() {
+				public void run () {
+					output.clear();
+					c.write(kryo, output);
+				}
+			});
+			final byte[] bytes = output.toBytes();
+			input.setBuffer(bytes);
+			long read = measure(new Runnable() {
+				public void run () {
+					input.rewind();
+					c.read(kryo, input);
+				}
+			});
+			results.put(c.name, new long[] {write, read});
+		}
+		return results;
+	}
+
+	private long measure (Runnable operation) {
+		for (int i = 0; i < warmupIterations; i++)
+			operation.run();
+		long lowest = Long.MAX_VALUE;
+		for (int round = 0; round < rounds; round++) {
+			long start = threads.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < iterations; i++)
+				operation.run();
+			lowest = Math.min(lowest, threads.getThreadAllocatedBytes(threadId) - start);
+		}
+		return Math.round(lowest / (double)iterations);
+	}
+
+	/** The values written by each serializer and entry point. VoidSerializer is not listed, it has no value to write. */
+	static ArrayList<Case> cases () {
+		ArrayList<Case> cases = new ArrayList();
+		// DefaultSerializers.
+		cases.add(new Case("BooleanSerializer", Boolean.TRUE));
+		cases.add(new Case("ByteSerializer", (byte)12));
+		cases.add(new Case("CharSerializer", 'k'));
+		cases.add(new Case("ShortSerializer", (short)1234));
+		cases.add(new Case("IntSerializer", 123456));
+		cases.add(new Case("LongSerializer", 123456789012L));
+		cases.add(new Case("FloatSerializer", 1.5f));
+		cases.add(new Case("DoubleSerializer", 2.5));
+		cases.add(new Case("StringSerializer", "The quick brown fox"));
+		cases.add(new Case("BigIntegerSerializer", new BigInteger("123456789012345678901234567890")));
+		cases.add(new Case("BigDecimalSerializer", new BigDecimal("12345678901234567890.123456789")));
+		cases.add(new Case("ClassSerializer", String.class));
+		cases.add(new Case("DateSerializer", new Date(1234567890123L)));
+		cases.add(new Case("EnumSerializer", TimeUnit.SECONDS));
+		cases.add(new Case("EnumSetSerializer", EnumSet.of(TimeUnit.SECONDS, TimeUnit.HOURS)));
+		cases.add(new Case("CurrencySerializer", Currency.getInstance("EUR")));
+		cases.add(new Case("StringBufferSerializer", new StringBuffer("The quick brown fox")));
+		cases.add(new Case("StringBuilderSerializer", new StringBuilder("The quick brown fox")));
+		cases.add(new Case("ByteBufferSerializer", ByteBuffer.wrap(new byte[16])));
+		cases.add(new Case("KryoSerializableSerializer", new Serializable(5)));
+		cases.add(new Case("CollectionsEmptyListSerializer", Collections.EMPTY_LIST));
+		cases.add(new Case("CollectionsEmptyMapSerializer", Collections.EMPTY_MAP));
+		cases.add(new Case("CollectionsEmptySetSerializer", Collections.EMPTY_SET));
+		cases.add(new Case("CollectionsSingletonListSerializer", Collections.singletonList("a")));
+		cases.add(new Case("CollectionsSingletonMapSerializer", Collections.singletonMap("a", "b")));
+		cases.add(new Case("CollectionsSingletonSetSerializer", Collections.singleton("a")));
+		cases.add(new Case("TimeZoneSerializer", TimeZone.getTimeZone("America/Los_Angeles")));
+		GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"), Locale.US);
+		calendar.setTimeInMillis(1234567890123L);
+		cases.add(new Case("CalendarSerializer", calendar));
+		cases.add(new Case("TreeMapSerializer", new TreeMap(Collections.singletonMap("a", 1))));
+		cases.add(new Case("TreeSetSerializer", new TreeSet(Arrays.asList("a", "b", "c"))));
+		cases.add(new Case("LocaleSerializer", Locale.US));
+		// Collection and map serializers.
+		cases.add(new Case("CollectionSerializer", new ArrayList(Arrays.asList("a", "b", "c"))));
+		HashMap map = new HashMap();
+		map.put("a", 1);
+		map.put("b", 2);
+		cases.add(new Case("MapSerializer", map));
+		// DefaultArraySerializers.
+		cases.add(new Case("ByteArraySerializer", new byte[64]));
+		cases.add(new Case("CharArraySerializer", new char[64]));
+		cases.add(new Case("ShortArraySerializer", new short[64]));
+		cases.add(new Case("IntArraySerializer", new int[64]));
+		cases.add(new Case("LongArraySerializer", new long[64]));
+		cases.add(new Case("FloatArraySerializer", new float[64]));
+		cases.add(new Case("DoubleArraySerializer", new double[64]));
+		cases.add(new Case("BooleanArraySerializer", new boolean[64]));
+		cases.add(new Case("StringArraySerializer", new String[] {"a", "b", null, "c"}));
+		cases.add(new Case("ObjectArraySerializer", new Object[] {1, "b", null, 2L}));
+		// Kryo entry points.
+		cases.add(new Case("Kryo.writeObject", new Data(1, "a")));
+		cases.add(new Case("Kryo.writeObjectOrNull", new Data(1, "a")) {
+			void write (Kryo kryo, Output output) {
+				kryo.writeObjectOrNull(output, value, Data.class);
+			}
+
+			void read (Kryo kryo, Input input) {
+				kryo.readObjectOrNull(input, Data.class);
+			}
+		});
+		cases.add(new Case("Kryo.writeClassAndObject", new Data(1, "a")) {
+			void write (Kryo kryo, Output output) {
+				kryo.writeClassAndObject(output, value);
+			}
+
+			void read (Kryo kryo, Input input) {
+				kryo.readClassAndObject(input);
+			}
+		});
+		return cases;
+	}
+
+	static public void main (String[] args) throws Exception {
+		boolean update = args.length == 2 && args[0].equals("-update");
+		if (args.length != (update ? 2 : 1)) {
+			System.out.println("Usage: AllocationReport [-update] baselineFile");
+			System.exit(2);
+		}
+		File file = new File(args[args.length - 1]);
+		Map<String, long[]> results = new AllocationReport().run();
+		if (update) {
+			writeBaseline(file, results);
+			System.out.println("Baseline written: " + file);
+			return;
+		}
+		Map<String, long[]> baseline = readBaseline(file);
+		boolean regression = false;
+		System.out.println(String.format("%-36s %14s %14s", "", "write", "read"));
+		for (Map.Entry<String, long[]> entry : results.entrySet()) {
+			long[] result = entry.getValue();
+			long[] expected = baseline.get(entry.getKey());
+			StringBuilder line = new StringBuilder(String.format("%-36s", entry.getKey()));
+			String status = expected == null ? "new" : "";
+			for (int i = 0; i < 2; i++) {
+				if (expected == null)
+					line.append(String.format(" %14d", result[i]));
+				else {
+					line.append(String.format(" %6d (%5d)", result[i], expected[i]));
+					if (isRegression(result[i], expected[i])) status = "REGRESSION";
+				}
+			}
+			if (status.equals("REGRESSION")) regression = true;
+			System.out.println(line + " " + status);
+		}
+		System.out.println(regression ? "Allocations increased, see REGRESSION above." : "No regressions.");
+		if (regression) System.exit(1);
+	}
+
+	static boolean isRegression (long bytes, long baseline) {
+		long increase = bytes - baseline;
+		return increase >= minimumIncrease && increase * 100 > baseline * tolerance;
+	}
+
+	static Map<String, long[]> readBaseline (File file) throws IOException {
+		Map<String, long[]> baseline = new HashMap();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("#")) continue;
+				String[] columns = line.split("\\s+");
+				baseline.put(columns[0], new long[] {Long.parseLong(columns[1]), Long.parseLong(columns[2])});
+			}
+		} finally {
+			reader.close();
+		}
+		return baseline;
+	}
+
+	static void writeBaseline (File file, Map<String, long[]> results) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write("# Bytes allocated per operation: name, write, read. Written by AllocationReport -update.\n");
+			writer.write("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + "\n");
+			for (Map.Entry<String, long[]> entry : results.entrySet())
+				writer.write(entry.getKey() + " " + entry.getValue()[0] + " " + entry.getValue()[1] + "\n");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/** Writes and reads a value with {@link Kryo#writeObject(Output, Object)} and {@link Kryo#readObject(Input, Class)}. */
+	static class Case {
+		final String name;
+		final Object value;
+		final Class type;
+
+		Case (String name, Object value) {
+			this.name = name;
+			this.value = value;
+			// An enum constant with a body is an anonymous subclass, eg TimeUnit.SECONDS on Java 8.
+			type = value instanceof Enum ? ((Enum)value).getDeclaringClass() : value.getClass();
+		}
+
+		void write (Kryo kryo, Output output) {
+			kryo.writeObject(output, value);
+		}
+
+		void read (Kryo kryo, Input input) {
+			kryo.readObject(input, type);
+		}
+	}
+
+	static public class Data {
+		public int id;
+		public String name;
+
+		public Data () {
+		}
+
+		Data (int id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+	}
+
+	static public class Serializable implements KryoSerializable {
+		private int value;
+
+		public Serializable () {
+		}
+
+		Serializable (int value) {
+			this.value = value;
+		}
+
+		public void write (Kryo kryo, Output output) {
+			output.writeVarInt(value, true);
+		}
+
+		public void read (Kryo kryo, Input input) {
+			value = input.readVarInt(true);
+		}
+	}
+}
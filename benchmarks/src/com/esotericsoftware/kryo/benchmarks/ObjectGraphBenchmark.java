@@ -0,0 +1,94 @@
+package com.esotericsoftware.kryo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.benchmarks.data.DataType;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Writes and reads object graphs with each serializer. The number of bytes written for each combination is printed by
+ * {@link SerializedSizes}.
+ * <p>
+ * The cyclic graph can't be written without references by serializers other than JavaSerializer, so those combinations fail
+ * during setup and are skipped by JMH.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectGraphBenchmark {
+	@Param
+	public DataType data;
+
+	@Param
+	public SerializerType serializer;
+
+	@Param({"true", "false"})
+	public boolean references;
+
+	@Param({"true", "false"})
+	public boolean registrationRequired;
+
+	/** If false, FieldSerializer and its subclasses use the Unsafe backend. */
+	@Param({"true", "false"})
+	public boolean asm;
+
+	private Kryo kryo;
+	private Object object;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		if (data == DataType.cyclic && !references && serializer != SerializerType.java)
+			throw new IllegalStateException("The cyclic graph requires references.");
+		kryo = newKryo(serializer, references, registrationRequired, asm);
+		object = data.create();
+		output = new Output(4096, -1);
+		write();
+		input = new Input(output.toBytes());
+	}
+
+	@Benchmark
+	public int write () {
+		output.clear();
+		kryo.writeObject(output, object);
+		return output.position();
+	}
+
+	@Benchmark
+	public Object read () {
+		input.rewind();
+		return kryo.readObject(input, object.getClass());
+	}
+
+	/** Returns a Kryo that uses the serializer for the classes of the graphs.
+	 * @param registrationRequired If true the classes are registered, otherwise their names are written. */
+	static public Kryo newKryo (SerializerType serializer, boolean references, boolean registrationRequired, boolean asm) {
+		Kryo kryo = new Kryo();
+		kryo.setAsmEnabled(asm);
+		kryo.setReferences(references);
+		kryo.setRegistrationRequired(registrationRequired);
+		kryo.setDefaultSerializer(serializer.serializerClass);
+		if (registrationRequired) {
+			for (Class type : DataType.classes)
+				kryo.register(type);
+		}
+		return kryo;
+	}
+}
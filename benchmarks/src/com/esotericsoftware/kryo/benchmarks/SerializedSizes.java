@@ -0,0 +1,33 @@
+package com.esotericsoftware.kryo.benchmarks;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.benchmarks.data.DataType;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Prints the number of bytes written by {@link ObjectGraphBenchmark} for each graph, serializer and setting. The ASM and Unsafe
+ * backends write the same bytes, so they are not listed separately.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class SerializedSizes {
+	static public void main (String[] args) throws Exception {
+		System.out.println("data, serializer, references, registrationRequired, bytes");
+		for (DataType data : DataType.values()) {
+			for (SerializerType serializer : SerializerType.values()) {
+				for (int references = 1; references >= 0; references--) {
+					for (int registrationRequired = 1; registrationRequired >= 0; registrationRequired--) {
+						String size;
+						if (data == DataType.cyclic && references == 0 && serializer != SerializerType.java)
+							size = "n/a";
+						else {
+							Kryo kryo = ObjectGraphBenchmark.newKryo(serializer, references == 1, registrationRequired == 1, true);
+							Output output = new Output(4096, -1);
+							kryo.writeObject(output, data.create());
+							size = String.valueOf(output.position());
+						}
+						System.out.println(data + ", " + serializer + ", " + (references == 1) + ", " + (registrationRequired == 1) + ", "
+							+ size);
+					}
+				}
+			}
+		}
+	}
+}
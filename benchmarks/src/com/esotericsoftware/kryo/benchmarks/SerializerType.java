@@ -0,0 +1,26 @@
+package com.esotericsoftware.kryo.benchmarks;
+
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.serializers.BeanSerializer;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.serializers.ExternalizableSerializer;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.serializers.JavaSerializer;
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer;
+
+/** The serializers compared by the object graph benchmarks, used as the default serializer for the classes of the graphs.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public enum SerializerType {
+	field(FieldSerializer.class), //
+	compatible(CompatibleFieldSerializer.class), //
+	tagged(TaggedFieldSerializer.class), //
+	bean(BeanSerializer.class), //
+	java(JavaSerializer.class), //
+	externalizable(ExternalizableSerializer.class);
+
+	public final Class<? extends Serializer> serializerClass;
+
+	SerializerType (Class<? extends Serializer> serializerClass) {
+		this.serializerClass = serializerClass;
+	}
+}
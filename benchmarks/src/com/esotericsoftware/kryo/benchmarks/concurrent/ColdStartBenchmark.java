@@ -0,0 +1,50 @@
+package com.esotericsoftware.kryo.benchmarks.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.benchmarks.data.DataType;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Creates a Kryo and writes the media content graph once, from many threads. This is the cost each thread pays with a new
+ * Kryo, eg the first use of a ThreadLocal or a pool miss: registering the classes and creating their serializers, which shares
+ * JVM wide caches and class loaders between threads. With registration not required the classes are registered implicitly
+ * when first written.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColdStartBenchmark {
+	@Param({"true", "false"})
+	public boolean registrationRequired;
+
+	private final Object object = DataType.media.create();
+	private final Output output = new Output(4096, -1);
+
+	@Benchmark
+	public int firstWrite () {
+		Kryo kryo = new Kryo();
+		kryo.setRegistrationRequired(registrationRequired);
+		if (registrationRequired) {
+			for (Class type : DataType.classes)
+				kryo.register(type);
+		}
+		output.clear();
+		kryo.writeObject(output, object);
+		return output.position();
+	}
+}
@@ -0,0 +1,77 @@
+package com.esotericsoftware.kryo.benchmarks.concurrent;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.pool.ConcurrentKryo;
+import com.esotericsoftware.kryo.pool.KryoCallback;
+import com.esotericsoftware.kryo.pool.KryoFactory;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+/** The ways of obtaining a Kryo instance from many threads.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public enum KryoPattern {
+	/** A Kryo per thread, from a ThreadLocal. */
+	threadLocal {
+		public Runner newRunner (final KryoFactory factory) {
+			final ThreadLocal<Kryo> kryos = new ThreadLocal<Kryo>() {
+				protected Kryo initialValue () {
+					return factory.create();
+				}
+			};
+			return new Runner() {
+				public <T> T run (KryoCallback<T> callback) {
+					return callback.execute(kryos.get());
+				}
+			};
+		}
+	},
+	/** A new Kryo for each operation. */
+	newKryo {
+		public Runner newRunner (final KryoFactory factory) {
+			return new Runner() {
+				public <T> T run (KryoCallback<T> callback) {
+					return callback.execute(factory.create());
+				}
+			};
+		}
+	},
+	/** A {@link KryoPool}. */
+	pool {
+		public Runner newRunner (KryoFactory factory) {
+			final KryoPool pool = new KryoPool.Builder(factory).build();
+			return new Runner() {
+				public <T> T run (KryoCallback<T> callback) {
+					return pool.run(callback);
+				}
+			};
+		}
+	},
+	/** A {@link KryoPool} holding its instances with soft references. */
+	softPool {
+		public Runner newRunner (KryoFactory factory) {
+			final KryoPool pool = new KryoPool.Builder(factory).softReferences().build();
+			return new Runner() {
+				public <T> T run (KryoCallback<T> callback) {
+					return pool.run(callback);
+				}
+			};
+		}
+	},
+	/** A {@link ConcurrentKryo}. */
+	concurrent {
+		public Runner newRunner (KryoFactory factory) {
+			final ConcurrentKryo kryo = new ConcurrentKryo(factory);
+			return new Runner() {
+				public <T> T run (KryoCallback<T> callback) {
+					return kryo.run(callback);
+				}
+			};
+		}
+	};
+
+	abstract public Runner newRunner (KryoFactory factory);
+
+	/** Runs callbacks with a Kryo obtained with the pattern. Must be thread safe. */
+	static public interface Runner {
+		public <T> T run (KryoCallback<T> callback);
+	}
+}
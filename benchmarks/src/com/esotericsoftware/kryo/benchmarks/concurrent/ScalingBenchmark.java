@@ -0,0 +1,76 @@
+package com.esotericsoftware.kryo.benchmarks.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.benchmarks.data.DataType;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoCallback;
+import com.esotericsoftware.kryo.pool.KryoFactory;
+
+/** Writes and reads the media content graph from many threads, with each {@link KryoPattern} of obtaining a Kryo. Run with
+ * JMH's -t option or {@link ScalingReport} to vary the number of threads. SampleTime mode reports latency percentiles.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+	@Benchmark
+	public Object roundTrip (Shared shared, PerThread thread) {
+		return shared.runner.run(thread);
+	}
+
+	/** Registers the classes of the graphs, as an application would. */
+	static public final KryoFactory factory = new KryoFactory() {
+		public Kryo create () {
+			Kryo kryo = new Kryo();
+			kryo.setRegistrationRequired(true);
+			for (Class type : DataType.classes)
+				kryo.register(type);
+			return kryo;
+		}
+	};
+
+	@State(Scope.Benchmark)
+	static public class Shared {
+		@Param
+		public KryoPattern pattern;
+
+		KryoPattern.Runner runner;
+
+		@Setup
+		public void setup () {
+			runner = pattern.newRunner(factory);
+		}
+	}
+
+	/** The buffers and object of a thread. The callback writes the object and reads it back. */
+	@State(Scope.Thread)
+	static public class PerThread implements KryoCallback<Object> {
+		final Object object = DataType.media.create();
+		final Output output = new Output(4096, -1);
+		final Input input = new Input();
+
+		public Object execute (Kryo kryo) {
+			output.clear();
+			kryo.writeObject(output, object);
+			input.setBuffer(output.getBuffer(), 0, output.position());
+			return kryo.readObject(input, object.getClass());
+		}
+	}
+}
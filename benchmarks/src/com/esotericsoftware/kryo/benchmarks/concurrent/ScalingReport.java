@@ -0,0 +1,73 @@
+package com.esotericsoftware.kryo.benchmarks.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+/** Runs {@link ScalingBenchmark} and {@link ColdStartBenchmark} with 1, 2, 4, ... threads up to a maximum and prints the
+ * throughput and latency percentiles for each thread count. Contention shows as throughput that stops growing with the number of
+ * threads, or latency percentiles that grow with it.
+ * <p>
+ * Usage: ScalingReport [maxThreads] [benchmarkRegex]<br>
+ * The default maximum is the number of available processors.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class ScalingReport {
+	static public void main (String[] args) throws Exception {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		String include = args.length > 1 ? args[1] : ScalingBenchmark.class.getSimpleName() + "|"
+			+ ColdStartBenchmark.class.getSimpleName();
+
+		List<RunResult> results = new ArrayList();
+		for (int threads = 1;; threads *= 2) {
+			threads = Math.min(threads, maxThreads);
+			ChainedOptionsBuilder options = new OptionsBuilder().include(include).threads(threads).shouldFailOnError(true);
+			Collection<RunResult> run = new Runner(options.build()).run();
+			results.addAll(run);
+			if (threads == maxThreads) break;
+		}
+
+		System.out.println();
+		System.out.println(String.format("%-50s %7s %14s %10s %10s %10s %10s", "Benchmark", "Threads", "ops/us", "p50 us",
+			"p99 us", "p99.9 us", "max us"));
+		for (RunResult throughput : results) {
+			BenchmarkParams params = throughput.getParams();
+			if (params.getMode() != Mode.Throughput) continue;
+			RunResult sample = find(results, params);
+			StringBuilder line = new StringBuilder();
+			line.append(String.format("%-50s %7d %14.3f", name(params), params.getThreads(), throughput.getPrimaryResult()
+				.getScore()));
+			if (sample != null) {
+				Statistics statistics = sample.getPrimaryResult().getStatistics();
+				line.append(String.format(" %10.2f %10.2f %10.2f %10.2f", statistics.getPercentile(50), statistics.getPercentile(99),
+					statistics.getPercentile(99.9), statistics.getMax()));
+			}
+			System.out.println(line);
+		}
+	}
+
+	/** Returns the SampleTime result for the same benchmark, parameters and threads as the Throughput result. */
+	static private RunResult find (List<RunResult> results, BenchmarkParams throughput) {
+		for (RunResult result : results) {
+			BenchmarkParams params = result.getParams();
+			if (params.getMode() == Mode.SampleTime && params.getThreads() == throughput.getThreads()
+				&& name(params).equals(name(throughput))) return result;
+		}
+		return null;
+	}
+
+	static private String name (BenchmarkParams params) {
+		String benchmark = params.getBenchmark();
+		StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+		for (String key : params.getParamsKeys())
+			name.append(' ').append(key).append('=').append(params.getParam(key));
+		return name.toString();
+	}
+}
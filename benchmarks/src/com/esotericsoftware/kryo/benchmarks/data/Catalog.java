@@ -0,0 +1,43 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+import java.util.Map;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** Images grouped by section, for maps of lists.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class Catalog implements Externalizable {
+	@Tag(0) private String name;
+	@Tag(1) private Map<String, List<Image>> sections;
+
+	public String getName () {
+		return name;
+	}
+
+	public void setName (String name) {
+		this.name = name;
+	}
+
+	public Map<String, List<Image>> getSections () {
+		return sections;
+	}
+
+	public void setSections (Map<String, List<Image>> sections) {
+		this.sections = sections;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeObject(name);
+		out.writeObject(sections);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		name = (String)in.readObject();
+		sections = (Map<String, List<Image>>)in.readObject();
+	}
+}
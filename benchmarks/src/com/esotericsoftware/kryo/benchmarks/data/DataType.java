@@ -0,0 +1,131 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import com.esotericsoftware.kryo.benchmarks.data.Image.Size;
+import com.esotericsoftware.kryo.benchmarks.data.Media.Player;
+import com.esotericsoftware.kryo.benchmarks.data.Shape.Circle;
+import com.esotericsoftware.kryo.benchmarks.data.Shape.Rectangle;
+
+/** The object graphs used by the benchmarks. Each creates the same graph every time.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public enum DataType {
+	/** A media item with two images. */
+	media {
+		public Object create () {
+			Media media = new Media();
+			media.setUri("http://javaone.com/keynote.mpg");
+			media.setTitle("Javaone Keynote");
+			media.setWidth(640);
+			media.setHeight(480);
+			media.setFormat("video/mpg4");
+			media.setDuration(18000000);
+			media.setSize(58982400);
+			media.setBitrate(262144);
+			media.setHasBitrate(true);
+			media.setPersons(new ArrayList(Arrays.asList("Bill Gates", "Steve Jobs")));
+			media.setPlayer(Player.JAVA);
+			MediaContent content = new MediaContent();
+			content.setMedia(media);
+			List<Image> images = new ArrayList();
+			images.add(new Image("http://javaone.com/keynote_large.jpg", "Javaone Keynote", 1024, 768, Size.LARGE));
+			images.add(new Image("http://javaone.com/keynote_small.jpg", "Javaone Keynote", 320, 240, Size.SMALL));
+			content.setImages(images);
+			return content;
+		}
+	},
+	/** A binary tree with 1023 nodes. */
+	tree {
+		public Object create () {
+			return createTree(0, 9);
+		}
+	},
+	/** A map of 10 lists of 10 images. */
+	catalog {
+		public Object create () {
+			Catalog catalog = new Catalog();
+			catalog.setName("catalog");
+			HashMap<String, List<Image>> sections = new HashMap();
+			for (int i = 0; i < 10; i++) {
+				List<Image> images = new ArrayList();
+				for (int ii = 0; ii < 10; ii++)
+					images.add(new Image("http://example.com/" + i + "/" + ii + ".jpg", "Image " + ii, 100 * i, 10 * ii,
+						ii % 2 == 0 ? Size.SMALL : Size.LARGE));
+				sections.put("section" + i, images);
+			}
+			catalog.setSections(sections);
+			return catalog;
+		}
+	},
+	/** Fields and a list whose values are subclasses of the declared type. */
+	polymorphic {
+		public Object create () {
+			Drawing drawing = new Drawing();
+			drawing.setName("drawing");
+			List<Shape> shapes = new ArrayList();
+			for (int i = 0; i < 50; i++) {
+				if (i % 2 == 0) {
+					Circle circle = new Circle();
+					circle.setX(i);
+					circle.setY(i * 2);
+					circle.setRadius(i + 0.5);
+					shapes.add(circle);
+				} else {
+					Rectangle rectangle = new Rectangle();
+					rectangle.setX(i);
+					rectangle.setY(i * 2);
+					rectangle.setWidth(i + 0.25);
+					rectangle.setHeight(i + 0.75);
+					shapes.add(rectangle);
+				}
+			}
+			drawing.setShapes(shapes);
+			drawing.setBackground(shapes.get(1));
+			drawing.setSelection(shapes.get(0));
+			return drawing;
+		}
+	},
+	/** A ring of 128 nodes, each with edges to 3 other nodes. Requires references. */
+	cyclic {
+		public Object create () {
+			Random random = new Random(1);
+			GraphNode[] nodes = new GraphNode[128];
+			for (int i = 0; i < nodes.length; i++) {
+				nodes[i] = new GraphNode();
+				nodes[i].setName("node" + i);
+			}
+			for (int i = 0; i < nodes.length; i++) {
+				nodes[i].setNext(nodes[(i + 1) % nodes.length]);
+				List<GraphNode> edges = new ArrayList();
+				for (int ii = 0; ii < 3; ii++)
+					edges.add(nodes[random.nextInt(nodes.length)]);
+				nodes[i].setEdges(edges);
+			}
+			return nodes[0];
+		}
+	};
+
+	/** The classes in the graphs, in the order they are registered. BeanSerializer requires the classes of final properties to be
+	 * registered first. */
+	static public final Class[] classes = {ArrayList.class, HashMap.class, Player.class, Size.class, Image.class, Media.class,
+		MediaContent.class, TreeNode.class, Catalog.class, Circle.class, Rectangle.class, Drawing.class, GraphNode.class};
+
+	abstract public Object create ();
+
+	static TreeNode createTree (int value, int depth) {
+		TreeNode node = new TreeNode();
+		node.setValue(value);
+		node.setName("node" + value);
+		if (depth > 1) {
+			List<TreeNode> children = new ArrayList();
+			children.add(createTree(value * 2 + 1, depth - 1));
+			children.add(createTree(value * 2 + 2, depth - 1));
+			node.setChildren(children);
+		}
+		return node;
+	}
+}
@@ -0,0 +1,64 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** Shapes of different classes in fields and a list declared with their base class, for polymorphic fields.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class Drawing implements Externalizable {
+	@Tag(0) private String name;
+	@Tag(1) private Shape background;
+	@Tag(2) private Object selection;
+	@Tag(3) private List<Shape> shapes;
+
+	public String getName () {
+		return name;
+	}
+
+	public void setName (String name) {
+		this.name = name;
+	}
+
+	public Shape getBackground () {
+		return background;
+	}
+
+	public void setBackground (Shape background) {
+		this.background = background;
+	}
+
+	public Object getSelection () {
+		return selection;
+	}
+
+	public void setSelection (Object selection) {
+		this.selection = selection;
+	}
+
+	public List<Shape> getShapes () {
+		return shapes;
+	}
+
+	public void setShapes (List<Shape> shapes) {
+		this.shapes = shapes;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeObject(name);
+		out.writeObject(background);
+		out.writeObject(selection);
+		out.writeObject(shapes);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		name = (String)in.readObject();
+		background = (Shape)in.readObject();
+		selection = in.readObject();
+		shapes = (List<Shape>)in.readObject();
+	}
+}
@@ -0,0 +1,53 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** A node of a graph with cycles, which can only be serialized with references enabled.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class GraphNode implements Externalizable {
+	@Tag(0) private String name;
+	@Tag(1) private GraphNode next;
+	@Tag(2) private List<GraphNode> edges;
+
+	public String getName () {
+		return name;
+	}
+
+	public void setName (String name) {
+		this.name = name;
+	}
+
+	public GraphNode getNext () {
+		return next;
+	}
+
+	public void setNext (GraphNode next) {
+		this.next = next;
+	}
+
+	public List<GraphNode> getEdges () {
+		return edges;
+	}
+
+	public void setEdges (List<GraphNode> edges) {
+		this.edges = edges;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeObject(name);
+		out.writeObject(next);
+		out.writeObject(edges);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		name = (String)in.readObject();
+		next = (GraphNode)in.readObject();
+		edges = (List<GraphNode>)in.readObject();
+	}
+}
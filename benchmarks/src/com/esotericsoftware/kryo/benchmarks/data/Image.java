@@ -0,0 +1,88 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class Image implements Externalizable {
+	@Tag(0) private String uri;
+	@Tag(1) private String title;
+	@Tag(2) private int width;
+	@Tag(3) private int height;
+	@Tag(4) private Size size;
+
+	public Image () {
+	}
+
+	public Image (String uri, String title, int width, int height, Size size) {
+		this.uri = uri;
+		this.title = title;
+		this.width = width;
+		this.height = height;
+		this.size = size;
+	}
+
+	public String getUri () {
+		return uri;
+	}
+
+	public void setUri (String uri) {
+		this.uri = uri;
+	}
+
+	public String getTitle () {
+		return title;
+	}
+
+	public void setTitle (String title) {
+		this.title = title;
+	}
+
+	public int getWidth () {
+		return width;
+	}
+
+	public void setWidth (int width) {
+		this.width = width;
+	}
+
+	public int getHeight () {
+		return height;
+	}
+
+	public void setHeight (int height) {
+		this.height = height;
+	}
+
+	public Size getSize () {
+		return size;
+	}
+
+	public void setSize (Size size) {
+		this.size = size;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeObject(uri);
+		out.writeObject(title);
+		out.writeInt(width);
+		out.writeInt(height);
+		out.writeObject(size);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		uri = (String)in.readObject();
+		title = (String)in.readObject();
+		width = in.readInt();
+		height = in.readInt();
+		size = (Size)in.readObject();
+	}
+
+	static public enum Size {
+		SMALL, LARGE
+	}
+}
@@ -0,0 +1,155 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class Media implements Externalizable {
+	@Tag(0) private String uri;
+	@Tag(1) private String title;
+	@Tag(2) private int width;
+	@Tag(3) private int height;
+	@Tag(4) private String format;
+	@Tag(5) private long duration;
+	@Tag(6) private long size;
+	@Tag(7) private int bitrate;
+	@Tag(8) private boolean hasBitrate;
+	@Tag(9) private List<String> persons;
+	@Tag(10) private Player player;
+	@Tag(11) private String copyright;
+
+	public String getUri () {
+		return uri;
+	}
+
+	public void setUri (String uri) {
+		this.uri = uri;
+	}
+
+	public String getTitle () {
+		return title;
+	}
+
+	public void setTitle (String title) {
+		this.title = title;
+	}
+
+	public int getWidth () {
+		return width;
+	}
+
+	public void setWidth (int width) {
+		this.width = width;
+	}
+
+	public int getHeight () {
+		return height;
+	}
+
+	public void setHeight (int height) {
+		this.height = height;
+	}
+
+	public String getFormat () {
+		return format;
+	}
+
+	public void setFormat (String format) {
+		this.format = format;
+	}
+
+	public long getDuration () {
+		return duration;
+	}
+
+	public void setDuration (long duration) {
+		this.duration = duration;
+	}
+
+	public long getSize () {
+		return size;
+	}
+
+	public void setSize (long size) {
+		this.size = size;
+	}
+
+	public int getBitrate () {
+		return bitrate;
+	}
+
+	public void setBitrate (int bitrate) {
+		this.bitrate = bitrate;
+	}
+
+	public boolean isHasBitrate () {
+		return hasBitrate;
+	}
+
+	public void setHasBitrate (boolean hasBitrate) {
+		this.hasBitrate = hasBitrate;
+	}
+
+	public List<String> getPersons () {
+		return persons;
+	}
+
+	public void setPersons (List<String> persons) {
+		this.persons = persons;
+	}
+
+	public Player getPlayer () {
+		return player;
+	}
+
+	public void setPlayer (Player player) {
+		this.player = player;
+	}
+
+	public String getCopyright () {
+		return copyright;
+	}
+
+	public void setCopyright (String copyright) {
+		this.copyright = copyright;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeObject(uri);
+		out.writeObject(title);
+		out.writeInt(width);
+		out.writeInt(height);
+		out.writeObject(format);
+		out.writeLong(duration);
+		out.writeLong(size);
+		out.writeInt(bitrate);
+		out.writeBoolean(hasBitrate);
+		out.writeObject(persons);
+		out.writeObject(player);
+		out.writeObject(copyright);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		uri = (String)in.readObject();
+		title = (String)in.readObject();
+		width = in.readInt();
+		height = in.readInt();
+		format = (String)in.readObject();
+		duration = in.readLong();
+		size = in.readLong();
+		bitrate = in.readInt();
+		hasBitrate = in.readBoolean();
+		persons = (List<String>)in.readObject();
+		player = (Player)in.readObject();
+		copyright = (String)in.readObject();
+	}
+
+	static public enum Player {
+		JAVA, FLASH
+	}
+}
@@ -0,0 +1,42 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** A media item and its images, the data model of the JVM Serializers project.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class MediaContent implements Externalizable {
+	@Tag(0) private Media media;
+	@Tag(1) private List<Image> images;
+
+	public Media getMedia () {
+		return media;
+	}
+
+	public void setMedia (Media media) {
+		this.media = media;
+	}
+
+	public List<Image> getImages () {
+		return images;
+	}
+
+	public void setImages (List<Image> images) {
+		this.images = images;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeObject(media);
+		out.writeObject(images);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		media = (Media)in.readObject();
+		images = (List<Image>)in.readObject();
+	}
+}
@@ -0,0 +1,96 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** The base class of the values of polymorphic fields.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+abstract public class Shape implements Externalizable {
+	@Tag(0) private double x;
+	@Tag(1) private double y;
+
+	public double getX () {
+		return x;
+	}
+
+	public void setX (double x) {
+		this.x = x;
+	}
+
+	public double getY () {
+		return y;
+	}
+
+	public void setY (double y) {
+		this.y = y;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeDouble(x);
+		out.writeDouble(y);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		x = in.readDouble();
+		y = in.readDouble();
+	}
+
+	static public class Circle extends Shape {
+		@Tag(2) private double radius;
+
+		public double getRadius () {
+			return radius;
+		}
+
+		public void setRadius (double radius) {
+			this.radius = radius;
+		}
+
+		public void writeExternal (ObjectOutput out) throws IOException {
+			super.writeExternal(out);
+			out.writeDouble(radius);
+		}
+
+		public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+			super.readExternal(in);
+			radius = in.readDouble();
+		}
+	}
+
+	static public class Rectangle extends Shape {
+		@Tag(2) private double width;
+		@Tag(3) private double height;
+
+		public double getWidth () {
+			return width;
+		}
+
+		public void setWidth (double width) {
+			this.width = width;
+		}
+
+		public double getHeight () {
+			return height;
+		}
+
+		public void setHeight (double height) {
+			this.height = height;
+		}
+
+		public void writeExternal (ObjectOutput out) throws IOException {
+			super.writeExternal(out);
+			out.writeDouble(width);
+			out.writeDouble(height);
+		}
+
+		public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+			super.readExternal(in);
+			width = in.readDouble();
+			height = in.readDouble();
+		}
+	}
+}
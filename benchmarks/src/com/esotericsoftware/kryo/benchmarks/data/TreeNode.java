@@ -0,0 +1,53 @@
+package com.esotericsoftware.kryo.benchmarks.data;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** A node of a tree, for deeply nested graphs.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class TreeNode implements Externalizable {
+	@Tag(0) private int value;
+	@Tag(1) private String name;
+	@Tag(2) private List<TreeNode> children;
+
+	public int getValue () {
+		return value;
+	}
+
+	public void setValue (int value) {
+		this.value = value;
+	}
+
+	public String getName () {
+		return name;
+	}
+
+	public void setName (String name) {
+		this.name = name;
+	}
+
+	public List<TreeNode> getChildren () {
+		return children;
+	}
+
+	public void setChildren (List<TreeNode> children) {
+		this.children = children;
+	}
+
+	public void writeExternal (ObjectOutput out) throws IOException {
+		out.writeInt(value);
+		out.writeObject(name);
+		out.writeObject(children);
+	}
+
+	public void readExternal (ObjectInput in) throws IOException, ClassNotFoundException {
+		value = in.readInt();
+		name = (String)in.readObject();
+		children = (List<TreeNode>)in.readObject();
+	}
+}
@@ -0,0 +1,153 @@
+package com.esotericsoftware.kryo.benchmarks.io;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Writes and reads primitive arrays with the bulk methods, eg {@link Output#writeInts(int[])} and {@link Input#readInts(int)}.
+ * Each invocation writes or reads one array, so results for different sizes show the per element cost and the fixed overhead.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class ArrayBenchmark extends StreamBenchmark {
+	@Param({"16", "1024", "65536"})
+	public int size;
+
+	private int[] ints;
+	private long[] longs;
+	private float[] floats;
+	private double[] doubles;
+	private short[] shorts;
+	private char[] chars;
+	private Output output;
+	private Input intInput, varIntInput, longInput, floatInput, doubleInput, shortInput, charInput;
+
+	@Setup
+	public void setup () {
+		Random random = new Random(1);
+		ints = new int[size];
+		longs = new long[size];
+		floats = new float[size];
+		doubles = new double[size];
+		shorts = new short[size];
+		chars = new char[size];
+		for (int i = 0; i < size; i++) {
+			ints[i] = random.nextInt();
+			longs[i] = random.nextLong();
+			floats[i] = random.nextFloat();
+			doubles[i] = random.nextDouble();
+			shorts[i] = (short)random.nextInt();
+			chars[i] = (char)random.nextInt();
+		}
+		output = newOutput(size * 10);
+
+		writeInts();
+		intInput = newInput(output);
+		writeVarInts();
+		varIntInput = newInput(output);
+		writeLongs();
+		longInput = newInput(output);
+		writeFloats();
+		floatInput = newInput(output);
+		writeDoubles();
+		doubleInput = newInput(output);
+		writeShorts();
+		shortInput = newInput(output);
+		writeChars();
+		charInput = newInput(output);
+	}
+
+	@Benchmark
+	public int writeInts () {
+		output.clear();
+		output.writeInts(ints);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeVarInts () {
+		output.clear();
+		output.writeInts(ints, true);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeLongs () {
+		output.clear();
+		output.writeLongs(longs);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeFloats () {
+		output.clear();
+		output.writeFloats(floats);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeDoubles () {
+		output.clear();
+		output.writeDoubles(doubles);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeShorts () {
+		output.clear();
+		output.writeShorts(shorts);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeChars () {
+		output.clear();
+		output.writeChars(chars);
+		return output.position();
+	}
+
+	@Benchmark
+	public int[] readInts () {
+		intInput.rewind();
+		return intInput.readInts(size);
+	}
+
+	@Benchmark
+	public int[] readVarInts () {
+		varIntInput.rewind();
+		return varIntInput.readInts(size, true);
+	}
+
+	@Benchmark
+	public long[] readLongs () {
+		longInput.rewind();
+		return longInput.readLongs(size);
+	}
+
+	@Benchmark
+	public float[] readFloats () {
+		floatInput.rewind();
+		return floatInput.readFloats(size);
+	}
+
+	@Benchmark
+	public double[] readDoubles () {
+		doubleInput.rewind();
+		return doubleInput.readDoubles(size);
+	}
+
+	@Benchmark
+	public short[] readShorts () {
+		shortInput.rewind();
+		return shortInput.readShorts(size);
+	}
+
+	@Benchmark
+	public char[] readChars () {
+		charInput.rewind();
+		return charInput.readChars(size);
+	}
+}
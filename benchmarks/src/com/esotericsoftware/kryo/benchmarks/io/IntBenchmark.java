@@ -0,0 +1,141 @@
+package com.esotericsoftware.kryo.benchmarks.io;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Writes and reads ints and longs, with fixed size and variable length encodings. The values are small (1 byte as a varint),
+ * medium (3 bytes) or large (any value), so the cost of each varint length is visible.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@OperationsPerInvocation(IntBenchmark.count)
+public class IntBenchmark extends StreamBenchmark {
+	static final int count = 1024;
+
+	@Param({"small", "medium", "large"})
+	public String values;
+
+	private int[] ints = new int[count];
+	private long[] longs = new long[count];
+	private Output output;
+	private Input intInput, varIntInput, longInput, varLongInput;
+
+	@Setup
+	public void setup () {
+		Random random = new Random(1);
+		for (int i = 0; i < count; i++) {
+			if (values.equals("small")) {
+				ints[i] = random.nextInt(128);
+				longs[i] = random.nextInt(128);
+			} else if (values.equals("medium")) {
+				ints[i] = (1 << 14) + random.nextInt((1 << 21) - (1 << 14));
+				longs[i] = ints[i];
+			} else {
+				ints[i] = random.nextInt();
+				longs[i] = random.nextLong();
+			}
+		}
+		output = newOutput(count * 10);
+
+		for (int i = 0; i < count; i++)
+			output.writeInt(ints[i]);
+		intInput = newInput(output);
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeVarInt(ints[i], true);
+		varIntInput = newInput(output);
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeLong(longs[i]);
+		longInput = newInput(output);
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeVarLong(longs[i], true);
+		varLongInput = newInput(output);
+	}
+
+	@Benchmark
+	public int writeInt () {
+		Output output = this.output;
+		int[] ints = this.ints;
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeInt(ints[i]);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeVarInt () {
+		Output output = this.output;
+		int[] ints = this.ints;
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeVarInt(ints[i], true);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeLong () {
+		Output output = this.output;
+		long[] longs = this.longs;
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeLong(longs[i]);
+		return output.position();
+	}
+
+	@Benchmark
+	public int writeVarLong () {
+		Output output = this.output;
+		long[] longs = this.longs;
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeVarLong(longs[i], true);
+		return output.position();
+	}
+
+	@Benchmark
+	public int readInt () {
+		Input input = intInput;
+		input.rewind();
+		int sum = 0;
+		for (int i = 0; i < count; i++)
+			sum += input.readInt();
+		return sum;
+	}
+
+	@Benchmark
+	public int readVarInt () {
+		Input input = varIntInput;
+		input.rewind();
+		int sum = 0;
+		for (int i = 0; i < count; i++)
+			sum += input.readVarInt(true);
+		return sum;
+	}
+
+	@Benchmark
+	public long readLong () {
+		Input input = longInput;
+		input.rewind();
+		long sum = 0;
+		for (int i = 0; i < count; i++)
+			sum += input.readLong();
+		return sum;
+	}
+
+	@Benchmark
+	public long readVarLong () {
+		Input input = varLongInput;
+		input.rewind();
+		long sum = 0;
+		for (int i = 0; i < count; i++)
+			sum += input.readVarLong(true);
+		return sum;
+	}
+}
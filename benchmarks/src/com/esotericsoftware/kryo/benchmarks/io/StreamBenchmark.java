@@ -0,0 +1,41 @@
+package com.esotericsoftware.kryo.benchmarks.io;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Base class for the benchmarks of a stream implementation. Write benchmarks clear the output and write a batch of values, read
+ * benchmarks rewind an input over the bytes written during setup and read them back, so no time is spent allocating streams or
+ * buffers during the measurement.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+	@Param
+	public StreamType stream;
+
+	/** Returns an output from the stream type with a buffer of the specified size. */
+	protected Output newOutput (int bufferSize) {
+		return stream.newOutput(bufferSize);
+	}
+
+	/** Returns an input from the stream type over the bytes written to the output. */
+	protected Input newInput (Output output) {
+		return stream.newInput(output.toBytes());
+	}
+}
@@ -0,0 +1,66 @@
+package com.esotericsoftware.kryo.benchmarks.io;
+
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
+import com.esotericsoftware.kryo.io.FastInput;
+import com.esotericsoftware.kryo.io.FastOutput;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.io.UnsafeInput;
+import com.esotericsoftware.kryo.io.UnsafeMemoryInput;
+import com.esotericsoftware.kryo.io.UnsafeMemoryOutput;
+import com.esotericsoftware.kryo.io.UnsafeOutput;
+
+/** The stream implementations compared by the benchmarks. Each creates an output and the input that reads what it writes.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public enum StreamType {
+	output {
+		public Output newOutput (int bufferSize) {
+			return new Output(bufferSize);
+		}
+
+		public Input newInput (byte[] bytes) {
+			return new Input(bytes);
+		}
+	},
+	fast {
+		public Output newOutput (int bufferSize) {
+			return new FastOutput(bufferSize);
+		}
+
+		public Input newInput (byte[] bytes) {
+			return new FastInput(bytes);
+		}
+	},
+	unsafe {
+		public Output newOutput (int bufferSize) {
+			return new UnsafeOutput(bufferSize);
+		}
+
+		public Input newInput (byte[] bytes) {
+			return new UnsafeInput(bytes);
+		}
+	},
+	byteBuffer {
+		public Output newOutput (int bufferSize) {
+			return new ByteBufferOutput(bufferSize);
+		}
+
+		public Input newInput (byte[] bytes) {
+			return new ByteBufferInput(bytes);
+		}
+	},
+	unsafeMemory {
+		public Output newOutput (int bufferSize) {
+			return new UnsafeMemoryOutput(bufferSize);
+		}
+
+		public Input newInput (byte[] bytes) {
+			return new UnsafeMemoryInput(bytes);
+		}
+	};
+
+	abstract public Output newOutput (int bufferSize);
+
+	abstract public Input newInput (byte[] bytes);
+}
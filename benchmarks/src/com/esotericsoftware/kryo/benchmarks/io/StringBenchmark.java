@@ -0,0 +1,69 @@
+package com.esotericsoftware.kryo.benchmarks.io;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Writes and reads strings of ASCII or non-ASCII characters. ASCII strings use the single byte encoding, others are written
+ * as UTF-8 with a mix of 2 and 3 byte characters.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@OperationsPerInvocation(StringBenchmark.count)
+public class StringBenchmark extends StreamBenchmark {
+	static final int count = 64;
+
+	@Param({"ascii", "utf8"})
+	public String chars;
+
+	@Param({"8", "64", "1024"})
+	public int length;
+
+	private String[] strings = new String[count];
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		Random random = new Random(1);
+		char[] buffer = new char[length];
+		for (int i = 0; i < count; i++) {
+			for (int ii = 0; ii < length; ii++) {
+				if (chars.equals("ascii"))
+					buffer[ii] = (char)(' ' + random.nextInt(95));
+				else if (random.nextBoolean())
+					buffer[ii] = (char)(0xc0 + random.nextInt(0x100)); // 2 bytes.
+				else
+					buffer[ii] = (char)(0x4e00 + random.nextInt(0x1000)); // 3 bytes.
+			}
+			strings[i] = new String(buffer);
+		}
+		output = newOutput(count * (length * 3 + 5));
+		writeString();
+		input = newInput(output);
+	}
+
+	@Benchmark
+	public int writeString () {
+		Output output = this.output;
+		String[] strings = this.strings;
+		output.clear();
+		for (int i = 0; i < count; i++)
+			output.writeString(strings[i]);
+		return output.position();
+	}
+
+	@Benchmark
+	public int readString () {
+		Input input = this.input;
+		input.rewind();
+		int length = 0;
+		for (int i = 0; i < count; i++)
+			length += input.readString().length();
+		return length;
+	}
+}
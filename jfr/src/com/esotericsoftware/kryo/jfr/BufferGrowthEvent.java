@@ -0,0 +1,22 @@
+package com.esotericsoftware.kryo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** An output buffer replaced by a larger one.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@Name("com.esotericsoftware.kryo.BufferGrowth")
+@Label("Buffer Growth")
+@Category("Kryo")
+@Description("Replaces an output's buffer with a larger one")
+class BufferGrowthEvent extends Event {
+	@Label("Output Class") Class outputClass;
+	@Label("Old Capacity") @DataAmount int oldCapacity;
+	@Label("New Capacity") @DataAmount int newCapacity;
+	@Label("Growth Time") @Timespan long growthTime;
+}
@@ -0,0 +1,19 @@
+package com.esotericsoftware.kryo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** An object graph read by {@link com.esotericsoftware.kryo.Kryo}.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@Name("com.esotericsoftware.kryo.Deserialize")
+@Label("Deserialize")
+@Category("Kryo")
+@Description("Reads an object graph")
+class DeserializeEvent extends Event {
+	@Label("Root Class") Class rootClass;
+	@Label("Bytes") @DataAmount long bytes;
+}
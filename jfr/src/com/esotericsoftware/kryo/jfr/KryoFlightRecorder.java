@@ -0,0 +1,190 @@
+package com.esotericsoftware.kryo.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.SerializationListener;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.io.OutputListener;
+
+/** Emits Java Flight Recorder events for the object graphs written and read by all Kryo instances, output buffer growth, class
+ * names written for classes without a registration ID and FieldSerializer rebuilding its cached fields. The events are in the
+ * "Kryo" category and can be enabled and given thresholds like any other JFR event.
+ * <p>
+ * After {@link #install()}, the listeners are set when a recording starts and removed when the last recording stops, so while no
+ * recording is running there is no cost. The flight recorder notifies its listeners on its own thread, so the events are emitted
+ * by the {@link Kryo#setGlobalSerializationListener(SerializationListener) global listener}, which each Kryo reads when it starts
+ * an object graph: a Kryo in the middle of a graph sees the change with its next graph, and the listener set on a Kryo, eg a
+ * {@link com.esotericsoftware.kryo.util.SerializationStatistics}, is never touched. A global listener or {@link OutputListener}
+ * that was already set is forwarded to and restored when the recording stops, unless it has been replaced in the meantime.
+ * Events are only committed if enabled in the running recordings.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class KryoFlightRecorder implements SerializationListener, OutputListener {
+	static private final Object lock = new Object();
+	static private FlightRecorderListener recorderListener;
+	static private KryoFlightRecorder listener;
+
+	private final SerializationListener next;
+	private final OutputListener nextOutputListener;
+
+	static {
+		FlightRecorder.register(SerializeEvent.class);
+		FlightRecorder.register(DeserializeEvent.class);
+		FlightRecorder.register(BufferGrowthEvent.class);
+		FlightRecorder.register(UnregisteredClassEvent.class);
+		FlightRecorder.register(RebuildCachedFieldsEvent.class);
+	}
+
+	private KryoFlightRecorder (SerializationListener next, OutputListener nextOutputListener) {
+		this.next = next;
+		this.nextOutputListener = nextOutputListener;
+	}
+
+	/** Emits events while a recording is running, starting immediately if one is already running. Does nothing if already
+	 * installed. */
+	static public void install () {
+		FlightRecorderListener recorderListener = new FlightRecorderListener() {
+			public void recorderInitialized (FlightRecorder recorder) {
+				update(recorder);
+			}
+
+			public void recordingStateChanged (Recording changed) {
+				update(FlightRecorder.getFlightRecorder());
+			}
+		};
+		synchronized (lock) {
+			if (KryoFlightRecorder.recorderListener != null) return;
+			KryoFlightRecorder.recorderListener = recorderListener;
+		}
+		// Outside the lock, which the flight recorder's thread takes to update the listeners. Called immediately if the flight
+		// recorder is already initialized.
+		FlightRecorder.addListener(recorderListener);
+	}
+
+	/** Stops emitting events and removes the listeners. */
+	static public void uninstall () {
+		FlightRecorderListener recorderListener;
+		synchronized (lock) {
+			recorderListener = KryoFlightRecorder.recorderListener;
+			if (recorderListener == null) return;
+			KryoFlightRecorder.recorderListener = null;
+			stop();
+		}
+		FlightRecorder.removeListener(recorderListener);
+	}
+
+	/** Returns true if a recording is running, so Kryo instances emit events. */
+	static public boolean isRecording () {
+		synchronized (lock) {
+			return listener != null;
+		}
+	}
+
+	static void update (FlightRecorder recorder) {
+		boolean running = false;
+		for (Recording recording : recorder.getRecordings()) {
+			if (recording.getState() == RecordingState.RUNNING) {
+				running = true;
+				break;
+			}
+		}
+		synchronized (lock) {
+			if (recorderListener == null || running == (listener != null)) return;
+			if (running)
+				start();
+			else
+				stop();
+		}
+	}
+
+	static private void start () {
+		KryoFlightRecorder listener;
+		SerializationListener previous;
+		do {
+			previous = Kryo.getGlobalSerializationListener();
+			listener = new KryoFlightRecorder(previous, Output.getOutputListener());
+		} while (!Kryo.compareAndSetGlobalSerializationListener(previous, listener));
+		Output.setOutputListener(listener);
+		KryoFlightRecorder.listener = listener;
+	}
+
+	static private void stop () {
+		if (listener == null) return;
+		// A listener set while recording is kept.
+		Kryo.compareAndSetGlobalSerializationListener(listener, listener.next);
+		if (Output.getOutputListener() == listener) Output.setOutputListener(listener.nextOutputListener);
+		listener = null;
+	}
+
+	public void onWriteStart (Kryo kryo, Class type, Registration registration, int depth) {
+		if (next != null) next.onWriteStart(kryo, type, registration, depth);
+		if (depth != 1) return;
+		SerializeEvent event = new SerializeEvent();
+		if (!event.isEnabled()) return;
+		event.begin();
+		// The graph context is cleared when the graph is done, even if the serializer throws an exception.
+		kryo.getGraphContext().put(SerializeEvent.class, event);
+	}
+
+	public void onWriteEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+		if (next != null) next.onWriteEnd(kryo, type, registration, depth, bytes, nanos);
+		if (depth != 1) return;
+		SerializeEvent event = (SerializeEvent)kryo.getGraphContext().remove(SerializeEvent.class);
+		if (event == null) return;
+		event.rootClass = type;
+		event.bytes = bytes;
+		event.commit();
+	}
+
+	public void onReadStart (Kryo kryo, Class type, Registration registration, int depth) {
+		if (next != null) next.onReadStart(kryo, type, registration, depth);
+		if (depth != 1) return;
+		DeserializeEvent event = new DeserializeEvent();
+		if (!event.isEnabled()) return;
+		event.begin();
+		kryo.getGraphContext().put(DeserializeEvent.class, event);
+	}
+
+	public void onReadEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+		if (next != null) next.onReadEnd(kryo, type, registration, depth, bytes, nanos);
+		if (depth != 1) return;
+		DeserializeEvent event = (DeserializeEvent)kryo.getGraphContext().remove(DeserializeEvent.class);
+		if (event == null) return;
+		event.rootClass = type;
+		event.bytes = bytes;
+		event.commit();
+	}
+
+	public void onWriteClassName (Kryo kryo, Class type) {
+		if (next != null) next.onWriteClassName(kryo, type);
+		UnregisteredClassEvent event = new UnregisteredClassEvent();
+		if (!event.isEnabled()) return;
+		event.type = type;
+		event.commit();
+	}
+
+	public void onRebuildCachedFields (Kryo kryo, Class type, int fieldCount, long nanos) {
+		if (next != null) next.onRebuildCachedFields(kryo, type, fieldCount, nanos);
+		RebuildCachedFieldsEvent event = new RebuildCachedFieldsEvent();
+		if (!event.isEnabled()) return;
+		event.type = type;
+		event.fieldCount = fieldCount;
+		event.rebuildTime = nanos;
+		event.commit();
+	}
+
+	public void onBufferGrowth (Output output, int oldCapacity, int newCapacity, long nanos) {
+		if (nextOutputListener != null) nextOutputListener.onBufferGrowth(output, oldCapacity, newCapacity, nanos);
+		BufferGrowthEvent event = new BufferGrowthEvent();
+		if (!event.isEnabled()) return;
+		event.outputClass = output.getClass();
+		event.oldCapacity = oldCapacity;
+		event.newCapacity = newCapacity;
+		event.growthTime = nanos;
+		event.commit();
+	}
+}
@@ -0,0 +1,20 @@
+package com.esotericsoftware.kryo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** A FieldSerializer building its list of cached fields.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@Name("com.esotericsoftware.kryo.RebuildCachedFields")
+@Label("Rebuild Cached Fields")
+@Category("Kryo")
+@Description("Builds the list of cached fields of a FieldSerializer")
+class RebuildCachedFieldsEvent extends Event {
+	@Label("Class") Class type;
+	@Label("Fields") int fieldCount;
+	@Label("Rebuild Time") @Timespan long rebuildTime;
+}
@@ -0,0 +1,17 @@
+package com.esotericsoftware.kryo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** The name of a class without a registration ID written to an object graph.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@Name("com.esotericsoftware.kryo.UnregisteredClass")
+@Label("Unregistered Class")
+@Category("Kryo")
+@Description("Writes the name of a class that is not registered with an ID")
+class UnregisteredClassEvent extends Event {
+	@Label("Class") Class type;
+}
@@ -0,0 +1,138 @@
+package com.esotericsoftware.kryo.jfr;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.io.OutputListener;
+import com.esotericsoftware.kryo.util.SerializationStatistics;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class KryoFlightRecorderTest extends TestCase {
+	public void testEvents () throws Exception {
+		Kryo kryo = new Kryo();
+		kryo.setRegistrationRequired(false);
+		KryoFlightRecorder.install();
+		assertFalse(KryoFlightRecorder.isRecording());
+		assertNull(Kryo.getGlobalSerializationListener());
+
+		Recording recording = new Recording();
+		recording.enable("com.esotericsoftware.kryo.Serialize");
+		recording.enable("com.esotericsoftware.kryo.Deserialize");
+		recording.enable("com.esotericsoftware.kryo.BufferGrowth");
+		recording.enable("com.esotericsoftware.kryo.UnregisteredClass");
+		recording.enable("com.esotericsoftware.kryo.RebuildCachedFields");
+		File file = File.createTempFile("kryo", ".jfr");
+		try {
+			recording.start();
+			assertTrue(KryoFlightRecorder.isRecording());
+			assertNotNull(Kryo.getGlobalSerializationListener());
+			assertNull(kryo.getSerializationListener());
+
+			Output output = new Output(2, -1);
+			Data data = new Data();
+			data.name = "abcdef";
+			kryo.writeClassAndObject(output, data);
+			Input input = new Input(output.toBytes());
+			kryo.readClassAndObject(input);
+
+			recording.stop();
+			assertFalse(KryoFlightRecorder.isRecording());
+			assertNull(Kryo.getGlobalSerializationListener());
+			assertNull(Output.getOutputListener());
+			recording.dump(file.toPath());
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+			RecordedEvent serialize = find(events, "com.esotericsoftware.kryo.Serialize").get(0);
+			assertEquals(Data.class.getName(), serialize.getClass("rootClass").getName());
+			assertEquals(8, serialize.getLong("bytes")); // Excludes the class name.
+			RecordedEvent deserialize = find(events, "com.esotericsoftware.kryo.Deserialize").get(0);
+			assertEquals(Data.class.getName(), deserialize.getClass("rootClass").getName());
+			assertEquals(serialize.getLong("bytes"), deserialize.getLong("bytes"));
+			assertEquals(Data.class.getName(), find(events, "com.esotericsoftware.kryo.UnregisteredClass").get(0).getClass("type")
+				.getName());
+			RecordedEvent rebuild = find(events, "com.esotericsoftware.kryo.RebuildCachedFields").get(0);
+			assertEquals(Data.class.getName(), rebuild.getClass("type").getName());
+			assertEquals(2, rebuild.getInt("fieldCount"));
+			RecordedEvent growth = find(events, "com.esotericsoftware.kryo.BufferGrowth").get(0);
+			assertEquals(2, growth.getInt("oldCapacity"));
+			assertEquals(4, growth.getInt("newCapacity"));
+		} finally {
+			recording.close();
+			file.delete();
+			KryoFlightRecorder.uninstall();
+		}
+	}
+
+	public void testChainsListeners () throws Exception {
+		Kryo kryo = new Kryo();
+		kryo.register(Data.class);
+		SerializationStatistics statistics = new SerializationStatistics();
+		kryo.setSerializationListener(statistics);
+		SerializationStatistics globalStatistics = new SerializationStatistics();
+		Kryo.setGlobalSerializationListener(globalStatistics);
+		final int[] growths = new int[1];
+		OutputListener outputListener = new OutputListener() {
+			public void onBufferGrowth (Output output, int oldCapacity, int newCapacity, long nanos) {
+				growths[0]++;
+			}
+		};
+		Output.setOutputListener(outputListener);
+		KryoFlightRecorder.install();
+
+		Recording recording = new Recording();
+		recording.enable("com.esotericsoftware.kryo.Serialize");
+		try {
+			recording.start();
+			assertNotSame(globalStatistics, Kryo.getGlobalSerializationListener());
+			// The listener of the Kryo instance is not changed by the flight recorder's thread.
+			assertSame(statistics, kryo.getSerializationListener());
+
+			Output output = new Output(2, -1);
+			Data data = new Data();
+			data.name = "abcdef";
+			kryo.writeObject(output, data);
+			assertEquals(1, statistics.getStatistics(Data.class).getWriteCount());
+			assertEquals(1, globalStatistics.getStatistics(Data.class).getWriteCount());
+			assertTrue(growths[0] > 0);
+
+			recording.stop();
+			assertSame(globalStatistics, Kryo.getGlobalSerializationListener());
+			assertSame(outputListener, Output.getOutputListener());
+
+			// Not installed, recordings are ignored.
+			KryoFlightRecorder.uninstall();
+			recording.close();
+			recording = new Recording();
+			recording.start();
+			assertFalse(KryoFlightRecorder.isRecording());
+			assertSame(globalStatistics, Kryo.getGlobalSerializationListener());
+		} finally {
+			recording.close();
+			KryoFlightRecorder.uninstall();
+			Kryo.setGlobalSerializationListener(null);
+			Output.setOutputListener(null);
+		}
+	}
+
+	static private List<RecordedEvent> find (List<RecordedEvent> events, String name) {
+		List<RecordedEvent> found = new ArrayList();
+		for (RecordedEvent event : events)
+			if (event.getEventType().getName().equals(name)) found.add(event);
+		assertFalse("No event: " + name, found.isEmpty());
+		return found;
+	}
+
+	static public class Data {
+		public int id;
+		public String name;
+	}
+}
@@ -0,0 +1,441 @@
+package com.esotericsoftware.kryo.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/** Generates the source of a serializer for each class annotated with GenerateSerializer and lists the classes in an index. The
+ * serializers write the same bytes as FieldSerializer with its default settings: the non-transient fields of the class and its
+ * superclasses are sorted by name, primitives are written with variable length ints and longs, and the values of other fields
+ * are written by GeneratedSerializers.ValueField.
+ * <p>
+ * The generated code accesses the fields directly, so the serialized fields must not be private or final, and must be
+ * accessible from the package of the class. Transient fields that can't be accessed are not copied.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@SupportedAnnotationTypes(SerializerProcessor.generateSerializer)
+public class SerializerProcessor extends AbstractProcessor {
+	static final String generateSerializer = "com.esotericsoftware.kryo.GenerateSerializer";
+	// Must match GeneratedSerializers in the kryo jar, which the processor does not depend on.
+	static final String index = "META-INF/kryo/serializers";
+	static final String suffix = "_KryoSerializer";
+
+	static private final String notNull = "com.esotericsoftware.kryo.NotNull";
+	static private final String optional = "com.esotericsoftware.kryo.serializers.FieldSerializer.Optional";
+	static private final String[] unsupported = {"com.esotericsoftware.kryo.serializers.FieldSerializer.Bind",
+		"com.esotericsoftware.kryo.serializers.CollectionSerializer.BindCollection",
+		"com.esotericsoftware.kryo.serializers.MapSerializer.BindMap"};
+	static private final String valueField = "com.esotericsoftware.kryo.serializers.GeneratedSerializers.ValueField";
+
+	private Elements elements;
+	private Types types;
+	private Filer filer;
+	private Messager messager;
+	private final TreeSet<String> indexed = new TreeSet<String>();
+
+	public synchronized void init (ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		elements = processingEnv.getElementUtils();
+		types = processingEnv.getTypeUtils();
+		filer = processingEnv.getFiler();
+		messager = processingEnv.getMessager();
+	}
+
+	public SourceVersion getSupportedSourceVersion () {
+		return SourceVersion.latestSupported();
+	}
+
+	public boolean process (Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			if (!indexed.isEmpty()) writeIndex();
+			return false;
+		}
+		TypeElement annotation = elements.getTypeElement(generateSerializer);
+		if (annotation == null) return false;
+		for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+			TypeElement type = (TypeElement)element;
+			if (!checkType(type)) continue;
+			List<SerializedField> fields = new ArrayList<SerializedField>(), transientFields = new ArrayList<SerializedField>();
+			if (!collectFields(type, fields, transientFields)) continue;
+			try {
+				writeSerializer(type, fields, transientFields);
+			} catch (IOException ex) {
+				messager.printMessage(Kind.ERROR, "Unable to write serializer: " + ex.getMessage(), type);
+				continue;
+			}
+			indexed.add(elements.getBinaryName(type).toString());
+		}
+		return true;
+	}
+
+	private boolean checkType (TypeElement type) {
+		String error = null;
+		if (type.getKind() != ElementKind.CLASS)
+			error = "@GenerateSerializer can only be used on classes.";
+		else if (type.getModifiers().contains(Modifier.ABSTRACT))
+			error = "@GenerateSerializer can't be used on abstract classes.";
+		else if (!type.getTypeParameters().isEmpty())
+			error = "@GenerateSerializer can't be used on generic classes.";
+		else {
+			for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+				TypeElement enclosing = (TypeElement)e;
+				if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+					error = "@GenerateSerializer can't be used on private classes.";
+					break;
+				}
+				if (enclosing.getNestingKind() == NestingKind.MEMBER && !enclosing.getModifiers().contains(Modifier.STATIC)
+					&& enclosing.getKind() == ElementKind.CLASS) {
+					error = "@GenerateSerializer can't be used on inner classes, the class must be static.";
+					break;
+				}
+				if (enclosing.getNestingKind() == NestingKind.LOCAL || enclosing.getNestingKind() == NestingKind.ANONYMOUS) {
+					error = "@GenerateSerializer can't be used on local classes.";
+					break;
+				}
+			}
+		}
+		if (error == null) return true;
+		messager.printMessage(Kind.ERROR, error, type);
+		return false;
+	}
+
+	/** Collects the fields of the class and its superclasses, sorted by name like FieldSerializer.
+	 * @return false if a field can't be serialized. */
+	private boolean collectFields (TypeElement type, List<SerializedField> fields, List<SerializedField> transientFields) {
+		PackageElement typePackage = elements.getPackageOf(type);
+		boolean valid = true;
+		TypeElement next = type;
+		while (next != null && !next.getQualifiedName().contentEquals("java.lang.Object")) {
+			for (VariableElement field : ElementFilter.fieldsIn(next.getEnclosedElements())) {
+				Set<Modifier> modifiers = field.getModifiers();
+				if (modifiers.contains(Modifier.STATIC)) continue;
+				boolean isTransient = modifiers.contains(Modifier.TRANSIENT);
+				boolean accessible = !modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.FINAL)
+					&& (modifiers.contains(Modifier.PUBLIC) || elements.getPackageOf(next).equals(typePackage))
+					&& (next == type || isAccessible(types.erasure(next.asType()), typePackage))
+					&& isAccessible(field.asType(), typePackage);
+				if (isTransient) {
+					// Transient fields are only copied.
+					if (accessible) transientFields.add(new SerializedField(next, field));
+					continue;
+				}
+				if (!accessible) {
+					messager.printMessage(Kind.ERROR, "Field can't be accessed by the generated serializer of "
+						+ type.getQualifiedName() + ", it must not be private or final and it must be accessible from package "
+						+ typePackage.getQualifiedName() + ".", field);
+					valid = false;
+					continue;
+				}
+				for (String name : unsupported) {
+					if (getAnnotation(field, name) != null) {
+						messager.printMessage(Kind.ERROR, "@" + name.substring(name.lastIndexOf('.') + 1)
+							+ " is not supported by the generated serializer.", field);
+						valid = false;
+					}
+				}
+				fields.add(new SerializedField(next, field));
+			}
+			TypeMirror superclass = next.getSuperclass();
+			next = superclass.getKind() == TypeKind.DECLARED ? (TypeElement)types.asElement(superclass) : null;
+		}
+		// Sorting is stable, like FieldSerializer, so a field hidden by a subclass is written after the subclass field.
+		Comparator<SerializedField> comparator = new Comparator<SerializedField>() {
+			public int compare (SerializedField o1, SerializedField o2) {
+				return o1.name.compareTo(o2.name);
+			}
+		};
+		Collections.sort(fields, comparator);
+		Collections.sort(transientFields, comparator);
+		return valid;
+	}
+
+	/** Returns true if the erasure of the type can be named in the package. */
+	private boolean isAccessible (TypeMirror type, PackageElement fromPackage) {
+		while (type.getKind() == TypeKind.ARRAY)
+			type = ((ArrayType)type).getComponentType();
+		if (type.getKind().isPrimitive()) return true;
+		if (type.getKind() != TypeKind.DECLARED) return false;
+		for (Element e = types.asElement(type); e instanceof TypeElement; e = e.getEnclosingElement()) {
+			Set<Modifier> modifiers = e.getModifiers();
+			if (modifiers.contains(Modifier.PRIVATE)) return false;
+			if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(e).equals(fromPackage)) return false;
+		}
+		return true;
+	}
+
+	private void writeSerializer (TypeElement type, List<SerializedField> fields, List<SerializedField> transientFields)
+		throws IOException {
+		String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+		String binaryName = elements.getBinaryName(type).toString();
+		String simpleName = binaryName.substring(binaryName.lastIndexOf('.') + 1).replace('$', '_') + suffix;
+		String typeName = type.getQualifiedName().toString();
+		PackageElement typePackage = elements.getPackageOf(type);
+
+		Writer writer = filer.createSourceFile(packageName.length() == 0 ? simpleName : packageName + "." + simpleName, type)
+			.openWriter();
+		PrintWriter out = new PrintWriter(writer);
+		try {
+			if (packageName.length() > 0) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			out.println("import com.esotericsoftware.kryo.Kryo;");
+			out.println("import com.esotericsoftware.kryo.Serializer;");
+			out.println("import com.esotericsoftware.kryo.io.Input;");
+			out.println("import com.esotericsoftware.kryo.io.Output;");
+			out.println();
+			out.println("/** Serializer for {@link " + typeName + "}, generated by " + getClass().getName() + ". */");
+			out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+			out.println("public class " + simpleName + " extends Serializer<" + typeName + "> {");
+
+			// Fields.
+			for (int i = 0, n = fields.size(); i < n; i++) {
+				SerializedField field = fields.get(i);
+				if (!field.type.getKind().isPrimitive()) out.println("\tprivate final " + valueField + " field" + i + ";");
+				if (field.optional != null) out.println("\tprivate final boolean optional" + i + ";");
+			}
+			out.println();
+
+			// Constructor.
+			out.println("\tpublic " + simpleName + " (Kryo kryo) {");
+			for (int i = 0, n = fields.size(); i < n; i++) {
+				SerializedField field = fields.get(i);
+				if (!field.type.getKind().isPrimitive()) {
+					boolean canBeNull = getAnnotation(field.element, notNull) == null;
+					out.println("\t\tfield" + i + " = new " + valueField + "(kryo, " + field.declaringType.getQualifiedName() + ".class, \""
+						+ field.name + "\", " + erasure(field.type) + ".class, " + generics(field.type, typePackage) + ", " + canBeNull
+						+ ");");
+				}
+				if (field.optional != null)
+					out.println("\t\toptional" + i + " = kryo.getContext().containsKey(" + elements.getConstantExpression(field.optional)
+						+ ");");
+			}
+			out.println("\t}");
+			out.println();
+
+			// Write.
+			out.println("\tpublic void write (Kryo kryo, Output output, " + typeName + " object) {");
+			for (int i = 0, n = fields.size(); i < n; i++) {
+				SerializedField field = fields.get(i);
+				String value = field.access(type, "object");
+				String statement;
+				switch (field.type.getKind()) {
+				case INT:
+					statement = "output.writeInt(" + value + ", false);";
+					break;
+				case LONG:
+					statement = "output.writeLong(" + value + ", false);";
+					break;
+				case FLOAT:
+				case DOUBLE:
+				case SHORT:
+				case CHAR:
+				case BYTE:
+				case BOOLEAN:
+					statement = "output.write" + capitalize(field.type.getKind()) + "(" + value + ");";
+					break;
+				default:
+					statement = "field" + i + ".write(kryo, output, " + value + ");";
+				}
+				out.println("\t\t" + (field.optional != null ? "if (optional" + i + ") " : "") + statement);
+			}
+			out.println("\t}");
+			out.println();
+
+			// Read.
+			out.println("\tpublic " + typeName + " read (Kryo kryo, Input input, Class<" + typeName + "> type) {");
+			out.println("\t\t" + typeName + " object = kryo.newInstance(type);");
+			out.println("\t\tkryo.reference(object);");
+			for (int i = 0, n = fields.size(); i < n; i++) {
+				SerializedField field = fields.get(i);
+				String value;
+				switch (field.type.getKind()) {
+				case INT:
+					value = "input.readInt(false)";
+					break;
+				case LONG:
+					value = "input.readLong(false)";
+					break;
+				case FLOAT:
+				case DOUBLE:
+				case SHORT:
+				case CHAR:
+				case BYTE:
+				case BOOLEAN:
+					value = "input.read" + capitalize(field.type.getKind()) + "()";
+					break;
+				default:
+					value = "(" + erasure(field.type) + ")field" + i + ".read(kryo, input)";
+				}
+				out.println("\t\t" + (field.optional != null ? "if (optional" + i + ") " : "") + field.access(type, "object")
+					+ " = " + value + ";");
+			}
+			out.println("\t\treturn object;");
+			out.println("\t}");
+			out.println();
+
+			// Copy, transient fields first like FieldSerializer.
+			out.println("\tpublic " + typeName + " copy (Kryo kryo, " + typeName + " original) {");
+			out.println("\t\t" + typeName + " copy = (" + typeName + ")kryo.newInstance(original.getClass());");
+			out.println("\t\tkryo.reference(copy);");
+			for (SerializedField field : transientFields)
+				out.println("\t\t" + field.copy(type));
+			for (int i = 0, n = fields.size(); i < n; i++) {
+				SerializedField field = fields.get(i);
+				out.println("\t\t" + (field.optional != null ? "if (optional" + i + ") " : "") + field.copy(type));
+			}
+			out.println("\t\treturn copy;");
+			out.println("\t}");
+			out.println("}");
+		} finally {
+			out.close();
+		}
+	}
+
+	/** Returns the source of the classes FieldSerializer passes to the serializer of the field's values as generics, or "null". */
+	private String generics (TypeMirror type, PackageElement fromPackage) {
+		// The type arguments of an array's component type are used for a generic array.
+		while (type.getKind() == TypeKind.ARRAY)
+			type = ((ArrayType)type).getComponentType();
+		if (type.getKind() != TypeKind.DECLARED) return "null";
+		List<? extends TypeMirror> arguments = ((DeclaredType)type).getTypeArguments();
+		if (arguments.isEmpty()) return "null";
+		StringBuilder buffer = new StringBuilder("new Class[] {");
+		for (int i = 0, n = arguments.size(); i < n; i++) {
+			TypeMirror argument = arguments.get(i);
+			String generic;
+			if (argument.getKind() == TypeKind.WILDCARD)
+				generic = "java.lang.Object.class";
+			else if (argument.getKind() == TypeKind.DECLARED
+				|| (argument.getKind() == TypeKind.ARRAY && types.isSameType(argument, types.erasure(argument)))) {
+				// The class of a parameterized type or of an array without type arguments.
+				generic = isAccessible(argument, fromPackage) ? erasure(argument) + ".class" : null;
+			} else
+				generic = null; // A type variable or an array of a parameterized type.
+			// Without a class for the first type argument FieldSerializer doesn't pass generics.
+			if (i == 0 && generic == null) return "null";
+			if (i > 0) buffer.append(", ");
+			buffer.append(generic);
+		}
+		return buffer.append('}').toString();
+	}
+
+	private String erasure (TypeMirror type) {
+		return types.erasure(type).toString();
+	}
+
+	static private String capitalize (TypeKind kind) {
+		String name = kind.name();
+		return name.charAt(0) + name.substring(1).toLowerCase();
+	}
+
+	private AnnotationMirror getAnnotation (Element element, String annotationName) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement)annotation.getAnnotationType().asElement();
+			if (annotationType.getQualifiedName().contentEquals(annotationName)) return annotation;
+		}
+		return null;
+	}
+
+	/** Writes the index, keeping the classes listed by previous compilations into the same output. */
+	private void writeIndex () {
+		try {
+			FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", index);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), "UTF-8"));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					line = line.trim();
+					if (line.length() > 0 && !line.startsWith("#")) indexed.add(line);
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException ignored) {
+			// No existing index.
+		}
+		try {
+			FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", index);
+			PrintWriter out = new PrintWriter(resource.openWriter());
+			try {
+				for (String name : indexed)
+					out.println(name);
+			} finally {
+				out.close();
+			}
+		} catch (IOException ex) {
+			messager.printMessage(Kind.ERROR, "Unable to write " + index + ": " + ex.getMessage());
+		}
+	}
+
+	private class SerializedField {
+		final TypeElement declaringType;
+		final VariableElement element;
+		final String name;
+		final TypeMirror type;
+		final String optional;
+
+		SerializedField (TypeElement declaringType, VariableElement element) {
+			this.declaringType = declaringType;
+			this.element = element;
+			name = element.getSimpleName().toString();
+			type = element.asType();
+			AnnotationMirror annotation = getAnnotation(element, SerializerProcessor.optional);
+			String optional = null;
+			if (annotation != null) {
+				for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+					if (entry.getKey().getSimpleName().contentEquals("value")) optional = (String)entry.getValue().getValue();
+				}
+			}
+			this.optional = optional;
+		}
+
+		/** Returns the source to access the field, casting to the declaring class for a field of a superclass. */
+		String access (TypeElement type, String object) {
+			if (declaringType.equals(type)) return object + "." + name;
+			return "((" + declaringType.getQualifiedName() + ")" + object + ")." + name;
+		}
+
+		String copy (TypeElement type) {
+			String value = access(type, "original");
+			if (!this.type.getKind().isPrimitive()) value = "kryo.copy(" + value + ")";
+			return access(type, "copy") + " = " + value + ";";
+		}
+	}
+}
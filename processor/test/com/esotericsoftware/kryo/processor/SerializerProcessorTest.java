@@ -0,0 +1,254 @@
+package com.esotericsoftware.kryo.processor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.serializers.GeneratedSerializers;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class SerializerProcessorTest extends TestCase {
+	static private final String dataSource = "package sample;\n" //
+		+ "import java.util.*;\n" //
+		+ "import com.esotericsoftware.kryo.*;\n" //
+		+ "import com.esotericsoftware.kryo.serializers.FieldSerializer.Optional;\n" //
+		+ "@GenerateSerializer\n" //
+		+ "public class Data extends Base {\n" //
+		+ "	public int i; long l; float f; double d; short s; char c; byte b; boolean z;\n" //
+		+ "	String text, name;\n" //
+		+ "	@NotNull Inner inner;\n" //
+		+ "	Integer boxed;\n" //
+		+ "	List<String> names;\n" //
+		+ "	HashMap<String, Inner> map;\n" //
+		+ "	ArrayList<?> any;\n" //
+		+ "	Object object;\n" //
+		+ "	int[] ints;\n" //
+		+ "	@Optional(\"extra\") String extra;\n" //
+		+ "	transient int cache;\n" //
+		+ "	@GenerateSerializer\n" //
+		+ "	static public final class Inner {\n" //
+		+ "		public int value;\n" //
+		+ "	}\n" //
+		+ "}\n" //
+		+ "class Base {\n" //
+		+ "	String name;\n" //
+		+ "	protected long id;\n" //
+		+ "}\n";
+
+	private File dir;
+
+	protected void setUp () throws Exception {
+		dir = File.createTempFile("kryo-processor", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	protected void tearDown () throws Exception {
+		delete(dir);
+	}
+
+	public void testSameBytesAsFieldSerializer () throws Exception {
+		List<Diagnostic<? extends JavaFileObject>> errors = compile("sample/Data.java", dataSource);
+		assertTrue(errors.toString(), errors.isEmpty());
+		ClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, getClass().getClassLoader());
+		Class dataClass = loader.loadClass("sample.Data");
+		Class innerClass = loader.loadClass("sample.Data$Inner");
+
+		for (int references = 0; references < 2; references++) {
+			Kryo kryo = new Kryo();
+			kryo.setClassLoader(loader);
+			kryo.setReferences(references == 1);
+			kryo.setRegistrationRequired(true);
+			kryo.register(ArrayList.class);
+			kryo.register(HashMap.class);
+			kryo.register(int[].class);
+			assertEquals(2, GeneratedSerializers.register(kryo));
+			assertEquals("sample.Data_KryoSerializer", kryo.getSerializer(dataClass).getClass().getName());
+			assertEquals("sample.Data_Inner_KryoSerializer", kryo.getSerializer(innerClass).getClass().getName());
+
+			Kryo fieldKryo = new Kryo();
+			fieldKryo.setReferences(references == 1);
+			fieldKryo.setRegistrationRequired(true);
+			fieldKryo.register(ArrayList.class);
+			fieldKryo.register(HashMap.class);
+			fieldKryo.register(int[].class);
+			fieldKryo.register(dataClass, new FieldSerializer(fieldKryo, dataClass));
+			fieldKryo.register(innerClass, new FieldSerializer(fieldKryo, innerClass));
+
+			Object data = newData(dataClass, innerClass);
+			byte[] bytes = write(fieldKryo, data);
+			assertTrue(Arrays.equals(bytes, write(kryo, data)));
+
+			Object read = kryo.readObject(new Input(bytes), dataClass);
+			assertTrue(Arrays.equals(bytes, write(fieldKryo, read)));
+			assertTrue(Arrays.equals(bytes, write(fieldKryo, kryo.copy(data))));
+			assertEquals(5, get(kryo.copy(data), "cache"));
+
+			// Null values and default values.
+			Object empty = dataClass.newInstance();
+			set(empty, "inner", innerClass.newInstance());
+			assertTrue(Arrays.equals(write(fieldKryo, empty), write(kryo, empty)));
+
+			set(empty, "inner", null);
+			try {
+				write(kryo, empty);
+				fail();
+			} catch (KryoException expected) {
+			}
+		}
+
+		// Without registering the index, the generated serializer is the default serializer. Optional fields are written if the key
+		// is in the context when the serializer is created.
+		Kryo kryo = new Kryo();
+		kryo.setClassLoader(loader);
+		kryo.setReferences(false);
+		kryo.getContext().put("extra", true);
+		kryo.register(dataClass);
+		kryo.register(innerClass);
+		assertEquals("sample.Data_KryoSerializer", kryo.getSerializer(dataClass).getClass().getName());
+		Kryo fieldKryo = new Kryo();
+		fieldKryo.setReferences(false);
+		fieldKryo.getContext().put("extra", true);
+		fieldKryo.register(dataClass, new FieldSerializer(fieldKryo, dataClass));
+		fieldKryo.register(innerClass, new FieldSerializer(fieldKryo, innerClass));
+		Object data = newData(dataClass, innerClass);
+		set(data, "extra", "extra");
+		assertTrue(Arrays.equals(write(fieldKryo, data), write(kryo, data)));
+		assertEquals("extra", get(kryo.readObject(new Input(write(kryo, data)), dataClass), "extra"));
+	}
+
+	public void testInaccessibleField () throws Exception {
+		List<Diagnostic<? extends JavaFileObject>> errors = compile("sample/Hidden.java", "package sample;\n" //
+			+ "@com.esotericsoftware.kryo.GenerateSerializer\n" //
+			+ "public class Hidden {\n" //
+			+ "	private int value;\n" //
+			+ "	private transient int cache;\n" //
+			+ "}\n");
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0).getMessage(null).contains("can't be accessed"));
+	}
+
+	public void testGenericClass () throws Exception {
+		List<Diagnostic<? extends JavaFileObject>> errors = compile("sample/Box.java", "package sample;\n" //
+			+ "@com.esotericsoftware.kryo.GenerateSerializer\n" //
+			+ "public class Box<T> {\n" //
+			+ "	T value;\n" //
+			+ "}\n");
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0).getMessage(null).contains("generic"));
+	}
+
+	private Object newData (Class dataClass, Class innerClass) throws Exception {
+		Object inner = innerClass.newInstance();
+		set(inner, "value", 7);
+		Object data = dataClass.newInstance();
+		set(data, "i", -5);
+		set(data, "l", 1L << 40);
+		set(data, "f", 1.5f);
+		set(data, "d", 2.5);
+		set(data, "s", (short)300);
+		set(data, "c", 'é');
+		set(data, "b", (byte)-7);
+		set(data, "z", true);
+		set(data, "text", "text");
+		set(data, "name", "name");
+		set(data, "inner", inner);
+		set(data, "boxed", 12);
+		set(data, "names", new ArrayList(Arrays.asList("a", null, "b")));
+		HashMap map = new HashMap();
+		map.put("key", inner);
+		set(data, "map", map);
+		set(data, "any", new ArrayList(Arrays.asList(1, "x")));
+		set(data, "object", innerClass.newInstance());
+		set(data, "ints", new int[] {1, 2, 3});
+		set(data, "cache", 5);
+		Field baseName = dataClass.getSuperclass().getDeclaredField("name");
+		baseName.setAccessible(true);
+		baseName.set(data, "base");
+		Field id = dataClass.getSuperclass().getDeclaredField("id");
+		id.setAccessible(true);
+		id.set(data, 99L);
+		return data;
+	}
+
+	private byte[] write (Kryo kryo, Object object) {
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, object);
+		return output.toBytes();
+	}
+
+	static private void set (Object object, String name, Object value) throws Exception {
+		Field field = object.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(object, value);
+	}
+
+	static private Object get (Object object, String name) throws Exception {
+		Field field = object.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(object);
+	}
+
+	/** Compiles the source with the processor into the temporary directory.
+	 * @return The errors. */
+	private List<Diagnostic<? extends JavaFileObject>> compile (String path, String source) throws IOException {
+		File file = new File(dir, path);
+		file.getParentFile().mkdirs();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(source);
+		} finally {
+			writer.close();
+		}
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+		String classPath = System.getProperty("java.class.path") + File.pathSeparator
+			+ new File(Kryo.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+		List<String> options = Arrays.asList("-d", dir.getPath(), "-s", dir.getPath(), "-classpath", classPath, "-encoding", "UTF-8");
+		JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+			fileManager.getJavaFileObjects(file));
+		task.setProcessors(Collections.singletonList(new SerializerProcessor()));
+		task.call();
+		fileManager.close();
+
+		List<Diagnostic<? extends JavaFileObject>> errors = new ArrayList();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR) errors.add(diagnostic);
+		return errors;
+	}
+
+	static private void delete (File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files)
+				delete(child);
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,21 @@
+package com.esotericsoftware.kryo;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.serializers.GeneratedSerializers;
+
+/** Generates the source of a serializer for the annotated class at compile time, when the kryo-processor annotation processor is
+ * on the compiler's class path. The generated serializer writes the same bytes as {@link FieldSerializer} with its default
+ * settings, without discovering the fields with reflection. It is used as the default serializer for the class and is listed in
+ * an index so all generated serializers can be registered with {@link GeneratedSerializers#register(Kryo)}.
+ * <p>
+ * The class must not be generic and its serialized fields must not be private or final.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateSerializer {
+}
@@ -22,6 +22,8 @@ import com.esotericsoftware.kryo.serializers.DefaultArraySerializers.ShortArrayS
 import com.esotericsoftware.kryo.serializers.DefaultArraySerializers.StringArraySerializer;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.BigDecimalSerializer;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.BigIntegerSerializer;
+import com.esotericsoftware.kryo.serializers.DefaultSerializers.ByteBufferSerializer;
+import com.esotericsoftware.kryo.serializers.FieldProjection;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.BooleanSerializer;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.ByteSerializer;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.CalendarSerializer;
@@ -52,6 +54,7 @@ import com.esotericsoftware.kryo.serializers.DefaultSerializers.TreeMapSerialize
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.TreeSetSerializer;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers.VoidSerializer;
 import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.serializers.GeneratedSerializers;
 import com.esotericsoftware.kryo.serializers.MapSerializer;
 import com.esotericsoftware.kryo.util.DefaultClassResolver;
 import com.esotericsoftware.kryo.util.DefaultStreamFactory;
@@ -70,6 +73,7 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
@@ -78,11 +82,14 @@ import java.util.ConcurrentModificationException;
 import java.util.Currency;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.objenesis.instantiator.ObjectInstantiator;
 import org.objenesis.strategy.InstantiatorStrategy;
@@ -98,6 +105,12 @@ public class Kryo {
 	static private final int REF = -1;
 	static private final int NO_REF = -2;
 
+	static private final byte BATCH_END = 0;
+	static private final byte BATCH_OBJECT = 1;
+	static private final byte BATCH_CLASS = 2;
+
+	static private final AtomicReference<SerializationListener> globalListener = new AtomicReference();
+
 	private SerializerFactory defaultSerializer = new ReflectionSerializerFactory(FieldSerializer.class);
 	private final ArrayList<DefaultSerializerEntry> defaultSerializers = new ArrayList(32);
 	private final int lowPriorityDefaultSerializerCount;
@@ -117,6 +130,7 @@ public class Kryo {
 	private final IntArray readReferenceIds = new IntArray(0);
 	private boolean references, copyReferences = true;
 	private Object readObject;
+	private ObjectIterator batch;
 
 	private int copyDepth;
 	private boolean copyShallow;
@@ -125,8 +139,11 @@ public class Kryo {
 	private Generics genericsScope;
 	/** Tells if ASM-based backend should be used by new serializer instances created using this Kryo instance. */
 	private boolean asmEnabled = false;
+	private SerializationListener listener, graphListener;
+	private ListenerChain listenerChain;
 
 	private StreamFactory streamFactory;
+	private SizeOutput sizeOutput;
 
 	/** Creates a new Kryo with a {@link DefaultClassResolver} and a {@link MapReferenceResolver}. */
 	public Kryo () {
@@ -180,6 +197,7 @@ public class Kryo {
 		addDefaultSerializer(Currency.class, CurrencySerializer.class);
 		addDefaultSerializer(StringBuffer.class, StringBufferSerializer.class);
 		addDefaultSerializer(StringBuilder.class, StringBuilderSerializer.class);
+		addDefaultSerializer(ByteBuffer.class, ByteBufferSerializer.class);
 		addDefaultSerializer(Collections.EMPTY_LIST.getClass(), CollectionsEmptyListSerializer.class);
 		addDefaultSerializer(Collections.EMPTY_MAP.getClass(), CollectionsEmptyMapSerializer.class);
 		addDefaultSerializer(Collections.EMPTY_SET.getClass(), CollectionsEmptySetSerializer.class);
@@ -364,6 +382,12 @@ public class Kryo {
 			return ReflectionSerializerFactory.makeSerializer(this, defaultSerializerAnnotation.value(), type);
 		}
 
+		if (type.isAnnotationPresent(GenerateSerializer.class)) {
+			// If the serializer was not generated, the default serializer is used.
+			Class<? extends Serializer> serializerClass = GeneratedSerializers.getSerializerClass(type);
+			if (serializerClass != null) return ReflectionSerializerFactory.makeSerializer(this, serializerClass, type);
+		}
+
 		return null;
 	}
 
@@ -527,7 +551,7 @@ public class Kryo {
 				return;
 			}
 			if (TRACE || (DEBUG && depth == 1)) log("Write", object);
-			getRegistration(object.getClass()).getSerializer().write(this, output, object);
+			write(getRegistration(object.getClass()).getSerializer(), output, object);
 		} finally {
 			if (--depth == 0 && autoReset) reset();
 		}
@@ -545,7 +569,7 @@ public class Kryo {
 				return;
 			}
 			if (TRACE || (DEBUG && depth == 1)) log("Write", object);
-			serializer.write(this, output, object);
+			write(serializer, output, object);
 		} finally {
 			if (--depth == 0 && autoReset) reset();
 		}
@@ -572,7 +596,7 @@ public class Kryo {
 				output.writeByte(NOT_NULL);
 			}
 			if (TRACE || (DEBUG && depth == 1)) log("Write", object);
-			serializer.write(this, output, object);
+			write(serializer, output, object);
 		} finally {
 			if (--depth == 0 && autoReset) reset();
 		}
@@ -599,7 +623,7 @@ public class Kryo {
 				output.writeByte(NOT_NULL);
 			}
 			if (TRACE || (DEBUG && depth == 1)) log("Write", object);
-			serializer.write(this, output, object);
+			write(serializer, output, object);
 		} finally {
 			if (--depth == 0 && autoReset) reset();
 		}
@@ -621,12 +645,92 @@ public class Kryo {
 				return;
 			}
 			if (TRACE || (DEBUG && depth == 1)) log("Write", object);
-			registration.getSerializer().write(this, output, object);
+			write(registration.getSerializer(), output, object);
+		} finally {
+			if (--depth == 0 && autoReset) reset();
+		}
+	}
+
+	/** Returns the number of bytes {@link #writeClassAndObject(Output, Object)} writes to an {@link Output} for the object, eg to
+	 * allocate a buffer of the exact size or to reject an object that is too large before writing it. If the object's serializer
+	 * computes the size with {@link Serializer#sizeOf(Kryo, Object)}, nothing is written. Otherwise the object is written to an
+	 * output that only counts the bytes.
+	 * <p>
+	 * {@link #setAutoReset(boolean) Auto reset} must be enabled and this method can't be called while an object graph is being
+	 * serialized, because the references and class names written for the object are only exact for a new graph.
+	 * @param object May be null. */
+	public long serializedSize (Object object) {
+		if (!autoReset) throw new KryoException("Auto reset must be enabled to compute the serialized size.");
+		if (depth != 0) throw new KryoException("The serialized size can't be computed while an object graph is serialized.");
+		if (sizeOutput == null) sizeOutput = new SizeOutput();
+		SizeOutput output = sizeOutput;
+		output.clear();
+		if (object != null) {
+			Class type = object.getClass();
+			int size = getRegistration(type).getSerializer().sizeOf(this, object);
+			if (size != -1) {
+				writeClass(output, type);
+				if (references && referenceResolver.useReferences(type)) size++; // NOT_NULL.
+				return output.total() + size;
+			}
+		}
+		writeClassAndObject(output, object);
+		return output.total();
+	}
+
+	/** Writes a batch of objects as part of a single object graph, so references, unregistered class names and the
+	 * {@link #getGraphContext() graph context} are shared by the objects and are reset once after the batch rather than after each
+	 * object. Each object is preceded by 1 byte and the batch is terminated by 1 byte. The batch can be read with
+	 * {@link #readObjects(Input, Class)}.
+	 * @param objects Must not contain null. Each object must be an instance of the specified type.
+	 * @param type If not null, all objects are written with the registered serializer for this type, which is looked up once for
+	 *           the batch. If null, the class of an object is written and its serializer is looked up only when it differs from the
+	 *           class of the previous object, so a run of objects of the same class costs the same as objects of a known type. */
+	public void writeObjects (Output output, Iterable objects, Class type) {
+		if (output == null) throw new IllegalArgumentException("output cannot be null.");
+		if (objects == null) throw new IllegalArgumentException("objects cannot be null.");
+		beginObject();
+		try {
+			Serializer serializer = type == null ? null : getRegistration(type).getSerializer();
+			Class runType = type;
+			for (Object object : objects) {
+				if (object == null) throw new IllegalArgumentException("objects cannot contain null.");
+				if (type == null && object.getClass() != runType) {
+					runType = object.getClass();
+					output.writeByte(BATCH_CLASS);
+					serializer = classResolver.writeClass(output, runType).getSerializer();
+				} else
+					output.writeByte(BATCH_OBJECT);
+				if (references && writeReferenceOrNull(output, object, false)) {
+					serializer.setGenerics(this, null);
+					continue;
+				}
+				if (TRACE || DEBUG) log("Write", object);
+				write(serializer, output, object);
+			}
+			output.writeByte(BATCH_END);
 		} finally {
 			if (--depth == 0 && autoReset) reset();
 		}
 	}
 
+	/** Writes the object with the serializer, notifying the listener if there is one.
+	 * @param object May be null if the serializer accepts null. */
+	private void write (Serializer serializer, Output output, Object object) {
+		SerializationListener listener = graphListener;
+		if (listener == null || object == null) {
+			serializer.write(this, output, object);
+			return;
+		}
+		Class type = object.getClass();
+		Registration registration = classResolver.getRegistration(type);
+		int depth = this.depth;
+		listener.onWriteStart(this, type, registration, depth);
+		long start = output.total(), startTime = System.nanoTime();
+		serializer.write(this, output, object);
+		listener.onWriteEnd(this, type, registration, depth, output.total() - start, System.nanoTime() - startTime);
+	}
+
 	/** @param object May be null if mayBeNull is true.
 	 * @return true if no bytes need to be written for the object. */
 	boolean writeReferenceOrNull (Output output, Object object, boolean mayBeNull) {
@@ -679,10 +783,10 @@ public class Kryo {
 			if (references) {
 				int stackSize = readReferenceOrNull(input, type, false);
 				if (stackSize == REF) return (T)readObject;
-				object = (T)getRegistration(type).getSerializer().read(this, input, type);
+				object = (T)read(getRegistration(type).getSerializer(), input, type);
 				if (stackSize == readReferenceIds.size) reference(object);
 			} else
-				object = (T)getRegistration(type).getSerializer().read(this, input, type);
+				object = (T)read(getRegistration(type).getSerializer(), input, type);
 			if (TRACE || (DEBUG && depth == 1)) log("Read", object);
 			return object;
 		} finally {
@@ -690,6 +794,21 @@ public class Kryo {
 		}
 	}
 
+	/** Reads an object using the registered serializer, reading only the projected fields of objects that are serialized with
+	 * CompatibleFieldSerializer. References must be disabled, since skipped fields would change the reference IDs of
+	 * subsequent objects.
+	 * @see FieldProjection */
+	public <T> T readObject (Input input, Class<T> type, FieldProjection projection) {
+		if (projection == null) throw new IllegalArgumentException("projection cannot be null.");
+		if (references) throw new KryoException("References must be disabled to read with a projection.");
+		FieldProjection.set(this, projection, depth + 1);
+		try {
+			return readObject(input, type);
+		} finally {
+			if (graphContext != null) FieldProjection.set(this, null, 0);
+		}
+	}
+
 	/** Reads an object using the specified serializer. The registered serializer is ignored. */
 	public <T> T readObject (Input input, Class<T> type, Serializer serializer) {
 		if (input == null) throw new IllegalArgumentException("input cannot be null.");
@@ -701,10 +820,10 @@ public class Kryo {
 			if (references) {
 				int stackSize = readReferenceOrNull(input, type, false);
 				if (stackSize == REF) return (T)readObject;
-				object = (T)serializer.read(this, input, type);
+				object = (T)read(serializer, input, type);
 				if (stackSize == readReferenceIds.size) reference(object);
 			} else
-				object = (T)serializer.read(this, input, type);
+				object = (T)read(serializer, input, type);
 			if (TRACE || (DEBUG && depth == 1)) log("Read", object);
 			return object;
 		} finally {
@@ -723,7 +842,7 @@ public class Kryo {
 			if (references) {
 				int stackSize = readReferenceOrNull(input, type, true);
 				if (stackSize == REF) return (T)readObject;
-				object = (T)getRegistration(type).getSerializer().read(this, input, type);
+				object = (T)read(getRegistration(type).getSerializer(), input, type);
 				if (stackSize == readReferenceIds.size) reference(object);
 			} else {
 				Serializer serializer = getRegistration(type).getSerializer();
@@ -731,7 +850,7 @@ public class Kryo {
 					if (TRACE || (DEBUG && depth == 1)) log("Read", null);
 					return null;
 				}
-				object = (T)serializer.read(this, input, type);
+				object = (T)read(serializer, input, type);
 			}
 			if (TRACE || (DEBUG && depth == 1)) log("Read", object);
 			return object;
@@ -752,14 +871,14 @@ public class Kryo {
 			if (references) {
 				int stackSize = readReferenceOrNull(input, type, true);
 				if (stackSize == REF) return (T)readObject;
-				object = (T)serializer.read(this, input, type);
+				object = (T)read(serializer, input, type);
 				if (stackSize == readReferenceIds.size) reference(object);
 			} else {
 				if (!serializer.getAcceptsNull() && input.readByte() == NULL) {
 					if (TRACE || (DEBUG && depth == 1)) log("Read", null);
 					return null;
 				}
-				object = (T)serializer.read(this, input, type);
+				object = (T)read(serializer, input, type);
 			}
 			if (TRACE || (DEBUG && depth == 1)) log("Read", object);
 			return object;
@@ -783,10 +902,10 @@ public class Kryo {
 				registration.getSerializer().setGenerics(this, null);
 				int stackSize = readReferenceOrNull(input, type, false);
 				if (stackSize == REF) return readObject;
-				object = registration.getSerializer().read(this, input, type);
+				object = read(registration.getSerializer(), input, type);
 				if (stackSize == readReferenceIds.size) reference(object);
 			} else
-				object = registration.getSerializer().read(this, input, type);
+				object = read(registration.getSerializer(), input, type);
 			if (TRACE || (DEBUG && depth == 1)) log("Read", object);
 			return object;
 		} finally {
@@ -794,6 +913,115 @@ public class Kryo {
 		}
 	}
 
+	/** Skips an object written with {@link #writeObject(Output, Object)} using the registered serializer, without creating it
+	 * where the serializer supports {@link Serializer#skip(Kryo, Input, Class) skipping}. Reference and class name bookkeeping is
+	 * kept, so objects after the skipped object are read normally. A reference to a skipped object that is read later is null,
+	 * unless the serializer skips by reading the object. */
+	public void skipObject (Input input, Class type) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		skipObject(input, type, getRegistration(type).getSerializer(), false);
+	}
+
+	/** Skips an object written with {@link #writeObject(Output, Object, Serializer)} using the specified serializer.
+	 * @see #skipObject(Input, Class) */
+	public void skipObject (Input input, Class type, Serializer serializer) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		if (serializer == null) throw new IllegalArgumentException("serializer cannot be null.");
+		skipObject(input, type, serializer, false);
+	}
+
+	/** Skips an object or null written with {@link #writeObjectOrNull(Output, Object, Class)} using the registered serializer.
+	 * @see #skipObject(Input, Class) */
+	public void skipObjectOrNull (Input input, Class type) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		skipObject(input, type, getRegistration(type).getSerializer(), true);
+	}
+
+	/** Skips an object or null written with {@link #writeObjectOrNull(Output, Object, Serializer)} using the specified
+	 * serializer.
+	 * @see #skipObject(Input, Class) */
+	public void skipObjectOrNull (Input input, Class type, Serializer serializer) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		if (serializer == null) throw new IllegalArgumentException("serializer cannot be null.");
+		skipObject(input, type, serializer, true);
+	}
+
+	/** Skips the class and object or null written with {@link #writeClassAndObject(Output, Object)}. The class is read, so an
+	 * unregistered class name written for the first time is still available to subsequent objects.
+	 * @see #skipObject(Input, Class) */
+	public void skipClassAndObject (Input input) {
+		if (input == null) throw new IllegalArgumentException("input cannot be null.");
+		beginObject();
+		try {
+			Registration registration = readClass(input);
+			if (registration == null) return;
+			Class type = registration.getType();
+			if (references) {
+				registration.getSerializer().setGenerics(this, null);
+				int stackSize = readReferenceOrNull(input, type, false);
+				if (stackSize == REF) return;
+				registration.getSerializer().skip(this, input, type);
+				if (stackSize == readReferenceIds.size) readReferenceIds.pop();
+			} else
+				registration.getSerializer().skip(this, input, type);
+			if (TRACE || (DEBUG && depth == 1)) debug("kryo", "Skip: " + className(type));
+		} finally {
+			if (--depth == 0 && autoReset) reset();
+		}
+	}
+
+	private void skipObject (Input input, Class type, Serializer serializer, boolean mayBeNull) {
+		if (input == null) throw new IllegalArgumentException("input cannot be null.");
+		beginObject();
+		try {
+			if (references) {
+				int stackSize = readReferenceOrNull(input, type, mayBeNull);
+				if (stackSize == REF) return;
+				serializer.skip(this, input, type);
+				// Pop the reference ID if the serializer didn't read the object and call reference.
+				if (stackSize == readReferenceIds.size) readReferenceIds.pop();
+			} else {
+				if (mayBeNull && !serializer.getAcceptsNull() && input.readByte() == NULL) return;
+				serializer.skip(this, input, type);
+			}
+			if (TRACE || (DEBUG && depth == 1)) debug("kryo", "Skip: " + className(type));
+		} finally {
+			if (--depth == 0 && autoReset) reset();
+		}
+	}
+
+	/** Returns an iterator that reads a batch of objects written by {@link #writeObjects(Output, Iterable, Class)}. The objects are
+	 * read lazily as a single object graph, which is complete when {@link Iterator#hasNext()} returns false, an object cannot be
+	 * read or the iterator is {@link ObjectIterator#close() closed}. Until then this Kryo must not be used for anything else, so an
+	 * iterator that is not read to the end must be closed.
+	 * @param type Must be the type the batch was written with, null if it was written with a null type.
+	 * @throws KryoException if the iterator of a previous batch was neither read to the end nor closed. */
+	public <T> ObjectIterator<T> readObjects (Input input, Class<T> type) {
+		if (input == null) throw new IllegalArgumentException("input cannot be null.");
+		if (batch != null) throw new KryoException("The previous batch must be read to the end or closed.");
+		beginObject();
+		try {
+			batch = new ObjectIterator(input, type, type == null ? null : getRegistration(type).getSerializer());
+			return batch;
+		} catch (RuntimeException ex) {
+			if (--depth == 0 && autoReset) reset();
+			throw ex;
+		}
+	}
+
+	/** Reads an object with the serializer, notifying the listener if there is one. */
+	private Object read (Serializer serializer, Input input, Class type) {
+		SerializationListener listener = graphListener;
+		if (listener == null) return serializer.read(this, input, type);
+		Registration registration = classResolver.getRegistration(type);
+		int depth = this.depth;
+		listener.onReadStart(this, type, registration, depth);
+		long start = input.total(), startTime = System.nanoTime();
+		Object object = serializer.read(this, input, type);
+		listener.onReadEnd(this, type, registration, depth, input.total() - start, System.nanoTime() - startTime);
+		return object;
+	}
+
 	/** Returns {@link #REF} if a reference to a previously read object was read, which is stored in {@link #readObject}. Returns a
 	 * stack size (> 0) if a reference ID has been put on the stack. */
 	int readReferenceOrNull (Input input, Class type, boolean mayBeNull) {
@@ -983,6 +1211,8 @@ public class Kryo {
 				throw new ConcurrentModificationException("Kryo must not be accessed concurrently by multiple threads.");
 		}
 		if (depth == maxDepth) throw new KryoException("Max depth exceeded: " + depth);
+		// The global listener is read once per graph, so it can be changed by any thread without affecting a graph in progress.
+		if (depth == 0) graphListener = combineListeners();
 		depth++;
 	}
 
@@ -1118,6 +1348,10 @@ public class Kryo {
 		this.autoReset = autoReset;
 	}
 
+	public boolean getAutoReset () {
+		return autoReset;
+	}
+
 	/** Sets the maxiumum depth of an object graph. This can be used to prevent malicious data from causing a stack overflow.
 	 * Default is {@link Integer#MAX_VALUE}. */
 	public void setMaxDepth (int maxDepth) {
@@ -1201,6 +1435,61 @@ public class Kryo {
 		return asmEnabled;
 	}
 
+	/** Sets the listener notified when objects are written and read by this Kryo, in addition to the
+	 * {@link #setGlobalSerializationListener(SerializationListener) global listener}. When no listener is set, the only cost is a
+	 * null check for each object. If set while an object graph is being written or read, the listener is notified starting with the
+	 * next graph. Default is null.
+	 * @param listener May be null.
+	 * @see com.esotericsoftware.kryo.util.SerializationStatistics */
+	public void setSerializationListener (SerializationListener listener) {
+		this.listener = listener;
+	}
+
+	/** Returns the listener set for this Kryo, see {@link #getActiveSerializationListener()}.
+	 * @return May be null. */
+	public SerializationListener getSerializationListener () {
+		return listener;
+	}
+
+	/** Returns the listener notified for the current object graph, which forwards to both the listener of this Kryo and the global
+	 * listener if both are set. Outside of an object graph, returns the listener for the current settings.
+	 * @return May be null. */
+	public SerializationListener getActiveSerializationListener () {
+		return depth > 0 ? graphListener : combineListeners();
+	}
+
+	private SerializationListener combineListeners () {
+		SerializationListener global = globalListener.get();
+		if (global == null) return listener;
+		if (listener == null) return global;
+		ListenerChain chain = listenerChain;
+		if (chain == null || chain.first != listener || chain.second != global)
+			listenerChain = chain = new ListenerChain(listener, global);
+		return chain;
+	}
+
+	/** Sets the listener notified when objects are written and read by all Kryo instances, in addition to the listener of each
+	 * instance. Unlike {@link #setSerializationListener(SerializationListener)}, this can be called from any thread, eg by a
+	 * monitoring agent. Each Kryo reads the global listener when it starts writing or reading an object graph, so a change is seen
+	 * starting with the next graph and a graph in progress is never notified by only part of a listener's methods. The listener must
+	 * be thread safe.
+	 * @param listener May be null (default). */
+	static public void setGlobalSerializationListener (SerializationListener listener) {
+		globalListener.set(listener);
+	}
+
+	/** @return May be null. */
+	static public SerializationListener getGlobalSerializationListener () {
+		return globalListener.get();
+	}
+
+	/** Sets the global listener only if it is the expected listener, so listeners can be chained and restored by multiple threads
+	 * without losing a change made in the meantime.
+	 * @return true if the listener was set. */
+	static public boolean compareAndSetGlobalSerializationListener (SerializationListener expected, SerializationListener listener) {
+		return globalListener.compareAndSet(expected, listener);
+	}
+
 	static public class DefaultInstantiatorStrategy implements org.objenesis.strategy.InstantiatorStrategy {
 		private InstantiatorStrategy fallbackStrategy;
 
@@ -1266,6 +1555,142 @@ public class Kryo {
 		}
 	}
 	
+	/** Discards the bytes written, only {@link #total()} is kept. */
+	static private class SizeOutput extends Output {
+		SizeOutput () {
+			super(1024, -1);
+		}
+
+		public void flush () {
+			total += position;
+			position = 0;
+		}
+
+		public void writeBytes (byte[] bytes, int offset, int count) {
+			if (bytes == null) throw new IllegalArgumentException("bytes cannot be null.");
+			total += count;
+		}
+	}
+
 	private static class Closure {
 	}
+
+	/** Notifies the listener of a Kryo and then the global listener. */
+	static private class ListenerChain implements SerializationListener {
+		final SerializationListener first, second;
+
+		ListenerChain (SerializationListener first, SerializationListener second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		public void onWriteStart (Kryo kryo, Class type, Registration registration, int depth) {
+			first.onWriteStart(kryo, type, registration, depth);
+			second.onWriteStart(kryo, type, registration, depth);
+		}
+
+		public void onWriteEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+			first.onWriteEnd(kryo, type, registration, depth, bytes, nanos);
+			second.onWriteEnd(kryo, type, registration, depth, bytes, nanos);
+		}
+
+		public void onReadStart (Kryo kryo, Class type, Registration registration, int depth) {
+			first.onReadStart(kryo, type, registration, depth);
+			second.onReadStart(kryo, type, registration, depth);
+		}
+
+		public void onReadEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+			first.onReadEnd(kryo, type, registration, depth, bytes, nanos);
+			second.onReadEnd(kryo, type, registration, depth, bytes, nanos);
+		}
+
+		public void onWriteClassName (Kryo kryo, Class type) {
+			first.onWriteClassName(kryo, type);
+			second.onWriteClassName(kryo, type);
+		}
+
+		public void onRebuildCachedFields (Kryo kryo, Class type, int fieldCount, long nanos) {
+			first.onRebuildCachedFields(kryo, type, fieldCount, nanos);
+			second.onRebuildCachedFields(kryo, type, fieldCount, nanos);
+		}
+	}
+
+	/** Reads the objects of a batch, see {@link Kryo#readObjects(Input, Class)}. */
+	// The supertypes are qualified because javac before 9 resolves the supertypes of Kryo's member classes while it enters the
+	// imports of nested serializer classes above, before the java.* imports are entered.
+	public class ObjectIterator<T> implements java.util.Iterator<T>, java.io.Closeable {
+		private final Input input;
+		private Class type;
+		private Serializer serializer;
+		private boolean hasNext, checked, closed;
+
+		ObjectIterator (Input input, Class<T> type, Serializer serializer) {
+			this.input = input;
+			this.type = type;
+			this.serializer = serializer;
+		}
+
+		public boolean hasNext () {
+			if (!checked) {
+				try {
+					switch (input.readByte()) {
+					case BATCH_END:
+						hasNext = false;
+						break;
+					case BATCH_CLASS:
+						// The serializer is looked up once for each run of objects of the same class.
+						Registration registration = classResolver.readClass(input);
+						type = registration.getType();
+						serializer = registration.getSerializer();
+						hasNext = true;
+						break;
+					default:
+						if (serializer == null) throw new KryoException("Batch was written with a null type.");
+						hasNext = true;
+					}
+				} catch (RuntimeException ex) {
+					close();
+					throw ex;
+				}
+				checked = true;
+				if (!hasNext) close();
+			}
+			return hasNext;
+		}
+
+		public T next () {
+			if (!hasNext()) throw new NoSuchElementException();
+			checked = false;
+			try {
+				T object;
+				if (references) {
+					int stackSize = readReferenceOrNull(input, type, false);
+					if (stackSize == REF) return (T)readObject;
+					object = (T)read(serializer, input, type);
+					if (stackSize == readReferenceIds.size) reference(object);
+				} else
+					object = (T)read(serializer, input, type);
+				if (TRACE || DEBUG) log("Read", object);
+				return object;
+			} catch (RuntimeException ex) {
+				close();
+				throw ex;
+			}
+		}
+
+		public void remove () {
+			throw new UnsupportedOperationException();
+		}
+
+		/** Ends the object graph of the batch without reading the remaining objects, so this Kryo can be used again. Does nothing if
+		 * the batch was read to the end. */
+		public void close () {
+			checked = true;
+			hasNext = false;
+			if (closed) return;
+			closed = true;
+			batch = null;
+			if (--depth == 0 && autoReset) reset();
+		}
+	}
 }
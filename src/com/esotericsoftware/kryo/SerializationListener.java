@@ -0,0 +1,47 @@
+package com.esotericsoftware.kryo;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Notified when a serializer writes or reads an object through one of the {@link Kryo} write and read methods, eg to collect
+ * statistics in production without logging. Nested objects are notified too, so the bytes and time of an object include those
+ * of the objects it contains. Nulls and references to previously written objects are not notified, because no serializer is
+ * called for them. If the serializer throws an exception, the end method is not called.
+ * <p>
+ * Methods are called on the thread using the Kryo instance. A listener set on multiple Kryo instances or as the
+ * {@link Kryo#setGlobalSerializationListener(SerializationListener) global listener} must be thread safe.
+ * @see Kryo#setSerializationListener(SerializationListener)
+ * @see com.esotericsoftware.kryo.util.SerializationStatistics
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public interface SerializationListener {
+	/** Called before the serializer writes the object.
+	 * @param registration May be null if the object is written with a serializer specified by the caller and the type is not
+	 *           registered.
+	 * @param depth The depth of the object in the object graph, 1 for the root. */
+	public void onWriteStart (Kryo kryo, Class type, Registration registration, int depth);
+
+	/** Called after the serializer has written the object.
+	 * @param bytes The number of bytes written, from {@link Output#total()}.
+	 * @param nanos The time taken by the serializer. */
+	public void onWriteEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos);
+
+	/** Called before the serializer reads an object.
+	 * @param registration May be null if the object is read with a serializer specified by the caller and the type is not
+	 *           registered. */
+	public void onReadStart (Kryo kryo, Class type, Registration registration, int depth);
+
+	/** Called after the serializer has read the object.
+	 * @param bytes The number of bytes read, from {@link Input#total()}.
+	 * @param nanos The time taken by the serializer. */
+	public void onReadEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos);
+
+	/** Called when the name of a class that is not registered with an ID is written, which is done the first time the class is
+	 * encountered in each object graph.
+	 * @see com.esotericsoftware.kryo.util.DefaultClassResolver#writeName(Output, Class, Registration) */
+	public void onWriteClassName (Kryo kryo, Class type);
+
+	/** Called after a {@link com.esotericsoftware.kryo.serializers.FieldSerializer} has built its list of cached fields, when it
+	 * is created and when settings affecting the fields are changed.
+	 * @param nanos The time taken to build the list. */
+	public void onRebuildCachedFields (Kryo kryo, Class type, int fieldCount, long nanos);
+}
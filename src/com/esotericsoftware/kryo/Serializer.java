@@ -42,6 +42,28 @@ public abstract class Serializer<T> {
 	 * @return May be null if {@link #getAcceptsNull()} is true. */
 	abstract public T read (Kryo kryo, Input input, Class<T> type);
 
+	/** Reads past the bytes of an object of the specified concrete type without creating it. The default implementation calls
+	 * {@link #read(Kryo, Input, Class)} and discards the object. Subclasses should override this method to skip the bytes more
+	 * cheaply, and must override it if they override read and the subclass reads different bytes.
+	 * <p>
+	 * Child objects must be skipped or read using {@link Kryo} methods, so references and class names are tracked as when reading.
+	 * {@link Kryo#reference(Object)} does not need to be called.
+	 * <p>
+	 * This method should not be called directly, instead this serializer can be passed to {@link Kryo} skip methods that accept a
+	 * serialier. */
+	public void skip (Kryo kryo, Input input, Class<T> type) {
+		read(kryo, input, type);
+	}
+
+	/** Returns the number of bytes {@link #write(Kryo, Output, Object)} writes for the object to an {@link Output}, or -1 if the
+	 * size can't be computed without writing. The default implementation returns -1. Serializers that only write primitive data,
+	 * without using {@link Kryo} to write child objects, can override this method to compute the size directly.
+	 * @param object May be null if {@link #getAcceptsNull()} is true.
+	 * @see Kryo#serializedSize(Object) */
+	public int sizeOf (Kryo kryo, T object) {
+		return -1;
+	}
+
 	public boolean getAcceptsNull () {
 		return acceptsNull;
 	}
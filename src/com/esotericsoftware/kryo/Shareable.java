@@ -0,0 +1,11 @@
+package com.esotericsoftware.kryo;
+
+import com.esotericsoftware.kryo.util.RegistrationTable;
+
+/** Marks a {@link Serializer} that has no state specific to a Kryo instance or to a call, so a single instance can be used by any
+ * number of Kryo instances concurrently, eg through a {@link RegistrationTable}. The settings of a shareable serializer must not
+ * be changed once it is shared. A subclass that adds state of its own must not be used where a shareable serializer is
+ * expected.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public interface Shareable {
+}
@@ -0,0 +1,24 @@
+package com.esotericsoftware.kryo.io;
+
+import java.nio.ByteBuffer;
+
+/** Allocates the buffers used by {@link Output}, {@link ByteBufferOutput}, {@link UnsafeMemoryOutput} and {@link Input}, so the
+ * buffers can be reused rather than being garbage collected, eg using a {@link BufferPool}. A buffer allocated by an allocator is
+ * released to it when the buffer is replaced by a larger one, and when the input or output is closed.
+ * <p>
+ * Implementations must be thread safe if they are shared by inputs and outputs used by multiple threads.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public interface BufferAllocator {
+	/** Returns a byte array with a length of at least the specified size. The contents are undefined. */
+	public byte[] allocate (int size);
+
+	/** Releases a byte array returned by {@link #allocate(int)}. The array must no longer be used by the caller. */
+	public void release (byte[] buffer);
+
+	/** Returns a direct ByteBuffer with a capacity of at least the specified size, position 0 and limit equal to its capacity. The
+	 * contents and byte order are undefined. */
+	public ByteBuffer allocateDirect (int size);
+
+	/** Releases a ByteBuffer returned by {@link #allocateDirect(int)}. The buffer must no longer be used by the caller. */
+	public void releaseDirect (ByteBuffer buffer);
+}
@@ -0,0 +1,108 @@
+package com.esotericsoftware.kryo.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** A thread safe {@link BufferAllocator} that pools byte arrays and direct ByteBuffers in power of two size classes. Sizes are
+ * rounded up to the next power of two (at least 64 bytes) and released buffers are kept for reuse, as long as the total size of
+ * the pooled buffers stays within the budget. Buffers larger than the maximum pooled size are allocated and released normally.
+ * <p>
+ * The budget only limits the memory held by the pool, not the memory of buffers that are in use.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class BufferPool implements BufferAllocator {
+	static private final int minShift = 6;
+
+	private final int maxPooledSize;
+	private final long maxPooledBytes;
+	private final Queue<byte[]>[] arrays;
+	private final Queue<ByteBuffer>[] directBuffers;
+	private final AtomicLong pooledBytes = new AtomicLong();
+
+	/** Creates a pool for buffers up to 1MB with a budget of 64MB. */
+	public BufferPool () {
+		this(1024 * 1024, 64 * 1024 * 1024);
+	}
+
+	/** @param maxPooledSize The largest buffer size that is pooled, rounded up to the next power of two.
+	 * @param maxPooledBytes The maximum total size of the buffers held by the pool. */
+	public BufferPool (int maxPooledSize, long maxPooledBytes) {
+		if (maxPooledSize <= 0 || maxPooledSize > 1 << 30)
+			throw new IllegalArgumentException("maxPooledSize must be > 0 and <= 2^30: " + maxPooledSize);
+		if (maxPooledBytes < 0) throw new IllegalArgumentException("maxPooledBytes cannot be < 0: " + maxPooledBytes);
+		this.maxPooledBytes = maxPooledBytes;
+		int classes = Math.max(sizeClass(maxPooledSize), minShift) + 1;
+		this.maxPooledSize = 1 << (classes - 1);
+		arrays = new Queue[classes];
+		directBuffers = new Queue[classes];
+		for (int i = minShift; i < classes; i++) {
+			arrays[i] = new ConcurrentLinkedQueue();
+			directBuffers[i] = new ConcurrentLinkedQueue();
+		}
+	}
+
+	public byte[] allocate (int size) {
+		if (size > maxPooledSize) return new byte[size];
+		int sizeClass = Math.max(sizeClass(size), minShift);
+		byte[] buffer = arrays[sizeClass].poll();
+		if (buffer == null) return new byte[1 << sizeClass];
+		pooledBytes.addAndGet(-buffer.length);
+		return buffer;
+	}
+
+	public void release (byte[] buffer) {
+		int length = buffer.length;
+		if (!isPooledSize(length) || !reserve(length)) return;
+		arrays[sizeClass(length)].offer(buffer);
+	}
+
+	public ByteBuffer allocateDirect (int size) {
+		if (size > maxPooledSize) return ByteBuffer.allocateDirect(size);
+		int sizeClass = Math.max(sizeClass(size), minShift);
+		ByteBuffer buffer = directBuffers[sizeClass].poll();
+		if (buffer == null) return ByteBuffer.allocateDirect(1 << sizeClass);
+		pooledBytes.addAndGet(-buffer.capacity());
+		buffer.clear();
+		return buffer;
+	}
+
+	public void releaseDirect (ByteBuffer buffer) {
+		int capacity = buffer.capacity();
+		if (!buffer.isDirect() || !isPooledSize(capacity) || !reserve(capacity)) return;
+		directBuffers[sizeClass(capacity)].offer(buffer);
+	}
+
+	/** Returns the total size of the buffers currently held by the pool. */
+	public long getPooledBytes () {
+		return pooledBytes.get();
+	}
+
+	/** Discards all pooled buffers. */
+	public void clear () {
+		for (int i = minShift; i < arrays.length; i++) {
+			for (byte[] buffer; (buffer = arrays[i].poll()) != null;)
+				pooledBytes.addAndGet(-buffer.length);
+			for (ByteBuffer buffer; (buffer = directBuffers[i].poll()) != null;)
+				pooledBytes.addAndGet(-buffer.capacity());
+		}
+	}
+
+	private boolean isPooledSize (int size) {
+		return size <= maxPooledSize && size >= 1 << minShift && (size & (size - 1)) == 0;
+	}
+
+	private boolean reserve (int size) {
+		while (true) {
+			long pooled = pooledBytes.get();
+			if (pooled + size > maxPooledBytes) return false;
+			if (pooledBytes.compareAndSet(pooled, pooled + size)) return true;
+		}
+	}
+
+	/** Returns the power of two exponent of the smallest power of two >= size. */
+	static private int sizeClass (int size) {
+		if (size <= 1) return 0;
+		return 32 - Integer.numberOfLeadingZeros(size - 1);
+	}
+}
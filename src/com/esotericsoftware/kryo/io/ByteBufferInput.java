@@ -167,7 +167,7 @@ public class ByteBufferInput extends Input {
 	/** @param required Must be > 0. The buffer is filled until it has at least this many bytes.
 	 * @return the number of bytes remaining.
 	 * @throws KryoException if EOS is reached before required bytes are read (buffer underflow). */
-	final protected int require (int required) throws KryoException {
+	protected int require (int required) throws KryoException {
 		int remaining = limit - position;
 		if (remaining >= required) return remaining;
 		if (required > capacity) throw new KryoException("Buffer too small: capacity: " + capacity + ", required: " + required);
@@ -206,7 +206,7 @@ public class ByteBufferInput extends Input {
 
 	/** @param optional Try to fill the buffer with this many bytes.
 	 * @return the number of bytes remaining, but not more than optional, or -1 if the EOS was reached and the buffer is empty. */
-	private int optional (int optional) throws KryoException {
+	protected int optional (int optional) throws KryoException {
 		int remaining = limit - position;
 		if (remaining >= optional) return optional;
 		optional = Math.min(optional, capacity);
@@ -323,6 +323,23 @@ public class ByteBufferInput extends Input {
 		return bytes;
 	}
 
+	/** Reads the specified number of bytes as a read-only ByteBuffer. If the bytes are in the buffer and the buffer is
+	 * {@link #isBufferRetained() retained}, the returned ByteBuffer is a view of the buffer, which may be a direct buffer. The view
+	 * shares the buffer, so it is only valid as long as the buffer is not modified, reused or {@link #release() released}.
+	 * Otherwise the bytes are copied. */
+	public ByteBuffer readByteBuffer (int length) throws KryoException {
+		if (length < 0) throw new IllegalArgumentException("length cannot be < 0: " + length);
+		if (limit - position >= length && isBufferRetained()) {
+			ByteBuffer view = niobuffer.duplicate();
+			view.limit(position + length);
+			view.position(position);
+			position += length;
+			niobuffer.position(position);
+			return view.slice().asReadOnlyBuffer();
+		}
+		return super.readByteBuffer(length);
+	}
+
 	/** Reads bytes.length bytes and writes them to the specified byte[], starting at index 0. */
 	public void readBytes (byte[] bytes) throws KryoException {
 		readBytes(bytes, 0, bytes.length);
@@ -603,12 +620,11 @@ public class ByteBufferInput extends Input {
 			end++;
 			b = niobuffer.get();
 		} while ((b & 0x80) == 0);
-		niobuffer.put(end - 1, (byte)(niobuffer.get(end - 1) & 0x7F)); // Mask end of ascii bit.
 		byte[] tmp = new byte[end - start];
 		niobuffer.position(start);
 		niobuffer.get(tmp);
+		tmp[tmp.length - 1] &= 0x7F; // Mask end of ascii bit, without modifying the buffer, which may be read-only.
 		String value = new String(tmp, 0, 0, end - start);
-		niobuffer.put(end - 1, (byte)(niobuffer.get(end - 1) | 0x80));
 		position = end;
 		niobuffer.position(position);
 		return value;
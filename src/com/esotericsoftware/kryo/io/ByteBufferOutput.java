@@ -29,6 +29,8 @@ public class ByteBufferOutput extends Output {
 
 	protected final static ByteOrder nativeOrder = ByteOrder.nativeOrder();
 
+	private boolean allocated;
+
 	/** Creates an uninitialized Output. A buffer must be set before the Output is used.
 	 * @see #setBuffer(ByteBuffer, int) */
 	public ByteBufferOutput () {
@@ -51,6 +53,21 @@ public class ByteBufferOutput extends Output {
 		niobuffer.order(byteOrder);
 	}
 
+	/** Creates a new Output for writing to a direct ByteBuffer, which is obtained from the allocator.
+	 * @param bufferSize The initial size of the buffer.
+	 * @param maxBufferSize The buffer is doubled as needed until it exceeds maxBufferSize and an exception is thrown.
+	 * @see #setAllocator(BufferAllocator) */
+	public ByteBufferOutput (int bufferSize, int maxBufferSize, BufferAllocator allocator) {
+		if (maxBufferSize < -1) throw new IllegalArgumentException("maxBufferSize cannot be < -1: " + maxBufferSize);
+		if (allocator == null) throw new IllegalArgumentException("allocator cannot be null.");
+		this.capacity = bufferSize;
+		this.maxCapacity = maxBufferSize == -1 ? Integer.MAX_VALUE : maxBufferSize;
+		this.allocator = allocator;
+		niobuffer = allocator.allocateDirect(bufferSize);
+		niobuffer.order(byteOrder);
+		allocated = true;
+	}
+
 	/** Creates a new Output for writing to an OutputStream. A buffer size of 4096 is used. */
 	public ByteBufferOutput (OutputStream outputStream) {
 		this(4096, 4096);
@@ -106,10 +123,29 @@ public class ByteBufferOutput extends Output {
 	 * method and then invoke it. */
 	public void release () {
 		clear();
-		UnsafeUtil.releaseBuffer(niobuffer);
+		if (allocated)
+			releaseBuffer();
+		else
+			UnsafeUtil.releaseBuffer(niobuffer);
 		niobuffer = null;
 	}
 
+	/** Sets the allocator used to obtain a larger direct buffer when the buffer needs to grow. A buffer obtained from the allocator
+	 * is released to it when it is replaced and when the Output is closed, after which the buffer must not be used.
+	 * @param allocator May be null to allocate new buffers (default). */
+	public void setAllocator (BufferAllocator allocator) {
+		// The current buffer is no longer released, it may be from another allocator.
+		allocated = false;
+		this.allocator = allocator;
+	}
+
+	/** Releases the buffer to the allocator, if the buffer was obtained from it. */
+	private void releaseBuffer () {
+		if (!allocated) return;
+		allocated = false;
+		allocator.releaseDirect(niobuffer);
+	}
+
 	public ByteOrder order () {
 		return byteOrder;
 	}
@@ -142,6 +178,7 @@ public class ByteBufferOutput extends Output {
 	public void setBuffer (ByteBuffer buffer, int maxBufferSize) {
 		if (buffer == null) throw new IllegalArgumentException("buffer cannot be null.");
 		if (maxBufferSize < -1) throw new IllegalArgumentException("maxBufferSize cannot be < -1: " + maxBufferSize);
+		releaseBuffer();
 		this.niobuffer = buffer;
 		this.maxCapacity = maxBufferSize == -1 ? Integer.MAX_VALUE : maxBufferSize;
 		byteOrder = buffer.order();
@@ -184,6 +221,10 @@ public class ByteBufferOutput extends Output {
 		if (required > maxCapacity)
 			throw new KryoException("Buffer overflow. Max capacity: " + maxCapacity + ", required: " + required);
 		flush();
+		if (capacity - position >= required) return true;
+		OutputListener listener = Output.outputListener;
+		int oldCapacity = capacity;
+		long start = listener == null ? 0 : System.nanoTime();
 		while (capacity - position < required) {
 			if (capacity == maxCapacity)
 				throw new KryoException("Buffer overflow. Available: " + (capacity - position) + ", required: " + required);
@@ -191,14 +232,26 @@ public class ByteBufferOutput extends Output {
 			if (capacity == 0) capacity = 1;
 			capacity = Math.min(capacity * 2, maxCapacity);
 			if (capacity < 0) capacity = maxCapacity;
-			ByteBuffer newBuffer = (niobuffer != null && !niobuffer.isDirect()) ? ByteBuffer.allocate(capacity) : ByteBuffer
-				.allocateDirect(capacity);
-			// Copy the whole buffer
-			niobuffer.position(0);
-			newBuffer.put(niobuffer);
+			boolean direct = niobuffer == null || niobuffer.isDirect();
+			ByteBuffer newBuffer;
+			if (!direct)
+				newBuffer = ByteBuffer.allocate(capacity);
+			else if (allocator != null)
+				newBuffer = allocator.allocateDirect(capacity);
+			else
+				newBuffer = ByteBuffer.allocateDirect(capacity);
+			// Copy the written bytes, leaving the new buffer's position at the end of them.
+			if (niobuffer != null) {
+				niobuffer.position(0);
+				niobuffer.limit(position);
+				newBuffer.put(niobuffer);
+			}
 			newBuffer.order(byteOrder);
+			releaseBuffer();
 			niobuffer = newBuffer;
+			allocated = direct && allocator != null;
 		}
+		if (listener != null) listener.onBufferGrowth(this, oldCapacity, capacity, System.nanoTime() - start);
 		return true;
 	}
 
@@ -220,7 +273,8 @@ public class ByteBufferOutput extends Output {
 		position = 0;
 	}
 
-	/** Flushes any buffered bytes and closes the underlying OutputStream, if any. */
+	/** Flushes any buffered bytes and closes the underlying OutputStream, if any. If the buffer was obtained from the
+	 * {@link #setAllocator(BufferAllocator) allocator}, it is released. */
 	public void close () throws KryoException {
 		flush();
 		if (outputStream != null) {
@@ -229,6 +283,12 @@ public class ByteBufferOutput extends Output {
 			} catch (IOException ignored) {
 			}
 		}
+		if (allocated) {
+			releaseBuffer();
+			niobuffer = null;
+			capacity = 0;
+			position = 0;
+		}
 	}
 
 	/** Writes a byte. */
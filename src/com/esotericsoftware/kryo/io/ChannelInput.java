@@ -0,0 +1,116 @@
+package com.esotericsoftware.kryo.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import com.esotericsoftware.kryo.KryoException;
+
+/** An Input that fills its byte array directly from a {@link ReadableByteChannel}, without an InputStream in between. A
+ * FileChannel can be read at an explicit position, which leaves the channel's position unchanged, so multiple ChannelInputs can
+ * read different regions of the same file concurrently.
+ * <p>
+ * The channel must be in blocking mode.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class ChannelInput extends Input {
+	protected ReadableByteChannel channel;
+	private long channelPosition = -1;
+	private ByteBuffer byteBuffer;
+
+	/** Creates an uninitialized ChannelInput with a buffer size of 4096. {@link #setChannel(ReadableByteChannel)} must be called
+	 * before the ChannelInput is used. */
+	public ChannelInput () {
+		this(4096);
+	}
+
+	/** Creates an uninitialized ChannelInput. {@link #setChannel(ReadableByteChannel)} must be called before the ChannelInput is
+	 * used. */
+	public ChannelInput (int bufferSize) {
+		super(bufferSize);
+	}
+
+	/** Creates a new ChannelInput for reading from the channel with a buffer size of 4096. */
+	public ChannelInput (ReadableByteChannel channel) {
+		this(channel, 4096);
+	}
+
+	/** Creates a new ChannelInput for reading from the channel. */
+	public ChannelInput (ReadableByteChannel channel, int bufferSize) {
+		this(bufferSize);
+		setChannel(channel);
+	}
+
+	/** Creates a new ChannelInput for reading from the file channel, starting at the specified position in the file. */
+	public ChannelInput (FileChannel channel, long channelPosition, int bufferSize) {
+		this(bufferSize);
+		setChannel(channel, channelPosition);
+	}
+
+	/** Sets a new channel, which is read from its current position. The position and total are reset, discarding any buffered
+	 * bytes.
+	 * @param channel May be null. */
+	public void setChannel (ReadableByteChannel channel) {
+		this.channel = channel;
+		channelPosition = -1;
+		limit = 0;
+		rewind();
+	}
+
+	/** Sets a new file channel, which is read starting at the specified position without changing the channel's position. The
+	 * position and total are reset, discarding any buffered bytes. */
+	public void setChannel (FileChannel channel, long channelPosition) {
+		if (channel == null) throw new IllegalArgumentException("channel cannot be null.");
+		if (channelPosition < 0) throw new IllegalArgumentException("channelPosition cannot be < 0: " + channelPosition);
+		setChannel(channel);
+		this.channelPosition = channelPosition;
+	}
+
+	public ReadableByteChannel getChannel () {
+		return channel;
+	}
+
+	/** Returns the position in the file channel the next fill will read from, or -1 if the channel is read from its current
+	 * position. */
+	public long getChannelPosition () {
+		return channelPosition;
+	}
+
+	/** Sets a new buffer. The channel is set to null.
+	 * @see Input#setBuffer(byte[], int, int) */
+	public void setBuffer (byte[] bytes, int offset, int count) {
+		super.setBuffer(bytes, offset, count);
+		channel = null;
+	}
+
+	protected boolean isBufferRetained () {
+		return channel == null && super.isBufferRetained();
+	}
+
+	protected int fill (byte[] buffer, int offset, int count) throws KryoException {
+		if (channel == null) return super.fill(buffer, offset, count);
+		ByteBuffer byteBuffer = this.byteBuffer;
+		if (byteBuffer == null || byteBuffer.array() != buffer) this.byteBuffer = byteBuffer = ByteBuffer.wrap(buffer);
+		byteBuffer.limit(offset + count);
+		byteBuffer.position(offset);
+		try {
+			if (channelPosition == -1) return channel.read(byteBuffer);
+			int read = ((FileChannel)channel).read(byteBuffer, channelPosition);
+			if (read > 0) channelPosition += read;
+			return read;
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+	}
+
+	/** Closes the channel, if any. */
+	public void close () throws KryoException {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ignored) {
+			}
+		}
+		super.close();
+	}
+}
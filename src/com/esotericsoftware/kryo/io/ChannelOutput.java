@@ -0,0 +1,123 @@
+package com.esotericsoftware.kryo.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.esotericsoftware.kryo.KryoException;
+
+/** An Output that buffers data in a byte array and flushes it directly to a {@link WritableByteChannel}, without an OutputStream
+ * in between. A FileChannel can be written at an explicit position, which leaves the channel's position unchanged, so multiple
+ * ChannelOutputs can write to different regions of the same file.
+ * <p>
+ * The channel must be in blocking mode.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class ChannelOutput extends Output {
+	protected WritableByteChannel channel;
+	private long channelPosition = -1;
+	private ByteBuffer byteBuffer;
+
+	/** Creates an uninitialized ChannelOutput with a buffer size of 4096. {@link #setChannel(WritableByteChannel)} must be called
+	 * before the ChannelOutput is used. */
+	public ChannelOutput () {
+		this(4096);
+	}
+
+	/** Creates an uninitialized ChannelOutput. {@link #setChannel(WritableByteChannel)} must be called before the ChannelOutput is
+	 * used. */
+	public ChannelOutput (int bufferSize) {
+		super(bufferSize, bufferSize);
+	}
+
+	/** Creates a new ChannelOutput for writing to the channel with a buffer size of 4096. */
+	public ChannelOutput (WritableByteChannel channel) {
+		this(channel, 4096);
+	}
+
+	/** Creates a new ChannelOutput for writing to the channel. */
+	public ChannelOutput (WritableByteChannel channel, int bufferSize) {
+		this(bufferSize);
+		setChannel(channel);
+	}
+
+	/** Creates a new ChannelOutput for writing to the file channel, starting at the specified position in the file. */
+	public ChannelOutput (FileChannel channel, long channelPosition, int bufferSize) {
+		this(bufferSize);
+		setChannel(channel, channelPosition);
+	}
+
+	/** Sets a new channel, which is written at its current position. The position and total are reset, discarding any buffered
+	 * bytes.
+	 * @param channel May be null. */
+	public void setChannel (WritableByteChannel channel) {
+		this.channel = channel;
+		channelPosition = -1;
+		position = 0;
+		total = 0;
+	}
+
+	/** Sets a new file channel, which is written starting at the specified position without changing the channel's position. The
+	 * position and total are reset, discarding any buffered bytes. */
+	public void setChannel (FileChannel channel, long channelPosition) {
+		if (channel == null) throw new IllegalArgumentException("channel cannot be null.");
+		if (channelPosition < 0) throw new IllegalArgumentException("channelPosition cannot be < 0: " + channelPosition);
+		setChannel(channel);
+		this.channelPosition = channelPosition;
+	}
+
+	public WritableByteChannel getChannel () {
+		return channel;
+	}
+
+	/** Returns the position in the file channel the next flush will write to, or -1 if the channel is written at its current
+	 * position. */
+	public long getChannelPosition () {
+		return channelPosition;
+	}
+
+	/** Sets the buffer that will be written to. The channel is set to null.
+	 * @see Output#setBuffer(byte[], int) */
+	public void setBuffer (byte[] buffer, int maxBufferSize) {
+		super.setBuffer(buffer, maxBufferSize);
+		channel = null;
+	}
+
+	/** Writes the buffered bytes to the channel, if any. */
+	public void flush () throws KryoException {
+		if (channel == null) {
+			super.flush();
+			return;
+		}
+		ByteBuffer byteBuffer = this.byteBuffer;
+		if (byteBuffer == null || byteBuffer.array() != buffer) this.byteBuffer = byteBuffer = ByteBuffer.wrap(buffer);
+		byteBuffer.clear();
+		byteBuffer.limit(position);
+		try {
+			if (channelPosition != -1) {
+				FileChannel fileChannel = (FileChannel)channel;
+				while (byteBuffer.hasRemaining())
+					channelPosition += fileChannel.write(byteBuffer, channelPosition);
+			} else {
+				while (byteBuffer.hasRemaining())
+					channel.write(byteBuffer);
+			}
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+		total += position;
+		position = 0;
+	}
+
+	/** Flushes any buffered bytes and closes the channel, if any. */
+	public void close () throws KryoException {
+		flush();
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ignored) {
+			}
+		}
+		super.close();
+	}
+}
@@ -0,0 +1,262 @@
+package com.esotericsoftware.kryo.io;
+
+import static com.esotericsoftware.kryo.io.FramedWriter.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+/** Reads the records written by {@link FramedWriter}. A reader covers a range of the bytes and can be split with
+ * {@link #trySplit()}, so the records can be read by multiple threads, eg by submitting each split to an executor or by the
+ * Spliterator of the kryo-stream module. A reader reads the blocks whose sync marker starts in its range. Each split uses its own
+ * {@link Input} and a {@link Kryo} that is borrowed from the pool for the first record and released when the split is exhausted
+ * or {@link #close() closed}.
+ * <p>
+ * The bytes are read from a byte array, a ByteBuffer or a {@link FileChannel}. Positions are longs, so a file can be larger than
+ * 2GB. A file is read with positional reads into a buffer of each split, which grows to the size of the largest record. A reader
+ * is not thread safe, but splits can be used concurrently.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class FramedReader<T> implements Iterator<T> {
+	static private final int windowSize = 64 * 1024;
+
+	private final KryoPool pool;
+	private final Class<T> type;
+	/** The bytes, or null if they are read from the channel. */
+	private final ByteBuffer buffer;
+	private final FileChannel channel;
+	private final byte[] sync;
+	private final long start, limit;
+	private long end, position;
+	private boolean started, done, hasNext, checked;
+	private Kryo kryo;
+	private Input input;
+	private byte[] bytes;
+	private T next;
+	// The bytes from windowStart to windowStart + window.limit().
+	private ByteBuffer window;
+	private long windowStart;
+
+	/** @param type The type the records were written with, or null if they were written with
+	 *           {@link FramedWriter#writeClassAndObject(Object)}. */
+	public FramedReader (KryoPool pool, Class<T> type, byte[] bytes) {
+		this(pool, type, ByteBuffer.wrap(bytes));
+	}
+
+	/** Reads the records from the buffer's position to its limit. The buffer's position is not modified.
+	 * @param type The type the records were written with, or null if they were written with
+	 *           {@link FramedWriter#writeClassAndObject(Object)}. */
+	public FramedReader (KryoPool pool, Class<T> type, ByteBuffer buffer) {
+		if (pool == null) throw new IllegalArgumentException("pool cannot be null.");
+		if (buffer == null) throw new IllegalArgumentException("buffer cannot be null.");
+		this.pool = pool;
+		this.type = type;
+		this.buffer = buffer.duplicate();
+		channel = null;
+		window = this.buffer;
+		limit = buffer.limit();
+		sync = readSync(buffer.position());
+		start = buffer.position() + SYNC_SIZE;
+		end = limit;
+	}
+
+	/** Reads the records of the whole file using positional reads, which don't modify the channel's position. The channel must not
+	 * be closed until all splits have been read.
+	 * @param type The type the records were written with, or null if they were written with
+	 *           {@link FramedWriter#writeClassAndObject(Object)}. */
+	public FramedReader (KryoPool pool, Class<T> type, FileChannel channel) {
+		if (pool == null) throw new IllegalArgumentException("pool cannot be null.");
+		if (channel == null) throw new IllegalArgumentException("channel cannot be null.");
+		this.pool = pool;
+		this.type = type;
+		this.channel = channel;
+		buffer = null;
+		try {
+			limit = channel.size();
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+		sync = readSync(0);
+		start = SYNC_SIZE;
+		end = limit;
+	}
+
+	private FramedReader (FramedReader<T> reader, long start, long end) {
+		pool = reader.pool;
+		type = reader.type;
+		channel = reader.channel;
+		buffer = reader.buffer == null ? null : reader.buffer.duplicate();
+		window = buffer;
+		sync = reader.sync;
+		limit = reader.limit;
+		this.start = start;
+		this.end = end;
+	}
+
+	private byte[] readSync (long from) {
+		if (limit - from < SYNC_SIZE) throw new KryoException("Buffer underflow, sync marker missing.");
+		byte[] sync = new byte[SYNC_SIZE];
+		for (int i = 0; i < SYNC_SIZE; i++)
+			sync[i] = get(from + i);
+		return sync;
+	}
+
+	/** Splits off the second half of the remaining range as a new reader, which reads the blocks starting there. This reader then
+	 * stops before them.
+	 * @return May be null if the remaining range is too small to be split. */
+	public FramedReader<T> trySplit () {
+		if (done) return null;
+		long from = started ? position : start;
+		if (end - from < (SYNC_SIZE + 1) * 2) return null;
+		long middle = from + (end - from) / 2;
+		FramedReader<T> split = new FramedReader(this, middle, end);
+		end = middle;
+		return split;
+	}
+
+	/** Returns an estimate of the number of bytes that remain to be read by this reader. */
+	public long getRemaining () {
+		if (done) return 0;
+		return Math.max(0, end - (started ? position : start));
+	}
+
+	public boolean hasNext () {
+		if (!checked) {
+			try {
+				hasNext = advance();
+			} catch (RuntimeException ex) {
+				close();
+				throw ex;
+			}
+			checked = true;
+		}
+		return hasNext;
+	}
+
+	public T next () {
+		if (!hasNext()) throw new NoSuchElementException();
+		checked = false;
+		T object = next;
+		next = null;
+		return object;
+	}
+
+	public void remove () {
+		throw new UnsupportedOperationException();
+	}
+
+	/** Stops reading and releases the Kryo to the pool. The channel, if any, is not closed. */
+	public void close () {
+		done = true;
+		checked = true;
+		hasNext = false;
+		if (kryo != null) {
+			pool.release(kryo);
+			kryo = null;
+		}
+	}
+
+	private boolean advance () {
+		if (done) return false;
+		if (!started) {
+			started = true;
+			position = findSync(start);
+			if (position == -1) {
+				close();
+				return false;
+			}
+		}
+		while (true) {
+			if (position >= limit) {
+				close();
+				return false;
+			}
+			int length = readVarInt();
+			if (length == 0) {
+				long syncStart = position - 1;
+				if (!isSync(position)) throw new KryoException("Invalid sync marker at: " + syncStart);
+				if (syncStart >= end) {
+					close();
+					return false;
+				}
+				position += SYNC_SIZE;
+				continue;
+			}
+			length--;
+			if (length > limit - position) throw new KryoException("Buffer underflow, record at " + position + " is truncated.");
+			if (kryo == null) {
+				kryo = pool.borrow();
+				input = new Input();
+			}
+			fill(position, length);
+			int index = (int)(position - windowStart);
+			if (window.hasArray())
+				input.setBuffer(window.array(), window.arrayOffset() + index, length);
+			else {
+				if (bytes == null || bytes.length < length) bytes = new byte[Math.max(length, 256)];
+				ByteBuffer record = window.duplicate();
+				record.position(index);
+				record.get(bytes, 0, length);
+				input.setBuffer(bytes, 0, length);
+			}
+			position += length;
+			if (type == null)
+				next = (T)kryo.readClassAndObject(input);
+			else
+				next = kryo.readObject(input, type);
+			return true;
+		}
+	}
+
+	/** Returns the position of the first sync marker that starts at or after from and before end, or -1. */
+	private long findSync (long from) {
+		for (long i = from, n = Math.min(end - 1, limit - SYNC_SIZE - 1); i <= n; i++)
+			if (get(i) == 0 && isSync(i + 1)) return i;
+		return -1;
+	}
+
+	private boolean isSync (long index) {
+		if (index + SYNC_SIZE > limit) return false;
+		for (int i = 0; i < SYNC_SIZE; i++)
+			if (get(index + i) != sync[i]) return false;
+		return true;
+	}
+
+	private int readVarInt () {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			if (position >= limit) throw new KryoException("Buffer underflow.");
+			int b = get(position++);
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return result;
+		}
+		throw new KryoException("Malformed record length at: " + position);
+	}
+
+	private byte get (long index) {
+		fill(index, 1);
+		return window.get((int)(index - windowStart));
+	}
+
+	/** Ensures the window contains the specified bytes, reading them from the channel if necessary. */
+	private void fill (long from, int count) {
+		if (window != null && from >= windowStart && from + count <= windowStart + window.limit()) return;
+		if (channel == null) throw new KryoException("Buffer underflow.");
+		if (window == null || window.capacity() < count) window = ByteBuffer.allocate(Math.max(count, windowSize));
+		window.clear();
+		window.limit((int)Math.min(window.capacity(), limit - from));
+		windowStart = from;
+		try {
+			while (window.hasRemaining())
+				if (channel.read(window, from + window.position()) == -1) throw new KryoException("Buffer underflow.");
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+		window.flip();
+	}
+}
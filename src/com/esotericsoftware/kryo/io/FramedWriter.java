@@ -0,0 +1,89 @@
+package com.esotericsoftware.kryo.io;
+
+import java.util.Random;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/** Writes objects as length prefixed records with periodic sync markers, so the records can be read concurrently by splitting the
+ * bytes at the sync markers using {@link FramedReader}.
+ * <p>
+ * The bytes start with a random 16 byte sync marker. Then each block of records starts with a 0 byte followed by the sync marker.
+ * Each record is written as its length + 1 as a variable length int followed by the bytes of the object. A new block is started
+ * when at least syncInterval bytes of records have been written in the current block.
+ * <p>
+ * Each record is a separate object graph, the Kryo must have {@link Kryo#setAutoReset(boolean) auto reset} enabled (the default).
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class FramedWriter {
+	static final int SYNC_SIZE = 16;
+
+	private final Kryo kryo;
+	private final Output output;
+	private final Output record;
+	private final byte[] sync;
+	private final int syncInterval;
+	private int blockSize = -1;
+
+	/** Creates a writer with a sync interval of 64KB. */
+	public FramedWriter (Kryo kryo, Output output) {
+		this(kryo, output, 64 * 1024);
+	}
+
+	/** @param syncInterval The minimum number of record bytes per block. Smaller blocks allow finer splits at the cost of 17 bytes
+	 *           per block. */
+	public FramedWriter (Kryo kryo, Output output, int syncInterval) {
+		if (kryo == null) throw new IllegalArgumentException("kryo cannot be null.");
+		if (output == null) throw new IllegalArgumentException("output cannot be null.");
+		if (syncInterval <= 0) throw new IllegalArgumentException("syncInterval must be > 0: " + syncInterval);
+		this.kryo = kryo;
+		this.output = output;
+		this.syncInterval = syncInterval;
+		record = new Output(256, -1);
+		sync = new byte[SYNC_SIZE];
+		new Random().nextBytes(sync);
+		output.writeBytes(sync);
+	}
+
+	/** Writes the object as a record using {@link Kryo#writeObject(Output, Object)}. The records must be read with the type. */
+	public void writeObject (Object object) {
+		record.clear();
+		kryo.writeObject(record, object);
+		writeRecord();
+	}
+
+	/** Writes the object as a record using {@link Kryo#writeClassAndObject(Output, Object)}. The records must be read without a
+	 * type.
+	 * @param object May be null. */
+	public void writeClassAndObject (Object object) {
+		record.clear();
+		kryo.writeClassAndObject(record, object);
+		writeRecord();
+	}
+
+	private void writeRecord () {
+		if (blockSize == -1 || blockSize >= syncInterval) sync();
+		int length = record.position();
+		output.writeVarInt(length + 1, true);
+		output.writeBytes(record.getBuffer(), 0, length);
+		blockSize += length;
+	}
+
+	/** Starts a new block before the next record. */
+	public void sync () {
+		output.writeByte(0);
+		output.writeBytes(sync);
+		blockSize = 0;
+	}
+
+	/** Returns the total number of bytes written, including the sync markers. */
+	public long total () {
+		return output.total();
+	}
+
+	public void flush () {
+		output.flush();
+	}
+
+	public void close () {
+		output.close();
+	}
+}
@@ -5,6 +5,7 @@ import com.esotericsoftware.kryo.KryoException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /** An InputStream that reads data from a byte array and optionally fills the byte array from another InputStream as needed.
  * Utility methods are provided for efficiently reading primitive types and strings.
@@ -20,6 +21,8 @@ public class Input extends InputStream {
 	protected long total;
 	protected char[] chars = new char[32];
 	protected InputStream inputStream;
+	protected BufferAllocator allocator;
+	private boolean allocated;
 
 	/** Creates an uninitialized Input. {@link #setBuffer(byte[])} must be called before the Input is used. */
 	public Input () {
@@ -58,6 +61,18 @@ public class Input extends InputStream {
 		this.inputStream = inputStream;
 	}
 
+	/** Creates a new Input for reading from an InputStream, with a buffer obtained from the allocator. The buffer is released to
+	 * the allocator when the Input is closed or a new buffer is set. */
+	public Input (InputStream inputStream, int bufferSize, BufferAllocator allocator) {
+		if (inputStream == null) throw new IllegalArgumentException("inputStream cannot be null.");
+		if (allocator == null) throw new IllegalArgumentException("allocator cannot be null.");
+		this.inputStream = inputStream;
+		this.allocator = allocator;
+		capacity = bufferSize;
+		buffer = allocator.allocate(bufferSize);
+		allocated = true;
+	}
+
 	/** Sets a new buffer. The position and total are reset, discarding any buffered bytes. */
 	public void setBuffer (byte[] bytes) {
 		setBuffer(bytes, 0, bytes.length);
@@ -66,6 +81,7 @@ public class Input extends InputStream {
 	/** Sets a new buffer. The position and total are reset, discarding any buffered bytes. */
 	public void setBuffer (byte[] bytes, int offset, int count) {
 		if (bytes == null) throw new IllegalArgumentException("bytes cannot be null.");
+		releaseBuffer();
 		buffer = bytes;
 		position = offset;
 		limit = offset + count;
@@ -78,6 +94,17 @@ public class Input extends InputStream {
 		return buffer;
 	}
 
+	public BufferAllocator getAllocator () {
+		return allocator;
+	}
+
+	/** Releases the buffer to the allocator, if the buffer was obtained from it. */
+	private void releaseBuffer () {
+		if (!allocated) return;
+		allocated = false;
+		allocator.release(buffer);
+	}
+
 	public InputStream getInputStream () {
 		return inputStream;
 	}
@@ -278,7 +305,7 @@ public class Input extends InputStream {
 		return count;
 	}
 
-	/** Closes the underlying InputStream, if any. */
+	/** Closes the underlying InputStream, if any. If the buffer was obtained from an allocator, it is released. */
 	public void close () throws KryoException {
 		if (inputStream != null) {
 			try {
@@ -286,6 +313,13 @@ public class Input extends InputStream {
 			} catch (IOException ignored) {
 			}
 		}
+		if (allocated) {
+			releaseBuffer();
+			buffer = null;
+			position = 0;
+			limit = 0;
+			capacity = 0;
+		}
 	}
 
 	// byte
@@ -309,6 +343,26 @@ public class Input extends InputStream {
 		return bytes;
 	}
 
+	/** Reads the specified number of bytes as a read-only ByteBuffer. If the bytes are in the buffer and the buffer is
+	 * {@link #isBufferRetained() retained}, the returned ByteBuffer is a view of the buffer rather than a copy. The view shares the
+	 * buffer, so it is only valid as long as the buffer is not modified or reused, eg by {@link #setBuffer(byte[])}. Otherwise the
+	 * bytes are copied. */
+	public ByteBuffer readByteBuffer (int length) throws KryoException {
+		if (length < 0) throw new IllegalArgumentException("length cannot be < 0: " + length);
+		if (limit - position >= length && isBufferRetained()) {
+			ByteBuffer view = ByteBuffer.wrap(buffer, position, length).slice();
+			position += length;
+			return view.asReadOnlyBuffer();
+		}
+		return ByteBuffer.wrap(readBytes(length)).asReadOnlyBuffer();
+	}
+
+	/** Returns true if the bytes in the buffer are not overwritten by subsequent reads, so {@link #readByteBuffer(int)} can return
+	 * views of the buffer. This is the case when there is no InputStream to fill the buffer. */
+	protected boolean isBufferRetained () {
+		return inputStream == null;
+	}
+
 	/** Reads bytes.length bytes and writes them to the specified byte[], starting at index 0. */
 	public void readBytes (byte[] bytes) throws KryoException {
 		readBytes(bytes, 0, bytes.length);
@@ -466,6 +520,38 @@ public class Input extends InputStream {
 		return new String(chars, 0, charCount);
 	}
 
+	/** Discards the length and string of UTF8 characters, or null, written by {@link Output#writeString(String)}, without
+	 * creating a String. */
+	public void skipString () {
+		int b = readByte();
+		if ((b & 0x80) == 0) { // ASCII, the last byte has bit 8 set.
+			while ((readByte() & 0x80) == 0)
+				;
+			return;
+		}
+		// Null, empty, or UTF8.
+		int charCount = b & 0x3F;
+		if ((b & 0x40) != 0) {
+			b = readByte();
+			charCount |= (b & 0x7F) << 6;
+			for (int shift = 13; (b & 0x80) != 0 && shift <= 27; shift += 7) {
+				b = readByte();
+				charCount |= (b & 0x7F) << shift;
+			}
+		}
+		for (int i = 1; i < charCount; i++) {
+			switch ((readByte() & 0xFF) >> 4) {
+			case 12:
+			case 13:
+				skip(1);
+				break;
+			case 14:
+				skip(2);
+				break;
+			}
+		}
+	}
+
 	private int readUtf8Length (int b) {
 		int result = b & 0x3F; // Mask all but first 6 bits.
 		if ((b & 0x40) != 0) { // Bit 7 means another byte, bit 8 means UTF8.
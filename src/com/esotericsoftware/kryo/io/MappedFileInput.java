@@ -0,0 +1,186 @@
+package com.esotericsoftware.kryo.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.util.UnsafeUtil;
+
+/** An Input that reads directly from a memory mapped file. The file is mapped one segment at a time. When a read needs more bytes
+ * than remain in the current segment, the next segment is mapped starting at the current position, so an object can span any
+ * number of segments and the file can be larger than 2GB.
+ * <p>
+ * A segment's mapping is released when the next segment is mapped and when the input is closed, so the buffer returned by
+ * {@link #getByteBuffer()} must not be used after either. If the JVM doesn't allow releasing it, it is released when it is
+ * garbage collected. For the same reason {@link #readByteBuffer(int)} returns copies rather than views of the segment.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class MappedFileInput extends ByteBufferInput {
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long start, end;
+	private final int segmentSize;
+	private long segmentStart;
+	private MappedByteBuffer segment;
+
+	/** Creates an input that reads the whole file, using a segment size of 64MB. */
+	public MappedFileInput (File file) throws KryoException {
+		this(file, 64 * 1024 * 1024);
+	}
+
+	/** Creates an input that reads the whole file.
+	 * @param segmentSize The number of bytes mapped at a time. */
+	public MappedFileInput (File file, int segmentSize) throws KryoException {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (segmentSize <= 0) throw new IllegalArgumentException("segmentSize must be > 0: " + segmentSize);
+		try {
+			this.file = new RandomAccessFile(file, "r");
+			channel = this.file.getChannel();
+			end = channel.size();
+		} catch (IOException ex) {
+			throw new KryoException("Error opening file: " + file, ex);
+		}
+		start = 0;
+		this.segmentSize = segmentSize;
+		map(0, 0);
+	}
+
+	/** Creates an input that reads length bytes of the file channel starting at the specified position. The channel is not closed
+	 * when the input is closed.
+	 * @param segmentSize The number of bytes mapped at a time. */
+	public MappedFileInput (FileChannel channel, long start, long length, int segmentSize) throws KryoException {
+		if (channel == null) throw new IllegalArgumentException("channel cannot be null.");
+		if (start < 0) throw new IllegalArgumentException("start cannot be < 0: " + start);
+		if (length < 0) throw new IllegalArgumentException("length cannot be < 0: " + length);
+		if (segmentSize <= 0) throw new IllegalArgumentException("segmentSize must be > 0: " + segmentSize);
+		file = null;
+		this.channel = channel;
+		this.start = start;
+		end = start + length;
+		this.segmentSize = segmentSize;
+		map(start, 0);
+	}
+
+	/** Returns false, a view of a segment would point to unmapped memory once the next segment is mapped. */
+	protected boolean isBufferRetained () {
+		return false;
+	}
+
+	/** Maps the next segment at the current position if the current segment doesn't have enough bytes. */
+	protected int require (int required) throws KryoException {
+		int remaining = limit - position;
+		if (remaining >= required) return remaining;
+		remaining = map(segmentStart + position, required);
+		if (remaining < required) throw new KryoException("Buffer underflow.");
+		return remaining;
+	}
+
+	protected int optional (int optional) throws KryoException {
+		int remaining = limit - position;
+		if (remaining < optional) remaining = map(segmentStart + position, optional);
+		return remaining == 0 ? -1 : Math.min(remaining, optional);
+	}
+
+	/** Maps a segment of at least the segment size or required bytes, or the rest of the file if that is less.
+	 * @return The number of bytes mapped. */
+	private int map (long segmentStart, int required) {
+		int size = (int)Math.min(Math.max(segmentSize, required), end - segmentStart);
+		// The byte order may have been changed temporarily, eg by readVarInt.
+		ByteOrder order = niobuffer != null ? niobuffer.order() : byteOrder;
+		release(segment);
+		segment = null;
+		niobuffer = null;
+		try {
+			segment = channel.map(MapMode.READ_ONLY, segmentStart, size);
+		} catch (IOException ex) {
+			throw new KryoException("Error mapping file segment at: " + segmentStart, ex);
+		}
+		niobuffer = segment;
+		niobuffer.order(order);
+		this.segmentStart = segmentStart;
+		total = segmentStart - start;
+		position = 0;
+		limit = size;
+		capacity = size;
+		return size;
+	}
+
+	/** Returns the position in the file the next byte will be read from. */
+	public long getFilePosition () {
+		return segmentStart + position;
+	}
+
+	/** Sets the position in the file the next byte will be read from. */
+	public void setFilePosition (long filePosition) {
+		if (filePosition < start || filePosition > end)
+			throw new IllegalArgumentException("filePosition must be >= " + start + " and <= " + end + ": " + filePosition);
+		if (filePosition >= segmentStart && filePosition <= segmentStart + limit) {
+			position = (int)(filePosition - segmentStart);
+			niobuffer.position(position);
+		} else
+			map(filePosition, 0);
+	}
+
+	/** Sets the position to the start. */
+	public void rewind () {
+		setFilePosition(start);
+	}
+
+	/** Discards the specified number of bytes, without mapping the skipped segments. */
+	public long skip (long count) throws KryoException {
+		long filePosition = getFilePosition() + count;
+		if (filePosition > end) throw new KryoException("Buffer underflow.");
+		setFilePosition(filePosition);
+		return count;
+	}
+
+	public void skip (int count) throws KryoException {
+		skip((long)count);
+	}
+
+	public boolean eof () {
+		return getFilePosition() == end;
+	}
+
+	public int available () throws IOException {
+		return (int)Math.min(Integer.MAX_VALUE, end - getFilePosition());
+	}
+
+	/** Releases the mapped segment and closes the file, if it was opened by this input. */
+	public void close () throws KryoException {
+		if (segment == null) return;
+		release(segment);
+		segment = null;
+		niobuffer = null;
+		if (file != null) {
+			try {
+				file.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	/** Unmaps the buffer now rather than when it is garbage collected, which is needed to map large files segment by segment
+	 * without running out of address space, and on some platforms to truncate or delete the file. */
+	static void release (ByteBuffer buffer) {
+		if (buffer == null) return;
+		try {
+			UnsafeUtil.releaseBuffer(buffer);
+		} catch (Throwable ex) {
+			// Java 9 and later don't allow access to the cleaner, but Unsafe can invoke it.
+			try {
+				Object unsafe = UnsafeUtil.unsafe();
+				Method invokeCleaner = unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+				invokeCleaner.invoke(unsafe, buffer);
+			} catch (Throwable ignored) {
+				// The buffer is unmapped when it is garbage collected.
+			}
+		}
+	}
+}
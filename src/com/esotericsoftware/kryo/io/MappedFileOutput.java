@@ -0,0 +1,139 @@
+package com.esotericsoftware.kryo.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.esotericsoftware.kryo.KryoException;
+
+/** An Output that writes directly to a memory mapped file. The file is mapped one segment at a time. When a write doesn't fit in
+ * the current segment, the next segment is mapped starting at the current position, growing the file as needed, so an object
+ * can span any number of segments and the file can be larger than 2GB. The OS page cache writes the bytes to the file.
+ * <p>
+ * When the output is closed, the file is truncated to the bytes that were written (unless it was already larger).
+ * {@link #force()} can be used to write the bytes to the storage device. A segment's mapping is released when the next segment is
+ * mapped and when the output is closed, so the buffer returned by {@link #getByteBuffer()} must not be used after either. If the
+ * JVM doesn't allow releasing it, it is released when it is garbage collected.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class MappedFileOutput extends ByteBufferOutput {
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long start, initialSize;
+	private final int segmentSize;
+	private long segmentStart;
+	private MappedByteBuffer segment;
+
+	/** Creates an output that replaces the contents of the file, using a segment size of 64MB. */
+	public MappedFileOutput (File file) throws KryoException {
+		this(file, 64 * 1024 * 1024);
+	}
+
+	/** Creates an output that replaces the contents of the file.
+	 * @param segmentSize The number of bytes mapped at a time. */
+	public MappedFileOutput (File file, int segmentSize) throws KryoException {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (segmentSize <= 0) throw new IllegalArgumentException("segmentSize must be > 0: " + segmentSize);
+		try {
+			this.file = new RandomAccessFile(file, "rw");
+			this.file.setLength(0);
+		} catch (IOException ex) {
+			throw new KryoException("Error opening file: " + file, ex);
+		}
+		channel = this.file.getChannel();
+		start = 0;
+		initialSize = 0;
+		this.segmentSize = segmentSize;
+		map(0, segmentSize);
+	}
+
+	/** Creates an output that writes to the file channel starting at the specified position. The channel must be readable and
+	 * writable and is not closed when the output is closed.
+	 * @param segmentSize The number of bytes mapped at a time. */
+	public MappedFileOutput (FileChannel channel, long start, int segmentSize) throws KryoException {
+		if (channel == null) throw new IllegalArgumentException("channel cannot be null.");
+		if (start < 0) throw new IllegalArgumentException("start cannot be < 0: " + start);
+		if (segmentSize <= 0) throw new IllegalArgumentException("segmentSize must be > 0: " + segmentSize);
+		file = null;
+		this.channel = channel;
+		this.start = start;
+		try {
+			initialSize = channel.size();
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+		this.segmentSize = segmentSize;
+		map(start, segmentSize);
+	}
+
+	/** Maps the next segment at the current position if the current segment doesn't have enough space.
+	 * @return true if a new segment was mapped. */
+	protected boolean require (int required) throws KryoException {
+		if (capacity - position >= required) return false;
+		map(segmentStart + position, Math.max(segmentSize, required));
+		return true;
+	}
+
+	private void map (long segmentStart, int size) {
+		// The byte order may have been changed temporarily, eg by writeVarInt.
+		ByteOrder order = niobuffer != null ? niobuffer.order() : byteOrder;
+		// The bytes written to the released segment are kept by the page cache.
+		MappedFileInput.release(segment);
+		segment = null;
+		niobuffer = null;
+		try {
+			segment = channel.map(MapMode.READ_WRITE, segmentStart, size);
+		} catch (IOException ex) {
+			throw new KryoException("Error mapping file segment at: " + segmentStart, ex);
+		}
+		niobuffer = segment;
+		niobuffer.order(order);
+		this.segmentStart = segmentStart;
+		total = segmentStart - start;
+		position = 0;
+		capacity = size;
+		maxCapacity = Integer.MAX_VALUE;
+	}
+
+	/** Returns the position in the file the next byte will be written to. */
+	public long getFilePosition () {
+		return segmentStart + position;
+	}
+
+	/** Sets the position to the start, discarding the total. */
+	public void clear () {
+		map(start, segmentSize);
+	}
+
+	/** Does nothing, the bytes are written to the file by the page cache. */
+	public void flush () throws KryoException {
+	}
+
+	/** Writes the bytes of the current segment and the file to the storage device. */
+	public void force () throws KryoException {
+		segment.force();
+		try {
+			channel.force(false);
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+	}
+
+	/** Releases the mapped segment, truncates the file to the written bytes and closes it, if it was opened by this output. */
+	public void close () throws KryoException {
+		if (segment == null) return;
+		long size = Math.max(initialSize, segmentStart + position);
+		MappedFileInput.release(segment);
+		segment = null;
+		niobuffer = null;
+		try {
+			if (channel.size() > size) channel.truncate(size);
+			if (file != null) file.close();
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+	}
+}
@@ -14,12 +14,16 @@ import java.io.OutputStream;
  * 
  * @author Nathan Sweet <misc@n4te.com> */
 public class Output extends OutputStream {
+	static volatile OutputListener outputListener;
+
 	protected int maxCapacity;
 	protected long total;
 	protected int position;
 	protected int capacity;
 	protected byte[] buffer;
 	protected OutputStream outputStream;
+	protected BufferAllocator allocator;
+	private boolean allocated;
 
 	/** Creates an uninitialized Output. {@link #setBuffer(byte[], int)} must be called before the Output is used. */
 	public Output () {
@@ -42,6 +46,21 @@ public class Output extends OutputStream {
 		buffer = new byte[bufferSize];
 	}
 
+	/** Creates a new Output for writing to a byte array, which is obtained from the allocator.
+	 * @param bufferSize The initial size of the buffer.
+	 * @param maxBufferSize The buffer is doubled as needed until it exceeds maxBufferSize and an exception is thrown. Can be -1
+	 *           for no maximum.
+	 * @see #setAllocator(BufferAllocator) */
+	public Output (int bufferSize, int maxBufferSize, BufferAllocator allocator) {
+		if (maxBufferSize < -1) throw new IllegalArgumentException("maxBufferSize cannot be < -1: " + maxBufferSize);
+		if (allocator == null) throw new IllegalArgumentException("allocator cannot be null.");
+		this.capacity = bufferSize;
+		this.maxCapacity = maxBufferSize == -1 ? Integer.MAX_VALUE : maxBufferSize;
+		this.allocator = allocator;
+		buffer = allocator.allocate(bufferSize);
+		allocated = true;
+	}
+
 	/** Creates a new Output for writing to a byte array.
 	 * @see #setBuffer(byte[]) */
 	public Output (byte[] buffer) {
@@ -93,6 +112,7 @@ public class Output extends OutputStream {
 	public void setBuffer (byte[] buffer, int maxBufferSize) {
 		if (buffer == null) throw new IllegalArgumentException("buffer cannot be null.");
 		if (maxBufferSize < -1) throw new IllegalArgumentException("maxBufferSize cannot be < -1: " + maxBufferSize);
+		releaseBuffer();
 		this.buffer = buffer;
 		this.maxCapacity = maxBufferSize == -1 ? Integer.MAX_VALUE : maxBufferSize;
 		capacity = buffer.length;
@@ -101,6 +121,37 @@ public class Output extends OutputStream {
 		outputStream = null;
 	}
 
+	/** Sets the allocator used to obtain a larger buffer when the buffer needs to grow. A buffer obtained from the allocator is
+	 * released to it when it is replaced and when the Output is closed, after which the buffer must not be used.
+	 * @param allocator May be null to allocate new byte arrays (default). */
+	public void setAllocator (BufferAllocator allocator) {
+		// The current buffer is no longer released, it may be from another allocator.
+		allocated = false;
+		this.allocator = allocator;
+	}
+
+	public BufferAllocator getAllocator () {
+		return allocator;
+	}
+
+	/** Sets the listener notified when any output grows its buffer. The listener is global, so outputs created by other code are
+	 * included. Outputs only check for a listener when growing, so there is no cost while the buffer is large enough.
+	 * @param listener May be null (default). */
+	static public void setOutputListener (OutputListener listener) {
+		outputListener = listener;
+	}
+
+	static public OutputListener getOutputListener () {
+		return outputListener;
+	}
+
+	/** Releases the buffer to the allocator, if the buffer was obtained from it. */
+	private void releaseBuffer () {
+		if (!allocated) return;
+		allocated = false;
+		allocator.release(buffer);
+	}
+
 	/** Returns the buffer. The bytes between zero and {@link #position()} are the data that has been written. */
 	public byte[] getBuffer () {
 		return buffer;
@@ -140,6 +191,10 @@ public class Output extends OutputStream {
 		if (required > maxCapacity)
 			throw new KryoException("Buffer overflow. Max capacity: " + maxCapacity + ", required: " + required);
 		flush();
+		if (capacity - position >= required) return true;
+		OutputListener listener = outputListener;
+		int oldCapacity = capacity;
+		long start = listener == null ? 0 : System.nanoTime();
 		while (capacity - position < required) {
 			if (capacity == maxCapacity)
 				throw new KryoException("Buffer overflow. Available: " + (capacity - position) + ", required: " + required);
@@ -147,10 +202,13 @@ public class Output extends OutputStream {
 			if (capacity == 0) capacity = 1;
 			capacity = Math.min(capacity * 2, maxCapacity);
 			if (capacity < 0) capacity = maxCapacity;
-			byte[] newBuffer = new byte[capacity];
-			System.arraycopy(buffer, 0, newBuffer, 0, position);
+			byte[] newBuffer = allocator == null ? new byte[capacity] : allocator.allocate(capacity);
+			if (position > 0) System.arraycopy(buffer, 0, newBuffer, 0, position);
+			releaseBuffer();
 			buffer = newBuffer;
+			allocated = allocator != null;
 		}
+		if (listener != null) listener.onBufferGrowth(this, oldCapacity, capacity, System.nanoTime() - start);
 		return true;
 	}
 
@@ -168,7 +226,8 @@ public class Output extends OutputStream {
 		position = 0;
 	}
 
-	/** Flushes any buffered bytes and closes the underlying OutputStream, if any. */
+	/** Flushes any buffered bytes and closes the underlying OutputStream, if any. If the buffer was obtained from the
+	 * {@link #setAllocator(BufferAllocator) allocator}, it is released. */
 	public void close () throws KryoException {
 		flush();
 		if (outputStream != null) {
@@ -177,6 +236,12 @@ public class Output extends OutputStream {
 			} catch (IOException ignored) {
 			}
 		}
+		if (allocated) {
+			releaseBuffer();
+			buffer = null;
+			capacity = 0;
+			position = 0;
+		}
 	}
 
 	/** Writes a byte. */
@@ -661,6 +726,32 @@ public class Output extends OutputStream {
 		return 9;
 	}
 
+	/** Returns the number of bytes that would be written with {@link #writeString(String)}.
+	 * @param value May be null. */
+	static public int stringLength (String value) {
+		if (value == null) return 1;
+		int charCount = value.length();
+		if (charCount == 0) return 1;
+		boolean ascii = charCount > 1 && charCount < 64;
+		int length = 0;
+		for (int i = 0; i < charCount; i++) {
+			int c = value.charAt(i);
+			if (c <= 0x007F)
+				length++;
+			else {
+				ascii = false;
+				length += c > 0x07FF ? 3 : 2;
+			}
+		}
+		if (ascii) return charCount;
+		int utf8Length = charCount + 1;
+		if (utf8Length >>> 6 == 0) return length + 1;
+		if (utf8Length >>> 13 == 0) return length + 2;
+		if (utf8Length >>> 20 == 0) return length + 3;
+		if (utf8Length >>> 27 == 0) return length + 4;
+		return length + 5;
+	}
+
 	// Methods implementing bulk operations on arrays of primitive types
 
 	/** Bulk output of an int array. */
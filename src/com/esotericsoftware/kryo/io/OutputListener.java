@@ -0,0 +1,13 @@
+package com.esotericsoftware.kryo.io;
+
+/** Notified when an {@link Output}, {@link ByteBufferOutput} or {@link UnsafeMemoryOutput} replaces its buffer with a larger one,
+ * eg to find the outputs whose initial buffer size is too small.
+ * <p>
+ * Implementations must be thread safe, the listener is notified by outputs used by all threads.
+ * @see Output#setOutputListener(OutputListener)
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public interface OutputListener {
+	/** Called after the buffer has grown, from within the write that required the space.
+	 * @param nanos The time taken to allocate the new buffer and copy the bytes. */
+	public void onBufferGrowth (Output output, int oldCapacity, int newCapacity, long nanos);
+}
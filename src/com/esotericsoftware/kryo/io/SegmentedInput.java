@@ -0,0 +1,105 @@
+package com.esotericsoftware.kryo.io;
+
+import java.util.List;
+
+import com.esotericsoftware.kryo.KryoException;
+
+/** An Input that reads from a list of byte array segments, eg the bytes written by a {@link SegmentedOutput}. Values can span
+ * segments and the total number of bytes is not limited by the 2GB limit of a byte array. The buffer of the input is filled
+ * from the segments as needed. {@link #total()} is the position in all the bytes.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class SegmentedInput extends Input {
+	private final byte[][] segments;
+	private final int[] segmentLengths;
+	private int segmentIndex, segmentPosition;
+
+	/** Creates an input that reads the bytes written to the output. The segments are not copied. */
+	public SegmentedInput (SegmentedOutput output) {
+		this(output, 4096);
+	}
+
+	/** Creates an input that reads the bytes written to the output. The segments are not copied. */
+	public SegmentedInput (SegmentedOutput output, int bufferSize) {
+		super(bufferSize);
+		int count = output.getSegmentCount();
+		segments = new byte[count][];
+		segmentLengths = new int[count];
+		for (int i = 0; i < count; i++) {
+			segments[i] = output.getSegment(i);
+			segmentLengths[i] = output.getSegmentLength(i);
+		}
+	}
+
+	/** Creates an input that reads all the bytes of each segment. The segments are not copied. */
+	public SegmentedInput (List<byte[]> segments, int bufferSize) {
+		super(bufferSize);
+		int count = segments.size();
+		this.segments = new byte[count][];
+		segmentLengths = new int[count];
+		for (int i = 0; i < count; i++) {
+			this.segments[i] = segments.get(i);
+			segmentLengths[i] = this.segments[i].length;
+		}
+	}
+
+	/** Returns false, the buffer is filled from the segments. */
+	protected boolean isBufferRetained () {
+		return false;
+	}
+
+	protected int fill (byte[] buffer, int offset, int count) throws KryoException {
+		int filled = 0;
+		while (count > 0 && segmentIndex < segments.length) {
+			int copyCount = Math.min(count, segmentLengths[segmentIndex] - segmentPosition);
+			System.arraycopy(segments[segmentIndex], segmentPosition, buffer, offset, copyCount);
+			offset += copyCount;
+			count -= copyCount;
+			filled += copyCount;
+			segmentPosition += copyCount;
+			if (segmentPosition == segmentLengths[segmentIndex]) {
+				segmentIndex++;
+				segmentPosition = 0;
+			}
+		}
+		return filled == 0 && count > 0 ? -1 : filled;
+	}
+
+	/** Sets the position to the start of the first segment. */
+	public void rewind () {
+		super.rewind();
+		limit = 0;
+		segmentIndex = 0;
+		segmentPosition = 0;
+	}
+
+	/** Discards the specified number of bytes, without copying skipped segments to the buffer. */
+	public long skip (long count) throws KryoException {
+		long remaining = count;
+		int buffered = Math.min(limit - position, (int)Math.min(Integer.MAX_VALUE, remaining));
+		position += buffered;
+		remaining -= buffered;
+		while (remaining > 0) {
+			if (segmentIndex == segments.length) throw new KryoException("Buffer underflow.");
+			int skipCount = (int)Math.min(remaining, segmentLengths[segmentIndex] - segmentPosition);
+			segmentPosition += skipCount;
+			total += skipCount;
+			remaining -= skipCount;
+			if (segmentPosition == segmentLengths[segmentIndex]) {
+				segmentIndex++;
+				segmentPosition = 0;
+			}
+		}
+		return count;
+	}
+
+	public void skip (int count) throws KryoException {
+		skip((long)count);
+	}
+
+	public int available () {
+		long available = limit - position;
+		for (int i = segmentIndex; i < segments.length; i++)
+			available += segmentLengths[i] - (i == segmentIndex ? segmentPosition : 0);
+		return (int)Math.min(Integer.MAX_VALUE, available);
+	}
+}
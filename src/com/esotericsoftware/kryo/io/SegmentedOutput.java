@@ -0,0 +1,201 @@
+package com.esotericsoftware.kryo.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.util.IntArray;
+
+/** An Output that writes to a list of byte array segments rather than a single byte array. When the current segment is full, a
+ * new segment is started, so the buffer is never copied to grow it and the total number of bytes written is limited only by
+ * memory, not by the 2GB limit of a byte array. {@link #position()} is the position in the current segment, {@link #total()} is
+ * the position in all the bytes written.
+ * <p>
+ * The bytes can be read with {@link SegmentedInput}, written to a stream with {@link #writeTo(OutputStream)} or written to a
+ * channel without copying using {@link #writeTo(GatheringByteChannel)}. If a {@link BufferAllocator} is set, new segments are
+ * obtained from it. Each segment is released by {@link #clear()} and {@link #close()} to the allocator it was obtained from, if
+ * any, so the allocator can be changed at any time.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class SegmentedOutput extends Output {
+	protected final ArrayList<byte[]> segments = new ArrayList();
+	protected final IntArray segmentLengths = new IntArray();
+	/** The allocator each segment was obtained from, or null. */
+	protected final ArrayList<BufferAllocator> segmentAllocators = new ArrayList();
+	/** The allocator the current segment was obtained from, or null. */
+	protected BufferAllocator bufferAllocator;
+	protected final int segmentSize;
+
+	/** Creates an output with a segment size of 64KB. */
+	public SegmentedOutput () {
+		this(64 * 1024);
+	}
+
+	/** @param segmentSize The size of each segment. Must be at least 16. */
+	public SegmentedOutput (int segmentSize) {
+		this(segmentSize, null);
+	}
+
+	/** @param segmentSize The size of each segment. Must be at least 16.
+	 * @param allocator May be null to allocate new segments. */
+	public SegmentedOutput (int segmentSize, BufferAllocator allocator) {
+		if (segmentSize < 16) throw new IllegalArgumentException("segmentSize must be >= 16: " + segmentSize);
+		this.segmentSize = segmentSize;
+		this.allocator = allocator;
+		buffer = newSegment();
+		bufferAllocator = allocator;
+		capacity = buffer.length;
+		maxCapacity = capacity;
+	}
+
+	/** Returns the array for a new segment, from the current allocator if any. The segment may be larger than the segment size. Can
+	 * be overridden to allocate segments differently, the segment is then released to the allocator that was set when it was
+	 * obtained. */
+	protected byte[] newSegment () {
+		if (allocator != null) return allocator.allocate(segmentSize);
+		return new byte[segmentSize];
+	}
+
+	/** Releases a segment that is no longer used to the allocator it was obtained from.
+	 * @param allocator May be null if the segment was not obtained from an allocator. */
+	protected void releaseSegment (byte[] segment, BufferAllocator allocator) {
+		if (allocator != null) allocator.release(segment);
+	}
+
+	/** Sets the allocator used to obtain new segments. Segments already obtained are released to the allocator they were obtained
+	 * from.
+	 * @param allocator May be null to allocate new segments. */
+	public void setAllocator (BufferAllocator allocator) {
+		super.setAllocator(allocator);
+	}
+
+	/** Starts a new segment if the current segment doesn't have enough space.
+	 * @return true if a new segment was started.
+	 * @throws KryoException if the new segment doesn't have enough space either. */
+	protected boolean require (int required) throws KryoException {
+		if (capacity - position >= required) return false;
+		BufferAllocator allocator = this.allocator;
+		byte[] segment = newSegment();
+		if (required > segment.length) {
+			releaseSegment(segment, allocator);
+			throw new KryoException("Buffer overflow. Segment size: " + segment.length + ", required: " + required);
+		}
+		segments.add(buffer);
+		segmentLengths.add(position);
+		segmentAllocators.add(bufferAllocator);
+		total += position;
+		buffer = segment;
+		bufferAllocator = allocator;
+		capacity = buffer.length;
+		maxCapacity = capacity;
+		position = 0;
+		return true;
+	}
+
+	/** Returns the number of segments, including the current segment. */
+	public int getSegmentCount () {
+		return segments.size() + 1;
+	}
+
+	/** Returns the segment at the specified index. The last segment is the current segment. */
+	public byte[] getSegment (int index) {
+		if (index == segments.size()) return buffer;
+		return segments.get(index);
+	}
+
+	/** Returns the number of bytes written to the segment at the specified index. */
+	public int getSegmentLength (int index) {
+		if (index == segments.size()) return position;
+		return segmentLengths.get(index);
+	}
+
+	/** Returns a new byte array containing all the bytes written.
+	 * @throws KryoException if more than 2GB has been written. */
+	public byte[] toBytes () {
+		long total = total();
+		if (total > Integer.MAX_VALUE) throw new KryoException("Too many bytes for a byte array: " + total);
+		byte[] bytes = new byte[(int)total];
+		int offset = 0;
+		for (int i = 0, n = getSegmentCount(); i < n; i++) {
+			int length = getSegmentLength(i);
+			System.arraycopy(getSegment(i), 0, bytes, offset, length);
+			offset += length;
+		}
+		return bytes;
+	}
+
+	/** Returns a ByteBuffer for each segment, from the start of the segment to the number of bytes written to it. The buffers share
+	 * the segments, so they are only valid until the output is cleared or closed. */
+	public ByteBuffer[] getByteBuffers () {
+		int count = getSegmentCount();
+		ByteBuffer[] buffers = new ByteBuffer[count];
+		for (int i = 0; i < count; i++)
+			buffers[i] = ByteBuffer.wrap(getSegment(i), 0, getSegmentLength(i));
+		return buffers;
+	}
+
+	/** Writes all the bytes written to the specified channel using gathering writes, without copying the segments. If the channel
+	 * is in non-blocking mode, this method may need to try the write many times until the channel accepts all the bytes.
+	 * @return The number of bytes written. */
+	public long writeTo (GatheringByteChannel channel) throws KryoException {
+		ByteBuffer[] buffers = getByteBuffers();
+		long written = 0;
+		try {
+			for (int offset = 0, count = buffers.length; offset < count;) {
+				written += channel.write(buffers, offset, count - offset);
+				while (offset < count && !buffers[offset].hasRemaining())
+					offset++;
+			}
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+		return written;
+	}
+
+	/** Writes all the bytes written to the specified stream. */
+	public void writeTo (OutputStream outputStream) throws KryoException {
+		try {
+			for (int i = 0, n = getSegmentCount(); i < n; i++)
+				outputStream.write(getSegment(i), 0, getSegmentLength(i));
+		} catch (IOException ex) {
+			throw new KryoException(ex);
+		}
+	}
+
+	/** Discards all the bytes written. The first segment is kept and the other segments are released. */
+	public void clear () {
+		if (!segments.isEmpty()) {
+			for (int i = 1, n = segments.size(); i < n; i++)
+				releaseSegment(segments.get(i), segmentAllocators.get(i));
+			releaseSegment(buffer, bufferAllocator);
+			buffer = segments.get(0);
+			bufferAllocator = segmentAllocators.get(0);
+			capacity = buffer.length;
+			maxCapacity = capacity;
+			segments.clear();
+			segmentLengths.clear();
+			segmentAllocators.clear();
+		}
+		position = 0;
+		total = 0;
+	}
+
+	/** Releases the segments that were obtained from an allocator. The output must not be used afterward. */
+	public void close () throws KryoException {
+		super.close();
+		if (buffer == null) return;
+		for (int i = 0, n = segments.size(); i < n; i++)
+			releaseSegment(segments.get(i), segmentAllocators.get(i));
+		releaseSegment(buffer, bufferAllocator);
+		segments.clear();
+		segmentLengths.clear();
+		segmentAllocators.clear();
+		buffer = null;
+		bufferAllocator = null;
+		capacity = 0;
+		maxCapacity = 0;
+		position = 0;
+	}
+}
@@ -60,6 +60,15 @@ public final class UnsafeMemoryOutput extends ByteBufferOutput {
 		updateBufferAddress();
 	}
 
+	/** Creates a new Output for writing to a direct buffer, which is obtained from the allocator.
+	 * 
+	 * @param bufferSize The initial size of the buffer.
+	 * @param maxBufferSize The buffer is doubled as needed until it exceeds maxBufferSize and an exception is thrown. */
+	public UnsafeMemoryOutput (int bufferSize, int maxBufferSize, BufferAllocator allocator) {
+		super(bufferSize, maxBufferSize, allocator);
+		updateBufferAddress();
+	}
+
 	/** Creates a new Output for writing to an OutputStream. A buffer size of 4096 is used. */
 	public UnsafeMemoryOutput (OutputStream outputStream) {
 		super(outputStream);
@@ -86,6 +95,13 @@ public final class UnsafeMemoryOutput extends ByteBufferOutput {
 		bufaddress = ((DirectBuffer)super.niobuffer).address();
 	}
 
+	protected boolean require (int required) throws KryoException {
+		if (!super.require(required)) return false;
+		// The buffer may have been replaced by a larger one.
+		updateBufferAddress();
+		return true;
+	}
+
 	/** Writes a 4 byte int. */
 	final public void writeInt (int value) throws KryoException {
 		require(4);
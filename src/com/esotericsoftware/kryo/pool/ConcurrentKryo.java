@@ -0,0 +1,176 @@
+package com.esotericsoftware.kryo.pool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** A thread safe facade for serializing to and from byte arrays which doesn't need a Kryo instance per thread. A small, fixed
+ * number of stripes (by default two per available processor) each hold a {@link Kryo} with its own {@link Output} and
+ * {@link Input}. A call takes a stripe using compare-and-set, starting at a stripe chosen by the calling thread's ID, and puts it
+ * back when done. The stripes are created using the factory when first needed. If all stripes are taken, the caller yields and
+ * then parks briefly until one is put back, so no more Kryo instances than stripes are ever created and no locks or monitors are
+ * used. This makes it suitable for very large numbers of (eg virtual) threads, where a ThreadLocal would hold a Kryo per thread.
+ * <p>
+ * The Kryo instances must have {@link Kryo#setAutoReset(boolean) auto reset} enabled (the default), or they are
+ * {@link Kryo#reset() reset} after each call, so no state leaks from one call to the next.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class ConcurrentKryo {
+	static private final byte[] EMPTY = new byte[0];
+
+	private final KryoFactory factory;
+	private final AtomicReferenceArray<Stripe> stripes;
+	private final AtomicInteger created = new AtomicInteger();
+	private final int mask;
+	private final int bufferSize, maxBufferSize;
+
+	/** Creates a facade with two stripes per available processor, an initial buffer size of 4096 and no maximum buffer size. */
+	public ConcurrentKryo (KryoFactory factory) {
+		this(factory, Runtime.getRuntime().availableProcessors() * 2, 4096, -1);
+	}
+
+	/** @param stripeCount The number of Kryo instances kept, rounded up to the next power of two.
+	 * @param bufferSize The initial size of each stripe's output buffer.
+	 * @param maxBufferSize The maximum size of each stripe's output buffer, can be -1 for no maximum. */
+	public ConcurrentKryo (KryoFactory factory, int stripeCount, int bufferSize, int maxBufferSize) {
+		if (factory == null) throw new IllegalArgumentException("factory cannot be null.");
+		if (stripeCount <= 0) throw new IllegalArgumentException("stripeCount must be > 0: " + stripeCount);
+		if (maxBufferSize < -1) throw new IllegalArgumentException("maxBufferSize cannot be < -1: " + maxBufferSize);
+		this.factory = factory;
+		int size = 1;
+		while (size < stripeCount)
+			size <<= 1;
+		stripes = new AtomicReferenceArray(size);
+		mask = size - 1;
+		this.bufferSize = bufferSize;
+		this.maxBufferSize = maxBufferSize;
+	}
+
+	/** Serializes the object using {@link Kryo#writeObject(Output, Object)} and returns the bytes. */
+	public byte[] writeObject (Object object) {
+		Stripe stripe = acquire();
+		try {
+			stripe.kryo.writeObject(stripe.output, object);
+			return stripe.output.toBytes();
+		} finally {
+			release(stripe);
+		}
+	}
+
+	/** Serializes the class and object using {@link Kryo#writeClassAndObject(Output, Object)} and returns the bytes.
+	 * @param object May be null. */
+	public byte[] writeClassAndObject (Object object) {
+		Stripe stripe = acquire();
+		try {
+			stripe.kryo.writeClassAndObject(stripe.output, object);
+			return stripe.output.toBytes();
+		} finally {
+			release(stripe);
+		}
+	}
+
+	/** Deserializes an object written by {@link #writeObject(Object)}. */
+	public <T> T readObject (byte[] bytes, Class<T> type) {
+		Stripe stripe = acquire();
+		try {
+			stripe.input.setBuffer(bytes);
+			return stripe.kryo.readObject(stripe.input, type);
+		} finally {
+			release(stripe);
+		}
+	}
+
+	/** Deserializes a class and object written by {@link #writeClassAndObject(Object)}.
+	 * @return May be null. */
+	public Object readClassAndObject (byte[] bytes) {
+		Stripe stripe = acquire();
+		try {
+			stripe.input.setBuffer(bytes);
+			return stripe.kryo.readClassAndObject(stripe.input);
+		} finally {
+			release(stripe);
+		}
+	}
+
+	/** Returns a deep copy of the object using {@link Kryo#copy(Object)}. */
+	public <T> T copy (T object) {
+		Stripe stripe = acquire();
+		try {
+			return stripe.kryo.copy(object);
+		} finally {
+			release(stripe);
+		}
+	}
+
+	/** Runs the callback with one of the Kryo instances. The Kryo must not be used after the callback returns. The callback must
+	 * not call this facade, as it may wait forever for a stripe when all are taken by such callbacks. */
+	public <T> T run (KryoCallback<T> callback) {
+		Stripe stripe = acquire();
+		try {
+			return callback.execute(stripe.kryo);
+		} finally {
+			release(stripe);
+		}
+	}
+
+	/** Returns the number of stripes. */
+	public int getStripeCount () {
+		return mask + 1;
+	}
+
+	private Stripe acquire () {
+		int start = (int)Thread.currentThread().getId();
+		for (int attempt = 0;; attempt++) {
+			for (int i = 0, n = mask + 1; i < n; i++) {
+				int index = (start + i) & mask;
+				Stripe stripe = stripes.get(index);
+				if (stripe != null && stripes.compareAndSet(index, stripe, null)) return stripe;
+			}
+			int count = created.get();
+			if (count <= mask) {
+				if (!created.compareAndSet(count, count + 1)) continue;
+				boolean success = false;
+				try {
+					Stripe stripe = new Stripe(factory.create(), new Output(bufferSize, maxBufferSize), new Input());
+					success = true;
+					return stripe;
+				} finally {
+					if (!success) created.decrementAndGet();
+				}
+			}
+			// All stripes are taken, wait for one to be put back.
+			if (attempt < 16)
+				Thread.yield();
+			else
+				LockSupport.parkNanos(10000);
+		}
+	}
+
+	private void release (Stripe stripe) {
+		Kryo kryo = stripe.kryo;
+		if (kryo.getDepth() != 0 || !kryo.getAutoReset()) kryo.reset();
+		stripe.output.clear();
+		stripe.input.setBuffer(EMPTY);
+		// There are never more stripes than slots, so a slot is always free.
+		int start = (int)Thread.currentThread().getId();
+		for (int i = 0;; i++) {
+			int index = (start + i) & mask;
+			if (stripes.get(index) == null && stripes.compareAndSet(index, null, stripe)) return;
+		}
+	}
+
+	static private final class Stripe {
+		final Kryo kryo;
+		final Output output;
+		final Input input;
+
+		Stripe (Kryo kryo, Output output, Input input) {
+			this.kryo = kryo;
+			this.output = output;
+			this.input = input;
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package com.esotericsoftware.kryo.pool;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/** Callback to run with a {@link Kryo} instance borrowed from a {@link KryoPool}.
+ * @see KryoPool#run(KryoCallback)
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public interface KryoCallback<T> {
+	public T execute (Kryo kryo);
+}
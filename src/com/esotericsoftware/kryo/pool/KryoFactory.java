@@ -0,0 +1,10 @@
+package com.esotericsoftware.kryo.pool;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/** Creates and configures {@link Kryo} instances for a {@link KryoPool}. Everything that must be the same for all pooled
+ * instances (registrations, default serializers, references, etc) should be done here.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public interface KryoFactory {
+	public Kryo create ();
+}
@@ -0,0 +1,106 @@
+package com.esotericsoftware.kryo.pool;
+
+import java.lang.ref.SoftReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/** A simple pool interface for {@link Kryo} instances. Kryo is not thread safe, so a pool can be used to share a set of fully
+ * configured instances between threads instead of creating a new Kryo (and all of its registrations and serializers) per thread
+ * or per request. Use the {@link KryoPool.Builder} to construct a pool instance.
+ * <p>
+ * Usage:
+ * 
+ * <pre>
+ * KryoFactory factory = new KryoFactory() {
+ * 	public Kryo create () {
+ * 		Kryo kryo = new Kryo();
+ * 		// configure kryo instance, customize settings
+ * 		return kryo;
+ * 	}
+ * };
+ * // Simple pool, you might also activate SoftReferences to fight OOMEs.
+ * KryoPool pool = new KryoPool.Builder(factory).softReferences().build();
+ * Kryo kryo = pool.borrow();
+ * // do s.th. with kryo here, and afterwards release it
+ * pool.release(kryo);
+ * 
+ * // or use a callback to work with kryo - no need to borrow/release,
+ * // that's done by `run`.
+ * String value = pool.run(new KryoCallback&lt;String&gt;() {
+ * 	public String execute (Kryo kryo) {
+ * 		return kryo.readObject(input, String.class);
+ * 	}
+ * });
+ * </pre>
+ * 
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public interface KryoPool {
+
+	/** Takes a {@link Kryo} instance from the pool or creates a new one (using the factory) if the pool is empty. */
+	public Kryo borrow ();
+
+	/** Returns the given {@link Kryo} instance to the pool. The instance is {@link Kryo#reset() reset} first. If the pool already
+	 * holds its maximum number of idle instances, the instance is discarded. */
+	public void release (Kryo kryo);
+
+	/** Runs the provided {@link KryoCallback} with a {@link Kryo} instance from the pool (borrow/release around
+	 * {@link KryoCallback#execute(Kryo)}). */
+	public <T> T run (KryoCallback<T> callback);
+
+	/** Removes all idle {@link Kryo} instances from the pool. Borrowed instances are not affected. */
+	public void clear ();
+
+	/** Returns the number of idle {@link Kryo} instances in the pool. Instances that were cleared by the garbage collector (if
+	 * {@link Builder#softReferences()} was used) may still be counted. */
+	public int size ();
+
+	/** Builder for a {@link KryoPool} instance, constructs a {@link KryoPoolQueueImpl} instance. */
+	static public class Builder {
+		private final KryoFactory factory;
+		private Queue queue = new ConcurrentLinkedQueue();
+		private boolean softReferences;
+		private int maximumSize = Integer.MAX_VALUE;
+
+		public Builder (KryoFactory factory) {
+			if (factory == null) throw new IllegalArgumentException("factory cannot be null.");
+			this.factory = factory;
+		}
+
+		/** Use the given queue for pooling kryo instances (by default a {@link ConcurrentLinkedQueue} is used). The queue must be
+		 * thread safe. It holds the idle {@link Kryo} instances, or {@link SoftReference}s to them if {@link #softReferences()} is
+		 * used. */
+		public Builder queue (Queue queue) {
+			if (queue == null) throw new IllegalArgumentException("queue cannot be null.");
+			this.queue = queue;
+			return this;
+		}
+
+		/** Use {@link SoftReference}s for pooled {@link Kryo} instances, so that instances may be garbage collected when there's
+		 * memory demand (by default disabled). */
+		public Builder softReferences () {
+			softReferences = true;
+			return this;
+		}
+
+		/** Sets the maximum number of idle {@link Kryo} instances kept by the pool. Instances released while the pool is full are
+		 * discarded. Default is {@link Integer#MAX_VALUE}.
+		 * @param maximumSize Must be >= 0. */
+		public Builder maximumSize (int maximumSize) {
+			if (maximumSize < 0) throw new IllegalArgumentException("maximumSize must be >= 0: " + maximumSize);
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		/** Build the pool. */
+		public KryoPool build () {
+			return new KryoPoolQueueImpl(factory, queue, softReferences, maximumSize);
+		}
+
+		public String toString () {
+			return getClass().getName() + "[queue.class=" + queue.getClass() + ", softReferences=" + softReferences
+				+ ", maximumSize=" + maximumSize + "]";
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.esotericsoftware.kryo.pool;
+
+import java.lang.ref.SoftReference;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/** A simple {@link Queue} based {@link KryoPool} implementation, should be built using the {@link KryoPool.Builder}.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+class KryoPoolQueueImpl implements KryoPool {
+	private final KryoFactory factory;
+	private final Queue queue;
+	private final boolean softReferences;
+	private final int maximumSize;
+	private final AtomicInteger size = new AtomicInteger();
+
+	KryoPoolQueueImpl (KryoFactory factory, Queue queue, boolean softReferences, int maximumSize) {
+		this.factory = factory;
+		this.queue = queue;
+		this.softReferences = softReferences;
+		this.maximumSize = maximumSize;
+	}
+
+	public Kryo borrow () {
+		Object entry;
+		while ((entry = queue.poll()) != null) {
+			size.decrementAndGet();
+			// A soft reference may have been cleared by the GC, in that case try the next one.
+			Kryo kryo = softReferences ? ((SoftReference<Kryo>)entry).get() : (Kryo)entry;
+			if (kryo != null) return kryo;
+		}
+		return factory.create();
+	}
+
+	public void release (Kryo kryo) {
+		if (kryo == null) throw new IllegalArgumentException("kryo cannot be null.");
+		kryo.reset();
+		if (size.incrementAndGet() > maximumSize) {
+			size.decrementAndGet();
+			return;
+		}
+		if (!queue.offer(softReferences ? new SoftReference(kryo) : kryo)) size.decrementAndGet();
+	}
+
+	public <T> T run (KryoCallback<T> callback) {
+		Kryo kryo = borrow();
+		try {
+			return callback.execute(kryo);
+		} finally {
+			release(kryo);
+		}
+	}
+
+	public void clear () {
+		while (queue.poll() != null)
+			size.decrementAndGet();
+	}
+
+	public int size () {
+		return size.get();
+	}
+}
@@ -171,7 +171,7 @@ class AsmCacheFields {
 				throw new KryoException("Unknown acess index");
 		}
 
-		public void copy (Object original, Object copy) {
+		void copy (Kryo kryo, Object original, Object copy) {
 			try {
 				if (accessIndex != -1) {
 					access.set(copy, accessIndex, kryo.copy(access.get(original, accessIndex)));
@@ -24,6 +24,7 @@ public class CollectionSerializer extends Serializer<Collection> {
 	private Serializer serializer;
 	private Class elementClass;
 	private Class genericType;
+	private ParallelSegments parallel;
 
 	public CollectionSerializer () {
 	}
@@ -54,6 +55,12 @@ public class CollectionSerializer extends Serializer<Collection> {
 		this.serializer = serializer;
 	}
 
+	/** @param parallel Writes and reads the elements in segments concurrently. The same setting must be used for reading as was
+	 *           used for writing. Set to null to serialize the elements sequentially (default). */
+	public void setParallel (ParallelSegments parallel) {
+		this.parallel = parallel;
+	}
+
 	public void setGenerics (Kryo kryo, Class[] generics) {
 		genericType = null;
 		if (generics != null && generics.length > 0) {
@@ -64,11 +71,20 @@ public class CollectionSerializer extends Serializer<Collection> {
 	public void write (Kryo kryo, Output output, Collection collection) {
 		int length = collection.size();
 		output.writeVarInt(length, true);
+		Class elementClass = this.elementClass;
 		Serializer serializer = this.serializer;
 		if (genericType != null) {
-			if (serializer == null) serializer = kryo.getSerializer(genericType);
+			if (serializer == null) {
+				elementClass = genericType;
+				serializer = kryo.getSerializer(genericType);
+			}
 			genericType = null;
 		}
+		if (parallel != null) {
+			parallel.write(output, collection.iterator(), length, new Class[] {serializer != null ? elementClass : null},
+				new boolean[] {elementsCanBeNull});
+			return;
+		}
 		if (serializer != null) {
 			if (elementsCanBeNull) {
 				for (Object element : collection)
@@ -103,6 +119,13 @@ public class CollectionSerializer extends Serializer<Collection> {
 			}
 			genericType = null;
 		}
+		if (parallel != null) {
+			Object[] elements = new Object[length];
+			parallel.read(input, elements, new Class[] {serializer != null ? elementClass : null}, new boolean[] {elementsCanBeNull});
+			for (int i = 0; i < length; i++)
+				collection.add(elements[i]);
+			return collection;
+		}
 		if (serializer != null) {
 			if (elementsCanBeNull) {
 				for (int i = 0; i < length; i++)
@@ -118,6 +141,38 @@ public class CollectionSerializer extends Serializer<Collection> {
 		return collection;
 	}
 
+	/** Skips the elements without creating them. {@link #create(Kryo, Input, Class)} is still called to read any bytes a subclass
+	 * writes before the elements, the empty collection is discarded. */
+	public void skip (Kryo kryo, Input input, Class<Collection> type) {
+		create(kryo, input, type);
+		int length = input.readVarInt(true);
+		Class elementClass = this.elementClass;
+		Serializer serializer = this.serializer;
+		if (genericType != null) {
+			if (serializer == null) {
+				elementClass = genericType;
+				serializer = kryo.getSerializer(genericType);
+			}
+			genericType = null;
+		}
+		if (parallel != null) {
+			parallel.skip(input);
+			return;
+		}
+		if (serializer != null) {
+			if (elementsCanBeNull) {
+				for (int i = 0; i < length; i++)
+					kryo.skipObjectOrNull(input, elementClass, serializer);
+			} else {
+				for (int i = 0; i < length; i++)
+					kryo.skipObject(input, elementClass, serializer);
+			}
+		} else {
+			for (int i = 0; i < length; i++)
+				kryo.skipClassAndObject(input);
+		}
+	}
+
 	/** Used by {@link #copy(Kryo, Collection)} to create the new object. This can be overridden to customize object creation, eg to
 	 * call a constructor with arguments. The default implementation uses {@link Kryo#newInstance(Class)}. */
 	protected Collection createCopy (Kryo kryo, Collection original) {
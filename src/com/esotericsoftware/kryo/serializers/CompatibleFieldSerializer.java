@@ -2,6 +2,7 @@
 package com.esotericsoftware.kryo.serializers;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.InputChunked;
 import com.esotericsoftware.kryo.io.Output;
@@ -20,6 +21,10 @@ import static com.esotericsoftware.minlog.Log.*;
  * <p>
  * Note that the field data is identified by name. The situation where a super class has a field with the same name as a subclass
  * must be avoided.
+ * <p>
+ * When a {@link FieldProjection} is used, the fields that are not projected are skipped without creating their values. Primitive
+ * values are skipped using their lengths, other values with {@link Serializer#skip(Kryo, Input, Class)}, so the class names and
+ * CompatibleFieldSerializer headers they contain are still available to the rest of the graph.
  * @author Nathan Sweet <misc@n4te.com> */
 public class CompatibleFieldSerializer<T> extends FieldSerializer<T> {
 	public CompatibleFieldSerializer (Kryo kryo, Class type) {
@@ -47,6 +52,61 @@ public class CompatibleFieldSerializer<T> extends FieldSerializer<T> {
 	public T read (Kryo kryo, Input input, Class<T> type) {
 		T object = create(kryo, input, type);
 		kryo.reference(object);
+		CachedField[] fields = readFields(kryo, input);
+
+		InputChunked inputChunked = new InputChunked(input, 1024);
+		boolean hasGenerics = getGenerics() != null;
+		FieldProjection projection = FieldProjection.get(kryo);
+		if (projection != null) FieldProjection.set(kryo, null, 0);
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField cachedField = fields[i];
+			if(cachedField != null && hasGenerics) {
+				// Generic type used to instantiate this field could have 
+				// been changed in the meantime. Therefore take the most 
+				// up-to-date definition of a field
+				cachedField = getField(cachedField.field.getName());
+			}
+			if (cachedField == null) {
+				if (TRACE) trace("kryo", "Skip obsolete field.");
+				inputChunked.nextChunks();
+				continue;
+			}
+			if (projection != null) {
+				FieldProjection fieldProjection = projection.getField(cachedField.field.getName());
+				if (fieldProjection == null) {
+					if (TRACE) trace("kryo", "Skip field not in projection: " + cachedField);
+					if (!cachedField.field.getType().isPrimitive()) cachedField.skip(inputChunked);
+					inputChunked.nextChunks();
+					continue;
+				}
+				FieldProjection.set(kryo, fieldProjection, kryo.getDepth() + 1);
+			}
+			cachedField.read(inputChunked, object);
+			inputChunked.nextChunks();
+		}
+		if (projection != null) FieldProjection.set(kryo, null, 0);
+		return object;
+	}
+
+	/** Skips the field values without creating the object. Values of primitive fields are skipped using their lengths, other
+	 * values are skipped using {@link Kryo} so the references and headers they contain are tracked. */
+	public void skip (Kryo kryo, Input input, Class<T> type) {
+		CachedField[] fields = readFields(kryo, input);
+		InputChunked inputChunked = new InputChunked(input, 1024);
+		boolean hasGenerics = getGenerics() != null;
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField cachedField = fields[i];
+			if (cachedField != null) {
+				if (hasGenerics) cachedField = getField(cachedField.field.getName());
+				if (!cachedField.field.getType().isPrimitive()) cachedField.skip(inputChunked);
+			}
+			inputChunked.nextChunks();
+		}
+	}
+
+	/** Returns the fields in the order they were written, reading the field names if this is the first object of this serializer in
+	 * the graph. Fields that no longer exist are null. */
+	private CachedField[] readFields (Kryo kryo, Input input) {
 		ObjectMap context = kryo.getGraphContext();
 		CachedField[] fields = (CachedField[])context.get(this);
 		if (fields == null) {
@@ -71,25 +131,6 @@ public class CompatibleFieldSerializer<T> extends FieldSerializer<T> {
 			}
 			context.put(this, fields);
 		}
-
-		InputChunked inputChunked = new InputChunked(input, 1024);
-		boolean hasGenerics = getGenerics() != null;
-		for (int i = 0, n = fields.length; i < n; i++) {
-			CachedField cachedField = fields[i];
-			if(cachedField != null && hasGenerics) {
-				// Generic type used to instantiate this field could have 
-				// been changed in the meantime. Therefore take the most 
-				// up-to-date definition of a field
-				cachedField = getField(cachedField.field.getName());
-			}
-			if (cachedField == null) {
-				if (TRACE) trace("kryo", "Skip obsolete field.");
-				inputChunked.nextChunks();
-				continue;
-			}
-			cachedField.read(inputChunked, object);
-			inputChunked.nextChunks();
-		}
-		return object;
+		return fields;
 	}
 }
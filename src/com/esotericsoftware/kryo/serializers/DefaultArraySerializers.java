@@ -11,6 +11,7 @@ import com.esotericsoftware.kryo.Generics;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.Shareable;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
@@ -22,7 +23,7 @@ import static com.esotericsoftware.minlog.Log.trace;
  * default}.
  * @author Nathan Sweet <misc@n4te.com> */
 public class DefaultArraySerializers{
-	static public class ByteArraySerializer extends Serializer<byte[]> {
+	static public class ByteArraySerializer extends Serializer<byte[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -42,6 +43,17 @@ public class DefaultArraySerializers{
 			return input.readBytes(length - 1);
 		}
 
+		public void skip (Kryo kryo, Input input, Class<byte[]> type) {
+			int length = input.readVarInt(true);
+			if (length != NULL) input.skip((length - 1));
+		}
+
+		public int sizeOf (Kryo kryo, byte[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			return Output.intLength(length + 1, true) + length;
+		}
+
 		public byte[] copy (Kryo kryo, byte[] original) {
 			byte[] copy = new byte[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -49,7 +61,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class IntArraySerializer extends Serializer<int[]> {
+	static public class IntArraySerializer extends Serializer<int[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -69,6 +81,21 @@ public class DefaultArraySerializers{
 			return input.readInts(length - 1, false);
 		}
 
+		public void skip (Kryo kryo, Input input, Class<int[]> type) {
+			int length = input.readVarInt(true);
+			for (int i = 1; i < length; i++)
+				input.readInt(false);
+		}
+
+		public int sizeOf (Kryo kryo, int[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			int size = Output.intLength(length + 1, true);
+			for (int i = 0; i < length; i++)
+				size += Output.intLength(object[i], false);
+			return size;
+		}
+
 		public int[] copy (Kryo kryo, int[] original) {
 			int[] copy = new int[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -76,7 +103,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class FloatArraySerializer extends Serializer<float[]> {
+	static public class FloatArraySerializer extends Serializer<float[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -96,6 +123,17 @@ public class DefaultArraySerializers{
 			return input.readFloats(length-1);
 		}
 
+		public void skip (Kryo kryo, Input input, Class<float[]> type) {
+			int length = input.readVarInt(true);
+			if (length != NULL) input.skip((length - 1) * 4);
+		}
+
+		public int sizeOf (Kryo kryo, float[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			return Output.intLength(length + 1, true) + length * 4;
+		}
+
 		public float[] copy (Kryo kryo, float[] original) {
 			float[] copy = new float[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -103,7 +141,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class LongArraySerializer extends Serializer<long[]> {
+	static public class LongArraySerializer extends Serializer<long[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -123,6 +161,21 @@ public class DefaultArraySerializers{
 			return input.readLongs(length-1, false);
 		}
 
+		public void skip (Kryo kryo, Input input, Class<long[]> type) {
+			int length = input.readVarInt(true);
+			for (int i = 1; i < length; i++)
+				input.readLong(false);
+		}
+
+		public int sizeOf (Kryo kryo, long[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			int size = Output.intLength(length + 1, true);
+			for (int i = 0; i < length; i++)
+				size += Output.longLength(object[i], false);
+			return size;
+		}
+
 		public long[] copy (Kryo kryo, long[] original) {
 			long[] copy = new long[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -130,7 +183,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class ShortArraySerializer extends Serializer<short[]> {
+	static public class ShortArraySerializer extends Serializer<short[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -150,6 +203,17 @@ public class DefaultArraySerializers{
 			return input.readShorts(length-1);
 		}
 
+		public void skip (Kryo kryo, Input input, Class<short[]> type) {
+			int length = input.readVarInt(true);
+			if (length != NULL) input.skip((length - 1) * 2);
+		}
+
+		public int sizeOf (Kryo kryo, short[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			return Output.intLength(length + 1, true) + length * 2;
+		}
+
 		public short[] copy (Kryo kryo, short[] original) {
 			short[] copy = new short[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -157,7 +221,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class CharArraySerializer extends Serializer<char[]> {
+	static public class CharArraySerializer extends Serializer<char[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -177,6 +241,17 @@ public class DefaultArraySerializers{
 			return input.readChars(length-1);
 		}
 
+		public void skip (Kryo kryo, Input input, Class<char[]> type) {
+			int length = input.readVarInt(true);
+			if (length != NULL) input.skip((length - 1) * 2);
+		}
+
+		public int sizeOf (Kryo kryo, char[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			return Output.intLength(length + 1, true) + length * 2;
+		}
+
 		public char[] copy (Kryo kryo, char[] original) {
 			char[] copy = new char[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -184,7 +259,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class DoubleArraySerializer extends Serializer<double[]> {
+	static public class DoubleArraySerializer extends Serializer<double[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -204,6 +279,17 @@ public class DefaultArraySerializers{
 			return input.readDoubles(length-1);
 		}
 
+		public void skip (Kryo kryo, Input input, Class<double[]> type) {
+			int length = input.readVarInt(true);
+			if (length != NULL) input.skip((length - 1) * 8);
+		}
+
+		public int sizeOf (Kryo kryo, double[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			return Output.intLength(length + 1, true) + length * 8;
+		}
+
 		public double[] copy (Kryo kryo, double[] original) {
 			double[] copy = new double[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -211,7 +297,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class BooleanArraySerializer extends Serializer<boolean[]> {
+	static public class BooleanArraySerializer extends Serializer<boolean[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -235,6 +321,17 @@ public class DefaultArraySerializers{
 			return array;
 		}
 
+		public void skip (Kryo kryo, Input input, Class<boolean[]> type) {
+			int length = input.readVarInt(true);
+			if (length != NULL) input.skip(length - 1);
+		}
+
+		public int sizeOf (Kryo kryo, boolean[] object) {
+			if (object == null) return 1;
+			int length = object.length;
+			return Output.intLength(length + 1, true) + length;
+		}
+
 		public boolean[] copy (Kryo kryo, boolean[] original) {
 			boolean[] copy = new boolean[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -242,7 +339,7 @@ public class DefaultArraySerializers{
 		}
 	}
 
-	static public class StringArraySerializer extends Serializer<String[]> {
+	static public class StringArraySerializer extends Serializer<String[]> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -279,6 +376,29 @@ public class DefaultArraySerializers{
 			return array;
 		}
 
+		public void skip (Kryo kryo, Input input, Class<String[]> type) {
+			int length = input.readVarInt(true);
+			if (kryo.getReferences() && kryo.getReferenceResolver().useReferences(String.class)) {
+				Serializer serializer = kryo.getSerializer(String.class);
+				for (int i = 1; i < length; i++)
+					kryo.skipObjectOrNull(input, String.class, serializer);
+			} else {
+				for (int i = 1; i < length; i++)
+					input.skipString();
+			}
+		}
+
+		public int sizeOf (Kryo kryo, String[] object) {
+			if (object == null) return 1;
+			// The strings are written with Kryo when references are used.
+			if (kryo.getReferences() && kryo.getReferenceResolver().useReferences(String.class)) return -1;
+			int length = object.length;
+			int size = Output.intLength(length + 1, true);
+			for (int i = 0; i < length; i++)
+				size += Output.stringLength(object[i]);
+			return size;
+		}
+
 		public String[] copy (Kryo kryo, String[] original) {
 			String[] copy = new String[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -291,6 +411,7 @@ public class DefaultArraySerializers{
 		private boolean elementsCanBeNull = true;
 		private Class[] generics;
 		private final Class type;
+		private ParallelSegments parallel;
 
 		{
 			setAcceptsNull(true);
@@ -311,7 +432,13 @@ public class DefaultArraySerializers{
 			}
 			output.writeVarInt(object.length + 1, true);
 			Class elementClass = object.getClass().getComponentType();
-			if (elementsAreSameType || Modifier.isFinal(elementClass.getModifiers())) {
+			boolean sameType = elementsAreSameType || Modifier.isFinal(elementClass.getModifiers());
+			if (parallel != null) {
+				parallel.write(output, Arrays.asList(object).iterator(), object.length, new Class[] {sameType ? elementClass : null},
+					new boolean[] {elementsCanBeNull});
+				return;
+			}
+			if (sameType) {
 				Serializer elementSerializer = kryo.getSerializer(elementClass);
 //				if(generics!=null) 
 					elementSerializer.setGenerics(kryo, generics);
@@ -359,7 +486,12 @@ public class DefaultArraySerializers{
 			Object[] object = (Object[])Array.newInstance(type.getComponentType(), length - 1);
 			kryo.reference(object);
 			Class elementClass = object.getClass().getComponentType();
-			if (elementsAreSameType || Modifier.isFinal(elementClass.getModifiers())) {
+			boolean sameType = elementsAreSameType || Modifier.isFinal(elementClass.getModifiers());
+			if (parallel != null) {
+				parallel.read(input, object, new Class[] {sameType ? elementClass : null}, new boolean[] {elementsCanBeNull});
+				return object;
+			}
+			if (sameType) {
 				Serializer elementSerializer = kryo.getSerializer(elementClass);
 //				if(generics!=null) 
 					elementSerializer.setGenerics(kryo, generics);
@@ -384,6 +516,35 @@ public class DefaultArraySerializers{
 			return object;
 		}
 
+		public void skip (Kryo kryo, Input input, Class<Object[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			Class elementClass = type.getComponentType();
+			boolean sameType = elementsAreSameType || Modifier.isFinal(elementClass.getModifiers());
+			if (parallel != null) {
+				parallel.skip(input);
+				return;
+			}
+			if (sameType) {
+				Serializer elementSerializer = kryo.getSerializer(elementClass);
+				elementSerializer.setGenerics(kryo, generics);
+				for (int i = 1; i < length; i++) {
+					if (elementsCanBeNull)
+						kryo.skipObjectOrNull(input, elementClass, elementSerializer);
+					else
+						kryo.skipObject(input, elementClass, elementSerializer);
+				}
+			} else {
+				for (int i = 1; i < length; i++) {
+					Registration registration = kryo.readClass(input);
+					if (registration != null) {
+						registration.getSerializer().setGenerics(kryo, generics);
+						kryo.skipObject(input, registration.getType(), registration.getSerializer());
+					}
+				}
+			}
+		}
+
 		public Object[] copy (Kryo kryo, Object[] original) {
 			Object[] copy = (Object[]) Array.newInstance(original.getClass().getComponentType(), original.length);
 			for (int i = 0, n = original.length; i < n; i++)
@@ -403,6 +564,12 @@ public class DefaultArraySerializers{
 		public void setElementsAreSameType (boolean elementsAreSameType) {
 			this.elementsAreSameType = elementsAreSameType;
 		}
+
+		/** @param parallel Writes and reads the elements in segments concurrently. The same setting must be used for reading as was
+		 *           used for writing. Set to null to serialize the elements sequentially (default). */
+		public void setParallel (ParallelSegments parallel) {
+			this.parallel = parallel;
+		}
 		
 		public void setGenerics(Kryo kryo, Class[] generics) {
 			if(TRACE) trace("kryo", "setting generics for ObjectArraySerializer");
@@ -3,6 +3,7 @@ package com.esotericsoftware.kryo.serializers;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
@@ -24,6 +25,7 @@ import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.KryoSerializable;
 import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.Shareable;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
@@ -37,7 +39,7 @@ import java.util.Locale;
 /** Contains many serializer classes that are provided by {@link Kryo#addDefaultSerializer(Class, Class) default}.
  * @author Nathan Sweet <misc@n4te.com> */
 public class DefaultSerializers {
-	static public class VoidSerializer extends Serializer {
+	static public class VoidSerializer extends Serializer implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -49,8 +51,12 @@ public class DefaultSerializers {
 		public Object read (Kryo kryo, Input input, Class type) {
 			return null;
 		}
+
+		public int sizeOf (Kryo kryo, Object object) {
+			return 0;
+		}
 	}
-	static public class BooleanSerializer extends Serializer<Boolean> {
+	static public class BooleanSerializer extends Serializer<Boolean> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -62,9 +68,13 @@ public class DefaultSerializers {
 		public Boolean read (Kryo kryo, Input input, Class<Boolean> type) {
 			return input.readBoolean();
 		}
+
+		public int sizeOf (Kryo kryo, Boolean object) {
+			return 1;
+		}
 	}
 
-	static public class ByteSerializer extends Serializer<Byte> {
+	static public class ByteSerializer extends Serializer<Byte> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -76,9 +86,13 @@ public class DefaultSerializers {
 		public Byte read (Kryo kryo, Input input, Class<Byte> type) {
 			return input.readByte();
 		}
+
+		public int sizeOf (Kryo kryo, Byte object) {
+			return 1;
+		}
 	}
 
-	static public class CharSerializer extends Serializer<Character> {
+	static public class CharSerializer extends Serializer<Character> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -90,9 +104,13 @@ public class DefaultSerializers {
 		public Character read (Kryo kryo, Input input, Class<Character> type) {
 			return input.readChar();
 		}
+
+		public int sizeOf (Kryo kryo, Character object) {
+			return 2;
+		}
 	}
 
-	static public class ShortSerializer extends Serializer<Short> {
+	static public class ShortSerializer extends Serializer<Short> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -104,9 +122,13 @@ public class DefaultSerializers {
 		public Short read (Kryo kryo, Input input, Class<Short> type) {
 			return input.readShort();
 		}
+
+		public int sizeOf (Kryo kryo, Short object) {
+			return 2;
+		}
 	}
 
-	static public class IntSerializer extends Serializer<Integer> {
+	static public class IntSerializer extends Serializer<Integer> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -118,9 +140,13 @@ public class DefaultSerializers {
 		public Integer read (Kryo kryo, Input input, Class<Integer> type) {
 			return input.readInt(false);
 		}
+
+		public int sizeOf (Kryo kryo, Integer object) {
+			return Output.intLength(object, false);
+		}
 	}
 
-	static public class LongSerializer extends Serializer<Long> {
+	static public class LongSerializer extends Serializer<Long> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -132,9 +158,13 @@ public class DefaultSerializers {
 		public Long read (Kryo kryo, Input input, Class<Long> type) {
 			return input.readLong(false);
 		}
+
+		public int sizeOf (Kryo kryo, Long object) {
+			return Output.longLength(object, false);
+		}
 	}
 
-	static public class FloatSerializer extends Serializer<Float> {
+	static public class FloatSerializer extends Serializer<Float> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -146,9 +176,13 @@ public class DefaultSerializers {
 		public Float read (Kryo kryo, Input input, Class<Float> type) {
 			return input.readFloat();
 		}
+
+		public int sizeOf (Kryo kryo, Float object) {
+			return 4;
+		}
 	}
 
-	static public class DoubleSerializer extends Serializer<Double> {
+	static public class DoubleSerializer extends Serializer<Double> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -160,10 +194,14 @@ public class DefaultSerializers {
 		public Double read (Kryo kryo, Input input, Class<Double> type) {
 			return input.readDouble();
 		}
+
+		public int sizeOf (Kryo kryo, Double object) {
+			return 8;
+		}
 	}
 
 	/** @see Output#writeString(String) */
-	static public class StringSerializer extends Serializer<String> {
+	static public class StringSerializer extends Serializer<String> implements Shareable {
 		{
 			setImmutable(true);
 			setAcceptsNull(true);
@@ -176,9 +214,17 @@ public class DefaultSerializers {
 		public String read (Kryo kryo, Input input, Class<String> type) {
 			return input.readString();
 		}
+
+		public void skip (Kryo kryo, Input input, Class<String> type) {
+			input.skipString();
+		}
+
+		public int sizeOf (Kryo kryo, String object) {
+			return Output.stringLength(object);
+		}
 	}
 
-	static public class BigIntegerSerializer extends Serializer<BigInteger> {
+	static public class BigIntegerSerializer extends Serializer<BigInteger> implements Shareable {
 		{
 			setImmutable(true);
 			setAcceptsNull(true);
@@ -203,7 +249,7 @@ public class DefaultSerializers {
 		}
 	}
 
-	static public class BigDecimalSerializer extends Serializer<BigDecimal> {
+	static public class BigDecimalSerializer extends Serializer<BigDecimal> implements Shareable {
 		private BigIntegerSerializer bigIntegerSerializer = new BigIntegerSerializer();
 
 		{
@@ -229,7 +275,7 @@ public class DefaultSerializers {
 		}
 	}
 
-	static public class ClassSerializer extends Serializer<Class> {
+	static public class ClassSerializer extends Serializer<Class> implements Shareable {
 		{
 			setImmutable(true);
 			setAcceptsNull(true);
@@ -251,7 +297,7 @@ public class DefaultSerializers {
 
 	/** Serializer for {@link Date}, {@link java.sql.Date}, {@link Time}, {@link Timestamp} and any other subclass.
 	 * @author serverperformance */
-	static public class DateSerializer extends Serializer<Date> {
+	static public class DateSerializer extends Serializer<Date> implements Shareable {
 		private Date create(Kryo kryo, Class<?> type, long time) throws KryoException {
 			if (type.equals(Date.class)) {
 				return new Date(time);
@@ -302,7 +348,7 @@ public class DefaultSerializers {
 		}
 	}
 
-	static public class EnumSerializer extends Serializer<Enum> {
+	static public class EnumSerializer extends Serializer<Enum> implements Shareable {
 		{
 			setImmutable(true);
 			setAcceptsNull(true);
@@ -332,9 +378,14 @@ public class DefaultSerializers {
 			Object constant = enumConstants[ordinal];
 			return (Enum)constant;
 		}
+
+		public int sizeOf (Kryo kryo, Enum object) {
+			if (object == null) return 1;
+			return Output.intLength(object.ordinal() + 1, true);
+		}
 	}
 
-	static public class EnumSetSerializer extends Serializer<EnumSet> {
+	static public class EnumSetSerializer extends Serializer<EnumSet> implements Shareable {
 		public void write (Kryo kryo, Output output, EnumSet object) {
 			Serializer serializer;
 			if (object.isEmpty()) {
@@ -365,7 +416,7 @@ public class DefaultSerializers {
 	}
 
 	/** @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class CurrencySerializer extends Serializer<Currency> {
+	static public class CurrencySerializer extends Serializer<Currency> implements Shareable {
 		{
 			setImmutable(true);
 			setAcceptsNull(true);
@@ -383,7 +434,7 @@ public class DefaultSerializers {
 	}
 
 	/** @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class StringBufferSerializer extends Serializer<StringBuffer> {
+	static public class StringBufferSerializer extends Serializer<StringBuffer> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -404,7 +455,7 @@ public class DefaultSerializers {
 	}
 
 	/** @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class StringBuilderSerializer extends Serializer<StringBuilder> {
+	static public class StringBuilderSerializer extends Serializer<StringBuilder> implements Shareable {
 		{
 			setAcceptsNull(true);
 		}
@@ -422,7 +473,68 @@ public class DefaultSerializers {
 		}
 	}
 
-	static public class KryoSerializableSerializer extends Serializer<KryoSerializable> {
+	/** Serializes the bytes of a ByteBuffer from its position to its limit. The position of the buffer is not changed and the byte
+	 * order is not serialized. By default the bytes are read into a new heap buffer. If {@link #setReadViews(boolean)} is true,
+	 * they are read using {@link Input#readByteBuffer(int)}, which returns a read-only view of the input's buffer when possible.
+	 * @author Roman Levenstein <romixlev@gmail.com> */
+	static public class ByteBufferSerializer extends Serializer<ByteBuffer> {
+		private boolean readViews;
+
+		{
+			setAcceptsNull(true);
+		}
+
+		/** @param readViews If true, buffers are read as views of the input's buffer when possible, without copying. The views are
+		 *           only valid as long as the input's buffer is not modified or reused. Default is false. */
+		public void setReadViews (boolean readViews) {
+			this.readViews = readViews;
+		}
+
+		public void write (Kryo kryo, Output output, ByteBuffer object) {
+			if (object == null) {
+				output.writeVarInt(NULL, true);
+				return;
+			}
+			int length = object.remaining();
+			output.writeVarInt(length + 1, true);
+			if (object.hasArray())
+				output.writeBytes(object.array(), object.arrayOffset() + object.position(), length);
+			else {
+				byte[] bytes = new byte[length];
+				object.duplicate().get(bytes);
+				output.writeBytes(bytes);
+			}
+		}
+
+		public ByteBuffer read (Kryo kryo, Input input, Class<ByteBuffer> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return null;
+			if (readViews) return input.readByteBuffer(length - 1);
+			return ByteBuffer.wrap(input.readBytes(length - 1));
+		}
+
+		public void skip (Kryo kryo, Input input, Class<ByteBuffer> type) {
+			int length = input.readVarInt(true);
+			if (length != NULL) input.skip(length - 1);
+		}
+
+		public int sizeOf (Kryo kryo, ByteBuffer object) {
+			if (object == null) return 1;
+			int length = object.remaining();
+			return Output.intLength(length + 1, true) + length;
+		}
+
+		public ByteBuffer copy (Kryo kryo, ByteBuffer original) {
+			ByteBuffer copy = original.isDirect() ? ByteBuffer.allocateDirect(original.remaining()) : ByteBuffer.allocate(original
+				.remaining());
+			copy.put(original.duplicate());
+			copy.flip();
+			copy.order(original.order());
+			return copy;
+		}
+	}
+
+	static public class KryoSerializableSerializer extends Serializer<KryoSerializable> implements Shareable {
 		public void write (Kryo kryo, Output output, KryoSerializable object) {
 			object.write(kryo, output);
 		}
@@ -438,7 +550,7 @@ public class DefaultSerializers {
 	/** Serializer for lists created via {@link Collections#emptyList()} or that were just assigned the
 	 * {@link Collections#EMPTY_LIST}.
 	 * @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class CollectionsEmptyListSerializer extends Serializer {
+	static public class CollectionsEmptyListSerializer extends Serializer implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -453,7 +565,7 @@ public class DefaultSerializers {
 
 	/** Serializer for maps created via {@link Collections#emptyMap()} or that were just assigned the {@link Collections#EMPTY_MAP}.
 	 * @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class CollectionsEmptyMapSerializer extends Serializer {
+	static public class CollectionsEmptyMapSerializer extends Serializer implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -468,7 +580,7 @@ public class DefaultSerializers {
 
 	/** Serializer for sets created via {@link Collections#emptySet()} or that were just assigned the {@link Collections#EMPTY_SET}.
 	 * @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class CollectionsEmptySetSerializer extends Serializer {
+	static public class CollectionsEmptySetSerializer extends Serializer implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -483,7 +595,7 @@ public class DefaultSerializers {
 
 	/** Serializer for lists created via {@link Collections#singletonList(Object)}.
 	 * @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class CollectionsSingletonListSerializer extends Serializer<List> {
+	static public class CollectionsSingletonListSerializer extends Serializer<List> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -499,7 +611,7 @@ public class DefaultSerializers {
 
 	/** Serializer for maps created via {@link Collections#singletonMap(Object, Object)}.
 	 * @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class CollectionsSingletonMapSerializer extends Serializer<Map> {
+	static public class CollectionsSingletonMapSerializer extends Serializer<Map> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -519,7 +631,7 @@ public class DefaultSerializers {
 
 	/** Serializer for sets created via {@link Collections#singleton(Object)}.
 	 * @author <a href="mailto:martin.grotzke@javakaffee.de">Martin Grotzke</a> */
-	static public class CollectionsSingletonSetSerializer extends Serializer<Set> {
+	static public class CollectionsSingletonSetSerializer extends Serializer<Set> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -535,7 +647,7 @@ public class DefaultSerializers {
 
 	/** Serializer for {@link TimeZone}. Assumes the timezones are immutable.
 	 * @author serverperformance */
-	static public class TimeZoneSerializer extends Serializer<TimeZone> {
+	static public class TimeZoneSerializer extends Serializer<TimeZone> implements Shareable {
 		{
 			setImmutable(true);
 		}
@@ -551,7 +663,7 @@ public class DefaultSerializers {
 
 	/** Serializer for {@link GregorianCalendar}, java.util.JapaneseImperialCalendar, and sun.util.BuddhistCalendar.
 	 * @author serverperformance */
-	static public class CalendarSerializer extends Serializer<Calendar> {
+	static public class CalendarSerializer extends Serializer<Calendar> implements Shareable {
 		// The default value of gregorianCutover.
 		static private final long DEFAULT_GREGORIAN_CUTOVER = -12219292800000L;
 
@@ -621,7 +733,7 @@ public class DefaultSerializers {
 
 	/** Serializer for {@link Locale} (immutables).
 	 * @author serverperformance */
-	static public class LocaleSerializer extends Serializer<Locale> {
+	static public class LocaleSerializer extends Serializer<Locale> implements Shareable {
 		{
 			setImmutable(true);
 		}
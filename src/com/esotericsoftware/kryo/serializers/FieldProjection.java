@@ -0,0 +1,84 @@
+package com.esotericsoftware.kryo.serializers;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.util.ObjectMap;
+
+/** The field paths to read with {@link Kryo#readObject(Input, Class, FieldProjection)}, eg "customer.id". Objects serialized
+ * with {@link CompatibleFieldSerializer} only read the fields on the paths and skip the bytes of the other fields, which are left
+ * with their default values. The object at the end of a path is read completely.
+ * <p>
+ * A path continues only through fields whose values are serialized with CompatibleFieldSerializer. Objects serialized with other
+ * serializers, eg collections and maps, are read completely.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class FieldProjection {
+	static private final Object contextKey = new Object();
+
+	private final ObjectMap<String, FieldProjection> fields = new ObjectMap();
+	private boolean all;
+
+	/** @param paths Field names separated by ".". */
+	public FieldProjection (String... paths) {
+		for (int i = 0, n = paths.length; i < n; i++)
+			add(paths[i]);
+	}
+
+	/** Adds a field path.
+	 * @param path Field names separated by ".".
+	 * @return This projection. */
+	public FieldProjection add (String path) {
+		if (path == null) throw new IllegalArgumentException("path cannot be null.");
+		FieldProjection projection = this;
+		for (String name : path.split("\\.")) {
+			if (name.length() == 0) throw new IllegalArgumentException("Invalid field path: " + path);
+			if (projection.all) return this;
+			FieldProjection field = projection.fields.get(name);
+			if (field == null) {
+				field = new FieldProjection();
+				projection.fields.put(name, field);
+			}
+			projection = field;
+		}
+		projection.all = true;
+		projection.fields.clear();
+		return this;
+	}
+
+	/** Returns the projection for the value of the specified field, or null if the field is not projected. */
+	public FieldProjection getField (String name) {
+		return fields.get(name);
+	}
+
+	/** Returns true if the object is read completely. */
+	public boolean isAll () {
+		return all;
+	}
+
+	/** Returns the projection for the object being read at the Kryo's current depth, or null if the object must be read
+	 * completely. Serializers can use this to skip the fields that are not projected. */
+	static public FieldProjection get (Kryo kryo) {
+		Active active = (Active)kryo.getGraphContext().get(contextKey);
+		if (active == null || active.depth != kryo.getDepth()) return null;
+		return active.projection;
+	}
+
+	/** Sets the projection for the next object that is read at the specified depth, replacing any previous projection.
+	 * @param projection May be null if the object must be read completely. */
+	static public void set (Kryo kryo, FieldProjection projection, int depth) {
+		ObjectMap context = kryo.getGraphContext();
+		if (projection == null || projection.all)
+			context.remove(contextKey);
+		else
+			context.put(contextKey, new Active(projection, depth));
+	}
+
+	static private class Active {
+		final FieldProjection projection;
+		final int depth;
+
+		Active (FieldProjection projection, int depth) {
+			this.projection = projection;
+			this.depth = depth;
+		}
+	}
+}
@@ -27,7 +27,9 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.NotNull;
 import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.SerializationListener;
 import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.Shareable;
 import com.esotericsoftware.kryo.factories.ReflectionSerializerFactory;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
@@ -149,6 +151,26 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 		rebuildCachedFields();
 	}
 
+	/** Creates a serializer with the settings and cached fields of the specified serializer, which is not bound to a Kryo. See
+	 * {@link #newShareable()}. */
+	private FieldSerializer (FieldSerializer<T> source) {
+		this.kryo = null;
+		this.type = source.type;
+		this.typeParameters = source.typeParameters;
+		this.access = source.access;
+		this.fieldsCanBeNull = source.fieldsCanBeNull;
+		this.setFieldsAsAccessible = source.setFieldsAsAccessible;
+		this.ignoreSyntheticFields = source.ignoreSyntheticFields;
+		this.fixedFieldTypes = source.fixedFieldTypes;
+		this.useAsmEnabled = source.useAsmEnabled;
+		this.varIntsEnabled = source.varIntsEnabled;
+		this.useMemRegions = source.useMemRegions;
+		this.copyTransient = source.copyTransient;
+		this.hasObjectFields = source.hasObjectFields;
+		this.fields = shareFields(source.fields);
+		this.transientFields = shareFields(source.transientFields);
+	}
+
 	/** Called when the list of cached fields must be rebuilt. This is done any time settings are changed that affect which fields
 	 * will be used. It is called from the constructor for FieldSerializer, but not for subclasses. Subclasses must call this from
 	 * their constructor. */
@@ -161,6 +183,17 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 	 * @param minorRebuild if set, processing due to changes in generic type parameters will be optimized
 	 */
 	protected void rebuildCachedFields (boolean minorRebuild) {
+		SerializationListener listener = kryo.getActiveSerializationListener();
+		if (listener == null) {
+			buildCachedFields(minorRebuild);
+			return;
+		}
+		long start = System.nanoTime();
+		buildCachedFields(minorRebuild);
+		listener.onRebuildCachedFields(kryo, type, fields.length, System.nanoTime() - start);
+	}
+
+	private void buildCachedFields (boolean minorRebuild) {
 		/**
 		 * TODO: Optimize rebuildCachedFields invocations performed due to changes in generic type parameters
 		 */
@@ -541,6 +574,27 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 		}
 	}
 
+	/** Skips the fields without creating the object. Subclasses that override {@link #read(Kryo, Input, Class)} or
+	 * {@link #create(Kryo, Input, Class)} to read additional bytes must also override this method. */
+	public void skip (Kryo kryo, Input input, Class<T> type) {
+		try {
+			if (typeParameters != null && generics != null) rebuildCachedFields();
+
+			if (genericsScope != null) kryo.pushGenericsScope(type, genericsScope);
+
+			CachedField[] fields = this.fields;
+			for (int i = 0, n = fields.length; i < n; i++)
+				fields[i].skip(input);
+
+			if (serializeTransient) {
+				for (int i = 0, n = transientFields.length; i < n; i++)
+					transientFields[i].skip(input);
+			}
+		} finally {
+			if (genericsScope != null && kryo.getGenericsScope() != null) kryo.popGenericsScope();
+		}
+	}
+
 	/** Used by {@link #read(Kryo, Input, Class)} to create the new object. This can be overridden to customize object creation, eg
 	 * to call a constructor with arguments. The default implementation uses {@link Kryo#newInstance(Class)}. */
 	protected T create (Kryo kryo, Input input, Class<T> type) {
@@ -660,10 +714,108 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 		return copy;
 	}
 
+	/** Returns a {@link Shareable} serializer with the same settings and cached fields as this one, so the fields of the class
+	 * are analyzed once for any number of Kryo instances, eg those using a {@link com.esotericsoftware.kryo.util.RegistrationTable}.
+	 * The returned serializer can't be changed and isn't bound to a Kryo: {@link #getKryo()} returns null, and the serializers
+	 * for the field values are looked up through the Kryo passed to each call rather than cached, unless they are shareable.
+	 * @return null if the serializer can't be shared: this is a subclass of FieldSerializer, the class has type parameters or a
+	 *         field was given a serializer that is not shareable. */
+	public FieldSerializer<T> newShareable () {
+		if (getClass() != FieldSerializer.class || typeParameters.length > 0 || genericsScope != null) return null;
+		if (!isShareable(fields) || !isShareable(transientFields)) return null;
+		return new SharedFieldSerializer(this);
+	}
+
+	private boolean isShareable (CachedField[] fields) {
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField cachedField = fields[i];
+			Serializer serializer = cachedField.serializer;
+			if (!(cachedField instanceof ObjectField) || serializer == null || serializer instanceof Shareable) continue;
+			// A serializer that was only cached on first use is looked up again through each Kryo.
+			if (cachedField.valueClass == null) return false;
+			Registration registration = kryo.getClassResolver().getRegistration(cachedField.valueClass);
+			if (registration == null || registration.getSerializer() != serializer) return false;
+		}
+		return true;
+	}
+
+	private CachedField[] shareFields (CachedField[] fields) {
+		CachedField[] sharedFields = new CachedField[fields.length];
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField cachedField = fields[i];
+			sharedFields[i] = cachedField instanceof ObjectField ? ((ObjectField)cachedField).share(this) : cachedField;
+		}
+		return sharedFields;
+	}
+
 	public final Generics getGenericsScope () {
 		return genericsScope;
 	}
 
+	/** A FieldSerializer used by many Kryo instances, which passes the Kryo of each call to the cached fields.
+	 * @see FieldSerializer#newShareable() */
+	static private final class SharedFieldSerializer<T> extends FieldSerializer<T> implements Shareable {
+		SharedFieldSerializer (FieldSerializer<T> source) {
+			super(source);
+		}
+
+		public void write (Kryo kryo, Output output, T object) {
+			if (TRACE) trace("kryo", "FieldSerializer.write fields of class: " + object.getClass().getName());
+			CachedField[] fields = super.fields;
+			for (int i = 0, n = fields.length; i < n; i++)
+				fields[i].write(kryo, output, object);
+		}
+
+		public T read (Kryo kryo, Input input, Class<T> type) {
+			T object = create(kryo, input, type);
+			kryo.reference(object);
+			CachedField[] fields = super.fields;
+			for (int i = 0, n = fields.length; i < n; i++)
+				fields[i].read(kryo, input, object);
+			return object;
+		}
+
+		public void skip (Kryo kryo, Input input, Class<T> type) {
+			CachedField[] fields = super.fields;
+			for (int i = 0, n = fields.length; i < n; i++)
+				fields[i].skip(kryo, input);
+		}
+
+		public T copy (Kryo kryo, T original) {
+			T copy = createCopy(kryo, original);
+			kryo.reference(copy);
+			if (getCopyTransient()) {
+				CachedField[] transientFields = super.transientFields;
+				for (int i = 0, n = transientFields.length; i < n; i++)
+					transientFields[i].copy(kryo, original, copy);
+			}
+			CachedField[] fields = super.fields;
+			for (int i = 0, n = fields.length; i < n; i++)
+				fields[i].copy(kryo, original, copy);
+			return copy;
+		}
+
+		/** The class has no type parameters, so there is nothing to rebuild. */
+		public void setGenerics (Kryo kryo, Class[] generics) {
+		}
+
+		protected void rebuildCachedFields (boolean minorRebuild) {
+			throw new UnsupportedOperationException("A shared FieldSerializer can't be changed: " + type.getName());
+		}
+
+		public void removeField (String fieldName) {
+			throw new UnsupportedOperationException("A shared FieldSerializer can't be changed: " + type.getName());
+		}
+
+		public void removeField (CachedField removeField) {
+			throw new UnsupportedOperationException("A shared FieldSerializer can't be changed: " + type.getName());
+		}
+
+		public void setCopyTransient (boolean setCopyTransient) {
+			throw new UnsupportedOperationException("A shared FieldSerializer can't be changed: " + type.getName());
+		}
+	}
+
 	/** Controls how a field will be serialized. */
 	public static abstract class CachedField<X> {
 		Field field;
@@ -714,7 +866,53 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 
 		abstract public void read (Input input, Object object);
 
+		/** Reads past the bytes of this field's value without setting it. The default implementation supports fields whose type is
+		 * primitive or String, subclasses for other field types must override this method. */
+		public void skip (Input input) {
+			Class type = field.getType();
+			if (type == int.class) {
+				if (varIntsEnabled)
+					input.readInt(false);
+				else
+					input.skip(4);
+			} else if (type == long.class) {
+				if (varIntsEnabled)
+					input.readLong(false);
+				else
+					input.skip(8);
+			} else if (type == String.class)
+				input.skipString();
+			else if (type == float.class)
+				input.skip(4);
+			else if (type == double.class)
+				input.skip(8);
+			else if (type == short.class || type == char.class)
+				input.skip(2);
+			else if (type == byte.class || type == boolean.class)
+				input.skip(1);
+			else
+				throw new KryoException("Skipping is not supported for field: " + this + " (" + type.getName() + ")");
+		}
+
 		abstract public void copy (Object original, Object copy);
+
+		/** Writes the field using the specified Kryo, which a {@link FieldSerializer#newShareable() shared} serializer passes to each
+		 * call. Fields that don't serialize other objects have no use for it. */
+		void write (Kryo kryo, Output output, Object object) {
+			write(output, object);
+		}
+
+		void read (Kryo kryo, Input input, Object object) {
+			read(input, object);
+		}
+
+		void skip (Kryo kryo, Input input) {
+			skip(input);
+		}
+
+		void copy (Kryo kryo, Object original, Object copy) {
+			copy(original, copy);
+		}
 	}
 
 	public static interface CachedFieldFactory {
@@ -0,0 +1,667 @@
+package com.esotericsoftware.kryo.serializers;
+
+import static com.esotericsoftware.minlog.Log.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.esotericsoftware.kryo.Generics;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.UnsafeUtil;
+import com.esotericsoftware.kryo.util.Util;
+
+/** A {@link FieldSerializer} that generates a class for the serialized type which writes and reads the fields with straight-line
+ * code, rather than looping over the {@link CachedField cached fields}. The serialized bytes are the same as for FieldSerializer.
+ * <p>
+ * Public, non-final fields of a public class are accessed with getfield and putfield. Other fields, eg private or final fields
+ * or the fields of a non-public class, are accessed with sun.misc.Unsafe at the field's offset, if it is available. Primitive
+ * and String values are written and read by calling {@link Output} and {@link Input} directly. Values of fields with a fixed
+ * concrete type, eg a final class, use the field's serializer at a call site of their own. When references are disabled and
+ * there is no {@link Kryo#setSerializationListener(com.esotericsoftware.kryo.SerializationListener) listener}, they are written
+ * by calling the serializer directly rather than through the {@link Kryo} write methods. Other fields use their cached field.
+ * <p>
+ * The class is generated when the serializer is first used and again when the fields change or references are enabled or
+ * disabled. The classes generated with and without a listener are both kept, so setting and removing a listener, eg while a
+ * profiler is recording, generates each only once. For a generic class, the classes are kept for each way the fields were
+ * resolved for the type arguments. Changes made to a cached field after the serializer is used, eg
+ * {@link CachedField#setClass(Class)}, require the fields to be rebuilt. The classes are defined by one class loader per class
+ * loader of the serialized types. Android uses FieldSerializer's implementation.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class GeneratedFieldSerializer<T> extends FieldSerializer<T> {
+	static private final String kryoName = Type.getInternalName(Kryo.class);
+	static private final String outputName = Type.getInternalName(Output.class);
+	static private final String inputName = Type.getInternalName(Input.class);
+	static private final String serializerName = Type.getInternalName(Serializer.class);
+	static private final String cachedFieldName = Type.getInternalName(CachedField.class);
+	static private final String writerName = Type.getInternalName(FieldWriter.class);
+	static private final String unsafeName = "sun/misc/Unsafe";
+	static private final String unsafeUtilName = "com/esotericsoftware/kryo/util/UnsafeUtil";
+	static private final int CACHED = 0, PRIMITIVE = 1, STRING = 2, OBJECT = 3;
+	static private final int maxLayouts = 8;
+
+	static private final WeakHashMap<ClassLoader, WeakReference<GeneratedClassLoader>> classLoaders = new WeakHashMap();
+	static private final AtomicInteger generatedCount = new AtomicInteger();
+
+	private final ArrayList<Layout> layouts = new ArrayList();
+	// The writers for the current fields, indexed by whether values are written through Kryo, see generate.
+	private FieldWriter[] writers;
+	private CachedField[] writerFields;
+	private boolean writerReferences;
+	private boolean unsupported;
+
+	public GeneratedFieldSerializer (Kryo kryo, Class type) {
+		super(kryo, type);
+	}
+
+	public void write (Kryo kryo, Output output, T object) {
+		FieldWriter writer = getWriter(kryo);
+		if (writer == null) {
+			super.write(kryo, output, object);
+			return;
+		}
+		Generics genericsScope = getGenericsScope();
+		if (genericsScope != null) kryo.pushGenericsScope(getType(), genericsScope);
+		try {
+			writer.write(kryo, output, object);
+		} catch (KryoException ex) {
+			throw ex;
+		} catch (RuntimeException runtimeEx) {
+			KryoException ex = new KryoException(runtimeEx);
+			ex.addTrace(getType().getName());
+			throw ex;
+		} finally {
+			if (genericsScope != null) kryo.popGenericsScope();
+		}
+	}
+
+	public T read (Kryo kryo, Input input, Class<T> type) {
+		FieldWriter writer = getWriter(kryo);
+		if (writer == null) return super.read(kryo, input, type);
+		Generics genericsScope = getGenericsScope();
+		if (genericsScope != null) kryo.pushGenericsScope(type, genericsScope);
+		try {
+			T object = create(kryo, input, type);
+			kryo.reference(object);
+			writer.read(kryo, input, object);
+			return object;
+		} catch (KryoException ex) {
+			throw ex;
+		} catch (RuntimeException runtimeEx) {
+			KryoException ex = new KryoException(runtimeEx);
+			ex.addTrace(getType().getName());
+			throw ex;
+		} finally {
+			if (genericsScope != null && kryo.getGenericsScope() != null) kryo.popGenericsScope();
+		}
+	}
+
+	/** Returns the generated writer for the current fields, or null if FieldSerializer's implementation must be used. */
+	private FieldWriter getWriter (Kryo kryo) {
+		CachedField[] fields = getFields();
+		boolean references = kryo.getReferences();
+		if (writerReferences != references) {
+			layouts.clear();
+			writers = null;
+			writerReferences = references;
+		}
+		if (writers == null || writerFields != fields) {
+			writers = getWriters(fields);
+			writerFields = fields;
+		}
+		int index = references || kryo.getActiveSerializationListener() != null ? 1 : 0;
+		FieldWriter writer = writers[index];
+		if (writer != null || unsupported) return writer;
+		if (Util.isAndroid) {
+			if (TRACE) trace("kryo", "Unable to generate serializer, using FieldSerializer: " + getType().getName());
+			unsupported = true;
+			return null;
+		}
+		try {
+			writer = generate(kryo, fields);
+		} catch (LinkageError ex) {
+			// ASM is not available or the generated class can't be defined.
+			return unsupported(ex);
+		} catch (InstantiationException ex) {
+			return unsupported(ex);
+		} catch (IllegalAccessException ex) {
+			return unsupported(ex);
+		} catch (KryoException ex) {
+			return unsupported(ex);
+		}
+		writers[index] = writer;
+		return writer;
+	}
+
+	private FieldWriter unsupported (Throwable ex) {
+		if (DEBUG) debug("kryo", "Unable to generate serializer, using FieldSerializer: " + getType().getName(), ex);
+		unsupported = true;
+		return null;
+	}
+
+	/** Returns the writers for fields laid out like the specified fields. The fields are rebuilt when the type arguments of a
+	 * generic class are set, so the writers are kept for each way the fields were resolved. */
+	private FieldWriter[] getWriters (CachedField[] fields) {
+		for (int i = 0, n = layouts.size(); i < n; i++) {
+			Layout layout = layouts.get(i);
+			if (layout.matches(fields)) return layout.writers;
+		}
+		if (layouts.size() == maxLayouts) layouts.remove(0);
+		Layout layout = new Layout(fields);
+		layouts.add(layout);
+		return layout.writers;
+	}
+
+	private FieldWriter generate (Kryo kryo, CachedField[] fields) throws InstantiationException, IllegalAccessException {
+		Class type = getType();
+		String className = type.getName() + "GeneratedSerializer" + generatedCount.incrementAndGet();
+		if (className.startsWith("java.")) className = "kryo." + className;
+
+		int n = fields.length;
+		int[] kinds = new int[n];
+		long[] offsets = new long[n];
+		Serializer[] serializers = new Serializer[n];
+		Class[] valueClasses = new Class[n];
+		boolean references = kryo.getReferences();
+		boolean stringReferences = references && kryo.getReferenceResolver().useReferences(String.class);
+		// A listener must be notified by Kryo, so serializers aren't called directly.
+		boolean throughKryo = references || kryo.getActiveSerializationListener() != null;
+		boolean publicType = Modifier.isPublic(type.getModifiers());
+		int direct = 0;
+
+		// Decide how each field is accessed.
+		for (int i = 0; i < n; i++) {
+			CachedField cachedField = fields[i];
+			Field field = cachedField.field;
+			int kind = CACHED;
+			long offset = -1;
+			boolean accessible = false;
+			if (field != null) {
+				if (publicType && isAccessible(field))
+					accessible = true;
+				else {
+					offset = unsafeOffset(field);
+					accessible = offset != -1;
+				}
+			}
+			if (accessible) {
+				Class fieldType = field.getType();
+				if (fieldType.isPrimitive())
+					kind = PRIMITIVE;
+				else if (fieldType == String.class && !stringReferences && cachedField.serializer == null)
+					kind = STRING;
+				else if (cachedField.valueClass != null
+					&& !(cachedField instanceof ObjectField && ((ObjectField)cachedField).generics != null)) {
+					kind = OBJECT;
+					Serializer serializer = cachedField.serializer;
+					if (serializer == null) serializer = kryo.getSerializer(cachedField.valueClass);
+					serializers[i] = serializer;
+					valueClasses[i] = cachedField.valueClass;
+				}
+			}
+			kinds[i] = kind;
+			offsets[i] = offset;
+			if (kind != CACHED) direct++;
+		}
+
+		byte[] bytes = emit(className, fields, kinds, offsets, serializers, throughKryo);
+
+		Class writerClass = getClassLoader(type.getClassLoader()).define(className, bytes);
+		FieldWriter writer = (FieldWriter)writerClass.newInstance();
+		writer.fields = fields;
+		writer.serializers = serializers;
+		writer.valueClasses = valueClasses;
+		if (DEBUG) debug("kryo", "Generated serializer: " + className + " (" + direct + " of " + n + " fields accessed directly)");
+		return writer;
+	}
+
+	/** Returns the bytes of the generated class.
+	 * @param offsets The offset of each field for Unsafe, or -1 if it is accessed with getfield and putfield. */
+	private byte[] emit (String className, CachedField[] fields, int[] kinds, long[] offsets, Serializer[] serializers,
+		boolean throughKryo) {
+		String internalName = className.replace('.', '/');
+		boolean useUnsafe = false, useFields = false;
+		for (int i = 0, n = fields.length; i < n; i++) {
+			if (kinds[i] == CACHED) continue;
+			if (offsets[i] == -1)
+				useFields = true;
+			else
+				useUnsafe = true;
+		}
+
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, internalName, null, writerName, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, writerName, "<init>", "()V");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		if (useUnsafe) {
+			// A static final field, so the JIT treats the Unsafe instance as a constant.
+			cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "unsafe", "L" + unsafeName + ";", null, null).visitEnd();
+			mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+			mv.visitCode();
+			mv.visitMethodInsn(INVOKESTATIC, unsafeUtilName, "unsafe", "()L" + unsafeName + ";");
+			mv.visitFieldInsn(PUTSTATIC, internalName, "unsafe", "L" + unsafeName + ";");
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		// Locals: 0 this, 1 kryo, 2 output or input, 3 object, 4 typed object, 5 fields, 6 serializers, 7 value.
+		MethodVisitor write = cw.visitMethod(ACC_PUBLIC, "write", "(L" + kryoName + ";L" + outputName + ";Ljava/lang/Object;)V",
+			null, null);
+		MethodVisitor read = cw.visitMethod(ACC_PUBLIC, "read", "(L" + kryoName + ";L" + inputName + ";Ljava/lang/Object;)V",
+			null, null);
+		MethodVisitor[] methods = {write, read};
+		for (MethodVisitor method : methods) {
+			method.visitCode();
+			if (useFields) {
+				// Only a public type can be cast to, fields of other types are accessed through Unsafe.
+				method.visitVarInsn(ALOAD, 3);
+				method.visitTypeInsn(CHECKCAST, Type.getInternalName(getType()));
+				method.visitVarInsn(ASTORE, 4);
+			}
+			method.visitVarInsn(ALOAD, 0);
+			method.visitFieldInsn(GETFIELD, writerName, "fields", "[L" + cachedFieldName + ";");
+			method.visitVarInsn(ASTORE, 5);
+			method.visitVarInsn(ALOAD, 0);
+			method.visitFieldInsn(GETFIELD, writerName, "serializers", "[L" + serializerName + ";");
+			method.visitVarInsn(ASTORE, 6);
+		}
+
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField cachedField = fields[i];
+			FieldAccessor accessor = new FieldAccessor(internalName, cachedField.field, offsets[i]);
+			switch (kinds[i]) {
+			case CACHED:
+				writeCachedField(write, read, i);
+				break;
+			case PRIMITIVE:
+				writePrimitiveField(write, read, cachedField, accessor);
+				break;
+			case STRING:
+				write.visitVarInsn(ALOAD, 2);
+				accessor.load(write);
+				if (accessor.offset != -1) write.visitTypeInsn(CHECKCAST, "java/lang/String");
+				write.visitMethodInsn(INVOKEVIRTUAL, outputName, "writeString", "(Ljava/lang/String;)V");
+				accessor.beginStore(read);
+				read.visitVarInsn(ALOAD, 2);
+				read.visitMethodInsn(INVOKEVIRTUAL, inputName, "readString", "()Ljava/lang/String;");
+				accessor.endStore(read);
+				break;
+			case OBJECT:
+				writeObjectField(write, read, cachedField, accessor, serializers[i], throughKryo, i);
+				break;
+			}
+		}
+
+		for (MethodVisitor method : methods) {
+			method.visitInsn(RETURN);
+			method.visitMaxs(0, 0);
+			method.visitEnd();
+		}
+		cw.visitEnd();
+		try {
+			return cw.toByteArray();
+		} catch (RuntimeException ex) {
+			// ASM fails this way when a method is larger than 64KB.
+			throw new KryoException("Unable to generate serializer: " + className, ex);
+		}
+	}
+
+	private void writePrimitiveField (MethodVisitor write, MethodVisitor read, CachedField cachedField, FieldAccessor accessor) {
+		Class fieldType = accessor.field.getType();
+		String writeName, writeDesc, readName, readDesc;
+		boolean optimize = false;
+		if (fieldType == int.class) {
+			optimize = cachedField.varIntsEnabled;
+			writeName = "writeInt";
+			writeDesc = optimize ? "(IZ)I" : "(I)V";
+			readName = "readInt";
+			readDesc = optimize ? "(Z)I" : "()I";
+		} else if (fieldType == long.class) {
+			optimize = cachedField.varIntsEnabled;
+			writeName = "writeLong";
+			writeDesc = optimize ? "(JZ)I" : "(J)V";
+			readName = "readLong";
+			readDesc = optimize ? "(Z)J" : "()J";
+		} else if (fieldType == float.class) {
+			writeName = "writeFloat";
+			writeDesc = "(F)V";
+			readName = "readFloat";
+			readDesc = "()F";
+		} else if (fieldType == double.class) {
+			writeName = "writeDouble";
+			writeDesc = "(D)V";
+			readName = "readDouble";
+			readDesc = "()D";
+		} else if (fieldType == short.class) {
+			writeName = "writeShort";
+			writeDesc = "(I)V";
+			readName = "readShort";
+			readDesc = "()S";
+		} else if (fieldType == char.class) {
+			writeName = "writeChar";
+			writeDesc = "(C)V";
+			readName = "readChar";
+			readDesc = "()C";
+		} else if (fieldType == byte.class) {
+			writeName = "writeByte";
+			writeDesc = "(B)V";
+			readName = "readByte";
+			readDesc = "()B";
+		} else {
+			writeName = "writeBoolean";
+			writeDesc = "(Z)V";
+			readName = "readBoolean";
+			readDesc = "()Z";
+		}
+
+		write.visitVarInsn(ALOAD, 2);
+		accessor.load(write);
+		if (optimize) write.visitInsn(ICONST_0);
+		write.visitMethodInsn(INVOKEVIRTUAL, outputName, writeName, writeDesc);
+		if (optimize) write.visitInsn(POP); // The number of bytes written.
+
+		accessor.beginStore(read);
+		read.visitVarInsn(ALOAD, 2);
+		if (optimize) read.visitInsn(ICONST_0);
+		read.visitMethodInsn(INVOKEVIRTUAL, inputName, readName, readDesc);
+		accessor.endStore(read);
+	}
+
+	private void writeObjectField (MethodVisitor write, MethodVisitor read, CachedField cachedField, FieldAccessor accessor,
+		Serializer serializer, boolean throughKryo, int index) {
+		// Calls on the serializer's own class can be inlined, since each generated call site only sees one serializer.
+		Class serializerClass = serializer.getClass();
+		String serializerOwner = Modifier.isPublic(serializerClass.getModifiers()) ? Type.getInternalName(serializerClass)
+			: serializerName;
+		String writeDesc = "(L" + kryoName + ";L" + outputName + ";Ljava/lang/Object;)V";
+		boolean canBeNull = cachedField.canBeNull;
+
+		// Write.
+		loadSerializer(write, index, serializerOwner);
+		write.visitVarInsn(ALOAD, 1);
+		write.visitInsn(ACONST_NULL);
+		write.visitMethodInsn(INVOKEVIRTUAL, serializerOwner, "setGenerics", "(L" + kryoName + ";[Ljava/lang/Class;)V");
+		accessor.load(write);
+		write.visitVarInsn(ASTORE, 7);
+		Label end = new Label();
+		if (!canBeNull) {
+			// Throw if the value is null.
+			Label notNull = new Label();
+			write.visitVarInsn(ALOAD, 7);
+			write.visitJumpInsn(IFNONNULL, notNull);
+			write.visitVarInsn(ALOAD, 5);
+			pushInt(write, index);
+			write.visitInsn(AALOAD);
+			write.visitVarInsn(ALOAD, 3);
+			write.visitMethodInsn(INVOKESTATIC, writerName, "nullValue", "(L" + cachedFieldName + ";Ljava/lang/Object;)L"
+				+ Type.getInternalName(KryoException.class) + ";");
+			write.visitInsn(ATHROW);
+			write.visitLabel(notNull);
+		}
+		if (throughKryo) {
+			// References and the listener are handled by Kryo.
+			write.visitVarInsn(ALOAD, 1);
+			write.visitVarInsn(ALOAD, 2);
+			write.visitVarInsn(ALOAD, 7);
+			loadSerializer(write, index, serializerName);
+			write.visitMethodInsn(INVOKEVIRTUAL, kryoName, canBeNull ? "writeObjectOrNull" : "writeObject", "(L" + outputName
+				+ ";Ljava/lang/Object;L" + serializerName + ";)V");
+		} else {
+			if (canBeNull && !serializer.getAcceptsNull()) {
+				// Same as Kryo#writeObjectOrNull without references.
+				Label notNull = new Label();
+				write.visitVarInsn(ALOAD, 7);
+				write.visitJumpInsn(IFNONNULL, notNull);
+				write.visitVarInsn(ALOAD, 2);
+				pushInt(write, Kryo.NULL);
+				write.visitMethodInsn(INVOKEVIRTUAL, outputName, "writeByte", "(B)V");
+				write.visitJumpInsn(GOTO, end);
+				write.visitLabel(notNull);
+				write.visitVarInsn(ALOAD, 2);
+				pushInt(write, Kryo.NOT_NULL);
+				write.visitMethodInsn(INVOKEVIRTUAL, outputName, "writeByte", "(B)V");
+			}
+			loadSerializer(write, index, serializerOwner);
+			write.visitVarInsn(ALOAD, 1);
+			write.visitVarInsn(ALOAD, 2);
+			write.visitVarInsn(ALOAD, 7);
+			write.visitMethodInsn(INVOKEVIRTUAL, serializerOwner, "write", writeDesc);
+		}
+		write.visitLabel(end);
+
+		// Read.
+		loadSerializer(read, index, serializerOwner);
+		read.visitVarInsn(ALOAD, 1);
+		read.visitInsn(ACONST_NULL);
+		read.visitMethodInsn(INVOKEVIRTUAL, serializerOwner, "setGenerics", "(L" + kryoName + ";[Ljava/lang/Class;)V");
+		accessor.beginStore(read);
+		read.visitVarInsn(ALOAD, 1);
+		read.visitVarInsn(ALOAD, 2);
+		read.visitVarInsn(ALOAD, 0);
+		read.visitFieldInsn(GETFIELD, writerName, "valueClasses", "[Ljava/lang/Class;");
+		pushInt(read, index);
+		read.visitInsn(AALOAD);
+		loadSerializer(read, index, serializerName);
+		read.visitMethodInsn(INVOKEVIRTUAL, kryoName, canBeNull ? "readObjectOrNull" : "readObject", "(L" + inputName
+			+ ";Ljava/lang/Class;L" + serializerName + ";)Ljava/lang/Object;");
+		// Unsafe stores an Object, the field's type may not be accessible.
+		if (accessor.offset == -1) read.visitTypeInsn(CHECKCAST, Type.getInternalName(accessor.field.getType()));
+		accessor.endStore(read);
+	}
+
+	/** Calls the cached field, for fields that can't be accessed directly or whose values need the cached field's handling. */
+	private void writeCachedField (MethodVisitor write, MethodVisitor read, int index) {
+		write.visitVarInsn(ALOAD, 5);
+		pushInt(write, index);
+		write.visitInsn(AALOAD);
+		write.visitVarInsn(ALOAD, 2);
+		write.visitVarInsn(ALOAD, 3);
+		write.visitMethodInsn(INVOKEVIRTUAL, cachedFieldName, "write", "(L" + outputName + ";Ljava/lang/Object;)V");
+
+		read.visitVarInsn(ALOAD, 5);
+		pushInt(read, index);
+		read.visitInsn(AALOAD);
+		read.visitVarInsn(ALOAD, 2);
+		read.visitVarInsn(ALOAD, 3);
+		read.visitMethodInsn(INVOKEVIRTUAL, cachedFieldName, "read", "(L" + inputName + ";Ljava/lang/Object;)V");
+	}
+
+	private void loadSerializer (MethodVisitor method, int index, String serializerOwner) {
+		method.visitVarInsn(ALOAD, 6);
+		pushInt(method, index);
+		method.visitInsn(AALOAD);
+		if (serializerOwner != serializerName) method.visitTypeInsn(CHECKCAST, serializerOwner);
+	}
+
+	static private void pushInt (MethodVisitor method, int value) {
+		if (value >= -1 && value <= 5)
+			method.visitInsn(ICONST_0 + value);
+		else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+			method.visitIntInsn(BIPUSH, value);
+		else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+			method.visitIntInsn(SIPUSH, value);
+		else
+			method.visitLdcInsn(value);
+	}
+
+	/** Returns true if the generated class can access the field with getfield and putfield. */
+	static private boolean isAccessible (Field field) {
+		if (field == null) return false; // A memory region of primitive fields.
+		int modifiers = field.getModifiers();
+		if (!Modifier.isPublic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isStatic(modifiers)) return false;
+		if (!Modifier.isPublic(field.getDeclaringClass().getModifiers())) return false;
+		Class fieldType = field.getType();
+		while (fieldType.isArray())
+			fieldType = fieldType.getComponentType();
+		return fieldType.isPrimitive() || Modifier.isPublic(fieldType.getModifiers());
+	}
+
+	/** Returns the offset of the field for Unsafe, or -1 if Unsafe can't be used. */
+	static private long unsafeOffset (Field field) {
+		if (!unsafeAvailable || Modifier.isStatic(field.getModifiers())) return -1;
+		try {
+			return UnsafeUtil.unsafe().objectFieldOffset(field);
+		} catch (UnsupportedOperationException ex) {
+			// Eg a field of a record or a hidden class.
+			return -1;
+		}
+	}
+
+	/** Emits the instructions that get and set a field, with getfield and putfield or through Unsafe. */
+	static private class FieldAccessor {
+		final String className;
+		final Field field;
+		final long offset;
+
+		FieldAccessor (String className, Field field, long offset) {
+			this.className = className;
+			this.field = field;
+			this.offset = offset;
+		}
+
+		/** Pushes the value of the field. */
+		void load (MethodVisitor method) {
+			Class fieldType = field.getType();
+			if (offset == -1) {
+				method.visitVarInsn(ALOAD, 4);
+				method.visitFieldInsn(GETFIELD, Type.getInternalName(field.getDeclaringClass()), field.getName(),
+					Type.getDescriptor(fieldType));
+			} else {
+				loadTarget(method);
+				method.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "get" + unsafeType(fieldType), "(Ljava/lang/Object;J)"
+					+ unsafeDescriptor(fieldType));
+			}
+		}
+
+		/** Pushes what is needed before the value to store. */
+		void beginStore (MethodVisitor method) {
+			if (offset == -1)
+				method.visitVarInsn(ALOAD, 4);
+			else
+				loadTarget(method);
+		}
+
+		/** Stores the value pushed after {@link #beginStore(MethodVisitor)}. */
+		void endStore (MethodVisitor method) {
+			Class fieldType = field.getType();
+			if (offset == -1) {
+				method.visitFieldInsn(PUTFIELD, Type.getInternalName(field.getDeclaringClass()), field.getName(),
+					Type.getDescriptor(fieldType));
+			} else {
+				method.visitMethodInsn(INVOKEVIRTUAL, unsafeName, "put" + unsafeType(fieldType), "(Ljava/lang/Object;J"
+					+ unsafeDescriptor(fieldType) + ")V");
+			}
+		}
+
+		private void loadTarget (MethodVisitor method) {
+			method.visitFieldInsn(GETSTATIC, className, "unsafe", "L" + unsafeName + ";");
+			method.visitVarInsn(ALOAD, 3);
+			method.visitLdcInsn(Long.valueOf(offset));
+		}
+
+		static private String unsafeType (Class type) {
+			if (!type.isPrimitive()) return "Object";
+			String name = type.getName();
+			return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		}
+
+		static private String unsafeDescriptor (Class type) {
+			return type.isPrimitive() ? Type.getDescriptor(type) : "Ljava/lang/Object;";
+		}
+	}
+
+	/** The writers generated for one layout of the cached fields. */
+	static private class Layout {
+		final CachedField[] fields;
+		final FieldWriter[] writers = new FieldWriter[2];
+
+		Layout (CachedField[] fields) {
+			this.fields = fields;
+		}
+
+		/** Returns true if the writers can be used for the specified fields, which are accessed and serialized the same way. */
+		boolean matches (CachedField[] other) {
+			if (other == fields) return true;
+			if (other.length != fields.length) return false;
+			for (int i = 0, n = fields.length; i < n; i++) {
+				CachedField a = fields[i], b = other[i];
+				if (a == b) continue;
+				if (a.getClass() != b.getClass() || a.field == null || !a.field.equals(b.field)) return false;
+				if (a.valueClass != b.valueClass || a.serializer != b.serializer || a.canBeNull != b.canBeNull
+					|| a.varIntsEnabled != b.varIntsEnabled) return false;
+				if (a instanceof ObjectField && !Arrays.equals(((ObjectField)a).generics, ((ObjectField)b).generics)) return false;
+			}
+			return true;
+		}
+	}
+
+	/** Returns the class loader that defines the generated classes for types of the specified class loader. */
+	static private GeneratedClassLoader getClassLoader (ClassLoader parent) {
+		synchronized (classLoaders) {
+			WeakReference<GeneratedClassLoader> reference = classLoaders.get(parent);
+			GeneratedClassLoader classLoader = reference == null ? null : reference.get();
+			if (classLoader == null) {
+				classLoader = new GeneratedClassLoader(parent);
+				classLoaders.put(parent, new WeakReference(classLoader));
+			}
+			return classLoader;
+		}
+	}
+
+	/** The base class of the generated classes. */
+	static public abstract class FieldWriter {
+		public CachedField[] fields;
+		public Serializer[] serializers;
+		public Class[] valueClasses;
+
+		abstract public void write (Kryo kryo, Output output, Object object);
+
+		abstract public void read (Kryo kryo, Input input, Object object);
+
+		/** Called by the generated code when the value of a field that can't be null is null. */
+		static public KryoException nullValue (CachedField field, Object object) {
+			return new KryoException("Field value is null but canBeNull is false: " + field + " (" + object.getClass().getName() + ")");
+		}
+	}
+
+	static private class GeneratedClassLoader extends ClassLoader {
+		GeneratedClassLoader (ClassLoader parent) {
+			super(parent);
+		}
+
+		protected synchronized Class<?> loadClass (String name, boolean resolve) throws ClassNotFoundException {
+			// Kryo's classes may not be visible from the class loader of the serialized class.
+			if (name.startsWith("com.esotericsoftware.kryo.")) {
+				ClassLoader kryoLoader = Kryo.class.getClassLoader();
+				if (kryoLoader != null) return kryoLoader.loadClass(name);
+			}
+			return super.loadClass(name, resolve);
+		}
+
+		synchronized Class define (String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length, getClass().getProtectionDomain());
+		}
+	}
+}
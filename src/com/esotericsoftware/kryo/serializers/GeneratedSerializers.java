@@ -0,0 +1,178 @@
+package com.esotericsoftware.kryo.serializers;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.TreeSet;
+
+import com.esotericsoftware.kryo.GenerateSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.factories.ReflectionSerializerFactory;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** Support for the serializers generated at compile time for classes annotated with {@link GenerateSerializer}.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class GeneratedSerializers {
+	/** The resource that lists the classes with a generated serializer, one binary class name per line. */
+	static public final String INDEX = "META-INF/kryo/serializers";
+	/** Appended to the simple binary name of a class, with "$" replaced by "_", to get the name of its generated serializer. */
+	static public final String SUFFIX = "_KryoSerializer";
+
+	/** Returns the name of the generated serializer for the class, eg "com.example.Outer_Inner_KryoSerializer" for
+	 * "com.example.Outer$Inner". */
+	static public String getSerializerName (String className) {
+		int dot = className.lastIndexOf('.');
+		return className.substring(0, dot + 1) + className.substring(dot + 1).replace('$', '_') + SUFFIX;
+	}
+
+	/** Returns the generated serializer class for the specified class, or null if it was not generated. */
+	static public Class<? extends Serializer> getSerializerClass (Class type) {
+		try {
+			return (Class)Class.forName(getSerializerName(type.getName()), true, type.getClassLoader());
+		} catch (ClassNotFoundException ex) {
+			if (DEBUG) debug("kryo", "Generated serializer not found: " + type.getName());
+			return null;
+		}
+	}
+
+	/** Registers each class listed in the indexes found by the Kryo's class loader, using its generated serializer. The classes are
+	 * registered in the order of their names, so the IDs assigned only depend on the classes in the indexes and the classes
+	 * registered before.
+	 * @return The number of classes registered. */
+	static public int register (Kryo kryo) {
+		ClassLoader classLoader = kryo.getClassLoader();
+		ArrayList<String> names = readIndex(classLoader);
+		for (int i = 0, n = names.size(); i < n; i++) {
+			String name = names.get(i);
+			Class type;
+			try {
+				type = Class.forName(name, false, classLoader);
+			} catch (ClassNotFoundException ex) {
+				throw new KryoException("Unable to find class listed in " + INDEX + ": " + name, ex);
+			}
+			Class<? extends Serializer> serializerClass = getSerializerClass(type);
+			if (serializerClass == null) throw new KryoException("Unable to find generated serializer: " + getSerializerName(name));
+			kryo.register(type, ReflectionSerializerFactory.makeSerializer(kryo, serializerClass, type));
+		}
+		return names.size();
+	}
+
+	/** Returns the class names listed in all the indexes found by the class loader, sorted and without duplicates. */
+	static public ArrayList<String> readIndex (ClassLoader classLoader) {
+		TreeSet<String> names = new TreeSet();
+		try {
+			Enumeration<URL> indexes = classLoader.getResources(INDEX);
+			while (indexes.hasMoreElements()) {
+				URL index = indexes.nextElement();
+				if (DEBUG) debug("kryo", "Reading serializer index: " + index);
+				InputStream input = index.openStream();
+				try {
+					BufferedReader reader = new BufferedReader(new InputStreamReader(input, "UTF-8"));
+					String line;
+					while ((line = reader.readLine()) != null) {
+						line = line.trim();
+						if (line.length() > 0 && !line.startsWith("#")) names.add(line);
+					}
+				} finally {
+					input.close();
+				}
+			}
+		} catch (IOException ex) {
+			throw new KryoException("Error reading " + INDEX, ex);
+		}
+		return new ArrayList(names);
+	}
+
+	/** Writes and reads the value of an object field for a generated serializer, the same way as {@link FieldSerializer}. */
+	static public class ValueField {
+		private final String name;
+		private final Class valueClass;
+		private final Class[] generics;
+		private final boolean canBeNull, string;
+		private Serializer serializer;
+
+		/** @param type The class declaring the field.
+		 * @param fieldClass The declared class of the field.
+		 * @param generics The classes of the field's type arguments, as determined by FieldSerializer. May be null. */
+		public ValueField (Kryo kryo, Class type, String name, Class fieldClass, Class[] generics, boolean canBeNull) {
+			this.name = name + " (" + type.getName() + ")";
+			this.valueClass = kryo.isFinal(fieldClass) ? fieldClass : null;
+			this.generics = generics;
+			this.canBeNull = canBeNull;
+			string = fieldClass == String.class
+				&& (!kryo.getReferences() || !kryo.getReferenceResolver().useReferences(String.class));
+		}
+
+		public void write (Kryo kryo, Output output, Object value) {
+			if (string) {
+				output.writeString((String)value);
+				return;
+			}
+			try {
+				Serializer serializer = this.serializer;
+				if (valueClass == null) {
+					// The concrete type of the field is unknown, write the class first.
+					if (value == null) {
+						kryo.writeClass(output, null);
+						return;
+					}
+					Registration registration = kryo.writeClass(output, value.getClass());
+					serializer = registration.getSerializer();
+					serializer.setGenerics(kryo, generics);
+					kryo.writeObject(output, value, serializer);
+				} else {
+					if (serializer == null) this.serializer = serializer = kryo.getSerializer(valueClass);
+					serializer.setGenerics(kryo, generics);
+					if (canBeNull)
+						kryo.writeObjectOrNull(output, value, serializer);
+					else {
+						if (value == null) throw new KryoException("Field value is null but canBeNull is false: " + name);
+						kryo.writeObject(output, value, serializer);
+					}
+				}
+			} catch (KryoException ex) {
+				ex.addTrace(name);
+				throw ex;
+			} catch (RuntimeException runtimeEx) {
+				KryoException ex = new KryoException(runtimeEx);
+				ex.addTrace(name);
+				throw ex;
+			}
+		}
+
+		public Object read (Kryo kryo, Input input) {
+			if (string) return input.readString();
+			try {
+				Serializer serializer = this.serializer;
+				if (valueClass == null) {
+					Registration registration = kryo.readClass(input);
+					if (registration == null) return null;
+					serializer = registration.getSerializer();
+					serializer.setGenerics(kryo, generics);
+					return kryo.readObject(input, registration.getType(), serializer);
+				}
+				if (serializer == null) this.serializer = serializer = kryo.getSerializer(valueClass);
+				serializer.setGenerics(kryo, generics);
+				if (canBeNull) return kryo.readObjectOrNull(input, valueClass, serializer);
+				return kryo.readObject(input, valueClass, serializer);
+			} catch (KryoException ex) {
+				ex.addTrace(name);
+				throw ex;
+			} catch (RuntimeException runtimeEx) {
+				KryoException ex = new KryoException(runtimeEx);
+				ex.addTrace(name);
+				throw ex;
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.esotericsoftware.kryo.serializers;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+
+/** Holds a value that is deserialized only when it is first accessed. When read, only the bytes of the value are captured and
+ * {@link #get()} decodes them using the Kryo that read them. A value that is written again without being {@link #set(Object)
+ * set} is written using the captured bytes, without decoding and encoding it.
+ * <p>
+ * {@link #get()} must not be called concurrently with other use of the Kryo that read the value.
+ * @see LazyValueSerializer
+ * @author Roman Levenstein <romixlev@gmail.com> */
+@DefaultSerializer(LazyValueSerializer.class)
+public class LazyValue<T> {
+	T value;
+	boolean decoded;
+	byte[] bytes;
+	Kryo kryo;
+
+	/** Creates a lazy value with a null value. */
+	public LazyValue () {
+		decoded = true;
+	}
+
+	/** @param value May be null. */
+	public LazyValue (T value) {
+		this.value = value;
+		decoded = true;
+	}
+
+	LazyValue (Kryo kryo, byte[] bytes) {
+		this.kryo = kryo;
+		this.bytes = bytes;
+	}
+
+	/** Returns the value, decoding it the first time if it was read.
+	 * @return May be null. */
+	public T get () {
+		if (!decoded) {
+			value = (T)LazyValueSerializer.decode(kryo, bytes);
+			decoded = true;
+		}
+		return value;
+	}
+
+	/** Sets the value, discarding any captured bytes. This must also be called if a decoded value is modified, so it is
+	 * serialized again rather than written using the captured bytes.
+	 * @param value May be null. */
+	public void set (T value) {
+		this.value = value;
+		decoded = true;
+		bytes = null;
+		kryo = null;
+	}
+
+	/** Returns true if the value has been decoded or was set, false if only its bytes have been read. */
+	public boolean isDecoded () {
+		return decoded;
+	}
+
+	/** Returns the serialized bytes of the value, or null if the value was set rather than read. */
+	public byte[] getBytes () {
+		return bytes;
+	}
+
+	public String toString () {
+		if (!decoded) return "LazyValue[" + bytes.length + " bytes]";
+		return "LazyValue[" + value + "]";
+	}
+}
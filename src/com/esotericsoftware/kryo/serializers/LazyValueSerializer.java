@@ -0,0 +1,73 @@
+package com.esotericsoftware.kryo.serializers;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.ReferenceResolver;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.MapReferenceResolver;
+
+/** Serializes a {@link LazyValue} as the length of the value's bytes followed by the bytes, which are written using
+ * {@link Kryo#writeClassAndObject(Output, Object)}. On read only the bytes are captured, they are decoded when the value is
+ * accessed.
+ * <p>
+ * So the bytes can be decoded on their own, the value is written with its own references: objects in the value that are also
+ * referenced elsewhere in the enclosing object graph are serialized again. The classes used by the value must be registered,
+ * because an unregistered class is written as a reference to its name if the name was already written for the enclosing graph.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class LazyValueSerializer extends Serializer<LazyValue> {
+	public void write (Kryo kryo, Output output, LazyValue object) {
+		byte[] bytes = object.bytes;
+		if (bytes == null) {
+			Output buffer = new Output(256, -1);
+			boolean registrationRequired = kryo.isRegistrationRequired();
+			ReferenceResolver referenceResolver = isolateReferences(kryo);
+			kryo.setRegistrationRequired(true);
+			try {
+				kryo.writeClassAndObject(buffer, object.value);
+			} finally {
+				kryo.setRegistrationRequired(registrationRequired);
+				if (referenceResolver != null) kryo.setReferenceResolver(referenceResolver);
+			}
+			output.writeVarInt(buffer.position(), true);
+			output.writeBytes(buffer.getBuffer(), 0, buffer.position());
+		} else {
+			// Forward the captured bytes.
+			output.writeVarInt(bytes.length, true);
+			output.writeBytes(bytes);
+		}
+	}
+
+	public LazyValue read (Kryo kryo, Input input, Class<LazyValue> type) {
+		return new LazyValue(kryo, input.readBytes(input.readVarInt(true)));
+	}
+
+	public void skip (Kryo kryo, Input input, Class<LazyValue> type) {
+		input.skip(input.readVarInt(true));
+	}
+
+	public LazyValue copy (Kryo kryo, LazyValue original) {
+		if (original.bytes != null) return new LazyValue(original.kryo, original.bytes);
+		return new LazyValue(kryo.copy(original.value));
+	}
+
+	static Object decode (Kryo kryo, byte[] bytes) {
+		ReferenceResolver referenceResolver = isolateReferences(kryo);
+		try {
+			return kryo.readClassAndObject(new Input(bytes));
+		} finally {
+			if (referenceResolver != null) kryo.setReferenceResolver(referenceResolver);
+		}
+	}
+
+	/** If references are enabled, sets a new reference resolver so the value's references are separate from the enclosing graph.
+	 * @return The previous reference resolver, or null. */
+	static private ReferenceResolver isolateReferences (Kryo kryo) {
+		if (!kryo.getReferences()) return null;
+		ReferenceResolver previous = kryo.getReferenceResolver();
+		ReferenceResolver referenceResolver = new MapReferenceResolver();
+		referenceResolver.setKryo(kryo);
+		kryo.setReferenceResolver(referenceResolver);
+		return previous;
+	}
+}
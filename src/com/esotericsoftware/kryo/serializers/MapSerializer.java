@@ -23,6 +23,7 @@ public class MapSerializer extends Serializer<Map> {
 	private Serializer keySerializer, valueSerializer;
 	private boolean keysCanBeNull = true, valuesCanBeNull = true;
 	private Class keyGenericType, valueGenericType;
+	private ParallelSegments parallel;
 
 	/** @param keysCanBeNull False if all keys are not null. This saves 1 byte per key if keyClass is set. True if it is not known
 	 *           (default). */
@@ -52,6 +53,12 @@ public class MapSerializer extends Serializer<Map> {
 		this.valuesCanBeNull = valuesCanBeNull;
 	}
 
+	/** @param parallel Writes and reads the entries in segments concurrently. The same setting must be used for reading as was
+	 *           used for writing. Set to null to serialize the entries sequentially (default). */
+	public void setParallel (ParallelSegments parallel) {
+		this.parallel = parallel;
+	}
+
 	public void setGenerics (Kryo kryo, Class[] generics) {
 		keyGenericType = null;
 		valueGenericType = null;
@@ -66,17 +73,32 @@ public class MapSerializer extends Serializer<Map> {
 		int length = map.size();
 		output.writeInt(length, true);
 
+		Class keyClass = this.keyClass;
+		Class valueClass = this.valueClass;
+
 		Serializer keySerializer = this.keySerializer;
 		if (keyGenericType != null) {
-			if (keySerializer == null) keySerializer = kryo.getSerializer(keyGenericType);
+			if (keySerializer == null) {
+				keyClass = keyGenericType;
+				keySerializer = kryo.getSerializer(keyGenericType);
+			}
 			keyGenericType = null;
 		}
 		Serializer valueSerializer = this.valueSerializer;
 		if (valueGenericType != null) {
-			if (valueSerializer == null) valueSerializer = kryo.getSerializer(valueGenericType);
+			if (valueSerializer == null) {
+				valueClass = valueGenericType;
+				valueSerializer = kryo.getSerializer(valueGenericType);
+			}
 			valueGenericType = null;
 		}
 
+		if (parallel != null) {
+			parallel.write(output, new KeyValueIterator(map), length * 2, new Class[] {keySerializer != null ? keyClass : null,
+				valueSerializer != null ? valueClass : null}, new boolean[] {keysCanBeNull, valuesCanBeNull});
+			return;
+		}
+
 		for (Iterator iter = map.entrySet().iterator(); iter.hasNext();) {
 			Entry entry = (Entry)iter.next();
 			if (keySerializer != null) {
@@ -124,6 +146,15 @@ public class MapSerializer extends Serializer<Map> {
 
 		kryo.reference(map);
 
+		if (parallel != null) {
+			Object[] keysAndValues = new Object[length * 2];
+			parallel.read(input, keysAndValues, new Class[] {keySerializer != null ? keyClass : null,
+				valueSerializer != null ? valueClass : null}, new boolean[] {keysCanBeNull, valuesCanBeNull});
+			for (int i = 0, n = keysAndValues.length; i < n; i += 2)
+				map.put(keysAndValues[i], keysAndValues[i + 1]);
+			return map;
+		}
+
 		for (int i = 0; i < length; i++) {
 			Object key;
 			if (keySerializer != null) {
@@ -146,6 +177,51 @@ public class MapSerializer extends Serializer<Map> {
 		return map;
 	}
 
+	/** Skips the entries without creating them. {@link #create(Kryo, Input, Class)} is still called to read any bytes a subclass
+	 * writes before the entries, the empty map is discarded. */
+	public void skip (Kryo kryo, Input input, Class<Map> type) {
+		create(kryo, input, type);
+		int length = input.readInt(true);
+
+		Class keyClass = this.keyClass;
+		Class valueClass = this.valueClass;
+
+		Serializer keySerializer = this.keySerializer;
+		if (keyGenericType != null) {
+			keyClass = keyGenericType;
+			if (keySerializer == null) keySerializer = kryo.getSerializer(keyClass);
+			keyGenericType = null;
+		}
+		Serializer valueSerializer = this.valueSerializer;
+		if (valueGenericType != null) {
+			valueClass = valueGenericType;
+			if (valueSerializer == null) valueSerializer = kryo.getSerializer(valueClass);
+			valueGenericType = null;
+		}
+
+		if (parallel != null) {
+			parallel.skip(input);
+			return;
+		}
+
+		for (int i = 0; i < length; i++) {
+			if (keySerializer != null) {
+				if (keysCanBeNull)
+					kryo.skipObjectOrNull(input, keyClass, keySerializer);
+				else
+					kryo.skipObject(input, keyClass, keySerializer);
+			} else
+				kryo.skipClassAndObject(input);
+			if (valueSerializer != null) {
+				if (valuesCanBeNull)
+					kryo.skipObjectOrNull(input, valueClass, valueSerializer);
+				else
+					kryo.skipObject(input, valueClass, valueSerializer);
+			} else
+				kryo.skipClassAndObject(input);
+		}
+	}
+
 	protected Map createCopy (Kryo kryo, Map original) {
 		return kryo.newInstance(original.getClass());
 	}
@@ -159,6 +235,33 @@ public class MapSerializer extends Serializer<Map> {
 		return copy;
 	}
 
+	/** Returns the key, then the value of each entry. */
+	static private class KeyValueIterator implements Iterator {
+		private final Iterator<Entry> entries;
+		private Object value;
+		private boolean key = true;
+
+		KeyValueIterator (Map map) {
+			entries = map.entrySet().iterator();
+		}
+
+		public boolean hasNext () {
+			return !key || entries.hasNext();
+		}
+
+		public Object next () {
+			key = !key;
+			if (key) return value;
+			Entry entry = entries.next();
+			value = entry.getValue();
+			return entry.getKey();
+		}
+
+		public void remove () {
+			throw new UnsupportedOperationException();
+		}
+	}
+
 	/** 
 	 * Used to annotate fields that are maps with specific Kryo serializers for 
 	 * their keys or values. 
@@ -7,6 +7,7 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.Shareable;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.FieldSerializer.CachedField;
@@ -15,11 +16,12 @@ import com.esotericsoftware.reflectasm.FieldAccess;
 /*** Defer generation of serializers until it is really required at run-time. By default, use reflection-based approach. 
  * @author Nathan Sweet <misc@n4te.com>
  * @author Roman Levenstein <romixlev@gmail.com> */
-class ObjectField extends CachedField {
+class ObjectField extends CachedField implements Cloneable {
 	public Class[] generics;
-	final FieldSerializer fieldSerializer;
+	FieldSerializer fieldSerializer;
 	final Class type;
-	final Kryo kryo;
+	/** Null if the field belongs to a {@link FieldSerializer#newShareable() shared} serializer. */
+	Kryo kryo;
 
 	ObjectField (FieldSerializer fieldSerializer) {
 		this.fieldSerializer = fieldSerializer;
@@ -35,7 +37,38 @@ class ObjectField extends CachedField {
 		field.set(object, value);
 	}
 
-	 public void write (Output output, Object object) {
+	/** Returns a copy of this field for the specified shared serializer. The copy caches the serializer for the values only if
+	 * it is {@link Shareable}, otherwise it is looked up through the Kryo passed to each call. */
+	ObjectField share (FieldSerializer fieldSerializer) {
+		ObjectField field;
+		try {
+			field = (ObjectField)clone();
+		} catch (CloneNotSupportedException ex) {
+			throw new KryoException(ex);
+		}
+		field.fieldSerializer = fieldSerializer;
+		field.kryo = null;
+		if (!(serializer instanceof Shareable)) field.serializer = null;
+		return field;
+	}
+
+	public void write (Output output, Object object) {
+		write(kryo, output, object);
+	}
+
+	public void read (Input input, Object object) {
+		read(kryo, input, object);
+	}
+
+	public void skip (Input input) {
+		skip(kryo, input);
+	}
+
+	public void copy (Object original, Object copy) {
+		copy(kryo, original, copy);
+	}
+
+	void write (Kryo kryo, Output output, Object object) {
 		try {
 			// if(typeVar2concreteClass != null) {
 			// // Push a new scope for generics
@@ -61,7 +94,7 @@ class ObjectField extends CachedField {
 				kryo.writeObject(output, value, serializer);
 			} else {
 				// The concrete type of the field is known, always use the same serializer.
-				if (serializer == null) this.serializer = serializer = kryo.getSerializer(valueClass);
+				if (serializer == null) serializer = getSerializer(kryo);
 				// if (generics != null)
 				serializer.setGenerics(kryo, generics);
 				if (canBeNull) {
@@ -88,7 +121,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	public void read (Input input, Object object) {
+	void read (Kryo kryo, Input input, Object object) {
 		try {
 			if (TRACE) trace("kryo", "Read field: " + this + " (" + type.getName() + ")" + " pos=" + input.position());
 			Object value;
@@ -106,7 +139,7 @@ class ObjectField extends CachedField {
 					value = kryo.readObject(input, registration.getType(), serializer);
 				}
 			} else {
-				if (serializer == null) this.serializer = serializer = kryo.getSerializer(valueClass);
+				if (serializer == null) serializer = getSerializer(kryo);
 				// if (generics != null)
 				serializer.setGenerics(kryo, generics);
 				if (canBeNull)
@@ -131,7 +164,41 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	public void copy (Object original, Object copy) {
+	void skip (Kryo kryo, Input input) {
+		if (field.getType().isPrimitive()) {
+			super.skip(input);
+			return;
+		}
+		try {
+			if (TRACE) trace("kryo", "Skip field: " + this + " (" + type.getName() + ")" + " pos=" + input.position());
+			Class concreteType = valueClass;
+			Serializer serializer = this.serializer;
+			if (concreteType == null) {
+				Registration registration = kryo.readClass(input);
+				if (registration != null) {
+					if (serializer == null) serializer = registration.getSerializer();
+					serializer.setGenerics(kryo, generics);
+					kryo.skipObject(input, registration.getType(), serializer);
+				}
+			} else {
+				if (serializer == null) serializer = getSerializer(kryo);
+				serializer.setGenerics(kryo, generics);
+				if (canBeNull)
+					kryo.skipObjectOrNull(input, concreteType, serializer);
+				else
+					kryo.skipObject(input, concreteType, serializer);
+			}
+		} catch (KryoException ex) {
+			ex.addTrace(this + " (" + type.getName() + ")");
+			throw ex;
+		} catch (RuntimeException runtimeEx) {
+			KryoException ex = new KryoException(runtimeEx);
+			ex.addTrace(this + " (" + type.getName() + ")");
+			throw ex;
+		}
+	}
+
+	void copy (Kryo kryo, Object original, Object copy) {
 		try {
 			if (accessIndex != -1) {
 				FieldAccess access = (FieldAccess)fieldSerializer.access;
@@ -150,7 +217,33 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectIntField extends ObjectField {
+	/** Returns the serializer for the field's concrete type, which is cached unless the field belongs to a shared serializer. */
+	private Serializer getSerializer (Kryo kryo) {
+		Serializer serializer = kryo.getSerializer(valueClass);
+		if (this.kryo != null) this.serializer = serializer;
+		return serializer;
+	}
+
+	/** A field of a primitive type, which is accessed through reflection and doesn't need a Kryo. */
+	abstract static class ObjectPrimitiveField extends ObjectField {
+		ObjectPrimitiveField (FieldSerializer fieldSerializer) {
+			super(fieldSerializer);
+		}
+
+		void write (Kryo kryo, Output output, Object object) {
+			write(output, object);
+		}
+
+		void read (Kryo kryo, Input input, Object object) {
+			read(input, object);
+		}
+
+		void copy (Kryo kryo, Object original, Object copy) {
+			copy(original, copy);
+		}
+	}
+
+	final static class ObjectIntField extends ObjectPrimitiveField {
 		public ObjectIntField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
@@ -196,7 +289,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectFloatField extends ObjectField {
+	final static class ObjectFloatField extends ObjectPrimitiveField {
 		public ObjectFloatField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
@@ -236,7 +329,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectShortField extends ObjectField {
+	final static class ObjectShortField extends ObjectPrimitiveField {
 		public ObjectShortField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
@@ -276,7 +369,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectByteField extends ObjectField {
+	final static class ObjectByteField extends ObjectPrimitiveField {
 		public ObjectByteField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
@@ -316,7 +409,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectBooleanField extends ObjectField {
+	final static class ObjectBooleanField extends ObjectPrimitiveField {
 		public ObjectBooleanField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
@@ -356,7 +449,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectCharField extends ObjectField {
+	final static class ObjectCharField extends ObjectPrimitiveField {
 		public ObjectCharField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
@@ -396,7 +489,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectLongField extends ObjectField {
+	final static class ObjectLongField extends ObjectPrimitiveField {
 		public ObjectLongField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
@@ -442,7 +535,7 @@ class ObjectField extends CachedField {
 		}
 	}
 
-	final static class ObjectDoubleField extends ObjectField {
+	final static class ObjectDoubleField extends ObjectPrimitiveField {
 		public ObjectDoubleField (FieldSerializer fieldSerializer) {
 			super(fieldSerializer);
 		}
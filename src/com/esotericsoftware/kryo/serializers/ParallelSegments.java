@@ -0,0 +1,282 @@
+package com.esotericsoftware.kryo.serializers;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+/** Serializes the elements of large collections, maps and arrays concurrently. The elements are split into segments of a fixed
+ * size and each segment is written by a task on the executor using a {@link Kryo} borrowed from the pool. Each segment is framed
+ * by its element count and byte length, so on read the segments are decoded concurrently as well and the results are stitched
+ * together in order.
+ * <p>
+ * The calling thread processes the last segment and any segments the executor has not started yet, so it only waits for segments
+ * in progress on other threads and a bounded or busy executor can't cause a deadlock. A parallel collection nested in the
+ * elements of another one (eg because the pooled Kryo instances use the same serializers) is processed sequentially by the thread
+ * processing the enclosing segment, without using the executor.
+ * <p>
+ * Set an instance on {@link CollectionSerializer#setParallel(ParallelSegments)}, {@link MapSerializer#setParallel(ParallelSegments)}
+ * or {@link DefaultArraySerializers.ObjectArraySerializer#setParallel(ParallelSegments)} to enable it. The bytes written are not
+ * compatible with the sequential format, so the same setting must be used for reading. Note that:
+ * <ul>
+ * <li>The Kryo instances of the pool must be configured (registrations, etc) like the Kryo that is used for the enclosing object
+ * graph.</li>
+ * <li>References are tracked per segment. An object that appears in more than one segment, or also elsewhere in the enclosing
+ * graph, is serialized more than once. A cycle from an element back to the enclosing graph, eg an element that refers to the
+ * collection, is not a reference and recurses until the stack overflows, even when references are enabled. Graphs with such
+ * cycles can't use parallel segments.</li>
+ * <li>Elements are written with the serializers registered in the pooled Kryo instances, an element serializer set on the
+ * enclosing serializer is not used.</li>
+ * <li>The elements must not be modified while they are serialized.</li>
+ * </ul>
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class ParallelSegments {
+	/** Non-null while the current thread processes a segment. */
+	static private final ThreadLocal<Boolean> inSegment = new ThreadLocal();
+
+	private final ExecutorService executor;
+	private final KryoPool pool;
+	private final int segmentSize;
+	private int bufferSize = 4096;
+
+	/** @param segmentSize The number of elements (or map entries) per segment. Collections with at most this many elements are
+	 *           written as a single segment by the calling thread. */
+	public ParallelSegments (ExecutorService executor, KryoPool pool, int segmentSize) {
+		if (executor == null) throw new IllegalArgumentException("executor cannot be null.");
+		if (pool == null) throw new IllegalArgumentException("pool cannot be null.");
+		if (segmentSize <= 0) throw new IllegalArgumentException("segmentSize must be > 0: " + segmentSize);
+		this.executor = executor;
+		this.pool = pool;
+		this.segmentSize = segmentSize;
+	}
+
+	/** Sets the initial buffer size used to write each segment. Default is 4096. */
+	public void setBufferSize (int bufferSize) {
+		if (bufferSize <= 0) throw new IllegalArgumentException("bufferSize must be > 0: " + bufferSize);
+		this.bufferSize = bufferSize;
+	}
+
+	public int getSegmentSize () {
+		return segmentSize;
+	}
+
+	/** Writes the items in segments.
+	 * @param itemCount The number of items the iterator returns.
+	 * @param classes The concrete class of the items, repeating for each item. Eg {key, value} for map entries. An element of null
+	 *           means the class is written with each item.
+	 * @param canBeNull Whether the items can be null, repeating like classes. Only used if the class is known. */
+	void write (Output output, Iterator items, int itemCount, Class[] classes, boolean[] canBeNull) {
+		int itemsPerSegment = segmentSize * classes.length;
+		int segmentCount = (itemCount + itemsPerSegment - 1) / itemsPerSegment;
+		output.writeVarInt(segmentCount, true);
+		if (TRACE) trace("kryo", "Write " + itemCount + " items in " + segmentCount + " segments.");
+		if (segmentCount == 0) return;
+
+		if (segmentCount == 1 || inSegment.get() != null) {
+			for (int remaining = itemCount; remaining > 0; remaining -= itemsPerSegment)
+				writeSegment(output, toArray(items, Math.min(itemsPerSegment, remaining)), classes, canBeNull);
+			return;
+		}
+
+		ArrayList<FutureTask<byte[]>> tasks = new ArrayList(segmentCount);
+		try {
+			for (int remaining = itemCount; remaining > 0; remaining -= itemsPerSegment)
+				tasks.add(new FutureTask(new WriteTask(toArray(items, Math.min(itemsPerSegment, remaining)), classes, canBeNull)));
+			run(tasks);
+			for (int i = 0; i < segmentCount; i++)
+				output.writeBytes(get(tasks.get(i)));
+		} finally {
+			for (int i = 0, n = tasks.size(); i < n; i++)
+				tasks.get(i).cancel(false);
+		}
+	}
+
+	/** Reads the items written by {@link #write(Output, Iterator, int, Class[], boolean[])} into the destination array, which must
+	 * have a length of at least the number of written items. */
+	void read (Input input, Object[] destination, Class[] classes, boolean[] canBeNull) {
+		int segmentCount = input.readVarInt(true);
+		if (TRACE) trace("kryo", "Read " + segmentCount + " segments.");
+		if (segmentCount == 0) return;
+
+		if (segmentCount == 1 || inSegment.get() != null) {
+			for (int i = 0, offset = 0; i < segmentCount; i++) {
+				int count = input.readVarInt(true);
+				byte[] bytes = input.readBytes(input.readVarInt(true));
+				readSegment(bytes, destination, offset, count, classes, canBeNull);
+				offset += count;
+			}
+			return;
+		}
+
+		ArrayList<FutureTask> tasks = new ArrayList(segmentCount);
+		try {
+			for (int i = 0, offset = 0; i < segmentCount; i++) {
+				int count = input.readVarInt(true);
+				byte[] bytes = input.readBytes(input.readVarInt(true));
+				tasks.add(new FutureTask(new ReadTask(bytes, destination, offset, count, classes, canBeNull)));
+				offset += count;
+			}
+			run(tasks);
+			for (int i = 0; i < segmentCount; i++)
+				get(tasks.get(i));
+		} finally {
+			for (int i = 0, n = tasks.size(); i < n; i++)
+				tasks.get(i).cancel(false);
+		}
+	}
+
+	/** Executes all but the last task on the executor, then runs the last task and, from last to first, each task the executor has
+	 * not started on the calling thread. A task that is already running or done is not run again. */
+	private void run (ArrayList<? extends FutureTask> tasks) {
+		int last = tasks.size() - 1;
+		for (int i = 0; i < last; i++) {
+			try {
+				executor.execute(tasks.get(i));
+			} catch (RejectedExecutionException ex) {
+				if (TRACE) trace("kryo", "Segment rejected by the executor, it is processed by the calling thread.");
+			}
+		}
+		for (int i = last; i >= 0; i--)
+			tasks.get(i).run();
+	}
+
+	/** Discards the items written by {@link #write(Output, Iterator, int, Class[], boolean[])}. Each segment is an independent
+	 * object graph, so the segments are skipped using their byte lengths without decoding them. */
+	void skip (Input input) {
+		int segmentCount = input.readVarInt(true);
+		if (TRACE) trace("kryo", "Skip " + segmentCount + " segments.");
+		for (int i = 0; i < segmentCount; i++) {
+			input.readVarInt(true); // Count.
+			input.skip(input.readVarInt(true));
+		}
+	}
+
+	private void writeSegment (Output output, Object[] items, Class[] classes, boolean[] canBeNull) {
+		Output segment = new Output(bufferSize, -1);
+		Kryo kryo = pool.borrow();
+		boolean autoReset = kryo.getAutoReset();
+		// References are tracked for the whole segment.
+		kryo.setAutoReset(false);
+		boolean outermost = inSegment.get() == null;
+		if (outermost) inSegment.set(Boolean.TRUE);
+		try {
+			for (int i = 0, n = items.length, c = classes.length; i < n; i++) {
+				Class type = classes[i % c];
+				if (type == null)
+					kryo.writeClassAndObject(segment, items[i]);
+				else if (canBeNull[i % c])
+					kryo.writeObjectOrNull(segment, items[i], type);
+				else
+					kryo.writeObject(segment, items[i], kryo.getSerializer(type));
+			}
+		} finally {
+			// Removed rather than set to null, so no entry is left in the executor's threads.
+			if (outermost) inSegment.remove();
+			kryo.reset();
+			kryo.setAutoReset(autoReset);
+			pool.release(kryo);
+		}
+		output.writeVarInt(items.length, true);
+		output.writeVarInt(segment.position(), true);
+		output.writeBytes(segment.getBuffer(), 0, segment.position());
+	}
+
+	private void readSegment (byte[] bytes, Object[] destination, int offset, int count, Class[] classes, boolean[] canBeNull) {
+		Input input = new Input(bytes);
+		Kryo kryo = pool.borrow();
+		boolean autoReset = kryo.getAutoReset();
+		kryo.setAutoReset(false);
+		boolean outermost = inSegment.get() == null;
+		if (outermost) inSegment.set(Boolean.TRUE);
+		try {
+			for (int i = 0, c = classes.length; i < count; i++) {
+				Class type = classes[i % c];
+				Object item;
+				if (type == null)
+					item = kryo.readClassAndObject(input);
+				else if (canBeNull[i % c])
+					item = kryo.readObjectOrNull(input, type);
+				else
+					item = kryo.readObject(input, type);
+				destination[offset + i] = item;
+			}
+		} finally {
+			if (outermost) inSegment.remove();
+			kryo.reset();
+			kryo.setAutoReset(autoReset);
+			pool.release(kryo);
+		}
+	}
+
+	static private Object[] toArray (Iterator items, int count) {
+		Object[] array = new Object[count];
+		for (int i = 0; i < count; i++)
+			array[i] = items.next();
+		return array;
+	}
+
+	static private <T> T get (Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new KryoException("Interrupted while waiting for a segment.", ex);
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof KryoException) throw (KryoException)cause;
+			throw new KryoException("Error processing segment.", cause);
+		}
+	}
+
+	private class WriteTask implements Callable<byte[]> {
+		private final Object[] items;
+		private final Class[] classes;
+		private final boolean[] canBeNull;
+
+		WriteTask (Object[] items, Class[] classes, boolean[] canBeNull) {
+			this.items = items;
+			this.classes = classes;
+			this.canBeNull = canBeNull;
+		}
+
+		public byte[] call () {
+			Output output = new Output(bufferSize + 10, -1);
+			writeSegment(output, items, classes, canBeNull);
+			return output.toBytes();
+		}
+	}
+
+	private class ReadTask implements Callable {
+		private final byte[] bytes;
+		private final Object[] destination;
+		private final int offset, count;
+		private final Class[] classes;
+		private final boolean[] canBeNull;
+
+		ReadTask (byte[] bytes, Object[] destination, int offset, int count, Class[] classes, boolean[] canBeNull) {
+			this.bytes = bytes;
+			this.destination = destination;
+			this.offset = offset;
+			this.count = count;
+			this.classes = classes;
+			this.canBeNull = canBeNull;
+		}
+
+		public Object call () {
+			readSegment(bytes, destination, offset, count, classes, canBeNull);
+			return null;
+		}
+	}
+}
@@ -98,6 +98,25 @@ public class TaggedFieldSerializer<T> extends FieldSerializer<T> {
 		return object;
 	}
 
+	public void skip (Kryo kryo, Input input, Class<T> type) {
+		int fieldCount = input.readVarInt(true);
+		int[] tags = this.tags;
+		CachedField[] fields = getFields();
+		for (int i = 0, n = fieldCount; i < n; i++) {
+			int tag = input.readVarInt(true);
+
+			CachedField cachedField = null;
+			for (int ii = 0, nn = tags.length; ii < nn; ii++) {
+				if (tags[ii] == tag) {
+					cachedField = fields[ii];
+					break;
+				}
+			}
+			if (cachedField == null) throw new KryoException("Unknown field tag: " + tag + " (" + getType().getName() + ")");
+			cachedField.skip(input);
+		}
+	}
+
 	/** If true, this field will not be serialized. */
 	@Retention(RetentionPolicy.RUNTIME)
 	@Target(ElementType.FIELD)
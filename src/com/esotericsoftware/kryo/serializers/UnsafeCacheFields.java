@@ -267,6 +267,10 @@ class UnsafeCacheFields {
 			}
 		}
 
+		public void skip (Input input) {
+			input.skip((int)len);
+		}
+
 		public void copy (Object original, Object copy) {
 			unsafe().copyMemory(original, offset, copy, offset, len);
 		}
@@ -291,7 +295,7 @@ class UnsafeCacheFields {
 				throw new KryoException("Unknown offset");
 		}
 
-		public void copy (Object original, Object copy) {
+		void copy (Kryo kryo, Object original, Object copy) {
 			try {
 				if (offset != -1) {
 					unsafe().putObject(copy, offset, kryo.copy(unsafe().getObject(original, offset)));
@@ -8,6 +8,7 @@ import com.esotericsoftware.kryo.ClassResolver;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.SerializationListener;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
@@ -18,6 +19,9 @@ public class DefaultClassResolver implements ClassResolver {
 
 	protected Kryo kryo;
 
+	/** May be null. */
+	protected final RegistrationTable table;
+
 	protected final IntMap<Registration> idToRegistration = new IntMap();
 	protected final ObjectMap<Class, Registration> classToRegistration = new ObjectMap();
 
@@ -31,6 +35,17 @@ public class DefaultClassResolver implements ClassResolver {
 	private Class memoizedClass;
 	private Registration memoizedClassValue;
 
+	public DefaultClassResolver () {
+		table = null;
+	}
+
+	/** Creates a resolver which uses the registrations in the specified table for any class or ID that was not registered with
+	 * this resolver. Registrations from the table are copied to this resolver lazily, the first time they are needed.
+	 * @param table May be null. */
+	public DefaultClassResolver (RegistrationTable table) {
+		this.table = table;
+	}
+
 	public void setKryo (Kryo kryo) {
 		this.kryo = kryo;
 	}
@@ -59,6 +74,10 @@ public class DefaultClassResolver implements ClassResolver {
 	public Registration getRegistration (Class type) {
 		if (type == memoizedClass) return memoizedClassValue;
 		Registration registration = classToRegistration.get(type);
+		if (registration == null && table != null) {
+			registration = table.newRegistration(kryo, type);
+			if (registration != null) register(registration);
+		}
 		if (registration != null) {
 			memoizedClass = type;
 			memoizedClassValue = registration;
@@ -67,7 +86,12 @@ public class DefaultClassResolver implements ClassResolver {
 	}
 
 	public Registration getRegistration (int classID) {
-		return idToRegistration.get(classID);
+		Registration registration = idToRegistration.get(classID);
+		if (registration == null && table != null) {
+			registration = table.newRegistration(kryo, classID);
+			if (registration != null) register(registration);
+		}
+		return registration;
 	}
 
 	public Registration writeClass (Output output, Class type) {
@@ -103,6 +127,8 @@ public class DefaultClassResolver implements ClassResolver {
 		classToNameId.put(type, nameId);
 		output.writeVarInt(nameId, true);
 		output.writeString(type.getName());
+		SerializationListener listener = kryo.getActiveSerializationListener();
+		if (listener != null) listener.onWriteClassName(kryo, type);
 	}
 
 	public Registration readClass (Input input) {
@@ -115,7 +141,7 @@ public class DefaultClassResolver implements ClassResolver {
 			return readName(input);
 		}
 		if (classID == memoizedClassId) return memoizedClassIdValue;
-		Registration registration = idToRegistration.get(classID - 2);
+		Registration registration = getRegistration(classID - 2);
 		if (registration == null) throw new KryoException("Encountered unregistered class ID: " + (classID - 2));
 		if (TRACE) trace("kryo", "Read class " + (classID - 2) + ": " + className(registration.getType()));
 		memoizedClassId = classID;
@@ -0,0 +1,155 @@
+package com.esotericsoftware.kryo.util;
+
+import static com.esotericsoftware.kryo.util.Util.*;
+import static com.esotericsoftware.minlog.Log.*;
+
+import com.esotericsoftware.kryo.ClassResolver;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.Shareable;
+import com.esotericsoftware.kryo.factories.SerializerFactory;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.util.ObjectMap.Entry;
+
+/** An immutable snapshot of the registrations of a configured {@link Kryo}, which can be shared by any number of Kryo instances
+ * and threads. A Kryo instance uses a table by being created with a {@link DefaultClassResolver#DefaultClassResolver(RegistrationTable)
+ * DefaultClassResolver} for it, which is O(1): nothing is copied up front.
+ * <p>
+ * The first time a Kryo instance needs the registration for a class or ID that is in the table, the resolver creates a
+ * {@link Registration} of its own with the same type and ID. Serializers that are {@link Shareable} are used by all Kryo
+ * instances, so there is a single copy of them per table. A {@link FieldSerializer} is bound to the Kryo instance that created
+ * it, so the table holds its {@link FieldSerializer#newShareable() shareable copy} instead: the fields of the class are analyzed
+ * once, not once per Kryo instance. Other serializers (eg a {@link com.esotericsoftware.kryo.serializers.CollectionSerializer},
+ * which has settings and per-call state) can't be shared. For those, a {@link SerializerFactory} must be given that creates
+ * them for each Kryo instance on first use, configured the same way as in the source Kryo. Otherwise the attached Kryo instances
+ * would write a different format.
+ * <p>
+ * Kryo settings that are not registrations (references, registration required, default serializers, etc) are not part of the
+ * table and must be applied to each Kryo instance, eg by a {@link com.esotericsoftware.kryo.pool.KryoFactory}.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class RegistrationTable {
+	private final ObjectMap<Class, Item> classToItem = new ObjectMap();
+	private final IntMap<Item> idToItem = new IntMap();
+
+	/** Creates a table containing all registrations (including implicit ones) of the specified Kryo, which must use a
+	 * {@link DefaultClassResolver}. If that resolver uses a table itself, the registrations of that table are included.
+	 * @throws IllegalArgumentException if a serializer is not {@link #isShareable(Serializer) shareable}. */
+	public RegistrationTable (Kryo kryo) {
+		this(kryo, null);
+	}
+
+	/** Creates a table containing all registrations (including implicit ones) of the specified Kryo, which must use a
+	 * {@link DefaultClassResolver}. If that resolver uses a table itself, the registrations of that table are included.
+	 * @param factory Creates the serializers that are not {@link #isShareable(Serializer) shareable} for each Kryo instance using
+	 *           the table. They must be configured like the serializers of the specified Kryo. May be null if all serializers are
+	 *           shareable.
+	 * @throws IllegalArgumentException if a serializer is not shareable and the factory is null. */
+	public RegistrationTable (Kryo kryo, SerializerFactory factory) {
+		if (kryo == null) throw new IllegalArgumentException("kryo cannot be null.");
+		ClassResolver classResolver = kryo.getClassResolver();
+		if (!(classResolver instanceof DefaultClassResolver))
+			throw new IllegalArgumentException("Kryo must use a DefaultClassResolver: " + classResolver.getClass().getName());
+		DefaultClassResolver resolver = (DefaultClassResolver)classResolver;
+
+		if (resolver.table != null) {
+			classToItem.putAll(resolver.table.classToItem);
+			idToItem.putAll(resolver.table.idToItem);
+		}
+
+		IdentityMap<Registration, Item> items = new IdentityMap();
+		for (Entry<Class, Registration> entry : new ObjectMap.Entries<Class, Registration>(resolver.classToRegistration)) {
+			Item item = items.get(entry.value);
+			if (item == null) {
+				item = new Item(entry.value, factory);
+				items.put(entry.value, item);
+			}
+			classToItem.put(entry.key, item);
+		}
+		for (IntMap.Entry<Registration> entry : new IntMap.Entries<Registration>(resolver.idToRegistration)) {
+			Item item = items.get(entry.value);
+			if (item == null) {
+				item = new Item(entry.value, factory);
+				items.put(entry.value, item);
+			}
+			idToItem.put(entry.key, item);
+		}
+		if (TRACE) trace("kryo", "Registration table created: " + classToItem.size + " classes, " + idToItem.size + " IDs");
+	}
+
+	/** Returns a new registration for the specified class for use by the specified Kryo, or null if the class is not in the
+	 * table. */
+	public Registration newRegistration (Kryo kryo, Class type) {
+		Item item = classToItem.get(type);
+		if (item == null) return null;
+		return item.newRegistration(kryo);
+	}
+
+	/** Returns a new registration for the specified ID for use by the specified Kryo, or null if the ID is not in the table. */
+	public Registration newRegistration (Kryo kryo, int classID) {
+		Item item = idToItem.get(classID);
+		if (item == null) return null;
+		return item.newRegistration(kryo);
+	}
+
+	/** Returns true if the class is in the table. */
+	public boolean contains (Class type) {
+		return classToItem.containsKey(type);
+	}
+
+	/** Returns the number of classes in the table. Primitives and their wrappers are counted separately. */
+	public int size () {
+		return classToItem.size;
+	}
+
+	/** Returns true if the serializer can be used concurrently by multiple Kryo instances, which is the case when it implements
+	 * {@link Shareable}. Eg, all the serializers for primitives, strings and primitive arrays are shareable. */
+	static public boolean isShareable (Serializer serializer) {
+		return serializer instanceof Shareable;
+	}
+
+	/** Returns the serializer itself if it is shareable, the {@link FieldSerializer#newShareable() shareable copy} of a
+	 * FieldSerializer, or null. */
+	static private Serializer share (Serializer serializer) {
+		if (isShareable(serializer)) return serializer;
+		if (serializer instanceof FieldSerializer) return ((FieldSerializer)serializer).newShareable();
+		return null;
+	}
+
+	static private final class Item {
+		final Class type;
+		final int id;
+		/** Null if the serializer is not shareable. */
+		final Serializer serializer;
+		/** Null if the serializer is shareable. */
+		final SerializerFactory factory;
+
+		Item (Registration registration, SerializerFactory factory) {
+			type = registration.getType();
+			id = registration.getId();
+			Serializer serializer = registration.getSerializer();
+			Serializer shared = share(serializer);
+			if (shared != null) {
+				this.serializer = shared;
+				this.factory = null;
+			} else {
+				if (factory == null) {
+					throw new IllegalArgumentException("Serializer is not shareable, a SerializerFactory is required: "
+						+ serializer.getClass().getName() + " (" + className(type) + ")");
+				}
+				this.serializer = null;
+				this.factory = factory;
+			}
+		}
+
+		Registration newRegistration (Kryo kryo) {
+			Serializer serializer = this.serializer;
+			if (serializer == null) {
+				serializer = factory.makeSerializer(kryo, type);
+				if (serializer == null) throw new KryoException("SerializerFactory returned null: " + className(type));
+			}
+			return new Registration(type, serializer, id);
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package com.esotericsoftware.kryo.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.SerializationListener;
+
+/** A {@link SerializationListener} that counts the objects, bytes and time written and read for each registration. It is thread
+ * safe, so one instance can be set on the Kryo instances of all threads. Statistics for registered classes are found by
+ * registration ID in an array, others by class in a map. The counters of each class are striped by thread, so threads counting
+ * the same class concurrently rarely update the same memory.
+ * <p>
+ * The bytes and time of an object include the objects it contains. Use {@link #setMaxDepth(int)} to count only the root objects
+ * or the first levels of object graphs.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class SerializationStatistics implements SerializationListener {
+	// The counters of a stripe, the count, bytes and nanos of writing and then of reading.
+	static private final int WRITE_COUNT = 0, WRITE_BYTES = 1, WRITE_NANOS = 2, READ_COUNT = 3, READ_BYTES = 4, READ_NANOS = 5;
+	// Each stripe is padded to 128 bytes, so threads updating different stripes don't share a cache line.
+	static private final int stripeSize = 16;
+	static private final int stripeMask;
+	static {
+		int stripes = 1;
+		while (stripes < Runtime.getRuntime().availableProcessors() && stripes < 64)
+			stripes <<= 1;
+		stripeMask = stripes - 1;
+	}
+
+	private final Object lock = new Object();
+	private volatile Statistics[] byId = new Statistics[64];
+	private final ConcurrentHashMap<Class, Statistics> byClass = new ConcurrentHashMap();
+	private int maxDepth = Integer.MAX_VALUE;
+
+	/** Only objects at this depth or less are counted, 1 for only the root objects. Default is {@link Integer#MAX_VALUE}. */
+	public void setMaxDepth (int maxDepth) {
+		if (maxDepth <= 0) throw new IllegalArgumentException("maxDepth must be > 0: " + maxDepth);
+		this.maxDepth = maxDepth;
+	}
+
+	public int getMaxDepth () {
+		return maxDepth;
+	}
+
+	public void onWriteStart (Kryo kryo, Class type, Registration registration, int depth) {
+	}
+
+	public void onWriteEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+		if (depth > maxDepth) return;
+		get(type, registration).add(WRITE_COUNT, bytes, nanos);
+	}
+
+	public void onReadStart (Kryo kryo, Class type, Registration registration, int depth) {
+	}
+
+	public void onReadEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+		if (depth > maxDepth) return;
+		get(type, registration).add(READ_COUNT, bytes, nanos);
+	}
+
+	public void onWriteClassName (Kryo kryo, Class type) {
+	}
+
+	public void onRebuildCachedFields (Kryo kryo, Class type, int fieldCount, long nanos) {
+	}
+
+	private Statistics get (Class type, Registration registration) {
+		// Registrations with a negative ID (implicitly registered classes) and unregistered types are found by class.
+		int id = registration == null || registration.getType() != type ? -1 : registration.getId();
+		if (id < 0) {
+			Statistics statistics = byClass.get(type);
+			if (statistics == null) {
+				statistics = new Statistics(type, id);
+				Statistics existing = byClass.putIfAbsent(type, statistics);
+				if (existing != null) statistics = existing;
+			}
+			return statistics;
+		}
+		Statistics[] byId = this.byId;
+		if (id < byId.length) {
+			Statistics statistics = byId[id];
+			if (statistics != null && statistics.type == type) return statistics;
+		}
+		synchronized (lock) {
+			byId = this.byId;
+			if (id >= byId.length) {
+				Statistics[] newArray = new Statistics[Math.max(id + 1, byId.length * 2)];
+				System.arraycopy(byId, 0, newArray, 0, byId.length);
+				byId = newArray;
+			}
+			Statistics statistics = byId[id];
+			if (statistics == null || statistics.type != type) {
+				// The ID may be used for a different class by another Kryo, those are counted by class.
+				if (statistics != null) return getByClass(type, id);
+				statistics = new Statistics(type, id);
+				byId[id] = statistics;
+			}
+			this.byId = byId;
+			return statistics;
+		}
+	}
+
+	private Statistics getByClass (Class type, int id) {
+		Statistics statistics = byClass.get(type);
+		if (statistics == null) {
+			statistics = new Statistics(type, id);
+			Statistics existing = byClass.putIfAbsent(type, statistics);
+			if (existing != null) statistics = existing;
+		}
+		return statistics;
+	}
+
+	/** Returns the statistics of each class, ordered by the bytes written and read. */
+	public List<Statistics> getStatistics () {
+		List<Statistics> list = new ArrayList();
+		for (Statistics statistics : byId)
+			if (statistics != null) list.add(statistics);
+		list.addAll(byClass.values());
+		Collections.sort(list, new Comparator<Statistics>() {
+			public int compare (Statistics o1, Statistics o2) {
+				long bytes1 = o1.getWriteBytes() + o1.getReadBytes(), bytes2 = o2.getWriteBytes() + o2.getReadBytes();
+				return bytes1 < bytes2 ? 1 : (bytes1 > bytes2 ? -1 : 0);
+			}
+		});
+		return list;
+	}
+
+	/** Returns the statistics for the class, or null if no objects of the class have been written or read. */
+	public Statistics getStatistics (Class type) {
+		for (Statistics statistics : byId)
+			if (statistics != null && statistics.type == type) return statistics;
+		return byClass.get(type);
+	}
+
+	/** Discards all statistics. Objects being written or read concurrently may or may not be counted. */
+	public void clear () {
+		synchronized (lock) {
+			byId = new Statistics[byId.length];
+		}
+		byClass.clear();
+	}
+
+	/** Returns a table of the statistics, one line per class. */
+	public String toString () {
+		StringBuilder buffer = new StringBuilder(256);
+		buffer.append("class, id, written, bytes written, ms writing, read, bytes read, ms reading\n");
+		for (Statistics statistics : getStatistics())
+			buffer.append(statistics).append('\n');
+		return buffer.toString();
+	}
+
+	/** The counts for one class. */
+	static public class Statistics {
+		final Class type;
+		final int id;
+		// A stripe of counters for each group of threads. Updates are atomic, as threads can share a stripe.
+		private final AtomicLongArray counters = new AtomicLongArray((stripeMask + 1) * stripeSize);
+
+		Statistics (Class type, int id) {
+			this.type = type;
+			this.id = id;
+		}
+
+		/** @param counter The count counter of the operation, followed by its bytes and nanos counters. */
+		void add (int counter, long bytes, long nanos) {
+			int hash = System.identityHashCode(Thread.currentThread());
+			hash ^= hash >>> 16;
+			int index = (hash & stripeMask) * stripeSize + counter;
+			AtomicLongArray counters = this.counters;
+			counters.incrementAndGet(index);
+			counters.addAndGet(index + 1, bytes);
+			counters.addAndGet(index + 2, nanos);
+		}
+
+		private long sum (int counter) {
+			long sum = 0;
+			for (int i = counter, n = counters.length(); i < n; i += stripeSize)
+				sum += counters.get(i);
+			return sum;
+		}
+
+		public Class getType () {
+			return type;
+		}
+
+		/** @return The registration ID, or a negative value if the class is not registered with an ID. */
+		public int getId () {
+			return id;
+		}
+
+		public long getWriteCount () {
+			return sum(WRITE_COUNT);
+		}
+
+		public long getWriteBytes () {
+			return sum(WRITE_BYTES);
+		}
+
+		public long getWriteNanos () {
+			return sum(WRITE_NANOS);
+		}
+
+		public long getReadCount () {
+			return sum(READ_COUNT);
+		}
+
+		public long getReadBytes () {
+			return sum(READ_BYTES);
+		}
+
+		public long getReadNanos () {
+			return sum(READ_NANOS);
+		}
+
+		public String toString () {
+			return Util.className(type) + ", " + id + ", " + getWriteCount() + ", " + getWriteBytes() + ", " + getWriteNanos()
+				/ 1000000 + ", " + getReadCount() + ", " + getReadBytes() + ", " + getReadNanos() / 1000000;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.esotericsoftware.kryo.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.esotericsoftware.kryo.io.FramedReader;
+import com.esotericsoftware.kryo.io.FramedWriter;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+/** A {@link Spliterator} over the records written by {@link FramedWriter}, so they can be read by a parallel {@link Stream}.
+ * Splitting uses {@link FramedReader#trySplit()}, so each split reads the blocks starting in its half of the bytes with its own
+ * Input and a Kryo borrowed from the pool.
+ * <p>
+ * A split releases its Kryo when it has read all of its records. If a stream may stop early, eg with
+ * {@link Stream#findFirst()}, {@link #close()} releases the Kryo instances of the splits that weren't exhausted. The streams
+ * returned by the stream methods do that when they are closed.
+ * @author Roman Levenstein <romixlev@gmail.com> */
+public class FramedSpliterator<T> implements Spliterator<T> {
+	private FramedReader<T> reader;
+	/** The readers of this spliterator and all of its splits. */
+	private final Queue<FramedReader<T>> readers;
+
+	public FramedSpliterator (FramedReader<T> reader) {
+		this(reader, new ConcurrentLinkedQueue());
+		readers.add(reader);
+	}
+
+	private FramedSpliterator (FramedReader<T> reader, Queue<FramedReader<T>> readers) {
+		if (reader == null) throw new IllegalArgumentException("reader cannot be null.");
+		this.reader = reader;
+		this.readers = readers;
+	}
+
+	public boolean tryAdvance (Consumer<? super T> action) {
+		if (!reader.hasNext()) return false;
+		action.accept(reader.next());
+		return true;
+	}
+
+	public void forEachRemaining (Consumer<? super T> action) {
+		while (reader.hasNext())
+			action.accept(reader.next());
+	}
+
+	/** Returns a spliterator for the records before the middle of the remaining bytes, as required for an ordered spliterator. This
+	 * spliterator continues with the records after it. */
+	public Spliterator<T> trySplit () {
+		FramedReader<T> split = reader.trySplit();
+		if (split == null) return null;
+		FramedSpliterator<T> prefix = new FramedSpliterator(reader, readers);
+		reader = split;
+		readers.add(split);
+		return prefix;
+	}
+
+	/** Returns the number of bytes that remain to be read, which is more than the number of records. */
+	public long estimateSize () {
+		return reader.getRemaining();
+	}
+
+	public int characteristics () {
+		return ORDERED;
+	}
+
+	/** Closes the readers of this spliterator and of all its splits, releasing their Kryo instances to the pool. Must not be called
+	 * while the splits are being read. */
+	public void close () {
+		for (FramedReader<T> reader : readers)
+			reader.close();
+	}
+
+	/** Returns a stream of the records in the bytes. Closing the stream releases the Kryo instances of splits that weren't
+	 * exhausted.
+	 * @param type The type the records were written with, or null if they were written with
+	 *           {@link FramedWriter#writeClassAndObject(Object)}. */
+	static public <T> Stream<T> stream (KryoPool pool, Class<T> type, byte[] bytes, boolean parallel) {
+		FramedSpliterator<T> spliterator = new FramedSpliterator(new FramedReader(pool, type, bytes));
+		return StreamSupport.stream(spliterator, parallel).onClose(spliterator::close);
+	}
+
+	/** Returns a stream of the records in the file, which is read with positional reads so it can be larger than 2GB. The stream
+	 * must be closed, which closes the file and releases the Kryo instances of splits that weren't exhausted.
+	 * @param type The type the records were written with, or null if they were written with
+	 *           {@link FramedWriter#writeClassAndObject(Object)}. */
+	static public <T> Stream<T> stream (KryoPool pool, Class<T> type, Path file, boolean parallel) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		FramedSpliterator<T> spliterator;
+		try {
+			spliterator = new FramedSpliterator(new FramedReader(pool, type, channel));
+		} catch (RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+		return StreamSupport.stream(spliterator, parallel).onClose(() -> {
+			spliterator.close();
+			try {
+				channel.close();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
+	}
+}
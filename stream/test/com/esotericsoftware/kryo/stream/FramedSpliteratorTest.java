@@ -0,0 +1,109 @@
+package com.esotericsoftware.kryo.stream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.FramedReader;
+import com.esotericsoftware.kryo.io.FramedWriter;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoCallback;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class FramedSpliteratorTest extends TestCase {
+	private final KryoPool pool = new KryoPool.Builder(Kryo::new).build();
+
+	public void testParallelStream () {
+		byte[] bytes = write(20000, 256);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		List<String> values;
+		try (Stream<String> stream = FramedSpliterator.stream(pool, String.class, bytes, true)) {
+			values = stream.peek(value -> threads.add(Thread.currentThread())).collect(Collectors.toList());
+		}
+		assertEquals(expected(20000), values);
+		if (Runtime.getRuntime().availableProcessors() > 1) assertTrue(threads.size() > 1);
+	}
+
+	public void testSplit () {
+		FramedSpliterator<String> spliterator = new FramedSpliterator(new FramedReader(pool, String.class, write(1000, 100)));
+		assertEquals(Spliterator.ORDERED, spliterator.characteristics());
+		long size = spliterator.estimateSize();
+		Spliterator<String> split = spliterator.trySplit();
+		assertNotNull(split);
+		assertTrue(spliterator.estimateSize() < size);
+		StringBuilder values = new StringBuilder();
+		split.forEachRemaining(values::append);
+		spliterator.forEachRemaining(values::append);
+		assertEquals(String.join("", expected(1000)), values.toString());
+		assertFalse(spliterator.tryAdvance(value -> fail()));
+	}
+
+	public void testFile () throws Exception {
+		Path file = Files.createTempFile("framed", ".bin");
+		try {
+			Files.write(file, write(30000, 1000));
+			try (Stream<String> stream = FramedSpliterator.stream(pool, String.class, file, true)) {
+				assertEquals(expected(30000), stream.collect(Collectors.toList()));
+			}
+			// Stopping early leaves splits with borrowed Kryo instances, closing the stream releases them.
+			CountingPool counting = new CountingPool();
+			try (Stream<String> stream = FramedSpliterator.stream(counting, String.class, file, true)) {
+				assertEquals("record0", stream.findFirst().get());
+			}
+			assertEquals(0, counting.borrowed.get());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/** Counts the Kryo instances that are borrowed and not released. */
+	private class CountingPool implements KryoPool {
+		final AtomicInteger borrowed = new AtomicInteger();
+
+		public Kryo borrow () {
+			borrowed.incrementAndGet();
+			return pool.borrow();
+		}
+
+		public void release (Kryo kryo) {
+			borrowed.decrementAndGet();
+			pool.release(kryo);
+		}
+
+		public <T> T run (KryoCallback<T> callback) {
+			return pool.run(callback);
+		}
+
+		public void clear () {
+			pool.clear();
+		}
+
+		public int size () {
+			return pool.size();
+		}
+	}
+
+	private List<String> expected (int count) {
+		return IntStream.range(0, count).mapToObj(i -> "record" + i).collect(Collectors.toList());
+	}
+
+	private byte[] write (int count, int syncInterval) {
+		Output output = new Output(1024, -1);
+		FramedWriter writer = new FramedWriter(new Kryo(), output, syncInterval);
+		for (int i = 0; i < count; i++)
+			writer.writeObject("record" + i);
+		writer.flush();
+		return output.toBytes();
+	}
+}
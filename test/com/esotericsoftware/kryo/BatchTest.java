@@ -0,0 +1,191 @@
+package com.esotericsoftware.kryo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class BatchTest extends KryoTestCase {
+	public void testWriteReadObjects () {
+		kryo.register(Record.class);
+		kryo.register(String.class);
+		ArrayList<Record> records = new ArrayList();
+		for (int i = 0; i < 1000; i++)
+			records.add(new Record(i, "name" + i));
+
+		Output output = new Output(1024, -1);
+		kryo.writeObjects(output, records, Record.class);
+		assertEquals(0, kryo.getDepth());
+
+		Iterator<Record> iterator = kryo.readObjects(new Input(output.toBytes()), Record.class);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(iterator.hasNext());
+			assertEquals(records.get(i), iterator.next());
+		}
+		assertFalse(iterator.hasNext());
+		assertFalse(iterator.hasNext());
+		assertEquals(0, kryo.getDepth());
+		try {
+			iterator.next();
+			fail();
+		} catch (NoSuchElementException expected) {
+		}
+
+		// An empty batch is a single byte.
+		output.clear();
+		kryo.writeObjects(output, new ArrayList(), Record.class);
+		assertEquals(1, output.position());
+		assertFalse(kryo.readObjects(new Input(output.toBytes()), Record.class).hasNext());
+	}
+
+	public void testReferencesSharedByBatch () {
+		kryo.setReferences(true);
+		kryo.register(Record.class);
+		Record record = new Record(1, "a");
+		Output output = new Output(1024, -1);
+		kryo.writeObjects(output, Arrays.asList(record, record, new Record(2, "b")), Record.class);
+
+		Iterator<Record> iterator = kryo.readObjects(new Input(output.toBytes()), Record.class);
+		Record first = iterator.next();
+		assertSame(first, iterator.next());
+		assertEquals(new Record(2, "b"), iterator.next());
+		assertFalse(iterator.hasNext());
+
+		// References are reset after the batch.
+		kryo.writeObjects(output = new Output(1024, -1), Arrays.asList(record), Record.class);
+		assertEquals(record, kryo.readObjects(new Input(output.toBytes()), Record.class).next());
+	}
+
+	public void testUnregisteredClassNameWrittenOnce () {
+		kryo.setRegistrationRequired(false);
+		ArrayList<Record> records = new ArrayList();
+		for (int i = 0; i < 10; i++) {
+			Record record = new Record(i, null);
+			record.tag = new Record(-i, null);
+			records.add(record);
+		}
+		Output batch = new Output(1024, -1);
+		kryo.writeObjects(batch, records, Record.class);
+
+		Output single = new Output(1024, -1);
+		for (Record record : records)
+			kryo.writeObject(single, record);
+		int nameLength = Record.class.getName().length();
+		assertTrue(batch.position() + nameLength * 8 < single.position());
+
+		Iterator<Record> iterator = kryo.readObjects(new Input(batch.toBytes()), Record.class);
+		for (Record record : records) {
+			Record read = iterator.next();
+			assertEquals(record, read);
+			assertEquals(record.tag, read.tag);
+		}
+		assertFalse(iterator.hasNext());
+	}
+
+	public void testClose () {
+		kryo.register(Record.class);
+		Output output = new Output(1024, -1);
+		kryo.writeObjects(output, Arrays.asList(new Record(1, "a"), new Record(2, "b")), Record.class);
+
+		Kryo.ObjectIterator<Record> iterator = kryo.readObjects(new Input(output.toBytes()), Record.class);
+		assertEquals(new Record(1, "a"), iterator.next());
+		try {
+			kryo.readObjects(new Input(output.toBytes()), Record.class);
+			fail();
+		} catch (KryoException expected) {
+		}
+		iterator.close();
+		assertEquals(0, kryo.getDepth());
+		assertFalse(iterator.hasNext());
+		iterator.close();
+		assertEquals(0, kryo.getDepth());
+
+		iterator = kryo.readObjects(new Input(output.toBytes()), Record.class);
+		assertEquals(new Record(1, "a"), iterator.next());
+		assertEquals(new Record(2, "b"), iterator.next());
+		assertFalse(iterator.hasNext());
+		iterator.close();
+		assertEquals(0, kryo.getDepth());
+	}
+
+	public void testRunsOfClasses () {
+		kryo.register(Record.class);
+		kryo.register(Other.class);
+		ArrayList objects = new ArrayList();
+		for (int i = 0; i < 10; i++)
+			objects.add(new Record(i, "name" + i));
+		objects.add(new Other(1));
+		objects.add(new Other(2));
+		objects.add(new Record(3, null));
+
+		Output output = new Output(1024, -1);
+		kryo.writeObjects(output, objects, null);
+		// The class is written once for each run.
+		Output single = new Output(1024, -1);
+		kryo.writeObjects(single, objects.subList(0, 10), Record.class);
+		assertTrue(output.position() < single.position() + 12);
+
+		Iterator iterator = kryo.readObjects(new Input(output.toBytes()), null);
+		for (Object object : objects)
+			assertEquals(object, iterator.next());
+		assertFalse(iterator.hasNext());
+		assertEquals(0, kryo.getDepth());
+	}
+
+	public void testNullNotAllowed () {
+		kryo.register(Record.class);
+		try {
+			kryo.writeObjects(new Output(1024, -1), Arrays.asList(new Record(1, "a"), null), Record.class);
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		assertEquals(0, kryo.getDepth());
+	}
+
+	static public class Other {
+		public int value;
+
+		public Other () {
+		}
+
+		public Other (int value) {
+			this.value = value;
+		}
+
+		public boolean equals (Object obj) {
+			return obj instanceof Other && ((Other)obj).value == value;
+		}
+
+		public int hashCode () {
+			return value;
+		}
+	}
+
+	static public class Record {
+		public int id;
+		public String name;
+		public Object tag;
+
+		public Record () {
+		}
+
+		public Record (int id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Record)) return false;
+			Record other = (Record)obj;
+			return id == other.id && (name == null ? other.name == null : name.equals(other.name));
+		}
+
+		public int hashCode () {
+			return id;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.esotericsoftware.kryo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.io.BufferAllocator;
+import com.esotericsoftware.kryo.io.BufferPool;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.io.UnsafeMemoryOutput;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class BufferPoolTest extends TestCase {
+	public void testPoolReusesBuffers () {
+		BufferPool pool = new BufferPool(1024, 4096);
+		byte[] array = pool.allocate(100);
+		assertEquals(128, array.length);
+		pool.release(array);
+		assertEquals(128, pool.getPooledBytes());
+		assertSame(array, pool.allocate(65));
+		assertEquals(0, pool.getPooledBytes());
+
+		ByteBuffer buffer = pool.allocateDirect(1000);
+		assertTrue(buffer.isDirect());
+		assertEquals(1024, buffer.capacity());
+		buffer.position(10);
+		pool.releaseDirect(buffer);
+		ByteBuffer reused = pool.allocateDirect(513);
+		assertSame(buffer, reused);
+		assertEquals(0, reused.position());
+		assertEquals(1024, reused.limit());
+
+		// Buffers larger than the max pooled size or of other sizes are not pooled.
+		assertEquals(2000, pool.allocate(2000).length);
+		pool.release(new byte[2048]);
+		pool.release(new byte[100]);
+		assertEquals(0, pool.getPooledBytes());
+	}
+
+	public void testBudget () {
+		BufferPool pool = new BufferPool(1024, 2048);
+		for (int i = 0; i < 3; i++)
+			pool.release(new byte[1024]);
+		assertEquals(2048, pool.getPooledBytes());
+		pool.clear();
+		assertEquals(0, pool.getPooledBytes());
+	}
+
+	public void testOutput () {
+		RecordingAllocator allocator = new RecordingAllocator();
+		Output output = new Output(16, -1, allocator);
+		for (int i = 0; i < 1000; i++)
+			output.writeInt(i);
+		// The initial buffer and each smaller buffer replaced when growing are released.
+		assertEquals(allocator.allocated.size() - 1, allocator.released.size());
+		Input input = new Input(output.toBytes());
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i, input.readInt());
+
+		byte[] buffer = output.getBuffer();
+		output.clear();
+		assertSame(buffer, output.getBuffer());
+		output.close();
+		assertEquals(allocator.allocated.size(), allocator.released.size());
+		assertSame(buffer, allocator.released.get(allocator.released.size() - 1));
+		assertNull(output.getBuffer());
+
+		// A buffer that was not obtained from the allocator is not released.
+		allocator = new RecordingAllocator();
+		output = new Output(new byte[4], -1);
+		output.setAllocator(allocator);
+		output.writeLong(1);
+		assertEquals(1, allocator.allocated.size());
+		assertEquals(0, allocator.released.size());
+		output.setBuffer(new byte[4]);
+		assertEquals(1, allocator.released.size());
+	}
+
+	public void testOutputStream () {
+		BufferPool pool = new BufferPool();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		Output output = new Output(32, -1, pool);
+		output.setOutputStream(bytes);
+		for (int i = 0; i < 100; i++)
+			output.writeString("value" + i);
+		output.close();
+		// The buffer is flushed rather than grown, a 64 byte buffer is pooled on close.
+		assertEquals(64, pool.getPooledBytes());
+
+		Input input = new Input(new ByteArrayInputStream(bytes.toByteArray()), 64, pool);
+		for (int i = 0; i < 100; i++)
+			assertEquals("value" + i, input.readString());
+		assertEquals(0, pool.getPooledBytes());
+		input.close();
+		assertEquals(64, pool.getPooledBytes());
+		assertNull(input.getBuffer());
+	}
+
+	public void testByteBufferOutput () {
+		RecordingAllocator allocator = new RecordingAllocator();
+		ByteBufferOutput output = new ByteBufferOutput(16, -1, allocator);
+		for (int i = 0; i < 1000; i++)
+			output.writeLong(i);
+		assertEquals(allocator.allocatedDirect.size() - 1, allocator.releasedDirect.size());
+		Input input = new Input(output.toBytes());
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i, input.readLong());
+		output.close();
+		assertEquals(allocator.allocatedDirect.size(), allocator.releasedDirect.size());
+	}
+
+	public void testByteBufferOutputGrowth () {
+		ByteBufferOutput output = new ByteBufferOutput(4, -1);
+		for (int i = 0; i < 100; i++)
+			output.writeInt(i);
+		Input input = new Input(output.toBytes());
+		for (int i = 0; i < 100; i++)
+			assertEquals(i, input.readInt());
+	}
+
+	public void testUnsafeMemoryOutputGrowth () {
+		UnsafeMemoryOutput output = new UnsafeMemoryOutput(8, -1, new BufferPool());
+		for (int i = 0; i < 1000; i++) {
+			output.writeInt(i);
+			output.writeLong(i);
+		}
+		ByteBuffer buffer = output.getByteBuffer();
+		buffer.position(0);
+		buffer.limit(output.position());
+		buffer.order(ByteOrder.nativeOrder());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, buffer.getInt());
+			assertEquals(i, buffer.getLong());
+		}
+	}
+
+	static class RecordingAllocator implements BufferAllocator {
+		final ArrayList<byte[]> allocated = new ArrayList(), released = new ArrayList();
+		final ArrayList<ByteBuffer> allocatedDirect = new ArrayList(), releasedDirect = new ArrayList();
+
+		public byte[] allocate (int size) {
+			byte[] buffer = new byte[size];
+			allocated.add(buffer);
+			return buffer;
+		}
+
+		public void release (byte[] buffer) {
+			assertTrue(allocated.contains(buffer));
+			released.add(buffer);
+		}
+
+		public ByteBuffer allocateDirect (int size) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+			allocatedDirect.add(buffer);
+			return buffer;
+		}
+
+		public void releaseDirect (ByteBuffer buffer) {
+			assertTrue(allocatedDirect.contains(buffer));
+			releasedDirect.add(buffer);
+		}
+	}
+}
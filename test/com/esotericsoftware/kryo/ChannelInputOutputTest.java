@@ -0,0 +1,97 @@
+package com.esotericsoftware.kryo;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.io.ChannelInput;
+import com.esotericsoftware.kryo.io.ChannelOutput;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class ChannelInputOutputTest extends TestCase {
+	public void testPipe () throws Exception {
+		final Pipe pipe = Pipe.open();
+		final ArrayList list = new ArrayList();
+		for (int i = 0; i < 1000; i++)
+			list.add("value" + i);
+
+		Thread writer = new Thread() {
+			public void run () {
+				Kryo kryo = new Kryo();
+				ChannelOutput output = new ChannelOutput(pipe.sink(), 64);
+				kryo.writeObject(output, list);
+				output.writeString("end");
+				output.close();
+			}
+		};
+		writer.start();
+
+		Kryo kryo = new Kryo();
+		ChannelInput input = new ChannelInput(pipe.source(), 64);
+		assertEquals(list, kryo.readObject(input, ArrayList.class));
+		assertEquals("end", input.readString());
+		assertTrue(input.eof());
+		input.close();
+		writer.join();
+	}
+
+	public void testFileChannelPositions () throws Exception {
+		File file = File.createTempFile("kryo", ".bin");
+		file.deleteOnExit();
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+
+			// Write two regions of the same file at explicit positions.
+			ChannelOutput output = new ChannelOutput(channel, 10000, 32);
+			for (int i = 0; i < 500; i++)
+				output.writeInt(i, true);
+			output.flush();
+			assertEquals(10000 + output.total(), output.getChannelPosition());
+			output = new ChannelOutput(channel, 0, 32);
+			output.writeString("first");
+			output.writeLong(1234567890123L);
+			output.flush();
+			assertEquals(0, channel.position());
+
+			ChannelInput second = new ChannelInput(channel, 10000, 16);
+			ChannelInput first = new ChannelInput(channel, 0, 16);
+			assertEquals("first", first.readString());
+			for (int i = 0; i < 250; i++)
+				assertEquals(i, second.readInt(true));
+			assertEquals(1234567890123L, first.readLong());
+			for (int i = 250; i < 500; i++)
+				assertEquals(i, second.readInt(true));
+			assertTrue(second.eof());
+			assertEquals(0, channel.position());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	public void testChannelPosition () throws Exception {
+		File file = File.createTempFile("kryo", ".bin");
+		file.deleteOnExit();
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			ChannelOutput output = new ChannelOutput(channel, 16);
+			for (int i = 0; i < 100; i++)
+				output.writeString("value" + i);
+			output.flush();
+			assertEquals(output.total(), channel.position());
+
+			channel.position(0);
+			ChannelInput input = new ChannelInput(channel, 16);
+			for (int i = 0; i < 100; i++)
+				assertEquals("value" + i, input.readString());
+			assertTrue(input.eof());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+}
@@ -3,6 +3,8 @@ package com.esotericsoftware.kryo;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
@@ -10,8 +12,10 @@ import java.util.Date;
 import java.util.EnumSet;
 import java.util.TimeZone;
 
+import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.DefaultSerializers.ByteBufferSerializer;
 
 /** @author Nathan Sweet <misc@n4te.com> */
 public class DefaultSerializersTest extends KryoTestCase {
@@ -157,6 +161,56 @@ public class DefaultSerializersTest extends KryoTestCase {
 		roundTrip(10, 9, new Date(-1234567));
 	}
 
+	public void testByteBufferSerializer () {
+		kryo.register(ByteBuffer.allocate(0).getClass());
+		roundTrip(6, 6, ByteBuffer.wrap(new byte[] {1, 2, 3, 4}));
+		roundTrip(2, 2, ByteBuffer.allocate(0));
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5});
+		buffer.position(1);
+		buffer.limit(4);
+		roundTrip(5, 5, buffer.slice());
+	}
+
+	public void testByteBufferViews () {
+		ByteBufferSerializer serializer = new ByteBufferSerializer();
+		serializer.setReadViews(true);
+		kryo.register(ByteBuffer.class, serializer);
+		kryo.register(ByteBuffer.allocate(0).getClass(), serializer);
+		Output output = new Output(64);
+		kryo.writeObject(output, ByteBuffer.wrap(new byte[] {1, 2, 3}));
+		kryo.writeObject(output, ByteBuffer.wrap(new byte[] {4, 5}));
+		byte[] bytes = output.toBytes();
+
+		// Views of the input's byte array.
+		Input input = new Input(bytes);
+		ByteBuffer first = kryo.readObject(input, ByteBuffer.class);
+		ByteBuffer second = kryo.readObject(input, ByteBuffer.class);
+		assertEquals(ByteBuffer.wrap(new byte[] {1, 2, 3}), first);
+		assertEquals(ByteBuffer.wrap(new byte[] {4, 5}), second);
+		assertTrue(first.isReadOnly());
+		bytes[1] = 9;
+		assertEquals(9, first.get(0));
+
+		// Views of a direct buffer.
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes).flip();
+		input = new ByteBufferInput(direct);
+		first = kryo.readObject(input, ByteBuffer.class);
+		second = kryo.readObject(input, ByteBuffer.class);
+		assertTrue(first.isDirect());
+		assertEquals(ByteBuffer.wrap(new byte[] {9, 2, 3}), first);
+		assertEquals(ByteBuffer.wrap(new byte[] {4, 5}), second);
+		direct.put(1, (byte)1);
+		assertEquals(1, first.get(0));
+
+		// Bytes read from a stream are copied.
+		input = new Input(new ByteArrayInputStream(bytes), 4);
+		first = kryo.readObject(input, ByteBuffer.class);
+		bytes[1] = 1;
+		assertEquals(ByteBuffer.wrap(new byte[] {9, 2, 3}), first);
+		assertEquals(ByteBuffer.wrap(new byte[] {4, 5}), kryo.readObject(input, ByteBuffer.class));
+	}
+
 	public void testBigDecimalSerializer () {
 		kryo.register(BigDecimal.class);
 		roundTrip(5, 8, BigDecimal.valueOf(12345, 2));
@@ -229,6 +283,28 @@ public class DefaultSerializersTest extends KryoTestCase {
 		roundTrip(64, 73, calendar);
 	}
 	
+	public void testSerializedSize () {
+		kryo.register(ArrayList.class);
+		kryo.register(int[].class);
+		kryo.register(String[].class);
+		Object[] objects = {null, "abc", "\u1234", 5, -1L, new int[] {1, 1000}, new String[] {"a", null}, new ArrayList()};
+		for (int i = 0; i < 2; i++) {
+			kryo.setReferences(i == 1);
+			for (Object object : objects) {
+				Output output = new Output(1024);
+				kryo.writeClassAndObject(output, object);
+				assertEquals(output.position(), kryo.serializedSize(object));
+			}
+		}
+
+		kryo.setAutoReset(false);
+		try {
+			kryo.serializedSize("abc");
+			fail();
+		} catch (KryoException expected) {
+		}
+	}
+
 	public void testClassSerializer() {
 		kryo.register(Class.class);
 		kryo.register(ArrayList.class);
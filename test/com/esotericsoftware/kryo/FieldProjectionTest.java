@@ -0,0 +1,175 @@
+package com.esotericsoftware.kryo;
+
+import java.util.ArrayList;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.serializers.FieldProjection;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class FieldProjectionTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
+		kryo.register(Order.class);
+		kryo.register(Customer.class);
+		kryo.register(Address.class);
+		kryo.register(ArrayList.class);
+	}
+
+	public void testProjection () {
+		byte[] bytes = write(newOrder());
+		Order order = kryo.readObject(new Input(bytes), Order.class, new FieldProjection("customer.id", "total"));
+		assertEquals(42, order.customer.id);
+		assertNull(order.customer.name);
+		assertNull(order.customer.address);
+		assertEquals(99.5, order.total);
+		assertEquals(0, order.id);
+		assertNull(order.items);
+
+		order = kryo.readObject(new Input(bytes), Order.class, new FieldProjection("customer", "customer.id"));
+		assertEquals(newOrder().customer, order.customer);
+		assertNull(order.items);
+
+		// Paths don't continue through collections.
+		order = kryo.readObject(new Input(bytes), Order.class, new FieldProjection("items.name"));
+		assertEquals(newOrder().items, order.items);
+		assertEquals(0.0, order.total);
+
+		// The input is left after the object.
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, newOrder());
+		kryo.writeObject(output, "end");
+		Input input = new Input(output.toBytes());
+		kryo.readObject(input, Order.class, new FieldProjection("id"));
+		assertEquals("end", kryo.readObject(input, String.class));
+	}
+
+	public void testSkippedHeader () {
+		byte[] bytes = write(newOrder());
+		// The billing address is written first, with the header of Address. It is skipped, but its header is still read.
+		Order order = kryo.readObject(new Input(bytes), Order.class, new FieldProjection("customer.address.city"));
+		assertNull(order.billing);
+		assertEquals("city1", order.customer.address.city);
+		assertNull(order.customer.address.street);
+		assertNull(order.items);
+
+		order = kryo.readObject(new Input(bytes), Order.class, new FieldProjection("billing.city", "customer.address.street"));
+		assertEquals("city2", order.billing.city);
+		assertNull(order.billing.street);
+		assertEquals("street1", order.customer.address.street);
+		assertNull(order.customer.address.city);
+	}
+
+	public void testSkippedClassName () {
+		kryo.setRegistrationRequired(false);
+		Pair pair = new Pair();
+		pair.first = new Unregistered("a");
+		pair.second = new Unregistered("b");
+		byte[] bytes = write(pair);
+		// The class name is written with the first value, the second value refers to it by ID.
+		Pair read = kryo.readObject(new Input(bytes), Pair.class, new FieldProjection("second"));
+		assertNull(read.first);
+		assertEquals("b", ((Unregistered)read.second).value);
+	}
+
+	public void testReferencesNotSupported () {
+		kryo.setReferences(true);
+		kryo.register(Pair.class);
+		Pair pair = new Pair();
+		pair.first = new Address();
+		pair.second = pair.first;
+		// A reference to an object in a skipped field can't be resolved.
+		byte[] bytes = write(pair);
+		try {
+			kryo.readObject(new Input(bytes), Pair.class, new FieldProjection("second"));
+			fail();
+		} catch (KryoException expected) {
+		}
+	}
+
+	public void testPaths () {
+		FieldProjection projection = new FieldProjection("a.b.c", "a.d", "e");
+		assertFalse(projection.getField("a").isAll());
+		assertTrue(projection.getField("a").getField("b").getField("c").isAll());
+		assertTrue(projection.getField("e").isAll());
+		assertNull(projection.getField("b"));
+		projection.add("a");
+		assertTrue(projection.getField("a").isAll());
+		assertNull(projection.getField("a").getField("b"));
+		try {
+			new FieldProjection("a..b");
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	private byte[] write (Object object) {
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, object);
+		return output.toBytes();
+	}
+
+	private Order newOrder () {
+		Order order = new Order();
+		order.id = 7;
+		order.customer = new Customer();
+		order.customer.id = 42;
+		order.customer.name = "name";
+		order.customer.address = new Address();
+		order.customer.address.street = "street1";
+		order.customer.address.city = "city1";
+		order.billing = new Address();
+		order.billing.street = "street2";
+		order.billing.city = "city2";
+		order.items = new ArrayList();
+		for (int i = 0; i < 10; i++) {
+			Customer item = new Customer();
+			item.id = i;
+			item.name = "item" + i;
+			order.items.add(item);
+		}
+		order.total = 99.5;
+		return order;
+	}
+
+	static public class Order {
+		public int id;
+		public Customer customer;
+		public ArrayList items;
+		public double total;
+		public Address billing;
+	}
+
+	static public class Customer {
+		public int id;
+		public String name;
+		public Address address;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Customer)) return false;
+			Customer other = (Customer)obj;
+			return id == other.id && name.equals(other.name) && (address == null ? other.address == null : other.address != null);
+		}
+	}
+
+	static public final class Address {
+		public String street, city;
+	}
+
+	static public class Pair {
+		public Object first, second;
+	}
+
+	static public class Unregistered {
+		public String value;
+
+		public Unregistered () {
+		}
+
+		Unregistered (String value) {
+			this.value = value;
+		}
+	}
+}
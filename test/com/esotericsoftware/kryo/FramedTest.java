@@ -0,0 +1,172 @@
+package com.esotericsoftware.kryo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.io.FramedReader;
+import com.esotericsoftware.kryo.io.FramedWriter;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoFactory;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class FramedTest extends TestCase {
+	private final KryoPool pool = new KryoPool.Builder(new KryoFactory() {
+		public Kryo create () {
+			return new Kryo();
+		}
+	}).build();
+
+	public void testSequential () {
+		byte[] bytes = write(1000, 100, false);
+		FramedReader<String> reader = new FramedReader(pool, String.class, bytes);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(reader.hasNext());
+			assertEquals("record" + i, reader.next());
+		}
+		assertFalse(reader.hasNext());
+		assertEquals(0, reader.getRemaining());
+
+		reader = new FramedReader(pool, null, write(10, 100, true));
+		for (int i = 0; i < 10; i++)
+			assertEquals(i % 2 == 0 ? null : "record" + i, reader.next());
+		assertFalse(reader.hasNext());
+
+		assertFalse(new FramedReader(pool, String.class, write(0, 100, false)).hasNext());
+	}
+
+	public void testSplitsReadEachRecordOnce () throws Exception {
+		for (int syncInterval : new int[] {1, 7, 100, 100000}) {
+			byte[] bytes = write(5000, syncInterval, false);
+			ArrayList<FramedReader<String>> readers = new ArrayList();
+			readers.add(new FramedReader(pool, String.class, bytes));
+			for (int i = 0; i < 4; i++) {
+				for (int ii = 0, n = readers.size(); ii < n; ii++) {
+					FramedReader<String> split = readers.get(ii).trySplit();
+					if (split != null) readers.add(split);
+				}
+			}
+			// Read part of the first split before splitting it further.
+			FramedReader<String> first = readers.get(0);
+			ArrayList<String> values = new ArrayList();
+			if (first.hasNext()) values.add(first.next());
+			FramedReader<String> split = first.trySplit();
+			if (split != null) readers.add(split);
+			assertEquals(5000, readAll(readers, values));
+		}
+	}
+
+	public void testParallel () throws Exception {
+		final byte[] bytes = write(20000, 256, false);
+		ArrayList<FramedReader<String>> readers = new ArrayList();
+		readers.add(new FramedReader(pool, String.class, ByteBuffer.wrap(bytes)));
+		for (int i = 0; i < 3; i++) {
+			// Keep the readers in the order of their ranges.
+			ArrayList<FramedReader<String>> splits = new ArrayList();
+			for (FramedReader<String> reader : readers) {
+				splits.add(reader);
+				FramedReader<String> split = reader.trySplit();
+				if (split != null) splits.add(split);
+			}
+			readers = splits;
+		}
+		assertEquals(8, readers.size());
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ArrayList<Future<List<String>>> futures = new ArrayList();
+			for (final FramedReader<String> reader : readers) {
+				futures.add(executor.submit(new Callable<List<String>>() {
+					public List<String> call () {
+						ArrayList<String> values = new ArrayList();
+						while (reader.hasNext())
+							values.add(reader.next());
+						return values;
+					}
+				}));
+			}
+			ArrayList<String> values = new ArrayList();
+			for (Future<List<String>> future : futures)
+				values.addAll(future.get());
+			assertEquals(20000, values.size());
+			for (int i = 0; i < 20000; i++)
+				assertEquals("record" + i, values.get(i));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	public void testFile () throws Exception {
+		// Larger than the buffer of a split, so records are read across refills.
+		byte[] bytes = write(30000, 1000, false);
+		File file = File.createTempFile("framed", ".bin");
+		try {
+			FileOutputStream outputStream = new FileOutputStream(file);
+			outputStream.write(bytes);
+			outputStream.close();
+			RandomAccessFile randomAccess = new RandomAccessFile(file, "r");
+			try {
+				FileChannel channel = randomAccess.getChannel();
+				FramedReader<String> reader = new FramedReader(pool, String.class, channel);
+				for (int i = 0; i < 30000; i++)
+					assertEquals("record" + i, reader.next());
+				assertFalse(reader.hasNext());
+				assertEquals(0, channel.position());
+
+				ArrayList<FramedReader<String>> readers = new ArrayList();
+				readers.add(new FramedReader(pool, String.class, channel));
+				for (int i = 0; i < 3; i++) {
+					for (int ii = 0, n = readers.size(); ii < n; ii++) {
+						FramedReader<String> split = readers.get(ii).trySplit();
+						if (split != null) readers.add(split);
+					}
+				}
+				assertEquals(8, readers.size());
+				assertEquals(30000, readAll(readers, new ArrayList()));
+			} finally {
+				randomAccess.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private int readAll (List<FramedReader<String>> readers, List<String> values) {
+		for (FramedReader<String> reader : readers)
+			while (reader.hasNext())
+				values.add(reader.next());
+		ArrayList<String> expected = new ArrayList();
+		for (int i = 0; i < values.size(); i++)
+			expected.add("record" + i);
+		Collections.sort(expected);
+		ArrayList<String> sorted = new ArrayList(values);
+		Collections.sort(sorted);
+		assertEquals(expected, sorted);
+		return values.size();
+	}
+
+	private byte[] write (int count, int syncInterval, boolean classAndObject) {
+		Output output = new Output(1024, -1);
+		FramedWriter writer = new FramedWriter(new Kryo(), output, syncInterval);
+		for (int i = 0; i < count; i++) {
+			if (classAndObject)
+				writer.writeClassAndObject(i % 2 == 0 ? null : "record" + i);
+			else
+				writer.writeObject("record" + i);
+		}
+		writer.flush();
+		return output.toBytes();
+	}
+}
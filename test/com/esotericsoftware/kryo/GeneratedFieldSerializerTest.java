@@ -0,0 +1,301 @@
+package com.esotericsoftware.kryo;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.serializers.GeneratedFieldSerializer;
+import com.esotericsoftware.kryo.util.SerializationStatistics;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class GeneratedFieldSerializerTest extends KryoTestCase {
+	{
+		supportsCopy = true;
+	}
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		kryo.setDefaultSerializer(GeneratedFieldSerializer.class);
+		kryo.register(Data.class);
+		kryo.register(Inner.class);
+		kryo.register(Hidden.class);
+		kryo.register(ArrayList.class);
+		kryo.register(int[].class);
+		kryo.register(Inner[].class);
+	}
+
+	public void testGenerated () {
+		roundTrip(58, 84, newData());
+		assertSameBytes(newData(), true);
+		assertSameBytes(new Data(), true);
+	}
+
+	public void testReferences () {
+		kryo.setReferences(true);
+		Data data = newData();
+		data.other = data.inner;
+		roundTrip(67, 93, data);
+		assertSameBytes(data, true);
+
+		Data read = kryo.readObject(new Input(write(kryo, data)), Data.class);
+		assertSame(read.inner, read.other);
+	}
+
+	public void testNonNullFields () {
+		GeneratedFieldSerializer serializer = (GeneratedFieldSerializer)kryo.getSerializer(Data.class);
+		serializer.getField("inner").setCanBeNull(false);
+		assertSameBytes(newData(), false);
+		try {
+			kryo.writeObject(new Output(1024, -1), new Data());
+			fail();
+		} catch (KryoException expected) {
+		}
+	}
+
+	public void testUnsafeFields () throws Exception {
+		// Private, package-private and final fields and the fields of non-public classes are accessed through Unsafe.
+		Hidden hidden = new Hidden(7);
+		hidden.value = 5;
+		hidden.text = "hidden";
+		roundTrip(9, 15, hidden);
+		assertSameBytes(hidden);
+		assertNotNull(generatedClass((GeneratedFieldSerializer)kryo.getSerializer(Hidden.class)));
+		kryo.register(Internal.class);
+		Internal internal = new Internal();
+		internal.value = 3;
+		roundTrip(2, 5, internal);
+		assertNotNull(generatedClass((GeneratedFieldSerializer)kryo.getSerializer(Internal.class)));
+	}
+
+	public void testGeneric () throws Exception {
+		kryo.register(Box.class);
+		kryo.register(Boxes.class);
+		Boxes boxes = new Boxes();
+		boxes.strings = new Box("a", 1);
+		boxes.inners = new Box(new Inner(2, "two"), 3);
+		boxes.raw = new Box(4L, 5);
+		roundTrip(16, 35, boxes);
+
+		Kryo fieldKryo = new Kryo();
+		fieldKryo.setReferences(false);
+		fieldKryo.register(Data.class);
+		fieldKryo.register(Inner.class);
+		fieldKryo.register(Hidden.class);
+		fieldKryo.register(ArrayList.class);
+		fieldKryo.register(int[].class);
+		fieldKryo.register(Inner[].class);
+		fieldKryo.register(Box.class);
+		fieldKryo.register(Boxes.class);
+		assertTrue(Arrays.equals(write(fieldKryo, boxes), write(kryo, boxes)));
+
+		// The fields of Box are resolved for each type argument and the writers are kept for each.
+		GeneratedFieldSerializer serializer = (GeneratedFieldSerializer)kryo.getSerializer(Box.class);
+		Object generated = generatedClass(serializer);
+		assertNotNull(generated);
+		write(kryo, boxes);
+		assertSame(generated, generatedClass(serializer));
+	}
+
+	public void testClassLoader () throws Exception {
+		write(kryo, newData());
+		write(kryo, new Inner(1, "one"));
+		Class data = (Class)generatedClass((GeneratedFieldSerializer)kryo.getSerializer(Data.class));
+		Class inner = (Class)generatedClass((GeneratedFieldSerializer)kryo.getSerializer(Inner.class));
+		assertSame(data.getClassLoader(), inner.getClassLoader());
+	}
+
+	public void testRemoveField () {
+		GeneratedFieldSerializer serializer = (GeneratedFieldSerializer)kryo.getSerializer(Data.class);
+		kryo.writeObject(new Output(1024, -1), newData());
+		serializer.removeField("text");
+		Data read = kryo.readObject(new Input(write(kryo, newData())), Data.class);
+		assertNull(read.text);
+		assertEquals(newData().inner, read.inner);
+	}
+
+	public void testListenerKeepsGeneratedClass () throws Exception {
+		GeneratedFieldSerializer serializer = (GeneratedFieldSerializer)kryo.getSerializer(Data.class);
+		write(kryo, newData());
+		Object withoutListener = generatedClass(serializer);
+		kryo.setSerializationListener(new SerializationStatistics());
+		write(kryo, newData());
+		Object withListener = generatedClass(serializer);
+		assertNotSame(withoutListener, withListener);
+
+		// Setting and removing the listener again reuses the classes.
+		kryo.setSerializationListener(null);
+		write(kryo, newData());
+		assertSame(withoutListener, generatedClass(serializer));
+		kryo.setSerializationListener(new SerializationStatistics());
+		write(kryo, newData());
+		assertSame(withListener, generatedClass(serializer));
+	}
+
+	/** Returns the class of the writer the serializer used last. */
+	private Object generatedClass (GeneratedFieldSerializer serializer) throws Exception {
+		Field field = GeneratedFieldSerializer.class.getDeclaredField("writers");
+		field.setAccessible(true);
+		Object[] writers = (Object[])field.get(serializer);
+		return writers[kryo.getSerializationListener() != null ? 1 : 0].getClass();
+	}
+
+	/** Checks the bytes written are the same as for FieldSerializer. */
+	private void assertSameBytes (Data data, boolean innerCanBeNull) {
+		Kryo fieldKryo = new Kryo();
+		fieldKryo.setReferences(kryo.getReferences());
+		fieldKryo.setRegistrationRequired(true);
+		fieldKryo.register(Data.class);
+		fieldKryo.register(Inner.class);
+		fieldKryo.register(Hidden.class);
+		fieldKryo.register(ArrayList.class);
+		fieldKryo.register(int[].class);
+		fieldKryo.register(Inner[].class);
+		FieldSerializer serializer = (FieldSerializer)fieldKryo.getSerializer(Data.class);
+		serializer.getField("inner").setCanBeNull(innerCanBeNull);
+		assertTrue(Arrays.equals(write(fieldKryo, data), write(kryo, data)));
+	}
+
+	private void assertSameBytes (Hidden hidden) {
+		Kryo fieldKryo = new Kryo();
+		fieldKryo.setReferences(false);
+		fieldKryo.register(Hidden.class);
+		assertTrue(Arrays.equals(write(fieldKryo, hidden), write(kryo, hidden)));
+	}
+
+	private byte[] write (Kryo kryo, Object object) {
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, object);
+		return output.toBytes();
+	}
+
+	private Data newData () {
+		Data data = new Data();
+		data.i = -5;
+		data.l = 1L << 40;
+		data.f = 1.5f;
+		data.d = 2.5;
+		data.s = 300;
+		data.c = 'é';
+		data.b = -7;
+		data.z = true;
+		data.text = "text";
+		data.inner = new Inner(9, "nine");
+		data.list = new ArrayList(Arrays.asList("x", 1));
+		data.ints = new int[] {1, 2, 3};
+		data.inners = new Inner[] {new Inner(1, "one"), null};
+		data.object = new Inner(11, null);
+		return data;
+	}
+
+	static public class Data {
+		public int i;
+		public long l;
+		public float f;
+		public double d;
+		public short s;
+		public char c;
+		public byte b;
+		public boolean z;
+		public String text;
+		public Inner inner;
+		public Inner other;
+		public ArrayList list;
+		public int[] ints;
+		public Inner[] inners;
+		public Object object;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Data)) return false;
+			Data other = (Data)obj;
+			return i == other.i && l == other.l && f == other.f && d == other.d && s == other.s && c == other.c && b == other.b
+				&& z == other.z && equals(text, other.text) && equals(inner, other.inner) && equals(this.other, other.other)
+				&& equals(list, other.list) && Arrays.equals(ints, other.ints) && Arrays.equals(inners, other.inners)
+				&& equals(object, other.object);
+		}
+
+		static private boolean equals (Object a, Object b) {
+			return a == null ? b == null : a.equals(b);
+		}
+	}
+
+	static public final class Inner {
+		public int value;
+		public String name;
+
+		public Inner () {
+		}
+
+		public Inner (int value, String name) {
+			this.value = value;
+			this.name = name;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Inner)) return false;
+			Inner other = (Inner)obj;
+			return value == other.value && (name == null ? other.name == null : name.equals(other.name));
+		}
+	}
+
+	static public class Hidden {
+		private int value;
+		String text;
+		private final int id;
+
+		public Hidden () {
+			id = 0;
+		}
+
+		public Hidden (int id) {
+			this.id = id;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Hidden)) return false;
+			Hidden other = (Hidden)obj;
+			return value == other.value && text.equals(other.text) && id == other.id;
+		}
+	}
+
+	static public class Box<T> {
+		public T value;
+		private int count;
+
+		public Box () {
+		}
+
+		public Box (T value, int count) {
+			this.value = value;
+			this.count = count;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Box)) return false;
+			Box other = (Box)obj;
+			return value.equals(other.value) && count == other.count;
+		}
+	}
+
+	static public class Boxes {
+		public Box<String> strings;
+		public Box<Inner> inners;
+		public Box raw;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Boxes)) return false;
+			Boxes other = (Boxes)obj;
+			return strings.equals(other.strings) && inners.equals(other.inners) && raw.equals(other.raw);
+		}
+	}
+
+	static class Internal {
+		public int value;
+
+		public boolean equals (Object obj) {
+			return obj instanceof Internal && ((Internal)obj).value == value;
+		}
+	}
+}
@@ -111,6 +111,7 @@ public class InputOutputTest extends KryoTestCase {
 
 		String value = buffer.toString();
 		write.writeString(value);
+		assertEquals(write.position(), Output.stringLength(value));
 		write.writeString(value);
 		Input read = new Input(write.toBytes());
 		assertEquals(value, read.readString());
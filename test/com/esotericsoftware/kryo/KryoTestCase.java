@@ -146,7 +146,9 @@ abstract public class KryoTestCase extends TestCase {
 				return new FastInput(buffer);
 			}
 		});
-		
+
+		if (kryo.getAutoReset()) assertEquals("Incorrect serialized size.", length, kryo.serializedSize(object1));
+
 		return roundTripWithStreamFactory(length, object1, new StreamFactory() {
 			public Output createOutput(OutputStream os) {
 				return new Output(os);
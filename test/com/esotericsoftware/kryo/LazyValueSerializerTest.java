@@ -0,0 +1,109 @@
+package com.esotericsoftware.kryo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.LazyValue;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class LazyValueSerializerTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kryo.register(Envelope.class);
+		kryo.register(LazyValue.class);
+		kryo.register(ArrayList.class);
+	}
+
+	public void testLazyRead () {
+		ArrayList body = new ArrayList();
+		for (int i = 0; i < 100; i++)
+			body.add("value" + i);
+		Envelope envelope = new Envelope("header", body);
+
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, envelope);
+		Envelope read = kryo.readObject(new Input(output.toBytes()), Envelope.class);
+		assertEquals("header", read.header);
+		assertFalse(read.body.isDecoded());
+		assertEquals(body, read.body.get());
+		assertTrue(read.body.isDecoded());
+
+		Envelope copy = kryo.copy(read);
+		assertNotSame(read.body, copy.body);
+		assertEquals(body, copy.body.get());
+		assertEquals(null, kryo.copy(new LazyValue()).get());
+	}
+
+	public void testForwardWithoutDecoding () {
+		Envelope envelope = new Envelope("header", new ArrayList(Arrays.asList(1, 2, 3)));
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, envelope);
+		byte[] bytes = output.toBytes();
+
+		Envelope read = kryo.readObject(new Input(bytes), Envelope.class);
+		byte[] captured = read.body.getBytes();
+		// The body is forwarded as is, even when it has been decoded.
+		read.body.get();
+		output = new Output(1024, -1);
+		kryo.writeObject(output, read);
+		assertTrue(Arrays.equals(bytes, output.toBytes()));
+
+		Envelope forwarded = kryo.readObject(new Input(output.toBytes()), Envelope.class);
+		assertTrue(Arrays.equals(captured, forwarded.body.getBytes()));
+		assertEquals(envelope.body.get(), forwarded.body.get());
+
+		// A value that is set is serialized again.
+		read.body.set(new ArrayList(Arrays.asList(4)));
+		assertNull(read.body.getBytes());
+		output = new Output(1024, -1);
+		kryo.writeObject(output, read);
+		assertEquals(Arrays.asList(4), kryo.readObject(new Input(output.toBytes()), Envelope.class).body.get());
+	}
+
+	public void testSeparateReferences () {
+		kryo.setReferences(true);
+		String shared = "shared";
+		ArrayList body = new ArrayList();
+		body.add(shared);
+		body.add(shared);
+		body.add(body);
+		Envelope envelope = new Envelope(shared, body);
+
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, envelope);
+		Envelope read = kryo.readObject(new Input(output.toBytes()), Envelope.class);
+		assertEquals(shared, read.header);
+		ArrayList readBody = (ArrayList)read.body.get();
+		assertEquals(3, readBody.size());
+		assertEquals(shared, readBody.get(0));
+		assertSame(readBody.get(0), readBody.get(1));
+		assertSame(readBody, readBody.get(2));
+	}
+
+	public void testUnregisteredClassInValue () {
+		kryo.setRegistrationRequired(false);
+		Envelope envelope = new Envelope("header", new Object());
+		try {
+			kryo.writeObject(new Output(1024, -1), envelope);
+			fail();
+		} catch (KryoException expected) {
+			assertTrue(expected.getCause() instanceof IllegalArgumentException);
+		}
+		assertFalse(kryo.isRegistrationRequired());
+	}
+
+	static public class Envelope {
+		public String header;
+		public LazyValue body;
+
+		public Envelope () {
+		}
+
+		public Envelope (String header, Object body) {
+			this.header = header;
+			this.body = new LazyValue(body);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.esotericsoftware.kryo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.io.MappedFileInput;
+import com.esotericsoftware.kryo.io.MappedFileOutput;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class MappedFileInputOutputTest extends TestCase {
+	private File file;
+
+	protected void setUp () throws Exception {
+		file = File.createTempFile("kryo", ".bin");
+		file.deleteOnExit();
+	}
+
+	protected void tearDown () throws Exception {
+		file.delete();
+	}
+
+	public void testObjectsSpanSegments () throws Exception {
+		ArrayList list = new ArrayList();
+		HashMap map = new HashMap();
+		for (int i = 0; i < 1000; i++) {
+			list.add("value" + i + "ሴ");
+			map.put(i, (long)i * Integer.MAX_VALUE);
+		}
+
+		Kryo kryo = new Kryo();
+		MappedFileOutput output = new MappedFileOutput(file, 37);
+		kryo.writeClassAndObject(output, list);
+		kryo.writeClassAndObject(output, map);
+		output.writeVarInt(300, true);
+		output.writeLong(-1234567890123L);
+		output.writeString("end");
+		long total = output.total();
+		assertEquals(total, output.getFilePosition());
+		output.close();
+		assertEquals(total, file.length());
+
+		MappedFileInput input = new MappedFileInput(file, 41);
+		assertEquals(list, kryo.readClassAndObject(input));
+		assertEquals(map, kryo.readClassAndObject(input));
+		assertEquals(300, input.readVarInt(true));
+		assertEquals(-1234567890123L, input.readLong());
+		assertEquals("end", input.readString());
+		assertTrue(input.eof());
+		assertEquals(total, input.total());
+
+		input.rewind();
+		assertEquals(list, kryo.readClassAndObject(input));
+		input.close();
+	}
+
+	public void testSegmentsReleased () throws Exception {
+		File maps = new File("/proc/self/maps");
+		if (!maps.exists()) return; // Mappings can only be counted on Linux.
+		MappedFileOutput output = new MappedFileOutput(file, 4096);
+		for (int i = 0; i < 10000; i++)
+			output.writeLong(i);
+		assertEquals(1, countMappings(maps));
+		output.close();
+		assertEquals(0, countMappings(maps));
+
+		MappedFileInput input = new MappedFileInput(file, 4096);
+		for (int i = 0; i < 10000; i++)
+			assertEquals(i, input.readLong());
+		assertEquals(1, countMappings(maps));
+		input.close();
+		assertEquals(0, countMappings(maps));
+	}
+
+	private int countMappings (File maps) throws IOException {
+		String path = file.getCanonicalPath();
+		BufferedReader reader = new BufferedReader(new FileReader(maps));
+		try {
+			int count = 0;
+			String line;
+			while ((line = reader.readLine()) != null)
+				if (line.endsWith(path)) count++;
+			return count;
+		} finally {
+			reader.close();
+		}
+	}
+
+	public void testSkipAndPosition () throws Exception {
+		MappedFileOutput output = new MappedFileOutput(file, 16);
+		for (int i = 0; i < 1000; i++)
+			output.writeInt(i);
+		output.close();
+
+		MappedFileInput input = new MappedFileInput(file, 16);
+		input.skip(4 * 500);
+		assertEquals(500, input.readInt());
+		input.setFilePosition(4 * 10);
+		assertEquals(10, input.readInt());
+		input.skip(4 * 988);
+		assertEquals(999, input.readInt());
+		assertTrue(input.eof());
+		try {
+			input.readByte();
+			fail();
+		} catch (KryoException expected) {
+		}
+		input.close();
+	}
+
+	public void testByteBufferAfterRemap () throws Exception {
+		MappedFileOutput output = new MappedFileOutput(file, 4096);
+		for (int i = 0; i < 20000; i++)
+			output.writeByte(i);
+		output.close();
+
+		MappedFileInput input = new MappedFileInput(file, 4096);
+		ByteBuffer buffer = input.readByteBuffer(100);
+		input.skip(8000);
+		input.readByte(); // Maps another segment, releasing the first.
+		assertEquals(1, buffer.get(1));
+		assertEquals(99, buffer.get(99));
+		input.close();
+		assertEquals(2, buffer.get(2));
+	}
+
+	public void testBeyond2GB () throws Exception {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			// Start just below 2GB so the written bytes cross it.
+			long start = Integer.MAX_VALUE - 100L;
+			MappedFileOutput output = new MappedFileOutput(channel, start, 64);
+			for (int i = 0; i < 100; i++)
+				output.writeString("value" + i);
+			long total = output.total();
+			output.close();
+			assertEquals(start + total, channel.size());
+
+			MappedFileInput input = new MappedFileInput(channel, start, total, 64);
+			for (int i = 0; i < 100; i++)
+				assertEquals("value" + i, input.readString());
+			assertTrue(input.eof());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+}
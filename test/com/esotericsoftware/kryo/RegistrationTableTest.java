@@ -0,0 +1,192 @@
+package com.esotericsoftware.kryo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.esotericsoftware.kryo.factories.SerializerFactory;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.CollectionSerializer;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.serializers.DefaultArraySerializers.IntArraySerializer;
+import com.esotericsoftware.kryo.serializers.DefaultSerializers.StringSerializer;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.util.DefaultClassResolver;
+import com.esotericsoftware.kryo.util.MapReferenceResolver;
+import com.esotericsoftware.kryo.util.RegistrationTable;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class RegistrationTableTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kryo.register(TestClass.class, 100);
+		kryo.register(int[].class, 101);
+		kryo.register(ArrayList.class, 102);
+	}
+
+	/** Creates the serializers the same way the source Kryo did, by default. */
+	static private final SerializerFactory defaultSerializers = new SerializerFactory() {
+		public Serializer makeSerializer (Kryo kryo, Class<?> type) {
+			return kryo.getDefaultSerializer(type);
+		}
+	};
+
+	private Kryo newKryo (RegistrationTable table) {
+		Kryo kryo = new Kryo(new DefaultClassResolver(table), new MapReferenceResolver());
+		kryo.setReferences(false);
+		kryo.setRegistrationRequired(true);
+		return kryo;
+	}
+
+	public void testShareable () {
+		assertTrue(RegistrationTable.isShareable(new StringSerializer()));
+		assertTrue(RegistrationTable.isShareable(new IntArraySerializer()));
+		assertFalse(RegistrationTable.isShareable(new CollectionSerializer()));
+		FieldSerializer serializer = new FieldSerializer(kryo, TestClass.class);
+		assertFalse(RegistrationTable.isShareable(serializer));
+		assertTrue(RegistrationTable.isShareable(serializer.newShareable()));
+		assertNull(new CompatibleFieldSerializer(kryo, TestClass.class).newShareable());
+	}
+
+	public void testNotShareable () {
+		try {
+			new RegistrationTable(kryo);
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	public void testAttachedKryo () {
+		RegistrationTable table = new RegistrationTable(kryo, defaultSerializers);
+		assertTrue(table.contains(TestClass.class));
+		Kryo kryo1 = newKryo(table);
+		Kryo kryo2 = newKryo(table);
+
+		Registration registration1 = kryo1.getRegistration(TestClass.class);
+		Registration registration2 = kryo2.getRegistration(TestClass.class);
+		assertEquals(100, registration1.getId());
+		assertNotSame(registration1, registration2);
+		// The fields of the class are analyzed once, the shared FieldSerializer is not bound to a Kryo.
+		assertSame(registration1.getSerializer(), registration2.getSerializer());
+		assertNotSame(kryo.getSerializer(TestClass.class), registration1.getSerializer());
+		assertNull(((FieldSerializer)registration1.getSerializer()).getKryo());
+		// Stateless serializers are shared.
+		assertSame(kryo.getSerializer(int[].class), kryo1.getSerializer(int[].class));
+		assertSame(kryo1.getSerializer(int[].class), kryo2.getSerializer(int[].class));
+
+		TestClass test = new TestClass();
+		test.text = "abc";
+		test.values = new int[] {1, 2, 3};
+		test.list = new ArrayList();
+		test.list.add("x");
+		Output output = new Output(512);
+		kryo1.writeClassAndObject(output, test);
+		// Reading by ID resolves the registration from the table.
+		assertEquals(test, kryo2.readClassAndObject(new Input(output.toBytes())));
+		assertEquals(test, kryo.readClassAndObject(new Input(output.toBytes())));
+		assertEquals(test, kryo2.copy(test));
+	}
+
+	public void testSharedFieldSerializer () {
+		kryo.register(Outer.class, 103);
+		kryo.register(Inner.class, 104);
+		Outer outer = new Outer();
+		outer.inner = new Inner();
+		outer.inner.value = 5;
+		// Caches the serializer for the final field type in the source Kryo's FieldSerializer.
+		kryo.writeObject(new Output(512), outer);
+		assertNotNull(((FieldSerializer)kryo.getSerializer(Outer.class)).getField("inner").getSerializer());
+
+		RegistrationTable table = new RegistrationTable(kryo, defaultSerializers);
+		Kryo kryo1 = newKryo(table);
+		Kryo kryo2 = newKryo(table);
+		FieldSerializer serializer = (FieldSerializer)kryo1.getSerializer(Outer.class);
+		assertSame(serializer, kryo2.getSerializer(Outer.class));
+		// The serializer of the source Kryo isn't shared, each Kryo looks up its own.
+		assertNull(serializer.getField("inner").getSerializer());
+
+		Output output = new Output(512);
+		kryo1.writeObject(output, outer);
+		assertEquals(outer, kryo2.readObject(new Input(output.toBytes()), Outer.class));
+		assertEquals(outer, kryo1.copy(outer));
+		assertNull(serializer.getField("inner").getSerializer());
+		try {
+			serializer.removeField("inner");
+			fail();
+		} catch (UnsupportedOperationException expected) {
+		}
+	}
+
+	public void testFieldSerializerNotShareable () {
+		FieldSerializer serializer = new FieldSerializer(kryo, TestClass.class);
+		serializer.getField("list").setClass(ArrayList.class, new CollectionSerializer());
+		assertNull(serializer.newShareable());
+		kryo.register(TestClass.class, serializer, 100);
+		RegistrationTable table = new RegistrationTable(kryo, defaultSerializers);
+		assertNotSame(newKryo(table).getSerializer(TestClass.class), newKryo(table).getSerializer(TestClass.class));
+	}
+
+	public void testConfiguredSerializer () {
+		CollectionSerializer serializer = new CollectionSerializer();
+		serializer.setElementClass(String.class, new StringSerializer());
+		serializer.setElementsCanBeNull(false);
+		kryo.register(ArrayList.class, serializer, 102);
+		RegistrationTable table = new RegistrationTable(kryo, new SerializerFactory() {
+			public Serializer makeSerializer (Kryo kryo, Class<?> type) {
+				if (type != ArrayList.class) return kryo.getDefaultSerializer(type);
+				CollectionSerializer serializer = new CollectionSerializer();
+				serializer.setElementClass(String.class, new StringSerializer());
+				serializer.setElementsCanBeNull(false);
+				return serializer;
+			}
+		});
+		Kryo attached = newKryo(table);
+
+		ArrayList list = new ArrayList();
+		list.add("a");
+		list.add("b");
+		Output output = new Output(512);
+		kryo.writeObject(output, list);
+		byte[] bytes = output.toBytes();
+		output.clear();
+		attached.writeObject(output, list);
+		assertTrue(java.util.Arrays.equals(bytes, output.toBytes()));
+		assertEquals(list, attached.readObject(new Input(bytes), ArrayList.class));
+		assertEquals(list, kryo.readObject(new Input(output.toBytes()), ArrayList.class));
+	}
+
+	public void testLocalRegistrationsTakePrecedence () {
+		RegistrationTable table = new RegistrationTable(kryo, defaultSerializers);
+		Kryo kryo1 = newKryo(table);
+		kryo1.register(HashMap.class, 100);
+		assertEquals(HashMap.class, kryo1.getRegistration(100).getType());
+		// Other instances are not affected.
+		Kryo kryo2 = newKryo(table);
+		assertEquals(TestClass.class, kryo2.getRegistration(100).getType());
+		assertNull(kryo2.getClassResolver().getRegistration(HashMap.class));
+	}
+
+	static public class TestClass {
+		public String text;
+		public int[] values;
+		public ArrayList list;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof TestClass)) return false;
+			TestClass other = (TestClass)obj;
+			return text.equals(other.text) && java.util.Arrays.equals(values, other.values) && list.equals(other.list);
+		}
+	}
+
+	static public class Outer {
+		public Inner inner;
+
+		public boolean equals (Object obj) {
+			return obj instanceof Outer && ((Outer)obj).inner.value == inner.value;
+		}
+	}
+
+	static public final class Inner {
+		public int value;
+	}
+}
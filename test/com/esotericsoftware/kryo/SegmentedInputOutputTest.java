@@ -0,0 +1,189 @@
+package com.esotericsoftware.kryo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.io.BufferPool;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.io.SegmentedInput;
+import com.esotericsoftware.kryo.io.SegmentedOutput;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class SegmentedInputOutputTest extends TestCase {
+	public void testSameBytesAsOutput () {
+		SegmentedOutput segmented = new SegmentedOutput(16);
+		Output output = new Output(16, -1);
+		write(segmented);
+		write(output);
+		assertTrue(segmented.getSegmentCount() > 10);
+		assertEquals(output.total(), segmented.total());
+		assertTrue(Arrays.equals(output.toBytes(), segmented.toBytes()));
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		segmented.writeTo(stream);
+		assertTrue(Arrays.equals(output.toBytes(), stream.toByteArray()));
+
+		read(new SegmentedInput(segmented, 16));
+		read(new SegmentedInput(segmented));
+		read(new Input(segmented.toBytes()));
+	}
+
+	public void testObjectGraph () {
+		Kryo kryo = new Kryo();
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 10000; i++)
+			list.add(i % 2 == 0 ? (Object)("value" + i) : (Object)new int[] {i, i + 1});
+
+		SegmentedOutput output = new SegmentedOutput(1024);
+		kryo.writeClassAndObject(output, list);
+		kryo.writeClassAndObject(output, "end");
+		SegmentedInput input = new SegmentedInput(output, 100);
+		ArrayList read = (ArrayList)kryo.readClassAndObject(input);
+		assertEquals(list.size(), read.size());
+		for (int i = 0; i < 10000; i += 2)
+			assertEquals(list.get(i), read.get(i));
+		assertEquals("end", kryo.readClassAndObject(input));
+		assertTrue(input.eof());
+		assertEquals(output.total(), input.total());
+	}
+
+	public void testSkipAndClear () {
+		SegmentedOutput output = new SegmentedOutput(16);
+		for (int i = 0; i < 1000; i++)
+			output.writeInt(i);
+		SegmentedInput input = new SegmentedInput(output, 32);
+		assertEquals(0, input.readInt());
+		input.skip(4 * 500L);
+		assertEquals(501, input.readInt());
+		assertEquals(4 * 502, input.total());
+		assertEquals(4 * 498, input.available());
+		input.rewind();
+		assertEquals(0, input.readInt());
+
+		byte[] first = output.getSegment(0);
+		output.clear();
+		assertEquals(0, output.total());
+		assertEquals(1, output.getSegmentCount());
+		assertSame(first, output.getSegment(0));
+		output.writeString("abc");
+		assertEquals("abc", new SegmentedInput(output).readString());
+	}
+
+	public void testGatheringWrite () throws Exception {
+		SegmentedOutput output = new SegmentedOutput(64);
+		write(output);
+		byte[] bytes = output.toBytes();
+
+		ByteBuffer[] buffers = output.getByteBuffers();
+		assertEquals(output.getSegmentCount(), buffers.length);
+		int offset = 0;
+		for (int i = 0; i < buffers.length; i++) {
+			assertSame(output.getSegment(i), buffers[i].array());
+			for (int ii = 0, n = buffers[i].remaining(); ii < n; ii++)
+				assertEquals(bytes[offset++], buffers[i].get(ii));
+		}
+		assertEquals(bytes.length, offset);
+
+		File file = File.createTempFile("kryo", ".bin");
+		file.deleteOnExit();
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		FileChannel channel = randomAccessFile.getChannel();
+		try {
+			assertEquals(bytes.length, output.writeTo(channel));
+			assertEquals(bytes.length, channel.size());
+			ByteBuffer read = ByteBuffer.allocate(bytes.length);
+			channel.read(read, 0);
+			assertTrue(Arrays.equals(bytes, read.array()));
+		} finally {
+			randomAccessFile.close();
+			file.delete();
+		}
+	}
+
+	public void testPooledSegments () {
+		BufferPool pool = new BufferPool(1024, 1024 * 1024);
+		SegmentedOutput output = new SegmentedOutput(1024, pool);
+		write(output);
+		int segmentCount = output.getSegmentCount();
+		assertTrue(segmentCount > 3);
+		read(new SegmentedInput(output));
+
+		// All segments but the first are released on clear and reused.
+		output.clear();
+		assertEquals((segmentCount - 1) * 1024, pool.getPooledBytes());
+		write(output);
+		assertEquals(0, pool.getPooledBytes());
+		read(new SegmentedInput(output));
+
+		output.close();
+		assertEquals(segmentCount * 1024, pool.getPooledBytes());
+	}
+
+	public void testSetAllocator () {
+		BufferPool pool = new BufferPool(1024, 1024 * 1024);
+		SegmentedOutput output = new SegmentedOutput(1024);
+		output.writeBytes(new byte[1500]);
+		assertEquals(2, output.getSegmentCount());
+		// Only segments obtained from the allocator are released to it.
+		output.setAllocator(pool);
+		output.writeBytes(new byte[2000]);
+		assertEquals(4, output.getSegmentCount());
+		output.clear();
+		assertEquals(2 * 1024, pool.getPooledBytes());
+		output.writeBytes(new byte[1500]);
+		output.setAllocator(null);
+		output.writeBytes(new byte[1000]);
+		assertEquals(3, output.getSegmentCount());
+		assertEquals(1024, pool.getPooledBytes());
+		output.close();
+		assertEquals(2 * 1024, pool.getPooledBytes());
+	}
+
+	public void testLargerPooledSegments () {
+		// The pool returns 64 byte arrays, values as large as a segment from the pool are written.
+		SegmentedOutput output = new SegmentedOutput(20, new BufferPool(1024, 1024 * 1024));
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < 200; i++)
+			buffer.append((char)('a' + i % 26));
+		String value = buffer.toString();
+		output.writeString(value);
+		output.writeAscii(value);
+		assertEquals(64, output.getSegment(0).length);
+		SegmentedInput input = new SegmentedInput(output);
+		assertEquals(value, input.readString());
+		assertEquals(value, input.readString());
+	}
+
+	private void write (Output output) {
+		for (int i = 0; i < 100; i++) {
+			output.writeInt(i);
+			output.writeVarInt(i * 1000, true);
+			output.writeLong(i * 1234567890123L);
+			output.writeString("string" + i);
+			output.writeString("unicode ሴ" + i);
+			output.writeBytes(new byte[i % 40]);
+			output.writeDouble(i / 3d);
+		}
+	}
+
+	private void read (Input input) {
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, input.readInt());
+			assertEquals(i * 1000, input.readVarInt(true));
+			assertEquals(i * 1234567890123L, input.readLong());
+			assertEquals("string" + i, input.readString());
+			assertEquals("unicode ሴ" + i, input.readString());
+			assertEquals(i % 40, input.readBytes(i % 40).length);
+			assertEquals(i / 3d, input.readDouble());
+		}
+		assertTrue(input.eof());
+	}
+}
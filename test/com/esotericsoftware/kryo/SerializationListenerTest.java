@@ -0,0 +1,267 @@
+package com.esotericsoftware.kryo;
+
+import java.util.ArrayList;
+
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.io.OutputListener;
+import com.esotericsoftware.kryo.serializers.GeneratedFieldSerializer;
+import com.esotericsoftware.kryo.util.SerializationStatistics;
+import com.esotericsoftware.kryo.util.SerializationStatistics.Statistics;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class SerializationListenerTest extends KryoTestCase {
+	public void testEvents () {
+		kryo.register(Outer.class);
+		kryo.register(Inner.class);
+		Recorder recorder = new Recorder();
+		kryo.setSerializationListener(recorder);
+
+		Outer outer = new Outer();
+		outer.inner = new Inner();
+		outer.inner.value = 12;
+		outer.name = "abc";
+		Output output = new Output(512);
+		kryo.writeObject(output, outer);
+		// Strings are written by FieldSerializer directly, not through Kryo.
+		assertEquals("[write start Outer 1, write start Inner 2, write end Inner 2 1, write end Outer 1 5]",
+			recorder.events.toString());
+
+		recorder.events.clear();
+		Input input = new Input(output.toBytes());
+		Outer outer2 = kryo.readObject(input, Outer.class);
+		assertEquals(12, outer2.inner.value);
+		assertEquals("[read start Outer 1, read start Inner 2, read end Inner 2 1, read end Outer 1 5]",
+			recorder.events.toString());
+
+		// Nulls aren't notified.
+		recorder.events.clear();
+		output.clear();
+		kryo.writeObjectOrNull(output, null, Outer.class);
+		assertEquals(0, recorder.events.size());
+
+		kryo.setSerializationListener(null);
+		output.clear();
+		kryo.writeObject(output, outer);
+		assertEquals(0, recorder.events.size());
+	}
+
+	public void testGlobalListener () {
+		kryo.register(Outer.class);
+		kryo.register(Inner.class);
+		final Recorder global = new Recorder();
+		Recorder recorder = new Recorder() {
+			public void onWriteStart (Kryo kryo, Class type, Registration registration, int depth) {
+				super.onWriteStart(kryo, type, registration, depth);
+				// Set in the middle of a graph, eg by another thread.
+				if (depth == 2) Kryo.setGlobalSerializationListener(global);
+			}
+		};
+		kryo.setSerializationListener(recorder);
+		Outer outer = new Outer();
+		outer.inner = new Inner();
+		Output output = new Output(512);
+		try {
+			kryo.writeObject(output, outer);
+			// The global listener is seen starting with the next graph.
+			assertEquals(0, global.events.size());
+			assertSame(recorder, kryo.getSerializationListener());
+			recorder.events.clear();
+			kryo.writeObject(output, outer);
+			assertEquals("[write start Outer 1, write start Inner 2, write end Inner 2 1, write end Outer 1 3]",
+				global.events.toString());
+			assertEquals(global.events, recorder.events);
+
+			// Restored only if unchanged.
+			assertFalse(Kryo.compareAndSetGlobalSerializationListener(recorder, null));
+			assertTrue(Kryo.compareAndSetGlobalSerializationListener(global, null));
+			global.events.clear();
+			kryo.writeObject(output, outer);
+			assertEquals(0, global.events.size());
+		} finally {
+			Kryo.setGlobalSerializationListener(null);
+		}
+	}
+
+	public void testClassNameAndCachedFields () {
+		kryo.setRegistrationRequired(false);
+		Recorder recorder = new Recorder();
+		kryo.setSerializationListener(recorder);
+		Output output = new Output(512);
+		kryo.writeClassAndObject(output, new Unregistered());
+		assertEquals("[rebuild Unregistered 1, class name Unregistered, write start Unregistered 1, write end Unregistered 1 1]",
+			recorder.events.toString());
+
+		// The name is written for each object graph.
+		recorder.events.clear();
+		kryo.writeClassAndObject(output, new Unregistered());
+		assertEquals("[class name Unregistered, write start Unregistered 1, write end Unregistered 1 1]",
+			recorder.events.toString());
+	}
+
+	public void testOutputListener () {
+		final ArrayList<String> events = new ArrayList();
+		Output.setOutputListener(new OutputListener() {
+			public void onBufferGrowth (Output output, int oldCapacity, int newCapacity, long nanos) {
+				events.add(oldCapacity + " " + newCapacity);
+			}
+		});
+		try {
+			Output output = new Output(2, -1);
+			output.writeInt(1);
+			output.writeBytes(new byte[20]);
+			output.writeByte(1);
+			assertEquals("[2 4, 4 8, 8 16, 16 32]", events.toString());
+
+			events.clear();
+			ByteBufferOutput byteBufferOutput = new ByteBufferOutput(2, -1);
+			byteBufferOutput.writeInt(1);
+			assertEquals("[2 4]", events.toString());
+		} finally {
+			Output.setOutputListener(null);
+		}
+	}
+
+	public void testGeneratedFieldSerializer () {
+		kryo.setDefaultSerializer(GeneratedFieldSerializer.class);
+		kryo.register(Outer.class);
+		kryo.register(Inner.class);
+		Outer outer = new Outer();
+		outer.inner = new Inner();
+		outer.name = "abc";
+		Output output = new Output(512);
+		// Write once without a listener, so the generated code is replaced when one is set.
+		kryo.writeObject(output, outer);
+		Recorder recorder = new Recorder();
+		kryo.setSerializationListener(recorder);
+		output.clear();
+		kryo.writeObject(output, outer);
+		assertEquals("[write start Outer 1, write start Inner 2, write end Inner 2 1, write end Outer 1 5]",
+			recorder.events.toString());
+		kryo.setSerializationListener(null);
+		roundTrip(6, 9, outer);
+	}
+
+	public void testStatistics () {
+		kryo.register(Outer.class);
+		kryo.register(Inner.class);
+		SerializationStatistics statistics = new SerializationStatistics();
+		kryo.setSerializationListener(statistics);
+
+		Outer outer = new Outer();
+		outer.inner = new Inner();
+		outer.name = "abc";
+		Output output = new Output(512);
+		for (int i = 0; i < 3; i++)
+			kryo.writeObject(output, outer);
+		Input input = new Input(output.toBytes());
+		kryo.readObject(input, Outer.class);
+
+		Statistics outerStatistics = statistics.getStatistics(Outer.class);
+		assertEquals(kryo.getRegistration(Outer.class).getId(), outerStatistics.getId());
+		assertEquals(3, outerStatistics.getWriteCount());
+		assertEquals(15, outerStatistics.getWriteBytes());
+		assertEquals(1, outerStatistics.getReadCount());
+		assertEquals(5, outerStatistics.getReadBytes());
+		assertEquals(3, statistics.getStatistics(Inner.class).getWriteCount());
+		assertEquals(2, statistics.getStatistics().size());
+		assertEquals(Outer.class, statistics.getStatistics().get(0).getType());
+
+		// Unregistered classes are counted by class.
+		kryo.setRegistrationRequired(false);
+		output.clear();
+		kryo.writeClassAndObject(output, new Unregistered());
+		assertTrue(statistics.getStatistics(Unregistered.class).getId() < 0);
+		assertEquals(1, statistics.getStatistics(Unregistered.class).getWriteCount());
+
+		// Only root objects.
+		statistics.clear();
+		statistics.setMaxDepth(1);
+		output.clear();
+		kryo.writeObject(output, outer);
+		assertEquals(1, statistics.getStatistics(Outer.class).getWriteCount());
+		assertNull(statistics.getStatistics(Inner.class));
+	}
+
+	public void testStatisticsThreads () throws Exception {
+		final SerializationStatistics statistics = new SerializationStatistics();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run () {
+					Kryo kryo = new Kryo();
+					kryo.register(Inner.class);
+					kryo.setSerializationListener(statistics);
+					Output output = new Output(16);
+					for (int i = 0; i < 1000; i++) {
+						output.clear();
+						kryo.writeObject(output, new Inner());
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(4000, statistics.getStatistics(Inner.class).getWriteCount());
+		assertEquals(4000, statistics.getStatistics(Inner.class).getWriteBytes());
+		assertEquals(0, statistics.getStatistics(Inner.class).getReadCount());
+	}
+
+	static class Recorder implements SerializationListener {
+		final ArrayList<String> events = new ArrayList();
+
+		public void onWriteStart (Kryo kryo, Class type, Registration registration, int depth) {
+			assertEquals(type, registration.getType());
+			events.add("write start " + type.getSimpleName() + " " + depth);
+		}
+
+		public void onWriteEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+			assertTrue(nanos >= 0);
+			events.add("write end " + type.getSimpleName() + " " + depth + " " + bytes);
+		}
+
+		public void onReadStart (Kryo kryo, Class type, Registration registration, int depth) {
+			assertEquals(type, registration.getType());
+			events.add("read start " + type.getSimpleName() + " " + depth);
+		}
+
+		public void onReadEnd (Kryo kryo, Class type, Registration registration, int depth, long bytes, long nanos) {
+			assertTrue(nanos >= 0);
+			events.add("read end " + type.getSimpleName() + " " + depth + " " + bytes);
+		}
+
+		public void onWriteClassName (Kryo kryo, Class type) {
+			events.add("class name " + type.getSimpleName());
+		}
+
+		public void onRebuildCachedFields (Kryo kryo, Class type, int fieldCount, long nanos) {
+			events.add("rebuild " + type.getSimpleName() + " " + fieldCount);
+		}
+	}
+
+	static public class Outer {
+		public Inner inner;
+		public String name;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Outer)) return false;
+			Outer other = (Outer)obj;
+			if (inner == null ? other.inner != null : !inner.equals(other.inner)) return false;
+			return name == null ? other.name == null : name.equals(other.name);
+		}
+	}
+
+	static public class Inner {
+		public int value;
+
+		public boolean equals (Object obj) {
+			return obj instanceof Inner && ((Inner)obj).value == value;
+		}
+	}
+
+	static public class Unregistered {
+		public int value;
+	}
+}
@@ -0,0 +1,223 @@
+package com.esotericsoftware.kryo;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeMap;
+
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.io.UnsafeInput;
+import com.esotericsoftware.kryo.io.UnsafeOutput;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer;
+import com.esotericsoftware.kryo.serializers.TaggedFieldSerializer.Tag;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class SkipTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kryo.register(Data.class);
+		kryo.register(Inner.class);
+		kryo.register(ArrayList.class);
+		kryo.register(HashMap.class);
+		kryo.register(TreeMap.class);
+		kryo.register(int[].class);
+		kryo.register(long[].class);
+		kryo.register(double[].class);
+		kryo.register(String[].class);
+		kryo.register(Object[].class);
+		kryo.register(Inner[].class);
+	}
+
+	public void testSkipString () {
+		StringBuilder longUnicode = new StringBuilder();
+		for (int i = 0; i < 200; i++)
+			longUnicode.append((char)(i * 300));
+		String[] values = {null, "", "a", "abc", "été", "中文", longUnicode.toString()};
+		Output output = new Output(4096);
+		for (String value : values)
+			output.writeString(value);
+		output.writeAscii("ascii");
+		output.writeString("end");
+		byte[] bytes = output.toBytes();
+
+		Input[] inputs = {new Input(bytes), new Input(new ByteArrayInputStream(bytes), 16), new ByteBufferInput(bytes)};
+		for (Input input : inputs) {
+			for (int i = 0; i <= values.length; i++)
+				input.skipString();
+			assertEquals("end", input.readString());
+		}
+	}
+
+	public void testSkipFields () {
+		assertSkipped(newData(), Data.class);
+		assertSkipped(new Data(), Data.class);
+
+		kryo.register(Tagged.class, new TaggedFieldSerializer(kryo, Tagged.class));
+		Tagged tagged = new Tagged();
+		tagged.text = "tagged";
+		tagged.inner = newInner(3);
+		assertSkipped(tagged, Tagged.class);
+	}
+
+	public void testSkipFixedLengthInts () {
+		kryo.register(Data.class, new FieldSerializer(kryo, Data.class));
+		// The unsafe streams write ints with a fixed length by default.
+		Output output = new UnsafeOutput(4096);
+		kryo.writeObject(output, newData());
+		kryo.writeObject(output, "end");
+		Input input = new UnsafeInput(output.toBytes());
+		kryo.skipObject(input, Data.class);
+		assertEquals("end", kryo.readObject(input, String.class));
+	}
+
+	public void testSkipCollectionsAndArrays () {
+		ArrayList list = new ArrayList(Arrays.asList("a", 1, null, newInner(1)));
+		assertSkipped(list, ArrayList.class);
+		HashMap map = new HashMap();
+		map.put("a", newInner(2));
+		map.put(3, null);
+		assertSkipped(map, HashMap.class);
+		TreeMap treeMap = new TreeMap();
+		treeMap.put("b", 1);
+		assertSkipped(treeMap, TreeMap.class);
+		assertSkipped(new int[] {1, -1, 1000000}, int[].class);
+		assertSkipped(new long[] {1, -1, Long.MAX_VALUE}, long[].class);
+		assertSkipped(new double[] {1.5, 2.5}, double[].class);
+		assertSkipped(new String[] {"a", null, "é"}, String[].class);
+		assertSkipped(new Object[] {"a", null, newInner(4)}, Object[].class);
+		assertSkipped(new Inner[] {newInner(5), null}, Inner[].class);
+	}
+
+	public void testSkipWithReferences () {
+		kryo.setReferences(true);
+		assertSkipped(newData(), Data.class);
+		assertSkipped(new String[] {"a", "a"}, String[].class);
+
+		Inner shared = newInner(1);
+		Inner other = newInner(2);
+		kryo.setAutoReset(false);
+		Output output = new Output(4096);
+		kryo.writeClassAndObject(output, shared);
+		kryo.writeClassAndObject(output, new ArrayList(Arrays.asList(shared, other, other)));
+		Input input = new Input(output.toBytes());
+		kryo.skipClassAndObject(input);
+		ArrayList list = (ArrayList)kryo.readClassAndObject(input);
+		// A reference to a skipped object is null, later references are resolved.
+		assertNull(list.get(0));
+		assertEquals(2, ((Inner)list.get(1)).value);
+		assertSame(list.get(1), list.get(2));
+	}
+
+	public void testSkipUnregisteredClass () {
+		kryo.setRegistrationRequired(false);
+		kryo.setAutoReset(false);
+		Output output = new Output(4096);
+		kryo.writeClassAndObject(output, new Unregistered(1));
+		kryo.writeClassAndObject(output, new Unregistered(2));
+		Input input = new Input(output.toBytes());
+		kryo.skipClassAndObject(input);
+		// The class name is only written for the first object.
+		assertEquals(2, ((Unregistered)kryo.readClassAndObject(input)).value);
+	}
+
+	public void testSkipCompatible () {
+		kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
+		kryo.register(Data.class);
+		kryo.register(Inner.class);
+		kryo.setAutoReset(false);
+		Output output = new Output(4096);
+		kryo.writeObject(output, newData());
+		kryo.writeObject(output, newData());
+		Input input = new Input(output.toBytes());
+		// The headers are read by the skipped object.
+		kryo.skipObject(input, Data.class);
+		Data data = kryo.readObject(input, Data.class);
+		assertEquals(newData().text, data.text);
+		assertEquals(newData().inner.value, data.inner.value);
+		assertEquals(output.position(), input.position());
+	}
+
+	/** Writes the object followed by a string, skips the object and checks the string is read. */
+	private void assertSkipped (Object object, Class type) {
+		Output output = new Output(4096);
+		kryo.writeObjectOrNull(output, object, type);
+		kryo.writeObject(output, "end");
+		Input input = new Input(output.toBytes());
+		kryo.skipObjectOrNull(input, type);
+		assertEquals("end", kryo.readObject(input, String.class));
+
+		output = new Output(4096);
+		kryo.writeObjectOrNull(output, null, type);
+		kryo.writeObject(output, "end");
+		input = new Input(output.toBytes());
+		kryo.skipObjectOrNull(input, type);
+		assertEquals("end", kryo.readObject(input, String.class));
+	}
+
+	private Data newData () {
+		Data data = new Data();
+		data.i = -5;
+		data.l = 1L << 40;
+		data.f = 1.5f;
+		data.d = 2.5;
+		data.s = 3;
+		data.c = 'é';
+		data.b = 7;
+		data.z = true;
+		data.text = "text 中";
+		data.inner = newInner(9);
+		data.list = new ArrayList(Arrays.asList("x", newInner(10)));
+		data.ints = new int[] {1, 2, 3};
+		data.object = newInner(11);
+		return data;
+	}
+
+	private Inner newInner (int value) {
+		Inner inner = new Inner();
+		inner.value = value;
+		inner.name = "inner" + value;
+		return inner;
+	}
+
+	static public class Data {
+		public int i;
+		public long l;
+		public float f;
+		public double d;
+		public short s;
+		public char c;
+		public byte b;
+		public boolean z;
+		public String text;
+		public Inner inner;
+		public ArrayList list;
+		public int[] ints;
+		public Object object;
+	}
+
+	static public final class Inner {
+		public int value;
+		public String name;
+	}
+
+	static public class Tagged {
+		@Tag(1) public String text;
+		@Tag(2) public Inner inner;
+	}
+
+	static public class Unregistered {
+		public int value;
+
+		public Unregistered () {
+		}
+
+		public Unregistered (int value) {
+			this.value = value;
+		}
+	}
+}
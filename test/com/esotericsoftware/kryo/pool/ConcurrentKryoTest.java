@@ -0,0 +1,90 @@
+package com.esotericsoftware.kryo.pool;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class ConcurrentKryoTest extends TestCase {
+	private final KryoFactory factory = new KryoFactory() {
+		public Kryo create () {
+			Kryo kryo = new Kryo();
+			kryo.register(ArrayList.class);
+			return kryo;
+		}
+	};
+
+	public void testStripeCount () {
+		assertEquals(4, new ConcurrentKryo(factory, 3, 16, -1).getStripeCount());
+		assertEquals(1, new ConcurrentKryo(factory, 1, 16, -1).getStripeCount());
+	}
+
+	public void testRoundTrip () {
+		ConcurrentKryo kryo = new ConcurrentKryo(factory, 2, 16, -1);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 100; i++)
+			list.add("value" + i);
+		assertEquals(list, kryo.readObject(kryo.writeObject(list), ArrayList.class));
+		assertEquals(list, kryo.readClassAndObject(kryo.writeClassAndObject(list)));
+		assertNull(kryo.readClassAndObject(kryo.writeClassAndObject(null)));
+		assertEquals(list, kryo.copy(list));
+	}
+
+	public void testConcurrentUse () throws Exception {
+		final ConcurrentKryo kryo = new ConcurrentKryo(factory, 2, 16, -1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		ArrayList<Future<Object>> futures = new ArrayList();
+		for (int i = 0; i < 1000; i++) {
+			final ArrayList list = new ArrayList();
+			list.add(i);
+			list.add(list); // Cyclic, needs references to be reset between calls.
+			futures.add(executor.submit(new Callable<Object>() {
+				public Object call () {
+					return kryo.readClassAndObject(kryo.writeClassAndObject(list));
+				}
+			}));
+		}
+		for (int i = 0; i < 1000; i++) {
+			ArrayList list = (ArrayList)futures.get(i).get();
+			assertEquals(i, list.get(0));
+			assertSame(list, list.get(1));
+		}
+		executor.shutdown();
+	}
+
+	public void testStripesBounded () throws Exception {
+		final AtomicInteger created = new AtomicInteger();
+		final ConcurrentKryo kryo = new ConcurrentKryo(new KryoFactory() {
+			public Kryo create () {
+				created.incrementAndGet();
+				return factory.create();
+			}
+		}, 2, 16, -1);
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		ArrayList<Future<Object>> futures = new ArrayList();
+		for (int i = 0; i < 1000; i++) {
+			final Integer value = i;
+			futures.add(executor.submit(new Callable<Object>() {
+				public Object call () {
+					return kryo.run(new KryoCallback<Object>() {
+						public Object execute (Kryo kryo) {
+							Thread.yield(); // Hold the stripe so other threads find them all taken.
+							return kryo.copy(value);
+						}
+					});
+				}
+			}));
+		}
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i, futures.get(i).get());
+		executor.shutdown();
+		assertTrue(created.get() <= 2);
+	}
+}
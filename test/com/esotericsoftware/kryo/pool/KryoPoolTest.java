@@ -0,0 +1,98 @@
+package com.esotericsoftware.kryo.pool;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class KryoPoolTest extends TestCase {
+	private int created;
+
+	private final KryoFactory factory = new KryoFactory() {
+		public Kryo create () {
+			synchronized (KryoPoolTest.this) {
+				created++;
+			}
+			Kryo kryo = new Kryo();
+			kryo.register(ArrayList.class);
+			return kryo;
+		}
+	};
+
+	public void testBorrowReleaseReusesInstance () {
+		KryoPool pool = new KryoPool.Builder(factory).build();
+		assertEquals(0, pool.size());
+		Kryo kryo = pool.borrow();
+		assertEquals(1, created);
+		pool.release(kryo);
+		assertEquals(1, pool.size());
+		assertSame(kryo, pool.borrow());
+		assertEquals(0, pool.size());
+		assertEquals(1, created);
+	}
+
+	public void testSoftReferences () {
+		KryoPool pool = new KryoPool.Builder(factory).softReferences().build();
+		Kryo kryo = pool.borrow();
+		pool.release(kryo);
+		assertEquals(1, pool.size());
+		assertSame(kryo, pool.borrow());
+		pool.release(kryo);
+		pool.clear();
+		assertEquals(0, pool.size());
+		assertNotSame(kryo, pool.borrow());
+	}
+
+	public void testMaximumSize () {
+		KryoPool pool = new KryoPool.Builder(factory).maximumSize(1).build();
+		Kryo kryo1 = pool.borrow();
+		Kryo kryo2 = pool.borrow();
+		pool.release(kryo1);
+		pool.release(kryo2);
+		assertEquals(1, pool.size());
+		assertSame(kryo1, pool.borrow());
+	}
+
+	public void testBoundedQueue () {
+		KryoPool pool = new KryoPool.Builder(factory).queue(new ArrayBlockingQueue(1)).build();
+		pool.release(pool.borrow());
+		pool.release(new Kryo());
+		assertEquals(1, pool.size());
+	}
+
+	public void testRun () throws Exception {
+		final KryoPool pool = new KryoPool.Builder(factory).build();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		ArrayList<Future<ArrayList>> futures = new ArrayList();
+		for (int i = 0; i < 100; i++) {
+			final int value = i;
+			futures.add(executor.submit(new Callable<ArrayList>() {
+				public ArrayList call () {
+					return pool.run(new KryoCallback<ArrayList>() {
+						public ArrayList execute (Kryo kryo) {
+							ArrayList list = new ArrayList();
+							list.add(value);
+							Output output = new Output(64);
+							kryo.writeObject(output, list);
+							return kryo.readObject(new Input(output.toBytes()), ArrayList.class);
+						}
+					});
+				}
+			}));
+		}
+		for (int i = 0; i < 100; i++)
+			assertEquals(i, futures.get(i).get().get(0));
+		executor.shutdown();
+		assertTrue(created <= 4);
+		assertEquals(created, pool.size());
+	}
+}
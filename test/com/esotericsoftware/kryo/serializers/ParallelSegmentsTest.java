@@ -0,0 +1,166 @@
+package com.esotericsoftware.kryo.serializers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoFactory;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+/** @author Roman Levenstein <romixlev@gmail.com> */
+public class ParallelSegmentsTest extends TestCase {
+	private ExecutorService executor;
+	private ParallelSegments parallel;
+
+	private final KryoFactory factory = new KryoFactory() {
+		public Kryo create () {
+			Kryo kryo = new Kryo();
+			kryo.setReferences(false);
+			kryo.setRegistrationRequired(true);
+			return kryo;
+		}
+	};
+
+	protected void setUp () throws Exception {
+		executor = Executors.newFixedThreadPool(4);
+		parallel = new ParallelSegments(executor, new KryoPool.Builder(factory).build(), 100);
+	}
+
+	protected void tearDown () throws Exception {
+		executor.shutdownNow();
+	}
+
+	public void testCollection () {
+		Kryo kryo = factory.create();
+		CollectionSerializer serializer = new CollectionSerializer();
+		serializer.setParallel(parallel);
+		kryo.register(ArrayList.class, serializer);
+		kryo.register(LinkedHashSet.class, serializer);
+
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 1234; i++)
+			list.add(i % 3 == 0 ? null : i % 3 == 1 ? (Object)("s" + i) : (Object)i);
+		assertEquals(list, roundTrip(kryo, list));
+		assertEquals(new ArrayList(), roundTrip(kryo, new ArrayList()));
+		assertEquals(new ArrayList(list.subList(0, 50)), roundTrip(kryo, new ArrayList(list.subList(0, 50))));
+
+		LinkedHashSet set = new LinkedHashSet();
+		for (int i = 0; i < 1000; i++)
+			set.add("value" + i);
+		serializer.setElementClass(String.class, kryo.getSerializer(String.class));
+		serializer.setElementsCanBeNull(false);
+		LinkedHashSet result = roundTrip(kryo, set);
+		assertEquals(new ArrayList(set), new ArrayList(result));
+	}
+
+	public void testMap () {
+		Kryo kryo = factory.create();
+		MapSerializer serializer = new MapSerializer();
+		serializer.setParallel(parallel);
+		kryo.register(HashMap.class, serializer);
+
+		HashMap map = new HashMap();
+		for (int i = 0; i < 1001; i++)
+			map.put(i, i % 7 == 0 ? null : "value" + i);
+		assertEquals(map, roundTrip(kryo, map));
+
+		serializer.setKeyClass(Integer.class, kryo.getSerializer(Integer.class));
+		serializer.setKeysCanBeNull(false);
+		serializer.setValueClass(String.class, kryo.getSerializer(String.class));
+		assertEquals(map, roundTrip(kryo, map));
+	}
+
+	public void testObjectArray () {
+		Kryo kryo = factory.create();
+		DefaultArraySerializers.ObjectArraySerializer serializer = new DefaultArraySerializers.ObjectArraySerializer(kryo,
+			String[].class);
+		serializer.setParallel(parallel);
+		kryo.register(String[].class, serializer);
+		kryo.register(Object[].class);
+
+		String[] array = new String[777];
+		for (int i = 0; i < array.length; i++)
+			if (i % 5 != 0) array[i] = "s" + i;
+		assertTrue(Arrays.equals(array, roundTrip(kryo, array)));
+		assertTrue(Arrays.equals(new String[0], roundTrip(kryo, new String[0])));
+	}
+
+	public void testMatchesSingleThreadedOutput () {
+		Kryo kryo = factory.create();
+		CollectionSerializer serializer = new CollectionSerializer();
+		serializer.setParallel(parallel);
+		kryo.register(ArrayList.class, serializer);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 1000; i++)
+			list.add(i);
+
+		ExecutorService single = Executors.newSingleThreadExecutor();
+		try {
+			Kryo sequential = factory.create();
+			CollectionSerializer sequentialSerializer = new CollectionSerializer();
+			sequentialSerializer.setParallel(new ParallelSegments(single, new KryoPool.Builder(factory).build(), 100));
+			sequential.register(ArrayList.class, sequentialSerializer);
+			assertTrue(Arrays.equals(write(sequential, list), write(kryo, list)));
+		} finally {
+			single.shutdownNow();
+		}
+	}
+
+	public void testNested () throws Exception {
+		// The pooled Kryo instances use the parallel serializer too, so each inner list is written in parallel by a pool thread.
+		final ExecutorService small = Executors.newFixedThreadPool(2);
+		final ParallelSegments[] nested = new ParallelSegments[1];
+		final KryoFactory nestedFactory = new KryoFactory() {
+			public Kryo create () {
+				Kryo kryo = factory.create();
+				CollectionSerializer serializer = new CollectionSerializer();
+				serializer.setParallel(nested[0]);
+				kryo.register(ArrayList.class, serializer);
+				return kryo;
+			}
+		};
+		nested[0] = new ParallelSegments(small, new KryoPool.Builder(nestedFactory).build(), 10);
+		try {
+			final ArrayList outer = new ArrayList();
+			for (int i = 0; i < 100; i++) {
+				ArrayList inner = new ArrayList();
+				for (int ii = 0; ii < 35; ii++)
+					inner.add(i * 100 + ii);
+				outer.add(inner);
+			}
+			final Object[] result = new Object[1];
+			Thread thread = new Thread() {
+				public void run () {
+					result[0] = roundTrip(nestedFactory.create(), outer);
+				}
+			};
+			thread.start();
+			thread.join(30000);
+			assertFalse("Deadlock.", thread.isAlive());
+			assertEquals(outer, result[0]);
+		} finally {
+			small.shutdownNow();
+		}
+	}
+
+	private byte[] write (Kryo kryo, Object object) {
+		Output output = new Output(1024, -1);
+		kryo.writeObject(output, object);
+		return output.toBytes();
+	}
+
+	private <T> T roundTrip (Kryo kryo, T object) {
+		Input input = new Input(write(kryo, object));
+		T result = (T)kryo.readObject(input, object.getClass());
+		assertEquals(0, input.limit() - input.position());
+		return result;
+	}
+}